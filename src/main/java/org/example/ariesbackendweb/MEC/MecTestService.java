@@ -8,7 +8,6 @@ import org.example.ariesbackendweb.MEC.entities.MecProgram;
 import org.example.ariesbackendweb.MEC.entities.MecTest;
 import org.example.ariesbackendweb.MEC.mappers.MecTestMapper;
 import org.example.ariesbackendweb.common.api.AgentService;
-import org.example.ariesbackendweb.common.api.AgentWsService;
 import org.example.ariesbackendweb.common.file.FileSystemStorageService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mock.web.MockMultipartFile;
@@ -44,8 +43,6 @@ public class MecTestService {
     @Autowired
     AgentService agentService;
     @Autowired
-    AgentWsService agentWsService;
-    @Autowired
     MecTestMapper mecTestMapper;
 
     @Transactional
@@ -111,10 +108,8 @@ public class MecTestService {
 
             String logFileName = String.format("tests_logs/%s_%s.txt", timestamp, safeProgramCode);
 
-            // on connecte sur les voies ws
-            agentWsService.connect(test.getId().toString(), logFileName);
-            // on lance le test
-            agentService.launchMecTestAgent(launchAgentTestDto);
+            // on lance le test (l'agent choisi ouvre aussi les voies ws)
+            agentService.launchMecTestAgent(launchAgentTestDto, logFileName);
 
         } catch (IOException | ExecutionException | InterruptedException e) {
             throw new RuntimeException(e);
@@ -2,18 +2,36 @@ package org.example.ariesbackendweb.MWS;
 
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.dtos.MwsTestBatchSubmissionResponse;
+import org.example.ariesbackendweb.MWS.dtos.MwsTestHistoryPage;
 import org.example.ariesbackendweb.MWS.dtos.MwsTestResultResponse;
 import org.example.ariesbackendweb.MWS.dtos.MwsTestStatusResponse;
 import org.example.ariesbackendweb.MWS.dtos.MwsTestSubmissionRequest;
 import org.example.ariesbackendweb.MWS.dtos.MwsTestSubmissionResponse;
+import org.example.ariesbackendweb.MWS.dtos.agent.MwsAgentTestResult;
+import org.example.ariesbackendweb.MWS.entities.MwsTestStatus;
+import org.example.ariesbackendweb.MWS.events.MwsTestEventBroadcaster;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPOutputStream;
 
 
 /**
@@ -26,9 +44,11 @@ import java.util.UUID;
  *
  * Architecture du flux utilisateur :
  * 1. POST /api/mws/tests - Soumettre un nouveau test
+ *    (ou POST /api/mws/tests/batch pour soumettre un lot de tests)
  * 2. GET /api/mws/tests/{id}/status - Suivre l'avancement (optionnel, WebSocket préféré)
+ *    (ou GET /api/mws/tests/events pour suivre tous les tests d'un programme ou d'un lot)
  * 3. GET /api/mws/tests/{id} - Récupérer les résultats complets
- * 4. GET /api/mws/tests/my-tests - Lister l'historique de ses tests
+ * 4. GET /api/mws/tests - Parcourir l'historique des tests (filtres, pagination par curseur)
  */
 @Controller
 @RequestMapping("/mws/tests")
@@ -38,6 +58,9 @@ public class MWSTestController {
     @Autowired
     private MwsTestService testService;
 
+    @Autowired
+    private MwsTestEventBroadcaster eventBroadcaster;
+
     /**
      * Soumet un nouveau test MWS pour exécution.
      *
@@ -62,18 +85,29 @@ public class MWSTestController {
      *   "timeoutMillis": 60000
      * }
      *
+     * Pour un tir de charge, ajouter un objet "loadTest" :
+     * { "iterations": 1000, "concurrency": 20, "warmupIterations": 50 }
+     * La requête est alors exécutée N fois et seule une synthèse des
+     * latences (percentiles, débit) est conservée.
+     *
+     * Un en-tête Idempotency-Key rend la soumission rejouable sans risque :
+     * une nouvelle soumission avec la même clé retourne le test déjà créé
+     * (reused=true). Le champ optionnel "reuseWindowSeconds" permet en outre
+     * de réutiliser un test identique soumis récemment.
+     *
      * @param request Les paramètres du test à exécuter
      * @return Une réponse contenant l'UUID du test soumis
      */
     @PostMapping
     public ResponseEntity<MwsTestSubmissionResponse> submitTest(
-            @Valid @RequestBody MwsTestSubmissionRequest request) {
+            @Valid @RequestBody MwsTestSubmissionRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
 
         log.info("Requête de soumission de test reçue pour le programme {} / {}",
                 request.getProgramId(), request.getOperationName());
 
         try {
-            MwsTestSubmissionResponse response = testService.submitTest(request);
+            MwsTestSubmissionResponse response = testService.submitTest(request, idempotencyKey);
 
             log.info("Test soumis avec succès: {}", response.getTestId());
 
@@ -81,11 +115,37 @@ public class MWSTestController {
             // mais le traitement n'est pas terminé
             return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
 
+        } catch (DataIntegrityViolationException e) {
+            // Deux soumissions simultanées avec la même clé : la seconde retourne le test de la première
+            if (idempotencyKey != null) {
+                try {
+                    Optional<MwsTestSubmissionResponse> existing =
+                            testService.findByIdempotencyKey(idempotencyKey, testService.computeRequestHash(request));
+                    if (existing.isPresent()) {
+                        return ResponseEntity.status(HttpStatus.ACCEPTED).body(existing.get());
+                    }
+                } catch (MwsIdempotencyConflictException conflict) {
+                    return idempotencyConflict(conflict);
+                }
+            }
+            log.error("Erreur technique lors de la soumission du test", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+
+        } catch (MwsIdempotencyConflictException e) {
+            return idempotencyConflict(e);
+
         } catch (IllegalArgumentException e) {
             // Erreur de validation métier (programme inexistant, etc.)
             log.error("Erreur de validation lors de la soumission du test", e);
             return ResponseEntity.badRequest().build();
 
+        } catch (RejectedExecutionException e) {
+            // File d'exécution pleine : le client peut réessayer plus tard
+            log.warn("Soumission refusée: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("X-Error-Message", e.getMessage())
+                    .build();
+
         } catch (Exception e) {
             // Erreur technique inattendue
             log.error("Erreur technique lors de la soumission du test", e);
@@ -93,6 +153,111 @@ public class MWSTestController {
         }
     }
 
+    /**
+     * Soumet un lot de tests MWS pour exécution.
+     *
+     * POST /api/mws/tests/batch
+     *
+     * Destiné aux campagnes de régression de plusieurs centaines d'opérations :
+     * le body est une liste de demandes au même format que POST /api/mws/tests.
+     * Tous les tests sont créés dans une seule transaction et placés ensemble
+     * dans la file d'exécution. Le lot est atomique : une seule demande invalide
+     * entraîne le rejet de tout le lot avec un code 400.
+     *
+     * @param requests Les paramètres des tests à exécuter
+     * @return L'identifiant du lot et les UUID des tests soumis
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<MwsTestBatchSubmissionResponse> submitBatch(
+            @Valid @RequestBody List<MwsTestSubmissionRequest> requests) {
+
+        log.info("Requête de soumission d'un lot de {} test(s) reçue", requests.size());
+
+        try {
+            MwsTestBatchSubmissionResponse response = testService.submitBatch(requests);
+
+            log.info("Lot soumis avec succès: {} ({} test(s))", response.getBatchId(), response.getCount());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+
+        } catch (IllegalArgumentException e) {
+            log.error("Erreur de validation lors de la soumission du lot", e);
+            return ResponseEntity.badRequest()
+                    .header("X-Error-Message", e.getMessage())
+                    .build();
+
+        } catch (RejectedExecutionException e) {
+            log.warn("Lot refusé: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("X-Error-Message", e.getMessage())
+                    .build();
+
+        } catch (Exception e) {
+            log.error("Erreur technique lors de la soumission du lot", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Reçoit le résultat d'un test exécuté par l'agent en mode asynchrone.
+     *
+     * POST /api/mws/tests/{id}/callback
+     *
+     * Endpoint appelé par l'agent (et non par l'UI) lorsque agent.callback.enabled
+     * est actif : l'agent accepte le test avec un 202, l'exécute, puis POSTe ici
+     * le MwsAgentTestResult. Un callback rejoué pour un test déjà terminé est
+     * accepté sans effet, afin que l'agent ne le renvoie pas indéfiniment.
+     *
+     * @param id     L'UUID du test
+     * @param result Le résultat de l'exécution
+     * @return 204 No Content si le résultat est accepté, 404 si le test est inconnu
+     */
+    @PostMapping("/{id}/callback")
+    public ResponseEntity<Void> receiveAgentCallback(@PathVariable UUID id,
+                                                     @RequestBody MwsAgentTestResult result) {
+        log.info("Callback de l'agent reçu pour le test {}: {}", id, result.isSuccess() ? "SUCCESS" : "FAILED");
+
+        try {
+            testService.handleAgentCallback(id, result);
+            return ResponseEntity.noContent().build();
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Callback reçu pour un test inconnu: {}", id);
+            return ResponseEntity.notFound().build();
+
+        } catch (Exception e) {
+            log.error("Erreur lors du traitement du callback du test {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Ouvre un flux Server-Sent Events des transitions de statut des tests
+     * d'un programme et/ou d'un lot.
+     *
+     * GET /api/mws/tests/events?programId=...&batchId=...
+     *
+     * Une seule connexion remplace le polling de GET /{id}/status pour des
+     * centaines de tests. Chaque événement "status" contient l'UUID du test,
+     * son programme, son lot, son opération, le nouveau statut et l'horodatage.
+     *
+     * @param programId Le programme à suivre (optionnel)
+     * @param batchId   Le lot à suivre (optionnel, au moins un des deux filtres est requis)
+     * @return Le flux SSE (400 si aucun filtre n'est fourni)
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(
+            @RequestParam(required = false) UUID programId,
+            @RequestParam(required = false) UUID batchId) {
+        try {
+            return ResponseEntity.ok(eventBroadcaster.subscribe(programId, batchId));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .header("X-Error-Message", e.getMessage())
+                    .build();
+        }
+    }
+
     /**
      * Récupère le statut actuel d'un test.
      *
@@ -136,15 +301,22 @@ public class MWSTestController {
      * Si le test n'est pas encore terminé, l'endpoint retourne une
      * erreur 409 Conflict.
      *
-     * @param id L'UUID du test
+     * Avec ?includeBody=false, seules les métadonnées et la taille du corps
+     * de réponse (responseBodySize) sont retournées ; le corps se télécharge
+     * alors via GET /api/mws/tests/{id}/response.
+     *
+     * @param id          L'UUID du test
+     * @param includeBody false pour omettre les corps de requête et de réponse
      * @return Les résultats complets du test
      */
     @GetMapping("/{id}")
-    public ResponseEntity<MwsTestResultResponse> getTestResult(@PathVariable UUID id) {
+    public ResponseEntity<MwsTestResultResponse> getTestResult(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "true") boolean includeBody) {
         log.info("Requête de résultat pour le test: {}", id);
 
         try {
-            MwsTestResultResponse response = testService.getTestResult(id);
+            MwsTestResultResponse response = testService.getTestResult(id, includeBody);
             return ResponseEntity.ok(response);
 
         } catch (IllegalArgumentException e) {
@@ -164,6 +336,123 @@ public class MWSTestController {
         }
     }
 
+    /**
+     * Télécharge le corps de réponse SOAP d'un test terminé.
+     *
+     * GET /api/mws/tests/{id}/response
+     *
+     * Le corps est lu en flux depuis la base et décompressé au fil de l'écriture :
+     * il n'est jamais chargé entièrement en mémoire, ce qui permet de servir des
+     * réponses LstXXX de plusieurs Mo. Si le client accepte gzip (Accept-Encoding),
+     * la réponse est compressée à la volée.
+     *
+     * @param id             L'UUID du test
+     * @param acceptEncoding L'en-tête Accept-Encoding du client
+     * @return Le XML de réponse (404 si le test est inconnu, 409 s'il n'est pas terminé)
+     */
+    @GetMapping("/{id}/response")
+    public ResponseEntity<StreamingResponseBody> downloadResponseBody(
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        log.info("Téléchargement du corps de réponse du test: {}", id);
+
+        try {
+            testService.ensureResponseBodyAvailable(id);
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Test non trouvé: {}", id);
+            return ResponseEntity.notFound().build();
+
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header("X-Error-Message", e.getMessage())
+                    .build();
+        }
+
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.APPLICATION_XML, StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + id + "-response.xml\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return builder.body(out -> {
+                try (GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192)) {
+                    testService.writeResponseBody(id, gzipOut);
+                }
+            });
+        }
+
+        return builder.body(out -> testService.writeResponseBody(id, out));
+    }
+
+    /**
+     * Clé d'idempotence déjà utilisée pour une autre demande : 409.
+     */
+    private static ResponseEntity<MwsTestSubmissionResponse> idempotencyConflict(MwsIdempotencyConflictException e) {
+        log.warn("Soumission refusée: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header("X-Error-Message", e.getMessage())
+                .build();
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String encoding : acceptEncoding.split(",")) {
+            String[] parts = encoding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").equalsIgnoreCase("q=0");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Liste l'historique des tests MWS, du plus récent au plus ancien.
+     *
+     * GET /api/mws/tests?programId=...&operationName=...&environment=...&status=...
+     *                   &scheduleId=...&from=...&to=...&cursor=...&limit=50
+     *
+     * Tous les filtres sont optionnels ; from/to (ISO 8601) bornent la date
+     * de création ; scheduleId restreint l'historique aux exécutions d'une
+     * planification (suivi de tendance d'une sonde). La pagination est par
+     * curseur : la réponse contient un nextCursor à repasser pour obtenir la
+     * page suivante. Les corps SOAP ne sont pas retournés (voir GET /api/mws/tests/{id}).
+     *
+     * @return Une page d'historique (400 si le curseur est invalide)
+     */
+    @GetMapping
+    public ResponseEntity<MwsTestHistoryPage> listTests(
+            @RequestParam(required = false) UUID programId,
+            @RequestParam(required = false) String operationName,
+            @RequestParam(required = false) String environment,
+            @RequestParam(required = false) MwsTestStatus status,
+            @RequestParam(required = false) UUID scheduleId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+
+        try {
+            MwsTestHistoryPage page = testService.listTests(programId, operationName, environment,
+                    status, scheduleId, from, to, cursor, limit);
+            return ResponseEntity.ok(page);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .header("X-Error-Message", e.getMessage())
+                    .build();
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la récupération de l'historique des tests", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Liste tous les tests de l'utilisateur connecté.
      *
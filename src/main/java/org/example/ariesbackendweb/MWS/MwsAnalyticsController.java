@@ -0,0 +1,70 @@
+package org.example.ariesbackendweb.MWS;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.dtos.MwsLatencyStatsResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Controller REST des statistiques d'exécution des opérations MWS.
+ */
+@Controller
+@RequestMapping("/mws/analytics")
+@Slf4j
+public class MwsAnalyticsController {
+
+    @Autowired
+    private MwsAnalyticsService analyticsService;
+
+    /**
+     * Retourne les statistiques de latence des opérations MWS sur une période.
+     *
+     * GET /api/mws/analytics/latency?programId=...&operationName=GetBasicData
+     *                               &environment=PROD&from=...&to=...&granularity=DAY
+     *
+     * Exemple : "quelle est la latence de CRS610MI/GetBasicData en PROD cette semaine ?"
+     * correspond à operationName=GetBasicData, environment=PROD, from/to bornant la
+     * semaine et granularity=TOTAL.
+     *
+     * @param from        Début de la plage, ISO 8601 (par défaut : il y a 7 jours)
+     * @param to          Fin de la plage, ISO 8601 (par défaut : maintenant)
+     * @param granularity HOUR, DAY ou TOTAL (par défaut HOUR)
+     * @return Une entrée par (programme, opération, environnement, période)
+     */
+    @GetMapping("/latency")
+    public ResponseEntity<List<MwsLatencyStatsResponse>> getLatencyStats(
+            @RequestParam(required = false) UUID programId,
+            @RequestParam(required = false) String operationName,
+            @RequestParam(required = false) String environment,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "HOUR") MwsAnalyticsService.Granularity granularity) {
+
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(7);
+
+        try {
+            return ResponseEntity.ok(analyticsService.getLatencyStats(
+                    programId, operationName, environment, start, end, granularity));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .header("X-Error-Message", e.getMessage())
+                    .build();
+
+        } catch (Exception e) {
+            log.error("Erreur lors du calcul des statistiques de latence", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.ariesbackendweb.MWS;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.dtos.MwsLatencyStatsResponse;
+import org.example.ariesbackendweb.MWS.entities.MwsLatencyRollup;
+import org.example.ariesbackendweb.MWS.metrics.LatencyHistogram;
+import org.example.ariesbackendweb.MWS.repositories.MwsLatencyRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Service de consultation des statistiques de latence des opérations MWS.
+ * <p>
+ * Les réponses sont calculées à partir des agrégats horaires de mws_latency_rollup :
+ * le coût d'une requête dépend du nombre de tranches de la période, et non du
+ * nombre de résultats de tests.
+ */
+@Service
+@Slf4j
+public class MwsAnalyticsService {
+
+    /**
+     * Granularité des statistiques retournées.
+     */
+    public enum Granularity {
+        HOUR, DAY, TOTAL
+    }
+
+    @Autowired
+    private MwsLatencyRollupRepository rollupRepository;
+
+    /**
+     * Calcule les statistiques de latence par opération et par période.
+     *
+     * @param programId     Le programme (optionnel)
+     * @param operationName L'opération (optionnelle)
+     * @param environment   L'environnement (optionnel)
+     * @param from          Début de la plage (inclus)
+     * @param to            Fin de la plage (exclue)
+     * @param granularity   Découpage de la plage
+     * @return Une entrée par (programme, opération, environnement, période)
+     * @throws IllegalArgumentException Si la plage est invalide
+     */
+    public List<MwsLatencyStatsResponse> getLatencyStats(UUID programId, String operationName, String environment,
+                                                         LocalDateTime from, LocalDateTime to,
+                                                         Granularity granularity) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("La date de début doit précéder la date de fin");
+        }
+
+        List<MwsLatencyRollup> buckets = rollupRepository.findBuckets(programId, operationName, environment,
+                from.truncatedTo(ChronoUnit.HOURS), to);
+
+        log.debug("{} tranche(s) de latence lues pour {} / {} / {}", buckets.size(),
+                programId, operationName, environment);
+
+        // Fusion des tranches horaires selon la granularité demandée
+        Map<List<Object>, Accumulator> groups = new LinkedHashMap<>();
+        for (MwsLatencyRollup bucket : buckets) {
+            LocalDateTime periodStart = switch (granularity) {
+                case HOUR -> bucket.getBucketStart();
+                case DAY -> bucket.getBucketStart().truncatedTo(ChronoUnit.DAYS);
+                case TOTAL -> null;
+            };
+
+            List<Object> key = new ArrayList<>(4);
+            key.add(bucket.getProgramId());
+            key.add(bucket.getOperationName());
+            key.add(bucket.getEnvironment());
+            key.add(periodStart);
+
+            groups.computeIfAbsent(key, k -> new Accumulator(bucket, periodStart)).add(bucket);
+        }
+
+        return groups.values().stream()
+                .map(Accumulator::toResponse)
+                .toList();
+    }
+
+    private static class Accumulator {
+        private final UUID programId;
+        private final String operationName;
+        private final String environment;
+        private final LocalDateTime periodStart;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private long successCount;
+
+        private Accumulator(MwsLatencyRollup first, LocalDateTime periodStart) {
+            this.programId = first.getProgramId();
+            this.operationName = first.getOperationName();
+            this.environment = first.getEnvironment();
+            this.periodStart = periodStart;
+        }
+
+        private void add(MwsLatencyRollup bucket) {
+            histogram.merge(LatencyHistogram.fromByteArray(bucket.getHistogram()));
+            successCount += bucket.getSuccessCount();
+        }
+
+        private MwsLatencyStatsResponse toResponse() {
+            MwsLatencyStatsResponse response = new MwsLatencyStatsResponse();
+            response.setProgramId(programId);
+            response.setOperationName(operationName);
+            response.setEnvironment(environment);
+            response.setPeriodStart(periodStart);
+
+            long count = histogram.getTotalCount();
+            response.setCount(count);
+            response.setSuccessCount(successCount);
+            if (count > 0) {
+                response.setSuccessRate((double) successCount / count);
+                response.setMeanMillis(histogram.getMean());
+                response.setMinMillis(histogram.getMin());
+                response.setP50Millis(histogram.getValueAtPercentile(50));
+                response.setP90Millis(histogram.getValueAtPercentile(90));
+                response.setP99Millis(histogram.getValueAtPercentile(99));
+                response.setMaxMillis(histogram.getMax());
+            }
+            return response;
+        }
+    }
+}
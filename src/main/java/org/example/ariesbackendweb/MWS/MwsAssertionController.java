@@ -0,0 +1,143 @@
+package org.example.ariesbackendweb.MWS;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.dtos.MwsAssertionRequest;
+import org.example.ariesbackendweb.MWS.dtos.MwsAssertionResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Controller REST pour les assertions sur les réponses d'une opération MWS.
+ *
+ * Le résultat des assertions d'un test est renvoyé avec son résultat :
+ * GET /api/mws/tests/{id}.
+ */
+@Controller
+@RequestMapping("/mws/program/{programId}/operations/{operationName}/assertions")
+@Slf4j
+public class MwsAssertionController {
+
+    @Autowired
+    private MwsAssertionService assertionService;
+
+    /**
+     * Liste les assertions d'une opération.
+     *
+     * GET /api/mws/program/{programId}/operations/{operationName}/assertions
+     *
+     * @return Les assertions, ou 404 si l'opération n'existe pas
+     */
+    @GetMapping
+    public ResponseEntity<List<MwsAssertionResponse>> listAssertions(@PathVariable UUID programId,
+                                                                     @PathVariable String operationName) {
+        try {
+            return ResponseEntity.ok(assertionService.listAssertions(programId, operationName));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la récupération des assertions de {}", operationName, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Ajoute une assertion à une opération.
+     *
+     * POST /api/mws/program/{programId}/operations/{operationName}/assertions
+     *
+     * Exemple de body JSON :
+     * {
+     *   "name": "Statut client actif",
+     *   "xpath": "//STAT",
+     *   "condition": "EQUALS",
+     *   "expectedValue": "20"
+     * }
+     *
+     * @return L'assertion créée (201), 404 si l'opération n'existe pas, 400 si l'assertion est invalide
+     */
+    @PostMapping
+    public ResponseEntity<MwsAssertionResponse> createAssertion(@PathVariable UUID programId,
+                                                                @PathVariable String operationName,
+                                                                @RequestBody MwsAssertionRequest request) {
+        if (!assertionService.existsOperation(programId, operationName)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(assertionService.createAssertion(programId, operationName, request));
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Assertion refusée: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .header("X-Error-Message", e.getMessage())
+                    .build();
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la création de l'assertion", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Modifie une assertion (remplacement complet).
+     *
+     * PUT /api/mws/program/{programId}/operations/{operationName}/assertions/{id}
+     *
+     * @return L'assertion modifiée, 404 si elle n'existe pas, 400 si elle est invalide
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<MwsAssertionResponse> updateAssertion(@PathVariable UUID programId,
+                                                                @PathVariable String operationName,
+                                                                @PathVariable Long id,
+                                                                @RequestBody MwsAssertionRequest request) {
+        if (!assertionService.existsAssertion(programId, operationName, id)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        try {
+            return ResponseEntity.ok(assertionService.updateAssertion(programId, operationName, id, request));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .header("X-Error-Message", e.getMessage())
+                    .build();
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la modification de l'assertion {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Supprime une assertion. Ses résultats déjà stockés sont conservés.
+     *
+     * DELETE /api/mws/program/{programId}/operations/{operationName}/assertions/{id}
+     *
+     * @return 204, ou 404 si l'assertion n'existe pas
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteAssertion(@PathVariable UUID programId,
+                                                @PathVariable String operationName,
+                                                @PathVariable Long id) {
+        try {
+            assertionService.deleteAssertion(programId, operationName, id);
+            return ResponseEntity.noContent().build();
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la suppression de l'assertion {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
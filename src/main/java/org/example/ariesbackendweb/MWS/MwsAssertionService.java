@@ -0,0 +1,161 @@
+package org.example.ariesbackendweb.MWS;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.assertions.MwsAssertionEngine;
+import org.example.ariesbackendweb.MWS.dtos.MwsAssertionRequest;
+import org.example.ariesbackendweb.MWS.dtos.MwsAssertionResponse;
+import org.example.ariesbackendweb.MWS.entities.MwsOperation;
+import org.example.ariesbackendweb.MWS.entities.MwsOperationAssertion;
+import org.example.ariesbackendweb.MWS.repositories.MwsOperationAssertionRepository;
+import org.example.ariesbackendweb.MWS.repositories.MwsOperationRepository;
+import org.example.ariesbackendweb.MWS.repositories.MwsProgramRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service de gestion des assertions sur les réponses des opérations MWS.
+ * <p>
+ * Les assertions sont évaluées par {@link MwsAssertionEngine} sur chaque
+ * résultat de test de l'opération ; chaque modification invalide les
+ * assertions compilées de l'opération après le commit.
+ */
+@Service
+@Slf4j
+public class MwsAssertionService {
+
+    @Autowired
+    private MwsOperationAssertionRepository assertionRepository;
+
+    @Autowired
+    private MwsOperationRepository operationRepository;
+
+    @Autowired
+    private MwsProgramRepository programRepository;
+
+    @Autowired
+    private MwsAssertionEngine assertionEngine;
+
+    /**
+     * @throws IllegalArgumentException Si l'opération n'existe pas
+     */
+    @Transactional(readOnly = true)
+    public List<MwsAssertionResponse> listAssertions(UUID programId, String operationName) {
+        findOperation(programId, operationName);
+        return assertionRepository.findByOperation(programId, operationName).stream()
+                .map(assertion -> toResponse(assertion, programId, operationName))
+                .toList();
+    }
+
+    public boolean existsOperation(UUID programId, String operationName) {
+        return programRepository.findById(programId)
+                .flatMap(program -> operationRepository.findByProgramAndOperationName(program, operationName))
+                .isPresent();
+    }
+
+    @Transactional(readOnly = true)
+    public boolean existsAssertion(UUID programId, String operationName, Long assertionId) {
+        return assertionRepository.findById(assertionId)
+                .map(MwsOperationAssertion::getOperation)
+                .filter(operation -> operation.getProgram().getId().equals(programId)
+                        && operation.getOperationName().equalsIgnoreCase(operationName))
+                .isPresent();
+    }
+
+    /**
+     * @throws IllegalArgumentException Si l'opération n'existe pas ou si l'assertion est invalide
+     */
+    @Transactional
+    public MwsAssertionResponse createAssertion(UUID programId, String operationName, MwsAssertionRequest request) {
+        MwsOperation operation = findOperation(programId, operationName);
+
+        MwsOperationAssertion assertion = new MwsOperationAssertion();
+        assertion.setOperation(operation);
+        applyRequest(assertion, request);
+        assertion = assertionRepository.save(assertion);
+
+        assertionEngine.invalidate(programId, operation.getOperationName());
+        log.info("Assertion {} créée sur {} ({} {})", assertion.getId(), operationName,
+                assertion.getXpath(), assertion.getCondition());
+
+        return toResponse(assertion, programId, operation.getOperationName());
+    }
+
+    /**
+     * @throws IllegalArgumentException Si l'assertion n'existe pas pour cette opération ou est invalide
+     */
+    @Transactional
+    public MwsAssertionResponse updateAssertion(UUID programId, String operationName, Long assertionId,
+                                                MwsAssertionRequest request) {
+        MwsOperationAssertion assertion = findAssertion(programId, operationName, assertionId);
+        applyRequest(assertion, request);
+
+        assertionEngine.invalidate(programId, assertion.getOperation().getOperationName());
+        log.info("Assertion {} modifiée", assertionId);
+
+        return toResponse(assertion, programId, assertion.getOperation().getOperationName());
+    }
+
+    /**
+     * Supprime une assertion. Ses résultats déjà stockés sont conservés.
+     *
+     * @throws IllegalArgumentException Si l'assertion n'existe pas pour cette opération
+     */
+    @Transactional
+    public void deleteAssertion(UUID programId, String operationName, Long assertionId) {
+        MwsOperationAssertion assertion = findAssertion(programId, operationName, assertionId);
+        String name = assertion.getOperation().getOperationName();
+        assertion.getOperation().getAssertions().remove(assertion);
+        assertionRepository.delete(assertion);
+
+        assertionEngine.invalidate(programId, name);
+        log.info("Assertion {} supprimée", assertionId);
+    }
+
+    private MwsOperation findOperation(UUID programId, String operationName) {
+        return programRepository.findById(programId)
+                .flatMap(program -> operationRepository.findByProgramAndOperationName(program, operationName))
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "L'opération '" + operationName + "' n'existe pas pour ce programme"));
+    }
+
+    private MwsOperationAssertion findAssertion(UUID programId, String operationName, Long assertionId) {
+        MwsOperation operation = findOperation(programId, operationName);
+        return assertionRepository.findById(assertionId)
+                .filter(assertion -> assertion.getOperation().getId().equals(operation.getId()))
+                .orElseThrow(() -> new IllegalArgumentException("Assertion non trouvée: " + assertionId));
+    }
+
+    /**
+     * Valide la demande et la reporte sur l'assertion.
+     */
+    private void applyRequest(MwsOperationAssertion assertion, MwsAssertionRequest request) {
+        if (request.getName() == null || request.getName().isBlank()) {
+            throw new IllegalArgumentException("Le nom de l'assertion est obligatoire");
+        }
+        assertionEngine.validate(request.getXpath(), request.getCondition(), request.getExpectedValue());
+
+        assertion.setName(request.getName().trim());
+        assertion.setXpath(request.getXpath().trim());
+        assertion.setCondition(request.getCondition());
+        assertion.setExpectedValue(request.getExpectedValue());
+        assertion.setEnabled(request.getEnabled() == null || request.getEnabled());
+    }
+
+    private MwsAssertionResponse toResponse(MwsOperationAssertion assertion, UUID programId, String operationName) {
+        MwsAssertionResponse response = new MwsAssertionResponse();
+        response.setId(assertion.getId());
+        response.setProgramId(programId.toString());
+        response.setOperationName(operationName);
+        response.setName(assertion.getName());
+        response.setXpath(assertion.getXpath());
+        response.setCondition(assertion.getCondition().name());
+        response.setExpectedValue(assertion.getExpectedValue());
+        response.setEnabled(assertion.isEnabled());
+        response.setCreatedAt(assertion.getCreatedAt());
+        return response;
+    }
+}
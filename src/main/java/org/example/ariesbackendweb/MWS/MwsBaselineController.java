@@ -0,0 +1,108 @@
+package org.example.ariesbackendweb.MWS;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.dtos.MwsBaselineRequest;
+import org.example.ariesbackendweb.MWS.dtos.MwsBaselineResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Controller REST pour les réponses de référence des opérations MWS.
+ *
+ * Le résultat de la comparaison d'un test à la référence (baselineMatch,
+ * baselineDiff) est renvoyé avec son résultat : GET /api/mws/tests/{id}.
+ */
+@Controller
+@RequestMapping("/mws/baselines")
+@Slf4j
+public class MwsBaselineController {
+
+    @Autowired
+    private MwsBaselineService baselineService;
+
+    /**
+     * Désigne le résultat d'un test comme référence de son opération dans son
+     * environnement (remplace la référence existante).
+     *
+     * POST /api/mws/baselines
+     *
+     * Exemple de body JSON :
+     * {
+     *   "testId": "550e8400-e29b-41d4-a716-446655440000",
+     *   "ignoredElements": ["Timestamp", "TransactionId"]
+     * }
+     *
+     * @return La référence (201), 404 si le test n'existe pas, 400 s'il ne peut pas servir de référence
+     */
+    @PostMapping
+    public ResponseEntity<MwsBaselineResponse> setBaseline(@RequestBody MwsBaselineRequest request) {
+        try {
+            if (!baselineService.existsTest(UUID.fromString(request.getTestId()))) {
+                return ResponseEntity.notFound().build();
+            }
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return ResponseEntity.badRequest()
+                    .header("X-Error-Message", "Identifiant de test invalide: " + request.getTestId())
+                    .build();
+        }
+
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(baselineService.setBaseline(request));
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Référence refusée: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .header("X-Error-Message", e.getMessage())
+                    .build();
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la désignation de la référence", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Liste les références.
+     *
+     * GET /api/mws/baselines?programId=...
+     */
+    @GetMapping
+    public ResponseEntity<List<MwsBaselineResponse>> listBaselines(
+            @RequestParam(required = false) UUID programId) {
+        try {
+            return ResponseEntity.ok(baselineService.listBaselines(programId));
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la récupération des références", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Supprime une référence. Les comparaisons déjà stockées sont conservées.
+     *
+     * DELETE /api/mws/baselines/{id}
+     *
+     * @return 204, ou 404 si la référence n'existe pas
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteBaseline(@PathVariable UUID id) {
+        try {
+            baselineService.deleteBaseline(id);
+            return ResponseEntity.noContent().build();
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la suppression de la référence {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
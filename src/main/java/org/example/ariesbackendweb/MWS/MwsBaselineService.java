@@ -0,0 +1,206 @@
+package org.example.ariesbackendweb.MWS;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.comparison.XmlStreamDiff;
+import org.example.ariesbackendweb.MWS.dtos.MwsBaselineRequest;
+import org.example.ariesbackendweb.MWS.dtos.MwsBaselineResponse;
+import org.example.ariesbackendweb.MWS.entities.MwsResponseBaseline;
+import org.example.ariesbackendweb.MWS.entities.MwsTestRequest;
+import org.example.ariesbackendweb.MWS.entities.MwsTestResult;
+import org.example.ariesbackendweb.MWS.entities.MwsTestStatus;
+import org.example.ariesbackendweb.MWS.repositories.MwsResponseBaselineRepository;
+import org.example.ariesbackendweb.MWS.repositories.MwsResponseBodyReader;
+import org.example.ariesbackendweb.MWS.repositories.MwsTestRepository;
+import org.example.ariesbackendweb.MWS.repositories.MwsTestResultRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Service de gestion des réponses de référence (golden responses).
+ * <p>
+ * Un résultat de test peut être désigné comme référence de son triplet
+ * (programme, opération, environnement). Chaque nouveau résultat de ce
+ * triplet est alors comparé à la référence par {@link XmlStreamDiff}, avant
+ * son écriture : l'indicateur de conformité et la synthèse des différences
+ * sont stockés avec le résultat.
+ */
+@Service
+@Slf4j
+public class MwsBaselineService {
+
+    @Autowired
+    private MwsResponseBaselineRepository baselineRepository;
+
+    @Autowired
+    private MwsTestRepository testRequestRepository;
+
+    @Autowired
+    private MwsTestResultRepository testResultRepository;
+
+    @Autowired
+    private MwsResponseBodyReader responseBodyReader;
+
+    /**
+     * Désigne le résultat d'un test comme référence de son opération dans son
+     * environnement, en remplaçant la référence précédente.
+     *
+     * @throws IllegalArgumentException Si le test n'existe pas ou ne peut pas servir de référence
+     */
+    @Transactional
+    public MwsBaselineResponse setBaseline(MwsBaselineRequest request) {
+        UUID testId = parseTestId(request.getTestId());
+        MwsTestRequest test = testRequestRepository.findById(testId)
+                .orElseThrow(() -> new IllegalArgumentException("Test non trouvé: " + testId));
+
+        if (test.isLoadTest()) {
+            throw new IllegalArgumentException("Un tir de charge ne peut pas servir de référence");
+        }
+        if (test.getStatus() != MwsTestStatus.SUCCESS) {
+            throw new IllegalArgumentException(
+                    "Seul un test réussi peut servir de référence. Statut actuel: " + test.getStatus());
+        }
+
+        Long resultId = testResultRepository.findIdsByRequestId(testId).stream()
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Aucun résultat trouvé pour ce test"));
+
+        MwsResponseBaseline baseline = baselineRepository.findByProgramIdAndOperationNameAndEnvironment(
+                        test.getProgram().getId(), test.getOperationName(), test.getEnvironment())
+                .orElseGet(MwsResponseBaseline::new);
+        baseline.setProgram(test.getProgram());
+        baseline.setOperationName(test.getOperationName());
+        baseline.setEnvironment(test.getEnvironment());
+        baseline.setTestId(testId);
+        baseline.setResultId(resultId);
+        baseline.setIgnoredElements(joinIgnoredElements(request.getIgnoredElements()));
+        baseline = baselineRepository.save(baseline);
+
+        log.info("Référence {} : test {} pour {} / {} / {}", baseline.getId(), testId,
+                test.getServiceName(), test.getOperationName(), test.getEnvironment());
+
+        return toResponse(baseline);
+    }
+
+    /**
+     * Liste les références, éventuellement limitées à un programme.
+     */
+    @Transactional(readOnly = true)
+    public List<MwsBaselineResponse> listBaselines(UUID programId) {
+        List<MwsResponseBaseline> baselines = programId != null
+                ? baselineRepository.findByProgramId(programId)
+                : baselineRepository.findAll();
+        return baselines.stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    /**
+     * Supprime une référence : les résultats suivants ne sont plus comparés.
+     * Les comparaisons déjà stockées sont conservées.
+     *
+     * @throws IllegalArgumentException Si la référence n'existe pas
+     */
+    @Transactional
+    public void deleteBaseline(UUID baselineId) {
+        MwsResponseBaseline baseline = baselineRepository.findById(baselineId)
+                .orElseThrow(() -> new IllegalArgumentException("Référence non trouvée: " + baselineId));
+        baselineRepository.delete(baseline);
+        log.info("Référence {} supprimée", baselineId);
+    }
+
+    public boolean existsTest(UUID testId) {
+        return testRequestRepository.existsById(testId);
+    }
+
+    /**
+     * Compare le corps de réponse d'un nouveau résultat à la référence de son
+     * opération, si elle existe, et reporte la comparaison sur le résultat.
+     * <p>
+     * Le corps de la référence est lu en flux depuis la base et n'est jamais
+     * chargé en entier. Une erreur de comparaison n'affecte pas le test : le
+     * résultat est alors écrit sans comparaison.
+     */
+    public void compareWithBaseline(MwsTestRequest testRequest, MwsTestResult result) {
+        if (testRequest.isLoadTest() || result.getResponseBody() == null) {
+            return;
+        }
+
+        try {
+            Optional<MwsResponseBaseline> found = baselineRepository.findByProgramIdAndOperationNameAndEnvironment(
+                    testRequest.getProgram().getId(), testRequest.getOperationName(), testRequest.getEnvironment());
+            if (found.isEmpty()) {
+                return;
+            }
+            MwsResponseBaseline baseline = found.get();
+
+            XmlStreamDiff diff = new XmlStreamDiff(splitIgnoredElements(baseline.getIgnoredElements()));
+            Optional<XmlStreamDiff.Result> comparison = responseBodyReader.readResponseBody(baseline.getResultId(),
+                    expected -> diff.compare(expected, new StringReader(result.getResponseBody())));
+
+            if (comparison.isEmpty()) {
+                log.warn("Référence {} : corps de réponse du résultat {} introuvable, comparaison ignorée",
+                        baseline.getId(), baseline.getResultId());
+                return;
+            }
+
+            result.setBaselineId(baseline.getId());
+            result.setBaselineMatch(comparison.get().identical());
+            result.setBaselineDiff(comparison.get().summary());
+
+            if (!comparison.get().identical()) {
+                log.info("Test {} : {} différence(s) avec la référence {}", testRequest.getId(),
+                        comparison.get().differenceCount(), baseline.getId());
+            }
+
+        } catch (Exception e) {
+            log.warn("Comparaison à la référence impossible pour le test {}: {}", testRequest.getId(), e.getMessage());
+        }
+    }
+
+    private static UUID parseTestId(String testId) {
+        try {
+            return UUID.fromString(testId);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Identifiant de test invalide: " + testId);
+        }
+    }
+
+    private static String joinIgnoredElements(List<String> ignoredElements) {
+        if (ignoredElements == null || ignoredElements.isEmpty()) {
+            return null;
+        }
+        for (String element : ignoredElements) {
+            if (element == null || element.isBlank() || element.contains(",")) {
+                throw new IllegalArgumentException("Nom d'élément à ignorer invalide: " + element);
+            }
+        }
+        return String.join(",", ignoredElements.stream().map(String::trim).distinct().toList());
+    }
+
+    private static List<String> splitIgnoredElements(String ignoredElements) {
+        if (ignoredElements == null || ignoredElements.isBlank()) {
+            return List.of();
+        }
+        return Arrays.asList(ignoredElements.split(","));
+    }
+
+    private MwsBaselineResponse toResponse(MwsResponseBaseline baseline) {
+        MwsBaselineResponse response = new MwsBaselineResponse();
+        response.setId(baseline.getId().toString());
+        response.setProgramId(baseline.getProgram().getId().toString());
+        response.setOperationName(baseline.getOperationName());
+        response.setEnvironment(baseline.getEnvironment());
+        response.setTestId(baseline.getTestId().toString());
+        response.setIgnoredElements(splitIgnoredElements(baseline.getIgnoredElements()));
+        response.setCreatedAt(baseline.getCreatedAt());
+        response.setUpdatedAt(baseline.getUpdatedAt());
+        return response;
+    }
+}
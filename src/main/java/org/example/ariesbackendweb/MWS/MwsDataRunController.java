@@ -0,0 +1,133 @@
+package org.example.ariesbackendweb.MWS;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.dtos.MwsDataRunRequest;
+import org.example.ariesbackendweb.MWS.dtos.MwsDataRunResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Controller REST pour les exécutions MWS pilotées par un fichier CSV.
+ *
+ * Les tests d'une exécution ont pour batchId l'identifiant de l'exécution :
+ * ils se suivent en direct via GET /api/mws/tests/events?batchId=..., et
+ * GET /api/mws/data-runs/{id} en donne les agrégats.
+ */
+@Controller
+@RequestMapping("/mws/data-runs")
+@Slf4j
+public class MwsDataRunController {
+
+    @Autowired
+    private MwsDataRunService dataRunService;
+
+    /**
+     * Crée une exécution : un test par ligne du fichier.
+     *
+     * POST /api/mws/data-runs (multipart/form-data)
+     *
+     * Champs du formulaire :
+     * - file : le fichier CSV (séparateur virgule ou point-virgule), avec une ligne d'en-tête
+     * - programId, environment, operationName
+     * - requestTemplate (optionnel) : corps de requête à ${colonne} ; par défaut le
+     *   modèle généré depuis le WSDL, dont les éléments &lt;CUNO&gt;?&lt;/CUNO&gt; sont
+     *   remplis par la colonne CUNO
+     * - m3Username, m3Password, timeoutMillis (optionnels)
+     *
+     * Les lignes sont lues et soumises en arrière-plan ; une ligne dont le
+     * nombre de colonnes ne correspond pas à l'en-tête est ignorée et comptée.
+     *
+     * @return L'exécution créée (202), ou 400 si le fichier ou le modèle est invalide
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<MwsDataRunResponse> createRun(@RequestParam("file") MultipartFile file,
+                                                        @ModelAttribute MwsDataRunRequest request) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(dataRunService.createRun(file, request));
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Exécution CSV refusée: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .header("X-Error-Message", e.getMessage())
+                    .build();
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la création de l'exécution CSV", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Liste les dernières exécutions, éventuellement d'un programme (sans les
+     * agrégats de leurs tests).
+     *
+     * GET /api/mws/data-runs?programId=...
+     */
+    @GetMapping
+    public ResponseEntity<List<MwsDataRunResponse>> listRuns(@RequestParam(required = false) UUID programId) {
+        try {
+            return ResponseEntity.ok(dataRunService.listRuns(programId));
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la récupération des exécutions CSV", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Récupère une exécution : avancement de la soumission, décompte des
+     * tests par issue, durées et erreurs les plus fréquentes.
+     *
+     * GET /api/mws/data-runs/{id}
+     *
+     * @return L'exécution, ou 404 si elle n'existe pas
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<MwsDataRunResponse> getRun(@PathVariable UUID id) {
+        try {
+            return ResponseEntity.ok(dataRunService.getRun(id));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la récupération de l'exécution CSV {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Arrête la soumission des lignes restantes ; les tests déjà soumis s'exécutent.
+     *
+     * POST /api/mws/data-runs/{id}/cancel
+     *
+     * @return 204, 404 si l'exécution n'existe pas, 409 si sa soumission est terminée
+     */
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<Void> cancelRun(@PathVariable UUID id) {
+        try {
+            dataRunService.cancelRun(id);
+            return ResponseEntity.noContent().build();
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header("X-Error-Message", e.getMessage())
+                    .build();
+
+        } catch (Exception e) {
+            log.error("Erreur lors de l'annulation de l'exécution CSV {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package org.example.ariesbackendweb.MWS;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.dtos.MwsBatchResultStats;
+import org.example.ariesbackendweb.MWS.dtos.MwsBatchStatusCount;
+import org.example.ariesbackendweb.MWS.dtos.MwsDataRunRequest;
+import org.example.ariesbackendweb.MWS.dtos.MwsDataRunResponse;
+import org.example.ariesbackendweb.MWS.entities.MwsDataRun;
+import org.example.ariesbackendweb.MWS.entities.MwsDataRunStatus;
+import org.example.ariesbackendweb.MWS.entities.MwsProgram;
+import org.example.ariesbackendweb.MWS.entities.MwsTestStatus;
+import org.example.ariesbackendweb.MWS.execution.CsvRowReader;
+import org.example.ariesbackendweb.MWS.execution.MwsDataRunExecutor;
+import org.example.ariesbackendweb.MWS.execution.RequestTemplate;
+import org.example.ariesbackendweb.MWS.repositories.MwsDataRunRepository;
+import org.example.ariesbackendweb.MWS.repositories.MwsProgramRepository;
+import org.example.ariesbackendweb.MWS.repositories.MwsTestRepository;
+import org.example.ariesbackendweb.MWS.repositories.MwsTestResultRepository;
+import org.example.ariesbackendweb.common.api.AgentService;
+import org.example.ariesbackendweb.common.file.FileSystemStorageService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Service des exécutions pilotées par CSV : une même opération appelée pour
+ * chaque ligne d'un fichier (par exemple 50 000 numéros de client), le corps
+ * de requête étant rendu à partir des colonnes de la ligne.
+ * <p>
+ * Le fichier est déposé via {@link FileSystemStorageService} ; seul son
+ * en-tête est lu à la création, pour valider le modèle. Les lignes sont
+ * ensuite soumises en arrière-plan par {@link MwsDataRunExecutor}.
+ */
+@Service
+@Slf4j
+public class MwsDataRunService {
+
+    private static final int RECENT_RUNS = 50;
+    private static final int TOP_ERRORS = 5;
+
+    @Autowired
+    private MwsDataRunRepository runRepository;
+
+    @Autowired
+    private MwsProgramRepository programRepository;
+
+    @Autowired
+    private MwsTestRepository testRepository;
+
+    @Autowired
+    private MwsTestResultRepository testResultRepository;
+
+    @Autowired
+    private AgentService agentService;
+
+    @Autowired
+    private FileSystemStorageService storageService;
+
+    @Autowired
+    private MwsDataRunExecutor runExecutor;
+
+    /**
+     * Crée une exécution à partir d'un fichier CSV et lance la soumission de
+     * ses lignes après le commit.
+     *
+     * @throws IllegalArgumentException Si le fichier, le programme, l'environnement,
+     *                                  l'opération ou le modèle est invalide
+     */
+    @Transactional
+    public MwsDataRunResponse createRun(MultipartFile file, MwsDataRunRequest request) {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("Le fichier CSV est obligatoire");
+        }
+        if (file.getOriginalFilename() == null || !file.getOriginalFilename().toLowerCase().endsWith(".csv")) {
+            throw new IllegalArgumentException("Le fichier doit être au format CSV (.csv)");
+        }
+
+        UUID programId;
+        try {
+            programId = UUID.fromString(request.getProgramId());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Identifiant de programme invalide: " + request.getProgramId());
+        }
+
+        MwsProgram program = programRepository.findById(programId)
+                .orElseThrow(() -> new IllegalArgumentException("Programme MWS non trouvé: " + programId));
+
+        if (!program.isActive()) {
+            throw new IllegalArgumentException("Le programme " + program.getCode() + " est désactivé");
+        }
+
+        if (request.getEnvironment() == null || program.getEndpoints().stream()
+                .noneMatch(e -> e.getEnvironment().equalsIgnoreCase(request.getEnvironment()))) {
+            throw new IllegalArgumentException(
+                    "Aucun endpoint configuré pour l'environnement: " + request.getEnvironment());
+        }
+
+        if (request.getOperationName() == null || program.getOperations().stream()
+                .noneMatch(op -> op.getOperationName().equalsIgnoreCase(request.getOperationName()))) {
+            throw new IllegalArgumentException(
+                    "L'opération '" + request.getOperationName() + "' n'existe pas pour ce programme");
+        }
+
+        List<String> columns = readHeader(file);
+
+        String template = request.getRequestTemplate() != null && !request.getRequestTemplate().isBlank()
+                ? request.getRequestTemplate()
+                : agentService.getOperationTemplate(programId, request.getEnvironment(), request.getOperationName());
+        template = RequestTemplate.bindUnfilledElements(template, columns);
+
+        Set<String> variables = RequestTemplate.variablesOf(template);
+        if (variables.isEmpty()) {
+            throw new IllegalArgumentException(
+                    "Le corps de requête n'utilise aucune colonne du fichier (${colonne} ou <colonne>?</colonne>)");
+        }
+        List<String> missing = variables.stream()
+                .filter(variable -> !columns.contains(variable))
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Colonne(s) absente(s) du fichier: " + String.join(", ", missing));
+        }
+
+        MwsDataRun run = new MwsDataRun();
+        run.setProgram(program);
+        run.setEnvironment(request.getEnvironment());
+        run.setOperationName(request.getOperationName());
+        run.setRequestTemplate(template);
+        run.setOriginalFileName(file.getOriginalFilename());
+        run.setFileName(storageService.storeAndGetName(file));
+        run.setM3Username(request.getM3Username());
+        run.setM3Password(request.getM3Password());
+        run.setTimeoutMillis(request.getTimeoutMillis());
+        run = runRepository.save(run);
+
+        runExecutor.start(new MwsDataRunExecutor.DataRunPlan(run.getId(), programId, run.getEnvironment(),
+                run.getOperationName(), template, run.getFileName(), run.getM3Username(), run.getM3Password(),
+                run.getTimeoutMillis()));
+
+        log.info("Exécution CSV {} créée ({}, {}/{}, colonnes {})", run.getId(), run.getOriginalFileName(),
+                program.getCode(), run.getOperationName(), variables);
+        return toResponse(run);
+    }
+
+    /**
+     * Récupère une exécution, avec les agrégats de ses tests.
+     *
+     * @throws IllegalArgumentException Si l'exécution n'existe pas
+     */
+    @Transactional(readOnly = true)
+    public MwsDataRunResponse getRun(UUID runId) {
+        MwsDataRun run = findRun(runId);
+        MwsDataRunResponse response = toResponse(run);
+
+        long pending = 0;
+        long succeeded = 0;
+        long failed = 0;
+        for (MwsBatchStatusCount count : testRepository.countByStatusForBatch(runId)) {
+            if (count.getStatus() == MwsTestStatus.SUCCESS || count.getStatus() == MwsTestStatus.COMPLETED) {
+                succeeded += count.getCount();
+            } else if (count.getStatus() == MwsTestStatus.FAILED) {
+                failed += count.getCount();
+            } else {
+                pending += count.getCount();
+            }
+        }
+        response.setTestsPending(pending);
+        response.setTestsSucceeded(succeeded);
+        response.setTestsFailed(failed);
+        response.setCompleted(run.getStatus() != MwsDataRunStatus.SUBMITTING && pending == 0);
+
+        MwsBatchResultStats stats = testResultRepository.aggregateByBatchId(runId);
+        if (stats != null && stats.getAvgDurationMillis() != null) {
+            response.setAvgDurationMillis(Math.round(stats.getAvgDurationMillis()));
+            response.setMinDurationMillis(stats.getMinDurationMillis());
+            response.setMaxDurationMillis(stats.getMaxDurationMillis());
+        }
+
+        response.setTopErrors(testResultRepository.findTopErrorsByBatchId(runId, PageRequest.of(0, TOP_ERRORS))
+                .stream()
+                .map(error -> new MwsDataRunResponse.ErrorCount(error.getMessage(), error.getCount()))
+                .toList());
+        return response;
+    }
+
+    /**
+     * Dernières exécutions, éventuellement d'un programme, sans les agrégats de leurs tests.
+     */
+    @Transactional(readOnly = true)
+    public List<MwsDataRunResponse> listRuns(UUID programId) {
+        PageRequest page = PageRequest.of(0, RECENT_RUNS);
+        List<MwsDataRun> runs = programId != null
+                ? runRepository.findByProgramIdOrderByCreatedAtDesc(programId, page)
+                : runRepository.findAllByOrderByCreatedAtDesc(page);
+        return runs.stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    public boolean existsRun(UUID runId) {
+        return runRepository.existsById(runId);
+    }
+
+    /**
+     * Arrête la soumission des lignes restantes. Les tests déjà soumis
+     * s'exécutent normalement.
+     *
+     * @throws IllegalArgumentException Si l'exécution n'existe pas
+     * @throws IllegalStateException    Si la soumission est déjà terminée
+     */
+    @Transactional
+    public void cancelRun(UUID runId) {
+        findRun(runId);
+        // Mise à jour conditionnelle : la soumission peut se terminer en parallèle
+        if (runRepository.complete(runId, MwsDataRunStatus.SUBMITTING, MwsDataRunStatus.CANCELLED,
+                LocalDateTime.now(), null) == 0) {
+            throw new IllegalStateException("La soumission de l'exécution est déjà terminée");
+        }
+        log.info("Exécution CSV {} annulée", runId);
+    }
+
+    private MwsDataRun findRun(UUID runId) {
+        return runRepository.findById(runId)
+                .orElseThrow(() -> new IllegalArgumentException("Exécution CSV non trouvée: " + runId));
+    }
+
+    /**
+     * Lit l'en-tête du fichier : noms de colonnes non vides et uniques.
+     */
+    private static List<String> readHeader(MultipartFile file) {
+        List<String> header;
+        try (CsvRowReader csv = new CsvRowReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            header = csv.next();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Fichier CSV illisible: " + e.getMessage());
+        }
+        if (header == null) {
+            throw new IllegalArgumentException("Le fichier CSV est vide");
+        }
+
+        List<String> columns = new ArrayList<>(header.size());
+        Set<String> seen = new HashSet<>();
+        for (String column : header) {
+            String name = column.trim();
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("L'en-tête du fichier CSV contient une colonne sans nom");
+            }
+            if (!seen.add(name)) {
+                throw new IllegalArgumentException("Colonne en double dans l'en-tête du fichier CSV: " + name);
+            }
+            columns.add(name);
+        }
+        return columns;
+    }
+
+    private MwsDataRunResponse toResponse(MwsDataRun run) {
+        MwsDataRunResponse response = new MwsDataRunResponse();
+        response.setRunId(run.getId().toString());
+        response.setProgramId(run.getProgram().getId().toString());
+        response.setEnvironment(run.getEnvironment());
+        response.setOperationName(run.getOperationName());
+        response.setOriginalFileName(run.getOriginalFileName());
+        response.setStatus(run.getStatus().name());
+        response.setRowsRead(run.getRowsRead());
+        response.setTestsSubmitted(run.getTestsSubmitted());
+        response.setRowsRejected(run.getRowsRejected());
+        response.setFirstRejection(run.getFirstRejection());
+        response.setFailureReason(run.getFailureReason());
+        response.setCreatedAt(run.getCreatedAt());
+        response.setSubmittedAt(run.getSubmittedAt());
+        return response;
+    }
+}
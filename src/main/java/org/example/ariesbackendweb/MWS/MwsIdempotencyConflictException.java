@@ -0,0 +1,13 @@
+package org.example.ariesbackendweb.MWS;
+
+/**
+ * Levée lorsqu'une clé d'idempotence déjà utilisée est présentée avec une
+ * demande différente (empreinte de requête différente) : le test existant ne
+ * peut pas être retourné à sa place.
+ */
+public class MwsIdempotencyConflictException extends RuntimeException {
+
+    public MwsIdempotencyConflictException(String message) {
+        super(message);
+    }
+}
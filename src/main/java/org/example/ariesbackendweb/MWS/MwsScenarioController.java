@@ -0,0 +1,243 @@
+package org.example.ariesbackendweb.MWS;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.dtos.MwsScenarioRequest;
+import org.example.ariesbackendweb.MWS.dtos.MwsScenarioResponse;
+import org.example.ariesbackendweb.MWS.dtos.MwsScenarioRunRequest;
+import org.example.ariesbackendweb.MWS.dtos.MwsScenarioRunResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Controller REST pour les scénarios de tests MWS (étapes chaînées).
+ *
+ * Les tests des étapes d'une exécution ont pour batchId l'identifiant de
+ * l'exécution : ils se suivent en direct via
+ * GET /api/mws/tests/events?batchId=..., en plus de GET /api/mws/scenarios/runs/{runId}.
+ */
+@Controller
+@RequestMapping("/mws/scenarios")
+@Slf4j
+public class MwsScenarioController {
+
+    @Autowired
+    private MwsScenarioService scenarioService;
+
+    /**
+     * Crée un scénario.
+     *
+     * POST /api/mws/scenarios
+     *
+     * Exemple de body JSON :
+     * {
+     *   "name": "Cycle de vie d'une commande",
+     *   "programId": "550e8400-e29b-41d4-a716-446655440000",
+     *   "environment": "TST",
+     *   "steps": [
+     *     { "name": "add", "operationName": "AddOrder",
+     *       "requestBody": "<soapenv:Envelope>...<CUNO>${CUNO}</CUNO>...</soapenv:Envelope>",
+     *       "extract": { "ORNO": "//AddOrderResponse//ORNO" } },
+     *     { "name": "get", "operationName": "GetOrder",
+     *       "requestBody": "<soapenv:Envelope>...<ORNO>${ORNO}</ORNO>...</soapenv:Envelope>" },
+     *     { "name": "delete", "operationName": "DltOrder", "dependsOn": ["get"],
+     *       "requestBody": "<soapenv:Envelope>...<ORNO>${ORNO}</ORNO>...</soapenv:Envelope>" }
+     *   ]
+     * }
+     *
+     * Une étape attend les étapes listées dans dependsOn et celles qui
+     * extraient les variables qu'elle utilise ; les autres s'exécutent en parallèle.
+     *
+     * @return Le scénario créé (201), ou 400 s'il est invalide
+     */
+    @PostMapping
+    public ResponseEntity<MwsScenarioResponse> createScenario(@RequestBody MwsScenarioRequest request) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(scenarioService.createScenario(request));
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Scénario refusé: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .header("X-Error-Message", e.getMessage())
+                    .build();
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la création du scénario", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Liste les scénarios, éventuellement ceux d'un programme.
+     *
+     * GET /api/mws/scenarios?programId=...
+     */
+    @GetMapping
+    public ResponseEntity<List<MwsScenarioResponse>> listScenarios(@RequestParam(required = false) UUID programId) {
+        try {
+            return ResponseEntity.ok(scenarioService.listScenarios(programId));
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la récupération des scénarios", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Récupère un scénario, avec ses dépendances résolues et ses variables d'entrée.
+     *
+     * GET /api/mws/scenarios/{id}
+     *
+     * @return Le scénario, ou 404 s'il n'existe pas
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<MwsScenarioResponse> getScenario(@PathVariable UUID id) {
+        try {
+            return ResponseEntity.ok(scenarioService.getScenario(id));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la récupération du scénario {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Modifie un scénario (remplacement complet, étapes comprises).
+     *
+     * PUT /api/mws/scenarios/{id}
+     *
+     * @return Le scénario modifié, 404 s'il n'existe pas, 400 s'il est invalide
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<MwsScenarioResponse> updateScenario(@PathVariable UUID id,
+                                                              @RequestBody MwsScenarioRequest request) {
+        if (!scenarioService.existsScenario(id)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        try {
+            return ResponseEntity.ok(scenarioService.updateScenario(id, request));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .header("X-Error-Message", e.getMessage())
+                    .build();
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la modification du scénario {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Supprime un scénario et l'historique de ses exécutions.
+     *
+     * DELETE /api/mws/scenarios/{id}
+     *
+     * @return 204, 404 si le scénario n'existe pas, 409 si une exécution est en cours
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteScenario(@PathVariable UUID id) {
+        try {
+            scenarioService.deleteScenario(id);
+            return ResponseEntity.noContent().build();
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header("X-Error-Message", e.getMessage())
+                    .build();
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la suppression du scénario {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Lance une exécution du scénario.
+     *
+     * POST /api/mws/scenarios/{id}/runs
+     *
+     * Exemple de body JSON :
+     * { "variables": { "CUNO": "C000123" } }
+     *
+     * @return L'exécution lancée (202), 404 si le scénario n'existe pas,
+     * 400 si une variable d'entrée manque
+     */
+    @PostMapping("/{id}/runs")
+    public ResponseEntity<MwsScenarioRunResponse> runScenario(@PathVariable UUID id,
+                                                              @RequestBody(required = false) MwsScenarioRunRequest request) {
+        if (!scenarioService.existsScenario(id)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        try {
+            MwsScenarioRunResponse response = scenarioService.runScenario(id,
+                    request != null ? request.getVariables() : null);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .header("X-Error-Message", e.getMessage())
+                    .build();
+
+        } catch (Exception e) {
+            log.error("Erreur lors du lancement du scénario {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Liste les dernières exécutions d'un scénario.
+     *
+     * GET /api/mws/scenarios/{id}/runs
+     *
+     * @return Les exécutions, de la plus récente à la plus ancienne, ou 404 si le scénario n'existe pas
+     */
+    @GetMapping("/{id}/runs")
+    public ResponseEntity<List<MwsScenarioRunResponse>> listRuns(@PathVariable UUID id) {
+        if (!scenarioService.existsScenario(id)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        try {
+            return ResponseEntity.ok(scenarioService.listRuns(id));
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la récupération des exécutions du scénario {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Récupère une exécution et l'état de chacune de ses étapes.
+     *
+     * GET /api/mws/scenarios/runs/{runId}
+     *
+     * @return L'exécution, ou 404 si elle n'existe pas
+     */
+    @GetMapping("/runs/{runId}")
+    public ResponseEntity<MwsScenarioRunResponse> getRun(@PathVariable UUID runId) {
+        try {
+            return ResponseEntity.ok(scenarioService.getRun(runId));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la récupération de l'exécution {}", runId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -0,0 +1,495 @@
+package org.example.ariesbackendweb.MWS;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.assertions.ResponseDocuments;
+import org.example.ariesbackendweb.MWS.dtos.MwsScenarioRequest;
+import org.example.ariesbackendweb.MWS.dtos.MwsScenarioResponse;
+import org.example.ariesbackendweb.MWS.dtos.MwsScenarioRunResponse;
+import org.example.ariesbackendweb.MWS.dtos.MwsScenarioStepRequest;
+import org.example.ariesbackendweb.MWS.dtos.MwsScenarioStepResponse;
+import org.example.ariesbackendweb.MWS.dtos.MwsScenarioStepRunResponse;
+import org.example.ariesbackendweb.MWS.entities.MwsProgram;
+import org.example.ariesbackendweb.MWS.entities.MwsScenario;
+import org.example.ariesbackendweb.MWS.entities.MwsScenarioRun;
+import org.example.ariesbackendweb.MWS.entities.MwsScenarioRunStatus;
+import org.example.ariesbackendweb.MWS.entities.MwsScenarioStep;
+import org.example.ariesbackendweb.MWS.entities.MwsScenarioStepRun;
+import org.example.ariesbackendweb.MWS.execution.MwsExecutionProperties;
+import org.example.ariesbackendweb.MWS.execution.MwsScenarioExecutor;
+import org.example.ariesbackendweb.MWS.execution.RequestTemplate;
+import org.example.ariesbackendweb.MWS.repositories.MwsProgramRepository;
+import org.example.ariesbackendweb.MWS.repositories.MwsScenarioRepository;
+import org.example.ariesbackendweb.MWS.repositories.MwsScenarioRunRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpressionException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Service de gestion des scénarios de tests MWS.
+ * <p>
+ * Un scénario enchaîne des opérations d'un programme : une étape peut
+ * extraire des valeurs de sa réponse (XPath), utilisées comme ${variable}
+ * dans les corps de requête des étapes suivantes. Chaque étape est un test
+ * MWS ordinaire ; l'ordonnancement des étapes est fait par
+ * {@link MwsScenarioExecutor}.
+ */
+@Service
+@Slf4j
+public class MwsScenarioService {
+
+    private static final Pattern VARIABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final int MAX_NAME_LENGTH = 100;
+    private static final int MAX_INPUT_LENGTH = 1000;
+    private static final int RECENT_RUNS = 50;
+
+    @Autowired
+    private MwsScenarioRepository scenarioRepository;
+
+    @Autowired
+    private MwsScenarioRunRepository runRepository;
+
+    @Autowired
+    private MwsProgramRepository programRepository;
+
+    @Autowired
+    private MwsScenarioExecutor scenarioExecutor;
+
+    @Autowired
+    private MwsExecutionProperties properties;
+
+    /**
+     * Crée un scénario.
+     *
+     * @throws IllegalArgumentException Si le scénario est invalide
+     */
+    @Transactional
+    public MwsScenarioResponse createScenario(MwsScenarioRequest request) {
+        MwsScenario scenario = new MwsScenario();
+        applyRequest(scenario, request);
+        scenario = scenarioRepository.save(scenario);
+
+        log.info("Scénario {} créé ({}, {} étape(s))", scenario.getId(), scenario.getName(), scenario.getSteps().size());
+        return toResponse(scenario);
+    }
+
+    /**
+     * Liste les scénarios, éventuellement ceux d'un seul programme.
+     */
+    @Transactional(readOnly = true)
+    public List<MwsScenarioResponse> listScenarios(UUID programId) {
+        List<MwsScenario> scenarios = programId != null
+                ? scenarioRepository.findByProgramId(programId)
+                : scenarioRepository.findAll();
+        return scenarios.stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    /**
+     * @throws IllegalArgumentException Si le scénario n'existe pas
+     */
+    @Transactional(readOnly = true)
+    public MwsScenarioResponse getScenario(UUID scenarioId) {
+        return toResponse(findScenario(scenarioId));
+    }
+
+    public boolean existsScenario(UUID scenarioId) {
+        return scenarioRepository.existsById(scenarioId);
+    }
+
+    /**
+     * Modifie un scénario (remplacement complet, étapes comprises). Les
+     * exécutions en cours se poursuivent avec la version lancée.
+     *
+     * @throws IllegalArgumentException Si le scénario n'existe pas ou est invalide
+     */
+    @Transactional
+    public MwsScenarioResponse updateScenario(UUID scenarioId, MwsScenarioRequest request) {
+        MwsScenario scenario = findScenario(scenarioId);
+        applyRequest(scenario, request);
+
+        log.info("Scénario {} modifié", scenarioId);
+        return toResponse(scenario);
+    }
+
+    /**
+     * Supprime un scénario et l'historique de ses exécutions. Les tests des
+     * étapes sont conservés.
+     *
+     * @throws IllegalArgumentException Si le scénario n'existe pas
+     * @throws IllegalStateException    Si une exécution du scénario est en cours
+     */
+    @Transactional
+    public void deleteScenario(UUID scenarioId) {
+        MwsScenario scenario = findScenario(scenarioId);
+        if (runRepository.existsByScenarioIdAndStatus(scenarioId, MwsScenarioRunStatus.RUNNING)) {
+            throw new IllegalStateException("Une exécution du scénario est en cours");
+        }
+
+        runRepository.deleteByScenarioId(scenarioId);
+        scenarioRepository.delete(scenario);
+        log.info("Scénario {} supprimé", scenarioId);
+    }
+
+    /**
+     * Lance une exécution du scénario. L'exécution démarre après le commit ;
+     * son identifiant est le batchId des tests des étapes.
+     *
+     * @param inputs Valeurs des variables d'entrée (utilisées sans être extraites par une étape)
+     * @throws IllegalArgumentException Si le scénario n'existe pas ou si une variable d'entrée manque
+     */
+    @Transactional
+    public MwsScenarioRunResponse runScenario(UUID scenarioId, Map<String, String> inputs) {
+        MwsScenario scenario = findScenario(scenarioId);
+        List<MwsScenarioStep> steps = scenario.getSteps();
+        Map<String, String> provided = inputs != null ? inputs : Map.of();
+
+        // Seules les variables utilisées sont conservées
+        MwsScenarioRun run = new MwsScenarioRun();
+        for (String variable : inputVariables(steps)) {
+            String value = provided.get(variable);
+            if (value == null) {
+                throw new IllegalArgumentException("Variable d'entrée manquante: " + variable);
+            }
+            if (value.length() > MAX_INPUT_LENGTH) {
+                throw new IllegalArgumentException("Variable d'entrée trop longue: " + variable);
+            }
+            run.getInputs().put(variable, value);
+        }
+
+        run.setScenario(scenario);
+        run.setStartedAt(LocalDateTime.now());
+        for (MwsScenarioStep step : steps) {
+            MwsScenarioStepRun stepRun = new MwsScenarioStepRun();
+            stepRun.setRun(run);
+            stepRun.setStepOrder(step.getStepOrder());
+            stepRun.setStepName(step.getName());
+            run.getSteps().add(stepRun);
+        }
+        MwsScenarioRun saved = runRepository.saveAndFlush(run);
+
+        List<List<Integer>> dependencies = dependencies(steps);
+        List<MwsScenarioExecutor.StepPlan> stepPlans = new ArrayList<>(steps.size());
+        for (int i = 0; i < steps.size(); i++) {
+            MwsScenarioStep step = steps.get(i);
+            stepPlans.add(new MwsScenarioExecutor.StepPlan(saved.getSteps().get(i).getId(), step.getName(),
+                    step.getOperationName(), step.getRequestBody(), dependencies.get(i),
+                    Map.copyOf(step.getExtractions())));
+        }
+        scenarioExecutor.start(new MwsScenarioExecutor.ScenarioPlan(saved.getId(), scenario.getProgram().getId(),
+                scenario.getEnvironment(), scenario.getM3Username(), scenario.getM3Password(),
+                scenario.getTimeoutMillis(), Map.copyOf(saved.getInputs()), List.copyOf(stepPlans)));
+
+        log.info("Scénario {} : exécution {} lancée", scenarioId, saved.getId());
+        return toRunResponse(saved);
+    }
+
+    /**
+     * @throws IllegalArgumentException Si l'exécution n'existe pas
+     */
+    @Transactional(readOnly = true)
+    public MwsScenarioRunResponse getRun(UUID runId) {
+        return runRepository.findById(runId)
+                .map(this::toRunResponse)
+                .orElseThrow(() -> new IllegalArgumentException("Exécution de scénario non trouvée: " + runId));
+    }
+
+    /**
+     * Dernières exécutions d'un scénario, de la plus récente à la plus ancienne.
+     */
+    @Transactional(readOnly = true)
+    public List<MwsScenarioRunResponse> listRuns(UUID scenarioId) {
+        return runRepository.findByScenarioIdOrderByStartedAtDesc(scenarioId, PageRequest.of(0, RECENT_RUNS))
+                .stream()
+                .map(this::toRunResponse)
+                .toList();
+    }
+
+    private MwsScenario findScenario(UUID scenarioId) {
+        return scenarioRepository.findById(scenarioId)
+                .orElseThrow(() -> new IllegalArgumentException("Scénario non trouvé: " + scenarioId));
+    }
+
+    /**
+     * Valide la demande et la reporte sur le scénario.
+     */
+    private void applyRequest(MwsScenario scenario, MwsScenarioRequest request) {
+        if (request.getName() == null || request.getName().isBlank()) {
+            throw new IllegalArgumentException("Le nom du scénario est obligatoire");
+        }
+
+        UUID programId;
+        try {
+            programId = UUID.fromString(request.getProgramId());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Identifiant de programme invalide: " + request.getProgramId());
+        }
+
+        MwsProgram program = programRepository.findById(programId)
+                .orElseThrow(() -> new IllegalArgumentException("Programme MWS non trouvé: " + programId));
+
+        if (request.getEnvironment() == null || program.getEndpoints().stream()
+                .noneMatch(e -> e.getEnvironment().equalsIgnoreCase(request.getEnvironment()))) {
+            throw new IllegalArgumentException(
+                    "Aucun endpoint configuré pour l'environnement: " + request.getEnvironment());
+        }
+
+        List<MwsScenarioStep> steps = buildSteps(program, request.getSteps());
+
+        scenario.setName(request.getName().trim());
+        scenario.setProgram(program);
+        scenario.setEnvironment(request.getEnvironment());
+        scenario.setM3Username(request.getM3Username());
+        scenario.setM3Password(request.getM3Password());
+        scenario.setTimeoutMillis(request.getTimeoutMillis());
+
+        if (scenario.getId() != null && !scenario.getSteps().isEmpty()) {
+            // Supprimer les anciennes étapes avant d'insérer les nouvelles : Hibernate
+            // exécute les insertions en premier, ce qui violerait l'unicité des noms
+            scenario.getSteps().clear();
+            scenarioRepository.flush();
+        }
+        for (MwsScenarioStep step : steps) {
+            step.setScenario(scenario);
+            scenario.getSteps().add(step);
+        }
+    }
+
+    /**
+     * Valide les étapes demandées : noms uniques, opérations du programme,
+     * dépendances vers des étapes précédentes, variables extraites uniques et
+     * XPath compilables, aucune variable utilisée avant l'étape qui l'extrait.
+     */
+    private List<MwsScenarioStep> buildSteps(MwsProgram program, List<MwsScenarioStepRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("Le scénario doit contenir au moins une étape");
+        }
+        if (requests.size() > properties.getScenarioMaxSteps()) {
+            throw new IllegalArgumentException(
+                    "Un scénario contient au plus " + properties.getScenarioMaxSteps() + " étapes");
+        }
+
+        // Variable -> indice de l'étape qui l'extrait
+        Map<String, Integer> extractors = new HashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            Map<String, String> extract = requests.get(i).getExtract();
+            if (extract == null) {
+                continue;
+            }
+            for (String variable : extract.keySet()) {
+                if (variable == null || !VARIABLE_NAME.matcher(variable).matches() || variable.length() > MAX_NAME_LENGTH) {
+                    throw new IllegalArgumentException("Nom de variable invalide: " + variable);
+                }
+                if (extractors.putIfAbsent(variable, i) != null) {
+                    throw new IllegalArgumentException("Variable extraite par plusieurs étapes: " + variable);
+                }
+            }
+        }
+
+        XPath xpath = ResponseDocuments.newXPath();
+        Set<String> names = new LinkedHashSet<>();
+        List<MwsScenarioStep> steps = new ArrayList<>(requests.size());
+
+        for (int i = 0; i < requests.size(); i++) {
+            MwsScenarioStepRequest request = requests.get(i);
+
+            String name = request.getName() != null ? request.getName().trim() : "";
+            if (name.isEmpty() || name.length() > MAX_NAME_LENGTH || name.contains(",")) {
+                throw new IllegalArgumentException("Nom d'étape invalide: '" + request.getName() + "'");
+            }
+
+            if (request.getOperationName() == null || program.getOperations().stream()
+                    .noneMatch(op -> op.getOperationName().equalsIgnoreCase(request.getOperationName()))) {
+                throw new IllegalArgumentException("Étape " + name + " : l'opération '"
+                        + request.getOperationName() + "' n'existe pas pour ce programme");
+            }
+
+            if (request.getRequestBody() == null || request.getRequestBody().isBlank()) {
+                throw new IllegalArgumentException("Étape " + name + " : le corps de requête est obligatoire");
+            }
+
+            for (String variable : RequestTemplate.variablesOf(request.getRequestBody())) {
+                Integer extractor = extractors.get(variable);
+                if (extractor != null && extractor >= i) {
+                    throw new IllegalArgumentException("Étape " + name + " : la variable " + variable
+                            + " est extraite par une étape ultérieure (" + requests.get(extractor).getName() + ")");
+                }
+            }
+
+            List<String> dependsOn = new ArrayList<>();
+            if (request.getDependsOn() != null) {
+                for (String dependency : request.getDependsOn()) {
+                    String dependencyName = dependency != null ? dependency.trim() : null;
+                    if (!names.contains(dependencyName)) {
+                        throw new IllegalArgumentException("Étape " + name
+                                + " : dépendance inconnue ou non antérieure: " + dependency);
+                    }
+                    if (!dependsOn.contains(dependencyName)) {
+                        dependsOn.add(dependencyName);
+                    }
+                }
+            }
+
+            Map<String, String> extractions = new LinkedHashMap<>();
+            if (request.getExtract() != null) {
+                for (Map.Entry<String, String> extraction : request.getExtract().entrySet()) {
+                    try {
+                        xpath.compile(extraction.getValue());
+                    } catch (XPathExpressionException | NullPointerException e) {
+                        throw new IllegalArgumentException("Étape " + name + " : expression XPath invalide pour "
+                                + extraction.getKey() + ": " + extraction.getValue());
+                    }
+                    extractions.put(extraction.getKey(), extraction.getValue());
+                }
+            }
+
+            if (!names.add(name)) {
+                throw new IllegalArgumentException("Nom d'étape en double: " + name);
+            }
+
+            MwsScenarioStep step = new MwsScenarioStep();
+            step.setStepOrder(i);
+            step.setName(name);
+            step.setOperationName(request.getOperationName());
+            step.setRequestBody(request.getRequestBody());
+            step.setDependsOn(dependsOn.isEmpty() ? null : String.join(",", dependsOn));
+            step.setExtractions(extractions);
+            steps.add(step);
+        }
+        return steps;
+    }
+
+    /**
+     * Indices des étapes attendues par chaque étape : dépendances explicites,
+     * et étapes qui extraient une variable de son corps de requête.
+     */
+    private static List<List<Integer>> dependencies(List<MwsScenarioStep> steps) {
+        Map<String, Integer> indexByName = new HashMap<>();
+        Map<String, Integer> extractors = new HashMap<>();
+        for (int i = 0; i < steps.size(); i++) {
+            indexByName.put(steps.get(i).getName(), i);
+            for (String variable : steps.get(i).getExtractions().keySet()) {
+                extractors.put(variable, i);
+            }
+        }
+
+        List<List<Integer>> dependencies = new ArrayList<>(steps.size());
+        for (int i = 0; i < steps.size(); i++) {
+            MwsScenarioStep step = steps.get(i);
+            Set<Integer> indices = new TreeSet<>();
+            if (step.getDependsOn() != null) {
+                for (String dependency : step.getDependsOn().split(",")) {
+                    Integer index = indexByName.get(dependency);
+                    if (index != null && index < i) {
+                        indices.add(index);
+                    }
+                }
+            }
+            for (String variable : RequestTemplate.variablesOf(step.getRequestBody())) {
+                Integer index = extractors.get(variable);
+                if (index != null && index < i) {
+                    indices.add(index);
+                }
+            }
+            dependencies.add(List.copyOf(indices));
+        }
+        return dependencies;
+    }
+
+    /**
+     * Variables utilisées par les étapes sans être extraites par aucune : à fournir au lancement.
+     */
+    private static Set<String> inputVariables(List<MwsScenarioStep> steps) {
+        Set<String> extracted = new LinkedHashSet<>();
+        Set<String> inputs = new TreeSet<>();
+        for (MwsScenarioStep step : steps) {
+            extracted.addAll(step.getExtractions().keySet());
+        }
+        for (MwsScenarioStep step : steps) {
+            for (String variable : RequestTemplate.variablesOf(step.getRequestBody())) {
+                if (!extracted.contains(variable)) {
+                    inputs.add(variable);
+                }
+            }
+        }
+        return inputs;
+    }
+
+    private MwsScenarioResponse toResponse(MwsScenario scenario) {
+        List<MwsScenarioStep> steps = scenario.getSteps();
+        List<List<Integer>> dependencies = dependencies(steps);
+
+        List<MwsScenarioStepResponse> stepResponses = new ArrayList<>(steps.size());
+        for (int i = 0; i < steps.size(); i++) {
+            MwsScenarioStep step = steps.get(i);
+            MwsScenarioStepResponse response = new MwsScenarioStepResponse();
+            response.setOrder(step.getStepOrder());
+            response.setName(step.getName());
+            response.setOperationName(step.getOperationName());
+            response.setRequestBody(step.getRequestBody());
+            response.setDependsOn(dependencies.get(i).stream()
+                    .map(index -> steps.get(index).getName())
+                    .toList());
+            response.setExtract(new LinkedHashMap<>(step.getExtractions()));
+            stepResponses.add(response);
+        }
+
+        MwsScenarioResponse response = new MwsScenarioResponse();
+        response.setId(scenario.getId().toString());
+        response.setName(scenario.getName());
+        response.setProgramId(scenario.getProgram().getId().toString());
+        response.setEnvironment(scenario.getEnvironment());
+        response.setTimeoutMillis(scenario.getTimeoutMillis());
+        response.setSteps(stepResponses);
+        response.setInputVariables(List.copyOf(inputVariables(steps)));
+        response.setCreatedAt(scenario.getCreatedAt());
+        return response;
+    }
+
+    private MwsScenarioRunResponse toRunResponse(MwsScenarioRun run) {
+        MwsScenarioRunResponse response = new MwsScenarioRunResponse();
+        response.setRunId(run.getId().toString());
+        response.setScenarioId(run.getScenario().getId().toString());
+        response.setStatus(run.getStatus().name());
+        response.setInputs(new LinkedHashMap<>(run.getInputs()));
+        response.setSteps(run.getSteps().stream()
+                .map(MwsScenarioService::toStepRunResponse)
+                .toList());
+        response.setStartedAt(run.getStartedAt());
+        response.setCompletedAt(run.getCompletedAt());
+        if (run.getCompletedAt() != null) {
+            response.setDurationMillis(Duration.between(run.getStartedAt(), run.getCompletedAt()).toMillis());
+        }
+        response.setFailureReason(run.getFailureReason());
+        return response;
+    }
+
+    private static MwsScenarioStepRunResponse toStepRunResponse(MwsScenarioStepRun stepRun) {
+        MwsScenarioStepRunResponse response = new MwsScenarioStepRunResponse();
+        response.setOrder(stepRun.getStepOrder());
+        response.setName(stepRun.getStepName());
+        response.setStatus(stepRun.getStatus().name());
+        response.setTestId(stepRun.getTestId() != null ? stepRun.getTestId().toString() : null);
+        response.setVariables(new LinkedHashMap<>(stepRun.getVariables()));
+        response.setErrorMessage(stepRun.getErrorMessage());
+        response.setStartedAt(stepRun.getStartedAt());
+        response.setCompletedAt(stepRun.getCompletedAt());
+        return response;
+    }
+}
@@ -0,0 +1,151 @@
+package org.example.ariesbackendweb.MWS;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.dtos.MwsScheduleRequest;
+import org.example.ariesbackendweb.MWS.dtos.MwsScheduleResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Controller REST pour les planifications de tests MWS (sondes récurrentes).
+ *
+ * L'historique des exécutions d'une planification est disponible via
+ * GET /api/mws/tests?scheduleId=..., et leurs latences via les analytics.
+ */
+@Controller
+@RequestMapping("/mws/schedules")
+@Slf4j
+public class MwsScheduleController {
+
+    @Autowired
+    private MwsScheduleService scheduleService;
+
+    /**
+     * Crée une planification.
+     *
+     * POST /api/mws/schedules
+     *
+     * Exemple de body JSON :
+     * {
+     *   "name": "Sonde CRS610 PRD",
+     *   "programId": "550e8400-e29b-41d4-a716-446655440000",
+     *   "environment": "PRD",
+     *   "operationName": "GetBasicData",
+     *   "requestBody": "<soapenv:Envelope>...</soapenv:Envelope>",
+     *   "cronExpression": "0 0 * * * *",
+     *   "jitterSeconds": 120,
+     *   "skipIfRunning": true
+     * }
+     *
+     * @return La planification créée (201), ou 400 si elle est invalide
+     */
+    @PostMapping
+    public ResponseEntity<MwsScheduleResponse> createSchedule(@RequestBody MwsScheduleRequest request) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(scheduleService.createSchedule(request));
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Planification refusée: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .header("X-Error-Message", e.getMessage())
+                    .build();
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la création de la planification", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Liste les planifications.
+     *
+     * GET /api/mws/schedules
+     */
+    @GetMapping
+    public ResponseEntity<List<MwsScheduleResponse>> listSchedules() {
+        try {
+            return ResponseEntity.ok(scheduleService.listSchedules());
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la récupération des planifications", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Récupère une planification, avec son prochain et son dernier déclenchement.
+     *
+     * GET /api/mws/schedules/{id}
+     *
+     * @return La planification, ou 404 si elle n'existe pas
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<MwsScheduleResponse> getSchedule(@PathVariable UUID id) {
+        try {
+            return ResponseEntity.ok(scheduleService.getSchedule(id));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la récupération de la planification {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Modifie une planification (remplacement complet).
+     *
+     * PUT /api/mws/schedules/{id}
+     *
+     * @return La planification modifiée, 404 si elle n'existe pas, 400 si elle est invalide
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<MwsScheduleResponse> updateSchedule(@PathVariable UUID id,
+                                                              @RequestBody MwsScheduleRequest request) {
+        if (!scheduleService.existsSchedule(id)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        try {
+            return ResponseEntity.ok(scheduleService.updateSchedule(id, request));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .header("X-Error-Message", e.getMessage())
+                    .build();
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la modification de la planification {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Supprime une planification. Les tests déjà exécutés sont conservés.
+     *
+     * DELETE /api/mws/schedules/{id}
+     *
+     * @return 204, ou 404 si la planification n'existe pas
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteSchedule(@PathVariable UUID id) {
+        try {
+            scheduleService.deleteSchedule(id);
+            return ResponseEntity.noContent().build();
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la suppression de la planification {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package org.example.ariesbackendweb.MWS;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.dtos.MwsScheduleRequest;
+import org.example.ariesbackendweb.MWS.dtos.MwsScheduleResponse;
+import org.example.ariesbackendweb.MWS.dtos.MwsTestSubmissionRequest;
+import org.example.ariesbackendweb.MWS.dtos.MwsTestSubmissionResponse;
+import org.example.ariesbackendweb.MWS.entities.MwsProgram;
+import org.example.ariesbackendweb.MWS.entities.MwsTestSchedule;
+import org.example.ariesbackendweb.MWS.execution.MwsTestScheduler;
+import org.example.ariesbackendweb.MWS.repositories.MwsProgramRepository;
+import org.example.ariesbackendweb.MWS.repositories.MwsTestScheduleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service de gestion des planifications de tests MWS.
+ * <p>
+ * Une planification décrit une sonde récurrente : un test (programme,
+ * environnement, opération, corps de requête) soumis selon une expression
+ * cron. Les exécutions sont des tests MWS ordinaires, rattachés à la
+ * planification par leur scheduleId.
+ */
+@Service
+@Slf4j
+public class MwsScheduleService {
+
+    private static final int MAX_JITTER_SECONDS = 3600;
+
+    @Autowired
+    private MwsTestScheduleRepository scheduleRepository;
+
+    @Autowired
+    private MwsProgramRepository programRepository;
+
+    @Autowired
+    private MwsTestService testService;
+
+    @Autowired
+    private MwsTestScheduler testScheduler;
+
+    /**
+     * Crée une planification et l'enregistre auprès de l'ordonnanceur si elle est active.
+     *
+     * @throws IllegalArgumentException Si la planification est invalide
+     */
+    @Transactional
+    public MwsScheduleResponse createSchedule(MwsScheduleRequest request) {
+        MwsTestSchedule schedule = new MwsTestSchedule();
+        applyRequest(schedule, request);
+        schedule = scheduleRepository.save(schedule);
+
+        testScheduler.register(schedule);
+        log.info("Planification {} créée ({}, {})", schedule.getId(), schedule.getName(), schedule.getCronExpression());
+
+        return toResponse(schedule);
+    }
+
+    @Transactional(readOnly = true)
+    public List<MwsScheduleResponse> listSchedules() {
+        return scheduleRepository.findAll().stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    /**
+     * @throws IllegalArgumentException Si la planification n'existe pas
+     */
+    @Transactional(readOnly = true)
+    public MwsScheduleResponse getSchedule(UUID scheduleId) {
+        return toResponse(findSchedule(scheduleId));
+    }
+
+    public boolean existsSchedule(UUID scheduleId) {
+        return scheduleRepository.existsById(scheduleId);
+    }
+
+    /**
+     * Modifie une planification ; l'ordonnanceur prend en compte la nouvelle
+     * expression cron (ou la désactivation) après le commit.
+     *
+     * @throws IllegalArgumentException Si la planification n'existe pas ou est invalide
+     */
+    @Transactional
+    public MwsScheduleResponse updateSchedule(UUID scheduleId, MwsScheduleRequest request) {
+        MwsTestSchedule schedule = findSchedule(scheduleId);
+        applyRequest(schedule, request);
+
+        testScheduler.register(schedule);
+        log.info("Planification {} modifiée", scheduleId);
+
+        return toResponse(schedule);
+    }
+
+    /**
+     * Supprime une planification. Les tests déjà exécutés sont conservés.
+     *
+     * @throws IllegalArgumentException Si la planification n'existe pas
+     */
+    @Transactional
+    public void deleteSchedule(UUID scheduleId) {
+        scheduleRepository.delete(findSchedule(scheduleId));
+        testScheduler.unregister(scheduleId);
+        log.info("Planification {} supprimée", scheduleId);
+    }
+
+    /**
+     * Exécute un déclenchement de planification : appelée par
+     * {@link MwsTestScheduler}, après le délai aléatoire.
+     * <p>
+     * Chaque instance du backend déclenche toutes les planifications : la
+     * planification est verrouillée en base le temps du traitement, et un
+     * déclenchement déjà traité par une autre instance est ignoré. Le contrôle
+     * skipIfRunning et le compteur d'exécutions ignorées sont ainsi fiables
+     * quel que soit le nombre d'instances.
+     * <p>
+     * Si skipIfRunning est actif et que l'exécution précédente est encore en
+     * file ou en cours, le déclenchement est ignoré (et compté) plutôt que
+     * d'empiler des tests sur un service déjà lent.
+     *
+     * @param cron    Expression cron qui a produit le déclenchement
+     * @param firedAt Heure prévue du déclenchement cron, identique sur toutes les instances
+     * @throws java.util.concurrent.RejectedExecutionException Si la file d'exécution est pleine
+     */
+    @Transactional
+    public void runSchedule(UUID scheduleId, String cron, LocalDateTime firedAt) {
+        MwsTestSchedule schedule = scheduleRepository.findForUpdate(scheduleId).orElse(null);
+        if (schedule == null || !schedule.isEnabled()) {
+            return;
+        }
+
+        // Planification modifiée sur une autre instance, pas encore relue ici
+        if (!schedule.getCronExpression().equals(cron)) {
+            return;
+        }
+
+        if (schedule.getLastFiredAt() != null && !schedule.getLastFiredAt().isBefore(firedAt)) {
+            log.debug("Planification {} : déclenchement de {} déjà traité par une autre instance",
+                    scheduleId, firedAt);
+            return;
+        }
+        schedule.setLastFiredAt(firedAt);
+
+        if (schedule.isSkipIfRunning() && testService.hasActiveScheduledTest(scheduleId)) {
+            schedule.setSkippedRuns(schedule.getSkippedRuns() + 1);
+            log.info("Planification {} : exécution précédente non terminée, déclenchement ignoré", scheduleId);
+            return;
+        }
+
+        MwsTestSubmissionRequest request = new MwsTestSubmissionRequest();
+        request.setProgramId(schedule.getProgram().getId().toString());
+        request.setEnvironment(schedule.getEnvironment());
+        request.setOperationName(schedule.getOperationName());
+        request.setRequestBody(schedule.getRequestBody());
+        request.setM3Username(schedule.getM3Username());
+        request.setM3Password(schedule.getM3Password());
+        request.setTimeoutMillis(schedule.getTimeoutMillis());
+
+        MwsTestSubmissionResponse response = testService.submitScheduledTest(request, scheduleId);
+
+        schedule.setLastRunAt(LocalDateTime.now());
+        schedule.setLastTestId(UUID.fromString(response.getTestId()));
+        log.info("Planification {} : test {} soumis", scheduleId, response.getTestId());
+    }
+
+    private MwsTestSchedule findSchedule(UUID scheduleId) {
+        return scheduleRepository.findById(scheduleId)
+                .orElseThrow(() -> new IllegalArgumentException("Planification non trouvée: " + scheduleId));
+    }
+
+    /**
+     * Valide la demande et la reporte sur la planification.
+     */
+    private void applyRequest(MwsTestSchedule schedule, MwsScheduleRequest request) {
+        if (request.getName() == null || request.getName().isBlank()) {
+            throw new IllegalArgumentException("Le nom de la planification est obligatoire");
+        }
+
+        if (request.getCronExpression() == null || !CronExpression.isValidExpression(request.getCronExpression())) {
+            throw new IllegalArgumentException("Expression cron invalide: " + request.getCronExpression() +
+                    " (format attendu : seconde minute heure jour mois jour-de-semaine)");
+        }
+
+        int jitter = request.getJitterSeconds() != null ? request.getJitterSeconds() : 0;
+        if (jitter < 0 || jitter > MAX_JITTER_SECONDS) {
+            throw new IllegalArgumentException(
+                    "Le jitter doit être compris entre 0 et " + MAX_JITTER_SECONDS + " secondes");
+        }
+
+        if (request.getRequestBody() == null || request.getRequestBody().isBlank()) {
+            throw new IllegalArgumentException("Le corps de requête est obligatoire");
+        }
+
+        UUID programId;
+        try {
+            programId = UUID.fromString(request.getProgramId());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Identifiant de programme invalide: " + request.getProgramId());
+        }
+
+        MwsProgram program = programRepository.findById(programId)
+                .orElseThrow(() -> new IllegalArgumentException("Programme MWS non trouvé: " + programId));
+
+        // Mêmes contrôles qu'à la soumission, pour refuser dès maintenant une sonde qui échouerait à chaque déclenchement
+        if (request.getEnvironment() == null || program.getEndpoints().stream()
+                .noneMatch(e -> e.getEnvironment().equalsIgnoreCase(request.getEnvironment()))) {
+            throw new IllegalArgumentException(
+                    "Aucun endpoint configuré pour l'environnement: " + request.getEnvironment());
+        }
+
+        if (request.getOperationName() == null || program.getOperations().stream()
+                .noneMatch(op -> op.getOperationName().equalsIgnoreCase(request.getOperationName()))) {
+            throw new IllegalArgumentException(
+                    "L'opération '" + request.getOperationName() + "' n'existe pas pour ce programme");
+        }
+
+        schedule.setName(request.getName().trim());
+        schedule.setProgram(program);
+        schedule.setEnvironment(request.getEnvironment());
+        schedule.setOperationName(request.getOperationName());
+        schedule.setRequestBody(request.getRequestBody());
+        schedule.setM3Username(request.getM3Username());
+        schedule.setM3Password(request.getM3Password());
+        schedule.setTimeoutMillis(request.getTimeoutMillis());
+        schedule.setCronExpression(request.getCronExpression().trim());
+        schedule.setJitterSeconds(jitter);
+        schedule.setSkipIfRunning(request.getSkipIfRunning() == null || request.getSkipIfRunning());
+        schedule.setEnabled(request.getEnabled() == null || request.getEnabled());
+    }
+
+    private MwsScheduleResponse toResponse(MwsTestSchedule schedule) {
+        MwsScheduleResponse response = new MwsScheduleResponse();
+        response.setId(schedule.getId().toString());
+        response.setName(schedule.getName());
+        response.setProgramId(schedule.getProgram().getId().toString());
+        response.setEnvironment(schedule.getEnvironment());
+        response.setOperationName(schedule.getOperationName());
+        response.setTimeoutMillis(schedule.getTimeoutMillis());
+        response.setCronExpression(schedule.getCronExpression());
+        response.setJitterSeconds(schedule.getJitterSeconds());
+        response.setSkipIfRunning(schedule.isSkipIfRunning());
+        response.setEnabled(schedule.isEnabled());
+        if (schedule.isEnabled()) {
+            response.setNextRunAt(CronExpression.parse(schedule.getCronExpression()).next(LocalDateTime.now()));
+        }
+        response.setLastRunAt(schedule.getLastRunAt());
+        response.setLastTestId(schedule.getLastTestId() != null ? schedule.getLastTestId().toString() : null);
+        response.setSkippedRuns(schedule.getSkippedRuns());
+        response.setCreatedAt(schedule.getCreatedAt());
+        return response;
+    }
+}
@@ -1,31 +1,79 @@
 package org.example.ariesbackendweb.MWS;
 
-import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.assertions.MwsAssertionEngine;
+import org.example.ariesbackendweb.MWS.dtos.MwsAssertionResultResponse;
+import org.example.ariesbackendweb.MWS.dtos.MwsLoadTestSummaryResponse;
+import org.example.ariesbackendweb.MWS.dtos.MwsTestHistoryItem;
+import org.example.ariesbackendweb.MWS.dtos.MwsTestHistoryPage;
+import org.example.ariesbackendweb.MWS.dtos.MwsTestBatchSubmissionResponse;
+import org.example.ariesbackendweb.MWS.dtos.MwsTestResultMetadata;
 import org.example.ariesbackendweb.MWS.dtos.MwsTestResultResponse;
 import org.example.ariesbackendweb.MWS.dtos.MwsTestStatusResponse;
+import org.example.ariesbackendweb.MWS.dtos.MwsTestStatusSnapshot;
 import org.example.ariesbackendweb.MWS.dtos.MwsTestSubmissionRequest;
 import org.example.ariesbackendweb.MWS.dtos.MwsTestSubmissionResponse;
 import org.example.ariesbackendweb.MWS.dtos.agent.MwsAgentTestRequestDto;
 import org.example.ariesbackendweb.MWS.dtos.agent.MwsAgentTestResult;
 import org.example.ariesbackendweb.MWS.entities.*;
+import org.example.ariesbackendweb.MWS.events.MwsTestStatusEvent;
+import org.example.ariesbackendweb.MWS.execution.MwsDeadlineTracker;
+import org.example.ariesbackendweb.MWS.execution.MwsEndpointLimiter;
+import org.example.ariesbackendweb.MWS.execution.MwsExecutionProperties;
+import org.example.ariesbackendweb.MWS.execution.MwsLoadTestRunner;
+import org.example.ariesbackendweb.MWS.execution.MwsResultWriter;
+import org.example.ariesbackendweb.MWS.execution.MwsTestCompletionTracker;
+import org.example.ariesbackendweb.MWS.execution.MwsTestStatusCache;
+import org.example.ariesbackendweb.MWS.execution.MwsTestDispatcher;
+import org.example.ariesbackendweb.MWS.execution.MwsThrottledException;
+import org.example.ariesbackendweb.MWS.metrics.LatencyHistogram;
+import org.example.ariesbackendweb.MWS.metrics.MwsLatencyRollupAggregator;
+import org.example.ariesbackendweb.MWS.repositories.MwsAssertionResultRepository;
+import org.example.ariesbackendweb.MWS.repositories.MwsLoadTestSummaryRepository;
 import org.example.ariesbackendweb.MWS.repositories.MwsProgramRepository;
+import org.example.ariesbackendweb.MWS.repositories.MwsResponseBodyReader;
 import org.example.ariesbackendweb.MWS.repositories.MwsTestRepository;
 import org.example.ariesbackendweb.MWS.repositories.MwsTestResultRepository;
+import org.example.ariesbackendweb.common.api.AgentProperties;
 import org.example.ariesbackendweb.common.api.AgentService;
+import org.example.ariesbackendweb.common.api.CoalescingStatusPublisher;
+import org.example.ariesbackendweb.common.api.AgentUnavailableException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class MwsTestService {
+
+    private static final int HISTORY_MAX_LIMIT = 200;
+    private static final int IDEMPOTENCY_KEY_MAX_LENGTH = 100;
+
     @Autowired
     MwsTestRepository testRepository;
 
@@ -42,62 +90,484 @@ public class MwsTestService {
     private AgentService agentService;
 
     @Autowired
-    private SimpMessagingTemplate brokerMessagingTemplate;
+    private CoalescingStatusPublisher statusPublisher;
+
+    @Autowired
+    private MwsTestDispatcher testDispatcher;
+
+    @Autowired
+    private MwsLoadTestRunner loadTestRunner;
+
+    @Autowired
+    private MwsLoadTestSummaryRepository loadTestSummaryRepository;
+
+    @Autowired
+    private MwsExecutionProperties executionProperties;
+
+    @Autowired
+    private AgentProperties agentProperties;
+
+    @Autowired
+    private MwsResultWriter resultWriter;
+
+    @Autowired
+    private MwsResponseBodyReader responseBodyReader;
+
+    @Autowired
+    private MwsTestStatusCache statusCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MwsLatencyRollupAggregator rollupAggregator;
+
+    @Autowired
+    private MwsEndpointLimiter endpointLimiter;
+
+    @Autowired
+    private MwsDeadlineTracker deadlineTracker;
+
+    @Autowired
+    private MwsBaselineService baselineService;
+
+    @Autowired
+    private MwsAssertionEngine assertionEngine;
+
+    @Autowired
+    private MwsAssertionResultRepository assertionResultRepository;
+
+    @Autowired
+    private MwsTestCompletionTracker completionTracker;
 
 
+    /**
+     * Soumet un nouveau test pour exécution.
+     *
+     * @see #submitTest(MwsTestSubmissionRequest, String)
+     */
+    @Transactional
+    public MwsTestSubmissionResponse submitTest(MwsTestSubmissionRequest request) {
+        return submitTest(request, null);
+    }
+
     /**
      * Soumet un nouveau test pour exécution.
      * <p>
      * Cette méthode est le point d'entrée principal pour lancer un test.
      * Elle effectue toutes les validations nécessaires, crée l'entité de test
-     * en base de données, et déclenche l'exécution asynchrone.
+     * en base de données, et la place dans la file du moteur d'exécution.
      * <p>
      * Le principe clé ici est de retourner immédiatement à l'utilisateur
      * sans attendre la fin du test. L'utilisateur reçoit un UUID qui lui
      * permet de suivre l'avancement de son test.
+     * <p>
+     * Deux mécanismes évitent de renvoyer à l'agent une demande déjà soumise :
+     * <ul>
+     *   <li>une clé d'idempotence (en-tête Idempotency-Key) : une nouvelle
+     *   soumission avec la même clé retourne le test créé la première fois ;</li>
+     *   <li>la réutilisation optionnelle (reuseWindowSeconds) : un test identique
+     *   (programme, opération, environnement, utilisateur M3, corps de requête)
+     *   créé dans la fenêtre et non échoué est retourné au lieu d'en créer un nouveau.</li>
+     * </ul>
      *
-     * @param request Les paramètres du test à lancer
-     * @return Une réponse contenant l'UUID du test créé
+     * @param request        Les paramètres du test à lancer
+     * @param idempotencyKey La clé d'idempotence fournie par le client, ou null
+     * @return Une réponse contenant l'UUID du test créé (ou réutilisé)
      * @throws IllegalArgumentException Si les données sont invalides
+     * @throws MwsIdempotencyConflictException Si la clé d'idempotence a déjà servi pour une demande différente
+     * @throws java.util.concurrent.RejectedExecutionException Si la file d'exécution est pleine
      */
     @Transactional
-    public MwsTestSubmissionResponse submitTest(MwsTestSubmissionRequest request) {
+    public MwsTestSubmissionResponse submitTest(MwsTestSubmissionRequest request, String idempotencyKey) {
         log.info("Soumission d'un nouveau test pour le programme {} / {}",
                 request.getProgramId(), request.getOperationName());
 
+        String requestHash = computeRequestHash(request);
+
+        // Rejeu d'une soumission déjà reçue avec la même clé
+        if (idempotencyKey != null) {
+            if (idempotencyKey.isBlank() || idempotencyKey.length() > IDEMPOTENCY_KEY_MAX_LENGTH) {
+                throw new IllegalArgumentException("Clé d'idempotence invalide (1 à "
+                        + IDEMPOTENCY_KEY_MAX_LENGTH + " caractères)");
+            }
+
+            Optional<MwsTestSubmissionResponse> replay = findByIdempotencyKey(idempotencyKey, requestHash);
+            if (replay.isPresent()) {
+                log.info("Soumission rejouée avec la clé d'idempotence {}: test {}",
+                        idempotencyKey, replay.get().getTestId());
+                return replay.get();
+            }
+        }
+
         // Étape 1 : Validation du programme MWS
         UUID programUuid = UUID.fromString(request.getProgramId());
         MwsProgram program = programRepository.findById(programUuid)
                 .orElseThrow(() -> new IllegalArgumentException(
                         "Programme MWS non trouvé: " + request.getProgramId()));
 
+        // Étapes 2 à 5 : Validation de l'environnement et de l'opération,
+        // puis création de l'entité MwsTestRequest
+        MwsTestRequest testRequest = buildTestRequest(new ResolvedProgram(program), request);
+        testRequest.setRequestHash(requestHash);
+        testRequest.setIdempotencyKey(idempotencyKey);
+
+        // Réutilisation d'un test identique récent, sur demande explicite
+        Integer reuseWindow = request.getReuseWindowSeconds();
+        if (reuseWindow != null && reuseWindow > 0 && !testRequest.isLoadTest()) {
+            Optional<MwsTestStatusSnapshot> reusable = testRequestRepository.findReusable(
+                            programUuid, testRequest.getOperationName(), testRequest.getEnvironment(), requestHash,
+                            LocalDateTime.now().minusSeconds(reuseWindow), PageRequest.of(0, 1))
+                    .stream()
+                    .findFirst();
+
+            if (reusable.isPresent()) {
+                log.info("Test identique {} réutilisé (fenêtre de {} s)", reusable.get().testId(), reuseWindow);
+                return reusedResponse(reusable.get(),
+                        "Un test identique a été soumis il y a moins de " + reuseWindow + " s, il est réutilisé.");
+            }
+        }
+
+        return persistAndDispatch(testRequest);
+    }
+
+    /**
+     * Soumet un test déclenché par une planification récurrente.
+     * <p>
+     * Le test suit le même chemin qu'une soumission manuelle ; il porte en plus
+     * l'identifiant de la planification, ce qui permet de retrouver l'historique
+     * de ses exécutions (GET /mws/tests?scheduleId=...).
+     *
+     * @param request    Les paramètres du test, reconstruits depuis la planification
+     * @param scheduleId L'UUID de la planification
+     * @throws IllegalArgumentException Si le programme, l'environnement ou l'opération n'existe plus
+     * @throws java.util.concurrent.RejectedExecutionException Si la file d'exécution est pleine
+     */
+    @Transactional
+    public MwsTestSubmissionResponse submitScheduledTest(MwsTestSubmissionRequest request, UUID scheduleId) {
+        MwsProgram program = programRepository.findById(UUID.fromString(request.getProgramId()))
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Programme MWS non trouvé: " + request.getProgramId()));
+
+        MwsTestRequest testRequest = buildTestRequest(new ResolvedProgram(program), request);
+        testRequest.setRequestHash(computeRequestHash(request));
+        testRequest.setScheduleId(scheduleId);
+
+        return persistAndDispatch(testRequest);
+    }
+
+    /**
+     * Indique si une exécution d'une planification est encore en attente ou en cours.
+     */
+    public boolean hasActiveScheduledTest(UUID scheduleId) {
+        return testRequestRepository.existsByScheduleIdAndStatusIn(scheduleId,
+                List.of(MwsTestStatus.QUEUED, MwsTestStatus.PENDING_AGENT, MwsTestStatus.RUNNING));
+    }
+
+    /**
+     * Soumet le test d'une étape de scénario.
+     * <p>
+     * Le test porte l'identifiant de l'exécution du scénario comme batchId :
+     * les étapes d'une exécution se suivent comme un lot.
+     *
+     * @param request Les paramètres du test, variables déjà substituées
+     * @param runId   L'UUID de l'exécution du scénario
+     * @throws IllegalArgumentException Si le programme, l'environnement ou l'opération n'existe plus
+     * @throws java.util.concurrent.RejectedExecutionException Si la file d'exécution est pleine
+     */
+    @Transactional
+    public MwsTestSubmissionResponse submitScenarioStep(MwsTestSubmissionRequest request, UUID runId) {
+        MwsProgram program = programRepository.findById(UUID.fromString(request.getProgramId()))
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Programme MWS non trouvé: " + request.getProgramId()));
+
+        MwsTestRequest testRequest = buildTestRequest(new ResolvedProgram(program), request);
+        testRequest.setRequestHash(computeRequestHash(request));
+        testRequest.setBatchId(runId);
+
+        return persistAndDispatch(testRequest);
+    }
+
+    /**
+     * Attend la fin d'un test (résultat écrit en base).
+     * <p>
+     * L'attente est réveillée par l'événement de fin du test ; le statut est en
+     * outre relu en base à l'inscription, puis toutes les
+     * {@code scenarioPollIntervalMillis} ms : le test peut s'être terminé avant
+     * l'inscription, ou sur une autre instance (file en base). Aucune
+     * transaction n'est ouverte pendant l'attente.
+     *
+     * @param testId        L'UUID du test
+     * @param timeoutMillis Durée maximale d'attente
+     * @return SUCCESS ou FAILED, ou null si le test n'est pas terminé dans le délai
+     */
+    public MwsTestStatus awaitCompletion(UUID testId, long timeoutMillis) throws InterruptedException {
+        CompletableFuture<MwsTestStatus> completion = completionTracker.register(testId);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        try {
+            while (true) {
+                MwsTestStatus status = testRequestRepository.findStatusSnapshotById(testId)
+                        .map(MwsTestStatusSnapshot::status)
+                        .orElseThrow(() -> new IllegalArgumentException("Test non trouvé: " + testId));
+                if (status == MwsTestStatus.SUCCESS || status == MwsTestStatus.FAILED) {
+                    return status;
+                }
+
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return null;
+                }
+                try {
+                    return completion.get(Math.min(remaining,
+                            TimeUnit.MILLISECONDS.toNanos(executionProperties.getScenarioPollIntervalMillis())),
+                            TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    // Relecture du statut en base
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            completionTracker.forget(testId);
+        }
+    }
+
+    /**
+     * Persiste une demande de test validée et la place dans la file d'exécution.
+     */
+    private MwsTestSubmissionResponse persistAndDispatch(MwsTestRequest testRequest) {
+        // Sauvegarde pour générer l'UUID
+        testRequest = testRequestRepository.save(testRequest);
+        eventPublisher.publishEvent(MwsTestStatusEvent.of(testRequest));
+
+        log.info("Test créé avec l'ID: {}", testRequest.getId());
+
+        // Étape 6 : Mise en file d'exécution
+        // Le test sera pris en charge par un worker du moteur d'exécution
+        // après le commit, ce qui permet à submitTest() de retourner immédiatement
+        testDispatcher.dispatch(testRequest.getId(), testRequest.getPriority());
+
+        // Étape 7 : Construction de la réponse
+        return new MwsTestSubmissionResponse(
+                testRequest.getId().toString(),
+                testRequest.getStatus().name(),
+                "Test soumis avec succès. Vous serez notifié une fois l'exécution terminée."
+        );
+    }
+
+    /**
+     * Retourne le test déjà créé avec cette clé d'idempotence, s'il existe.
+     *
+     * @param idempotencyKey La clé d'idempotence
+     * @param requestHash    L'empreinte de la demande en cours, comparée à celle du test existant
+     * @throws MwsIdempotencyConflictException Si la clé a servi pour une demande différente
+     */
+    @Transactional
+    public Optional<MwsTestSubmissionResponse> findByIdempotencyKey(String idempotencyKey, String requestHash) {
+        return testRequestRepository.findByIdempotencyKey(idempotencyKey)
+                .map(existing -> {
+                    if (existing.getRequestHash() != null && !existing.getRequestHash().equals(requestHash)) {
+                        throw new MwsIdempotencyConflictException(
+                                "La clé d'idempotence " + idempotencyKey + " a déjà été utilisée pour une demande différente");
+                    }
+                    return reusedResponse(MwsTestStatusSnapshot.of(existing),
+                            "Test déjà soumis avec cette clé d'idempotence.");
+                });
+    }
+
+    /**
+     * Empreinte SHA-256 de ce qui détermine le résultat d'un test : programme,
+     * opération, environnement, utilisateur M3 et corps de requête.
+     */
+    public String computeRequestHash(MwsTestSubmissionRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[]{
+                    request.getProgramId(),
+                    request.getOperationName() != null ? request.getOperationName().toUpperCase() : null,
+                    request.getEnvironment() != null ? request.getEnvironment().toUpperCase() : null,
+                    request.getM3Username(),
+                    request.getRequestBody() != null ? request.getRequestBody().strip() : null}) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    private MwsTestSubmissionResponse reusedResponse(MwsTestStatusSnapshot existing, String message) {
+        MwsTestSubmissionResponse response = new MwsTestSubmissionResponse(
+                existing.testId().toString(), existing.status().name(), message);
+        response.setCreatedAt(existing.createdAt());
+        response.setReused(true);
+        return response;
+    }
+
+    /**
+     * Soumet un lot de tests pour exécution.
+     * <p>
+     * Contrairement à une succession d'appels à {@link #submitTest}, chaque
+     * programme référencé n'est chargé et analysé qu'une seule fois, et toutes
+     * les demandes de test sont persistées ensemble (insertions JDBC groupées,
+     * cf. hibernate.jdbc.batch_size). Le lot est atomique : si une seule demande
+     * est invalide, ou si la file d'exécution ne peut pas accueillir tout le lot,
+     * aucun test n'est créé.
+     *
+     * @param requests Les paramètres des tests à lancer
+     * @return Une réponse contenant l'identifiant du lot et les UUID des tests créés
+     * @throws IllegalArgumentException Si le lot est vide ou si une demande est invalide
+     * @throws java.util.concurrent.RejectedExecutionException Si la file d'exécution est pleine
+     */
+    @Transactional
+    public MwsTestBatchSubmissionResponse submitBatch(List<MwsTestSubmissionRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("Le lot de tests est vide");
+        }
+
+        UUID batchId = UUID.randomUUID();
+        log.info("Soumission du lot {} contenant {} test(s)", batchId, requests.size());
+
+        // Étape 1 : Chargement de tous les programmes référencés en une seule requête
+        Set<UUID> programIds = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            programIds.add(parseProgramId(requests.get(i), i));
+        }
+
+        Map<UUID, ResolvedProgram> programs = new HashMap<>();
+        for (MwsProgram program : programRepository.findAllById(programIds)) {
+            programs.put(program.getId(), new ResolvedProgram(program));
+        }
+
+        // Étape 2 : Validation et construction de chaque demande de test
+        LocalDateTime now = LocalDateTime.now();
+        List<MwsTestRequest> testRequests = new ArrayList<>(requests.size());
+
+        for (int i = 0; i < requests.size(); i++) {
+            MwsTestSubmissionRequest request = requests.get(i);
+            ResolvedProgram program = programs.get(UUID.fromString(request.getProgramId()));
+
+            if (program == null) {
+                throw new IllegalArgumentException(
+                        "Test #" + i + " : programme MWS non trouvé: " + request.getProgramId());
+            }
+
+            try {
+                MwsTestRequest testRequest = buildTestRequest(program, request);
+                testRequest.setBatchId(batchId);
+                testRequest.setCreatedAt(now);
+                // Les lots passent par défaut dans la voie BULK pour ne pas retarder les tests unitaires
+                if (request.getPriority() == null) {
+                    testRequest.setPriority(MwsTestPriority.BULK);
+                }
+                testRequests.add(testRequest);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Test #" + i + " : " + e.getMessage(), e);
+            }
+        }
+
+        // Étape 3 : Persistance groupée puis mise en file de tout le lot
+        List<UUID> testIds = persistAndDispatchAll(testRequests);
+
+        log.info("Lot {} créé: {} test(s) en file d'exécution", batchId, testIds.size());
+
+        return new MwsTestBatchSubmissionResponse(
+                batchId.toString(),
+                testIds.stream().map(UUID::toString).collect(Collectors.toList()),
+                MwsTestStatus.QUEUED.name(),
+                testIds.size() + " test(s) soumis avec succès."
+        );
+    }
+
+    /**
+     * Soumet un paquet de lignes d'une exécution pilotée par CSV : les tests
+     * sont rattachés à l'exécution par leur batchId et passent par défaut dans
+     * la voie BULK. Comme pour {@link #submitBatch}, le paquet est atomique.
+     *
+     * @param requests Les demandes rendues, toutes pour le même programme
+     * @param runId    L'identifiant de l'exécution
+     * @return Le nombre de tests créés
+     * @throws IllegalArgumentException Si le programme n'existe plus ou si une demande est invalide
+     * @throws java.util.concurrent.RejectedExecutionException Si la file d'exécution ne peut pas accueillir le paquet
+     */
+    @Transactional
+    public int submitDataRunRows(List<MwsTestSubmissionRequest> requests, UUID runId) {
+        if (requests.isEmpty()) {
+            return 0;
+        }
+
+        UUID programId = parseProgramId(requests.get(0), 0);
+        ResolvedProgram program = new ResolvedProgram(programRepository.findById(programId)
+                .orElseThrow(() -> new IllegalArgumentException("Programme MWS non trouvé: " + programId)));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<MwsTestRequest> testRequests = new ArrayList<>(requests.size());
+        for (MwsTestSubmissionRequest request : requests) {
+            MwsTestRequest testRequest = buildTestRequest(program, request);
+            testRequest.setBatchId(runId);
+            testRequest.setCreatedAt(now);
+            if (request.getPriority() == null) {
+                testRequest.setPriority(MwsTestPriority.BULK);
+            }
+            testRequests.add(testRequest);
+        }
+
+        return persistAndDispatchAll(testRequests).size();
+    }
+
+    /**
+     * Persiste des demandes de test validées en une fois (insertions JDBC
+     * groupées) et les place dans la file d'exécution.
+     *
+     * @return Les UUID des tests créés, dans l'ordre des demandes
+     */
+    private List<UUID> persistAndDispatchAll(List<MwsTestRequest> testRequests) {
+        List<MwsTestRequest> saved = testRequestRepository.saveAll(testRequests);
+        saved.forEach(testRequest -> eventPublisher.publishEvent(MwsTestStatusEvent.of(testRequest)));
+
+        testDispatcher.dispatchAll(saved.stream()
+                .collect(Collectors.groupingBy(MwsTestRequest::getPriority,
+                        Collectors.mapping(MwsTestRequest::getId, Collectors.toList()))));
+
+        return saved.stream()
+                .map(MwsTestRequest::getId)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Construit une demande de test à partir d'une soumission, après avoir
+     * validé le programme, l'environnement et l'opération demandés.
+     */
+    private MwsTestRequest buildTestRequest(ResolvedProgram resolved, MwsTestSubmissionRequest request) {
+        MwsProgram program = resolved.program;
+
         if (!program.isActive()) {
             throw new IllegalArgumentException(
                     "Le programme " + program.getCode() + " est désactivé");
         }
 
-        // Étape 2 : Validation de l'environnement et récupération de l'endpoint
-        MwsProgramEndpoint endpoint = program.getEndpoints().stream()
-                .filter(e -> e.getEnvironment().equalsIgnoreCase(request.getEnvironment()))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException(
-                        "Aucun endpoint configuré pour l'environnement: " + request.getEnvironment()));
+        // Validation de l'environnement et récupération de l'endpoint
+        MwsProgramEndpoint endpoint = request.getEnvironment() == null ? null :
+                resolved.endpoints.get(request.getEnvironment().toUpperCase());
 
-        // Étape 3 : Validation de l'opération
-        boolean operationExists = program.getOperations().stream()
-                .anyMatch(op -> op.getOperationName().equalsIgnoreCase(request.getOperationName()));
+        if (endpoint == null) {
+            throw new IllegalArgumentException(
+                    "Aucun endpoint configuré pour l'environnement: " + request.getEnvironment());
+        }
 
-        if (!operationExists) {
+        // Validation de l'opération
+        if (request.getOperationName() == null ||
+                !resolved.operationNames.contains(request.getOperationName().toUpperCase())) {
             throw new IllegalArgumentException(
                     "L'opération '" + request.getOperationName() +
                             "' n'existe pas pour ce programme. Lancez une synchronisation si nécessaire.");
         }
 
-        // Étape 4 : Récupération de l'utilisateur connecté
+        // Récupération de l'utilisateur connecté
         // En production, vous récupéreriez cela depuis Spring Security
 //        String currentUser = getCurrentUsername();
 
-        // Étape 5 : Création de l'entité MwsTestRequest
         MwsTestRequest testRequest = new MwsTestRequest();
         testRequest.setProgram(program);
         testRequest.setServiceName(program.getCode());
@@ -112,47 +582,97 @@ public class MwsTestService {
         testRequest.setEnvironment(request.getEnvironment());
         // TODO régler ça et permettre l'insertion du UUID user
 //        testRequest.setLaunchedBy(currentUser);
-        testRequest.setStatus(MwsTestStatus.CREATED);
+        testRequest.setStatus(MwsTestStatus.QUEUED);
+        testRequest.setPriority(request.getPriority() != null ? request.getPriority() : MwsTestPriority.NORMAL);
         testRequest.setCreatedAt(LocalDateTime.now());
 
-        // Sauvegarde pour générer l'UUID
-        testRequest = testRequestRepository.save(testRequest);
+        if (request.getLoadTest() != null) {
+            applyLoadTestOptions(testRequest, request.getLoadTest());
+        }
 
-        log.info("Test créé avec l'ID: {}", testRequest.getId());
+        return testRequest;
+    }
 
-        // Étape 6 : Déclenchement de l'exécution asynchrone
-        // L'annotation @Async sur la méthode executeTestAsync fait que
-        // cette méthode s'exécute dans un thread séparé, permettant à
-        // submitTest() de retourner immédiatement
-        executeTestAsync(testRequest.getId());
+    /**
+     * Valide et reporte les paramètres du mode tir de charge sur la demande de test.
+     */
+    private void applyLoadTestOptions(MwsTestRequest testRequest,
+                                      MwsTestSubmissionRequest.LoadTestOptions options) {
+        Integer iterations = options.getIterations();
+        if (iterations == null || iterations < 1 ||
+                iterations > executionProperties.getLoadTestMaxIterations()) {
+            throw new IllegalArgumentException(
+                    "Le nombre d'itérations du tir de charge doit être compris entre 1 et " +
+                            executionProperties.getLoadTestMaxIterations());
+        }
 
-        // Étape 7 : Construction de la réponse
-        return new MwsTestSubmissionResponse(
-                testRequest.getId().toString(),
-                testRequest.getStatus().name(),
-                "Test soumis avec succès. Vous serez notifié une fois l'exécution terminée."
-        );
+        int concurrency = options.getConcurrency() != null ? options.getConcurrency() : 1;
+        if (concurrency < 1 || concurrency > executionProperties.getLoadTestMaxConcurrency()) {
+            throw new IllegalArgumentException(
+                    "La concurrence du tir de charge doit être comprise entre 1 et " +
+                            executionProperties.getLoadTestMaxConcurrency());
+        }
+
+        int warmup = options.getWarmupIterations() != null ? options.getWarmupIterations() : 0;
+        if (warmup < 0 || warmup > executionProperties.getLoadTestMaxIterations()) {
+            throw new IllegalArgumentException(
+                    "Le nombre d'itérations de chauffe doit être compris entre 0 et " +
+                            executionProperties.getLoadTestMaxIterations());
+        }
+
+        testRequest.setLoadIterations(iterations);
+        testRequest.setLoadConcurrency(concurrency);
+        testRequest.setLoadWarmupIterations(warmup);
+    }
+
+    private UUID parseProgramId(MwsTestSubmissionRequest request, int index) {
+        try {
+            return UUID.fromString(request.getProgramId());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException(
+                    "Test #" + index + " : identifiant de programme invalide: " + request.getProgramId());
+        }
     }
 
     /**
-     * Exécute un test de manière asynchrone.
+     * Vue pré-calculée d'un programme : endpoints indexés par environnement et
+     * noms d'opérations, pour valider plusieurs soumissions sans reparcourir
+     * les collections du programme à chaque fois.
+     */
+    private static class ResolvedProgram {
+        private final MwsProgram program;
+        private final Map<String, MwsProgramEndpoint> endpoints = new HashMap<>();
+        private final Set<String> operationNames = new HashSet<>();
+
+        private ResolvedProgram(MwsProgram program) {
+            this.program = program;
+            program.getEndpoints().forEach(e ->
+                    endpoints.putIfAbsent(e.getEnvironment().toUpperCase(), e));
+            program.getOperations().forEach(op ->
+                    operationNames.add(op.getOperationName().toUpperCase()));
+        }
+    }
+
+    /**
+     * Exécute un test placé dans la file d'exécution.
      * <p>
-     * Cette méthode s'exécute dans un thread séparé grâce à @Async.
+     * Cette méthode est appelée par un worker de {@link MwsTestDispatcher},
+     * sur un thread virtuel distinct du thread HTTP de soumission.
      * Elle gère toute l'interaction avec l'agent et la persistance
      * des résultats, tout en notifiant l'utilisateur des changements
      * de statut via WebSocket.
      * <p>
-     * L'annotation @Async nécessite que votre application Spring Boot
-     * ait activé le support asynchrone via @EnableAsync dans une classe
-     * de configuration.
+     * Avant l'envoi, le test doit obtenir une autorisation du limiteur de son
+     * endpoint M3 (appels en vol et débit) ; à défaut, il reste QUEUED et
+     * revient dans la file après le délai indiqué par le limiteur.
      *
      * @param testId L'UUID du test à exécuter
      */
-    @Async
-    public void executeTestAsync(UUID testId) {
-        log.info("Début de l'exécution asynchrone du test: {}", testId);
+    public void executeTest(UUID testId) {
+        log.info("Début de l'exécution du test: {}", testId);
 
         MwsTestRequest testRequest = null;
+        MwsEndpointLimiter.Permit permit = null;
 
         try {
             // Récupération du test depuis la base de données
@@ -160,12 +680,38 @@ public class MwsTestService {
             testRequest = testRequestRepository.findById(testId)
                     .orElseThrow(() -> new RuntimeException("Test non trouvé: " + testId));
 
+            // Protection de M3 : un tir de charge prend une autorisation par appel (voir MwsLoadTestRunner)
+            if (!testRequest.isLoadTest()) {
+                try {
+                    permit = endpointLimiter.tryAcquire(testRequest.getEnvironment(), testRequest.getEndpointUrl());
+                } catch (MwsThrottledException e) {
+                    log.debug("Test {} retardé de {} ms: {}", testId, e.getRetryAfterMillis(), e.getMessage());
+                    testDispatcher.dispatchLater(testId, testRequest.getPriority(), e.getRetryAfterMillis());
+                    return;
+                }
+            }
+
+            // L'échéance est posée avant l'envoi : en mode callback, le résultat
+            // peut revenir avant même la réponse de l'agent. Au-delà, le test
+            // est considéré bloqué (voir MwsDeadlineTracker)
+            boolean callbackMode = isCallbackMode(testRequest);
+            if (!testRequest.isLoadTest()) {
+                long graceMillis = callbackMode ? agentProperties.getCallback().getGraceMillis()
+                        : executionProperties.getDeadlineGraceMillis();
+                testRequest.setDeadlineAt(LocalDateTime.now()
+                        .plus(Duration.ofMillis(testRequest.getTimeoutMillis() + graceMillis)));
+                deadlineTracker.track(testId, testRequest.getDeadlineAt());
+            }
+
             // Mise à jour du statut : en attente de l'agent
             updateTestStatus(testRequest, MwsTestStatus.PENDING_AGENT,
                     "Envoi du test à l'agent...");
 
             // Construction du DTO pour l'agent
             MwsAgentTestRequestDto agentRequest = buildAgentRequest(testRequest);
+            if (callbackMode) {
+                agentRequest.setCallbackUrl(buildCallbackUrl(testId));
+            }
 
             // Appel à l'agent pour exécuter le test
             // Cet appel est synchrone du point de vue de ce thread, mais asynchrone
@@ -174,29 +720,218 @@ public class MwsTestService {
             updateTestStatus(testRequest, MwsTestStatus.RUNNING,
                     "Test en cours d'exécution...");
 
-            MwsAgentTestResult agentResult = agentService.sendTestToAgent(agentRequest);
+            if (testRequest.isLoadTest()) {
+                // Mode tir de charge : N exécutions, une seule synthèse persistée
+                MwsLoadTestSummary summary = loadTestRunner.run(testRequest, agentRequest);
+                processLoadTestSummary(testRequest, summary);
+            } else if (callbackMode) {
+                // L'agent répond 202 immédiatement ; le résultat arrivera
+                // sur POST /mws/tests/{id}/callback (voir handleAgentCallback)
+                // L'autorisation est conservée jusqu'au callback, qui peut arriver
+                // avant même la fin de cet appel
+                endpointLimiter.hold(testId, permit);
+                permit = null;
+                try {
+                    agentService.submitTestToAgent(agentRequest);
+                } catch (RuntimeException e) {
+                    endpointLimiter.release(testId);
+                    throw e;
+                }
+                log.info("Test {} accepté par l'agent, en attente du callback", testId);
+            } else {
+                MwsAgentTestResult agentResult = agentService.sendTestToAgent(agentRequest);
+
+                if (!deadlineTracker.cancel(testId)) {
+                    // Le test a déjà été marqué FAILED (TIMEOUT) pendant l'appel
+                    log.warn("Résultat du test {} reçu après son échéance, ignoré", testId);
+                    return;
+                }
+
+                // Traitement du résultat retourné par l'agent
+                processTestResult(testRequest, agentResult);
+            }
 
-            // Traitement du résultat retourné par l'agent
-            processTestResult(testRequest, agentResult);
 
+        } catch (AgentService.AgentCommunicationException e) {
+            if (testRequest != null && releaseDeadline(testRequest)) {
+                if (e.isRetryable(executionProperties.isReadOnlyOperation(testRequest.getOperationName()))
+                        && canBeParked(testRequest)) {
+                    // Agents momentanément indisponibles (redémarrage...) et test
+                    // non transmis ou sans effet sur M3 : le test n'a pas échoué,
+                    // il est remis en file
+                    long delay = e instanceof AgentUnavailableException unavailable ?
+                            unavailable.getRetryAfterMillis() : executionProperties.getParkDelayMillis();
+                    parkTest(testRequest, delay, e.getMessage());
+                } else {
+                    log.error("Erreur de communication avec l'agent pour le test {}", testId, e);
+                    markTestAsFailed(testRequest, e.getMessage());
+                }
+            }
+
+        } catch (InterruptedException e) {
+            // Arrêt de l'application pendant un tir de charge
+            Thread.currentThread().interrupt();
+            log.warn("Exécution du test {} interrompue", testId);
+
+            if (testRequest != null && releaseDeadline(testRequest)) {
+                markTestAsFailed(testRequest, "Exécution interrompue");
+            }
 
         } catch (Exception e) {
             // Toute autre erreur inattendue
             log.error("Erreur inattendue lors de l'exécution du test {}", testId, e);
 
-            if (testRequest != null) {
+            if (testRequest != null && releaseDeadline(testRequest)) {
                 markTestAsFailed(testRequest,
                         "Erreur système: " + e.getMessage());
             }
+
+        } finally {
+            if (permit != null) {
+                permit.close();
+            }
+        }
+    }
+
+    /**
+     * Retire un test en échec du suivi des échéances.
+     *
+     * @return false si le test a déjà expiré (il est alors déjà marqué FAILED)
+     */
+    private boolean releaseDeadline(MwsTestRequest testRequest) {
+        return testRequest.getDeadlineAt() == null || deadlineTracker.cancel(testRequest.getId());
+    }
+
+    /**
+     * Remet en file un test qui n'a pas pu être envoyé faute d'agent disponible.
+     * <p>
+     * Le test repasse au statut QUEUED et sera relancé après le délai indiqué,
+     * augmenté d'une part aléatoire pour étaler les relances.
+     */
+    protected void parkTest(MwsTestRequest testRequest, long delayMillis, String reason) {
+        long delay = delayMillis + ThreadLocalRandom.current().nextLong(delayMillis / 5 + 1);
+
+        log.warn("Test {} remis en file pour {} ms: {}", testRequest.getId(), delay, reason);
+
+        testRequest.setDeadlineAt(null);
+        updateTestStatus(testRequest, MwsTestStatus.QUEUED,
+                "Agents indisponibles, nouvelle tentative programmée");
+        testDispatcher.dispatchLater(testRequest.getId(), testRequest.getPriority(), delay);
+    }
+
+    /**
+     * Un test ne peut être remis en file que pendant une durée limitée après sa création.
+     */
+    private boolean canBeParked(MwsTestRequest testRequest) {
+        LocalDateTime parkDeadline = testRequest.getCreatedAt()
+                .plus(Duration.ofMillis(executionProperties.getParkMaxMillis()));
+        return LocalDateTime.now().isBefore(parkDeadline);
+    }
+
+    /**
+     * Le mode callback ne concerne que les exécutions simples : un tir de charge
+     * reste piloté par le backend, qui mesure lui-même les latences.
+     */
+    private boolean isCallbackMode(MwsTestRequest testRequest) {
+        AgentProperties.Callback callback = agentProperties.getCallback();
+        return callback.isEnabled() && callback.getBaseUrl() != null && !testRequest.isLoadTest();
+    }
+
+    private String buildCallbackUrl(UUID testId) {
+        String baseUrl = agentProperties.getCallback().getBaseUrl();
+        if (baseUrl.endsWith("/")) {
+            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
         }
+        return baseUrl + "/mws/tests/" + testId + "/callback";
+    }
+
+    /**
+     * Traite le résultat POSTé par l'agent pour un test soumis en mode callback.
+     * <p>
+     * Un résultat reçu pour un test qui n'est plus RUNNING (callback rejoué par
+     * l'agent, ou test déjà expiré par {@link #expireTest(UUID)}) est ignoré.
+     * <p>
+     * La transaction est en lecture seule : le statut final n'est écrit que
+     * par {@link MwsResultWriter}, avec le résultat, et non au commit par le
+     * dirty checking de la demande chargée ici.
+     *
+     * @param testId      L'UUID du test
+     * @param agentResult Le résultat envoyé par l'agent
+     * @return true si le résultat a été pris en compte, false s'il a été ignoré
+     * @throws IllegalArgumentException Si le test n'existe pas
+     */
+    @Transactional(readOnly = true)
+    public boolean handleAgentCallback(UUID testId, MwsAgentTestResult agentResult) {
+        MwsTestRequest testRequest = testRequestRepository.findById(testId)
+                .orElseThrow(() -> new IllegalArgumentException("Test non trouvé: " + testId));
+
+        agentService.releaseCallback(testId.toString());
+        endpointLimiter.release(testId);
+
+        // Le suivi des échéances est propre à chaque instance : avec la file en
+        // base, le callback peut arriver sur une autre instance que celle qui suit le test
+        if (!deadlineTracker.cancel(testId) && testRequest.getDeadlineAt() != null
+                && testRequest.getDeadlineAt().isBefore(LocalDateTime.now())) {
+            log.warn("Résultat reçu pour le test {} après son échéance, ignoré", testId);
+            return false;
+        }
+
+        if (testRequest.getStatus() != MwsTestStatus.RUNNING || resultWriter.isPending(testId)) {
+            log.warn("Résultat reçu pour le test {} au statut {}, ignoré",
+                    testId, testRequest.getStatus());
+            return false;
+        }
+
+        testRequest.setDeadlineAt(null);
+        processTestResult(testRequest, agentResult);
+        return true;
+    }
+
+    /**
+     * Marque comme FAILED (motif TIMEOUT) un test dont l'échéance est dépassée :
+     * agent arrêté en cours d'appel, callback perdu, backend redémarré...
+     * Appelée par {@link MwsDeadlineTracker}, qui a déjà retiré le test du suivi.
+     *
+     * @return true si le test a été expiré, false s'il était déjà terminé
+     */
+    public boolean expireTest(UUID testId) {
+        MwsTestRequest testRequest = testRequestRepository.findById(testId).orElse(null);
+        if (testRequest == null || resultWriter.isPending(testId)
+                || (testRequest.getStatus() != MwsTestStatus.RUNNING
+                && testRequest.getStatus() != MwsTestStatus.PENDING_AGENT)) {
+            return false;
+        }
+
+        agentService.releaseCallback(testId.toString());
+        endpointLimiter.release(testId);
+        markTestAsFailed(testRequest, "TIMEOUT: aucun résultat de l'agent avant l'échéance ("
+                + testRequest.getDeadlineAt() + ", timeout " + testRequest.getTimeoutMillis() + " ms)");
+        return true;
+    }
+
+    /**
+     * Marque comme FAILED un test resté RUNNING lors d'un arrêt du backend et
+     * qui ne peut pas être relancé sans risque (voir MwsStartupRecovery).
+     *
+     * @return true si le test a été marqué FAILED, false s'il n'était plus RUNNING
+     */
+    public boolean failInterruptedTest(UUID testId, String reason) {
+        MwsTestRequest testRequest = testRequestRepository.findById(testId).orElse(null);
+        if (testRequest == null || testRequest.getStatus() != MwsTestStatus.RUNNING
+                || resultWriter.isPending(testId)) {
+            return false;
+        }
+
+        markTestAsFailed(testRequest, reason);
+        return true;
     }
 
     /**
      * Traite le résultat reçu de l'agent et le persiste en base de données.
      * <p>
-     * Cette méthode crée une nouvelle entité MwsTestResult, met à jour
-     * le statut de la demande de test, et notifie l'utilisateur que
-     * les résultats sont disponibles.
+     * Cette méthode crée une nouvelle entité MwsTestResult et la confie au
+     * {@link MwsResultWriter}, qui la persiste par lots avec le statut final
+     * de la demande, puis notifie l'utilisateur que les résultats sont disponibles.
      */
     @Transactional
     protected void processTestResult(MwsTestRequest testRequest, MwsAgentTestResult agentResult) {
@@ -221,23 +956,67 @@ public class MwsTestService {
         result.setAgentVersion(agentResult.getAgentVersion());
         result.setEnvironment(testRequest.getEnvironment());
 
-        // Sauvegarde du résultat
-        testResultRepository.save(result);
+        // Assertions métier de l'opération : une réponse SOAP sans fault peut
+        // tout de même être fausse (champ vide, statut inattendu)
+        boolean success = agentResult.isSuccess();
+        if (!assertionEngine.applyAssertions(testRequest, result) && success) {
+            success = false;
+            result.setSuccess(false);
+            result.getAssertionResults().stream()
+                    .filter(assertion -> !assertion.isPassed())
+                    .findFirst()
+                    .ifPresent(assertion -> result.setErrorMessage(result.getAssertionsFailed() +
+                            " assertion(s) en échec, dont '" + assertion.getName() + "': " + assertion.getMessage()));
+        }
 
-        // Mise à jour du statut de la demande
-        MwsTestStatus finalStatus = agentResult.isSuccess() ?
+        MwsTestStatus finalStatus = success ?
+                MwsTestStatus.SUCCESS : MwsTestStatus.FAILED;
+
+        testRequest.setStatus(finalStatus);
+        testRequest.setCompletedAt(LocalDateTime.now());
+
+        // Agrégats de latence par opération et par heure
+        rollupAggregator.record(testRequest.getProgram().getId(), testRequest.getOperationName(),
+                testRequest.getEnvironment(), testRequest.getCompletedAt(),
+                agentResult.getDurationMillis(), success);
+
+        // Comparaison à la réponse de référence, avant l'écriture qui la stocke avec le résultat
+        baselineService.compareWithBaseline(testRequest, result);
+
+        // Sauvegarde du résultat et mise à jour du statut de la demande par lots ;
+        // l'utilisateur est notifié une fois le résultat écrit
+        resultWriter.write(result, finalStatus, MwsTestStatus.COMPLETED.name());
+
+        log.info("Test {} terminé avec le statut: {}",
+                testRequest.getId(), finalStatus);
+    }
+
+    /**
+     * Persiste la synthèse d'un tir de charge et clôture la demande de test.
+     * <p>
+     * Le test est considéré réussi si aucune des exécutions mesurées n'a échoué.
+     */
+    @Transactional
+    protected void processLoadTestSummary(MwsTestRequest testRequest, MwsLoadTestSummary summary) {
+        loadTestSummaryRepository.save(summary);
+
+        MwsTestStatus finalStatus = summary.getFailureCount() == 0 ?
                 MwsTestStatus.SUCCESS : MwsTestStatus.FAILED;
 
         testRequest.setStatus(finalStatus);
-        // TODO : ajouter le completedAt
         testRequest.setCompletedAt(LocalDateTime.now());
         testRequestRepository.save(testRequest);
+        statusCache.put(testRequest);
+
+        rollupAggregator.recordAll(testRequest.getProgram().getId(), testRequest.getOperationName(),
+                testRequest.getEnvironment(), testRequest.getCompletedAt(),
+                LatencyHistogram.fromByteArray(summary.getDurationHistogram()), summary.getSuccessCount());
+        eventPublisher.publishEvent(MwsTestStatusEvent.of(testRequest));
 
-        // Notification de l'utilisateur
-        brokerMessagingTemplate.convertAndSend("/topic/status/" + testRequest.getId(),
+        statusPublisher.publish("/topic/status/" + testRequest.getId(),
                 MwsTestStatus.COMPLETED.name());
 
-        log.info("Test {} terminé avec le statut: {}",
+        log.info("Tir de charge {} terminé avec le statut: {}",
                 testRequest.getId(), finalStatus);
     }
 
@@ -262,16 +1041,12 @@ public class MwsTestService {
         result.setDurationMillis(0L);
         result.setEnvironment(testRequest.getEnvironment());
 
-        testResultRepository.save(result);
-
         // Mise à jour du statut
         testRequest.setStatus(MwsTestStatus.FAILED);
         testRequest.setCompletedAt(LocalDateTime.now());
-        testRequestRepository.save(testRequest);
 
-        // Notification
-        brokerMessagingTemplate.convertAndSend("/topic/status/" + testRequest.getId(),
-                MwsTestStatus.FAILED.name());
+        // Écriture groupée, suivie de la notification
+        resultWriter.write(result, MwsTestStatus.FAILED, MwsTestStatus.FAILED.name());
     }
 
     /**
@@ -286,9 +1061,11 @@ public class MwsTestService {
 
         testRequest.setStatus(newStatus);
         testRequestRepository.save(testRequest);
+        statusCache.put(testRequest);
+        eventPublisher.publishEvent(MwsTestStatusEvent.of(testRequest));
 
         // Notification temps réel
-        brokerMessagingTemplate.convertAndSend("/topic/status/" + testRequest.getId(),
+        statusPublisher.publish("/topic/status/" + testRequest.getId(),
                 newStatus.name());
     }
 
@@ -319,38 +1096,49 @@ public class MwsTestService {
      * Cette méthode est appelée par l'UI pour afficher l'avancement d'un test.
      * Elle peut être pollée régulièrement ou appelée suite à une notification
      * WebSocket pour récupérer les détails.
+     * <p>
+     * Le statut est lu dans le {@link MwsTestStatusCache}, tenu à jour à chaque
+     * transition : le polling ne sollicite pas la base. Seul un test absent du
+     * cache (terminé depuis longtemps, ou soumis avant le démarrage) est lu en
+     * base, via une projection qui ne charge pas les corps SOAP. Avec la file
+     * en base, un test en cours est aussi relu après quelques secondes : ses
+     * transitions peuvent avoir lieu sur une autre instance.
      */
-    @Transactional
     public MwsTestStatusResponse getTestStatus(UUID testId) {
         log.debug("Récupération du statut du test: {}", testId);
 
-        MwsTestRequest testRequest = testRequestRepository.findById(testId)
-                .orElseThrow(() -> new IllegalArgumentException(
-                        "Test non trouvé: " + testId));
+        MwsTestStatusSnapshot snapshot = statusCache.get(testId)
+                .orElseGet(() -> {
+                    MwsTestStatusSnapshot loaded = testRequestRepository.findStatusSnapshotById(testId)
+                            .orElseThrow(() -> new IllegalArgumentException(
+                                    "Test non trouvé: " + testId));
+                    // Une transition survenue pendant la lecture l'emporte
+                    return statusCache.putIfAbsent(loaded);
+                });
 
         MwsTestStatusResponse response = new MwsTestStatusResponse();
         response.setTestId(testId.toString());
-        response.setProgramName(testRequest.getServiceName());
-        response.setOperationName(testRequest.getOperationName());
-        response.setEnvironment(testRequest.getEnvironment());
-        response.setStatus(testRequest.getStatus().name());
-        response.setCreatedAt(testRequest.getCreatedAt());
-        response.setCompletedAt(testRequest.getCompletedAt());
+        response.setProgramName(snapshot.serviceName());
+        response.setOperationName(snapshot.operationName());
+        response.setEnvironment(snapshot.environment());
+        response.setStatus(snapshot.status().name());
+        response.setCreatedAt(snapshot.createdAt());
+        response.setCompletedAt(snapshot.completedAt());
 //        response.setSubmittedBy(testRequest.getSubmittedBy());
 
         // Calcul de la durée si le test est terminé
-        if (testRequest.getCompletedAt() != null) {
+        if (snapshot.completedAt() != null) {
             response.setDurationMillis(
                     java.time.Duration.between(
-                            testRequest.getCreatedAt(),
-                            testRequest.getCompletedAt()
+                            snapshot.createdAt(),
+                            snapshot.completedAt()
                     ).toMillis()
             );
         }
 
         // Calcul du pourcentage de progression approximatif
-        response.setProgressPercentage(calculateProgress(testRequest.getStatus()));
-        response.setStatusMessage(getStatusMessage(testRequest.getStatus()));
+        response.setProgressPercentage(calculateProgress(snapshot.status()));
+        response.setStatusMessage(getStatusMessage(snapshot.status()));
 
         return response;
     }
@@ -360,6 +1148,18 @@ public class MwsTestService {
      */
     @Transactional
     public MwsTestResultResponse getTestResult(UUID testId) {
+        return getTestResult(testId, true);
+    }
+
+    /**
+     * Récupère les résultats d'un test terminé.
+     * <p>
+     * Avec includeBody=false, seules les métadonnées et la taille du corps de
+     * réponse sont retournées : les colonnes volumineuses ne sont pas lues et
+     * le corps se télécharge séparément via {@link #writeResponseBody}.
+     */
+    @Transactional
+    public MwsTestResultResponse getTestResult(UUID testId, boolean includeBody) {
         log.info("Récupération des résultats du test: {}", testId);
 
         MwsTestRequest testRequest = testRequestRepository.findById(testId)
@@ -373,12 +1173,6 @@ public class MwsTestService {
                     "Le test n'est pas encore terminé. Statut actuel: " + testRequest.getStatus());
         }
 
-        // Récupération du résultat
-        MwsTestResult result = testRequest.getResults().stream()
-                .findFirst()
-                .orElseThrow(() -> new IllegalStateException(
-                        "Aucun résultat trouvé pour ce test"));
-
         // Construction de la réponse
         MwsTestResultResponse response = new MwsTestResultResponse();
         response.setTestId(testId.toString());
@@ -388,10 +1182,53 @@ public class MwsTestService {
         response.setStatus(testRequest.getStatus().name());
         response.setCreatedAt(testRequest.getCreatedAt());
         response.setCompletedAt(testRequest.getCompletedAt());
-        response.setRequestBody(testRequest.getRequestBody());
+        if (includeBody) {
+            response.setRequestBody(testRequest.getRequestBody());
+        }
+
+        // Un tir de charge n'a pas de résultat individuel, seulement une synthèse
+        // (un tir interrompu avant la synthèse n'a qu'un résultat d'échec)
+        MwsLoadTestSummary summary = testRequest.isLoadTest() ?
+                loadTestSummaryRepository.findByRequest_Id(testId).orElse(null) : null;
+
+        if (summary != null) {
+            response.setSuccess(summary.getFailureCount() == 0);
+            response.setDurationMillis(summary.getWallClockMillis());
+            response.setErrorMessage(summary.getFirstErrorMessage());
+            response.setLoadTestSummary(toLoadTestSummaryResponse(summary));
+            return response;
+        }
+
+        if (!includeBody) {
+            MwsTestResultMetadata metadata = testResultRepository.findMetadataByRequestId(testId).stream()
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException(
+                            "Aucun résultat trouvé pour ce test"));
+
+            response.setSuccess(metadata.getSuccess());
+            response.setHttpStatus(metadata.getHttpStatus());
+            response.setResponseBodySize(metadata.getResponseBodySize());
+            response.setErrorMessage(metadata.getErrorMessage());
+            response.setDurationMillis(metadata.getDurationMillis());
+            response.setNetworkTimeMillis(metadata.getTimeTaken());
+            response.setExecutedBy(metadata.getExecutedBy());
+            response.setAgentVersion(metadata.getAgentVersion());
+            response.setBaselineMatch(metadata.getBaselineMatch());
+            response.setBaselineDiff(metadata.getBaselineDiff());
+            applyAssertionResults(response, testId, metadata.getAssertionsPassed(), metadata.getAssertionsFailed());
+            return response;
+        }
+
+        // Récupération du résultat
+        MwsTestResult result = testRequest.getResults().stream()
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException(
+                        "Aucun résultat trouvé pour ce test"));
+
         response.setSuccess(result.getSuccess());
         response.setHttpStatus(result.getHttpStatus());
         response.setResponseBody(result.getResponseBody());
+        response.setResponseBodySize(result.getResponseBodySize());
 //        response.setResponseHeaders(result.getResponseHeaders());
         response.setErrorMessage(result.getErrorMessage());
         response.setExceptionStackTrace(result.getExceptionStackTrace());
@@ -399,11 +1236,141 @@ public class MwsTestService {
         response.setNetworkTimeMillis(result.getTimeTaken());
         response.setExecutedBy(result.getExecutedBy());
         response.setAgentVersion(result.getAgentVersion());
+        response.setBaselineMatch(result.getBaselineMatch());
+        response.setBaselineDiff(result.getBaselineDiff());
+        applyAssertionResults(response, testId, result.getAssertionsPassed(), result.getAssertionsFailed());
 //        response.setSubmittedBy(testRequest.getSubmittedBy());
 
         return response;
     }
 
+    /**
+     * Ajoute à la réponse le décompte et, si l'opération en a, le détail des assertions.
+     */
+    private void applyAssertionResults(MwsTestResultResponse response, UUID testId,
+                                       Integer passed, Integer failed) {
+        response.setAssertionsPassed(passed);
+        response.setAssertionsFailed(failed);
+        if (passed == null && failed == null) {
+            return;
+        }
+        response.setAssertions(assertionResultRepository.findByTestId(testId).stream()
+                .map(assertion -> {
+                    MwsAssertionResultResponse item = new MwsAssertionResultResponse();
+                    item.setAssertionId(assertion.getAssertionId());
+                    item.setName(assertion.getName());
+                    item.setPassed(assertion.isPassed());
+                    item.setActualValue(assertion.getActualValue());
+                    item.setMessage(assertion.getMessage());
+                    return item;
+                })
+                .toList());
+    }
+
+    /**
+     * Vérifie qu'un test est terminé et a un résultat, avant d'en lancer le
+     * téléchargement du corps de réponse.
+     *
+     * @throws IllegalArgumentException Si le test n'existe pas
+     * @throws IllegalStateException    Si le test n'est pas terminé ou n'a pas de résultat
+     */
+    public void ensureResponseBodyAvailable(UUID testId) {
+        MwsTestStatus status = testRequestRepository.findStatusById(testId)
+                .orElseThrow(() -> new IllegalArgumentException("Test non trouvé: " + testId));
+
+        if ((status != MwsTestStatus.SUCCESS && status != MwsTestStatus.FAILED) || resultWriter.isPending(testId)) {
+            throw new IllegalStateException("Le test n'est pas encore terminé. Statut actuel: " + status);
+        }
+
+        if (testResultRepository.findMetadataByRequestId(testId).isEmpty()) {
+            throw new IllegalStateException("Aucun résultat trouvé pour ce test");
+        }
+    }
+
+    /**
+     * Écrit en flux le corps de réponse SOAP d'un test, sans le charger en mémoire.
+     *
+     * @param testId L'UUID du test
+     * @param out    Le flux de destination (éventuellement compressé en gzip par l'appelant)
+     */
+    public void writeResponseBody(UUID testId, OutputStream out) {
+        if (!responseBodyReader.writeResponseBody(testId, out)) {
+            log.warn("Aucun corps de réponse à transmettre pour le test {}", testId);
+        }
+    }
+
+    private MwsLoadTestSummaryResponse toLoadTestSummaryResponse(MwsLoadTestSummary summary) {
+        MwsLoadTestSummaryResponse response = new MwsLoadTestSummaryResponse();
+        response.setIterations(summary.getIterations());
+        response.setConcurrency(summary.getConcurrency());
+        response.setWarmupIterations(summary.getWarmupIterations());
+        response.setSuccessCount(summary.getSuccessCount());
+        response.setFailureCount(summary.getFailureCount());
+        response.setDurationMin(summary.getDurationMin());
+        response.setDurationMean(summary.getDurationMean());
+        response.setDurationP50(summary.getDurationP50());
+        response.setDurationP90(summary.getDurationP90());
+        response.setDurationP99(summary.getDurationP99());
+        response.setDurationMax(summary.getDurationMax());
+        response.setNetworkP50(summary.getNetworkP50());
+        response.setNetworkP90(summary.getNetworkP90());
+        response.setNetworkP99(summary.getNetworkP99());
+        response.setNetworkMax(summary.getNetworkMax());
+        response.setWallClockMillis(summary.getWallClockMillis());
+        response.setThroughputPerSecond(summary.getThroughputPerSecond());
+        response.setFirstErrorMessage(summary.getFirstErrorMessage());
+        return response;
+    }
+
+    /**
+     * Liste l'historique des tests MWS, du plus récent au plus ancien.
+     * <p>
+     * La pagination est par clé (createdAt, id) et non par offset : le coût
+     * d'une page ne dépend pas de sa profondeur dans l'historique. Le curseur
+     * retourné par une page est à repasser pour obtenir la suivante.
+     *
+     * @param cursor Le curseur de la page précédente, ou null pour la première page
+     * @param limit  Le nombre de tests par page (borné à {@link #HISTORY_MAX_LIMIT})
+     * @throws IllegalArgumentException Si le curseur est invalide
+     */
+    public MwsTestHistoryPage listTests(UUID programId, String operationName, String environment,
+                                        MwsTestStatus status, UUID scheduleId,
+                                        LocalDateTime from, LocalDateTime to,
+                                        String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, HISTORY_MAX_LIMIT));
+
+        LocalDateTime afterCreatedAt = null;
+        UUID afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                afterCreatedAt = LocalDateTime.parse(parts[0]);
+                afterId = UUID.fromString(parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Curseur de pagination invalide: " + cursor, e);
+            }
+        }
+
+        // Un élément de plus que la page pour savoir s'il en reste
+        List<MwsTestHistoryItem> items = testRequestRepository.findHistory(
+                programId, operationName, environment, status, scheduleId, from, to,
+                afterCreatedAt, afterId, pageSize + 1);
+
+        boolean hasMore = items.size() > pageSize;
+        if (hasMore) {
+            items = items.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            MwsTestHistoryItem last = items.get(items.size() - 1);
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    (last.createdAt() + "|" + last.testId()).getBytes(StandardCharsets.UTF_8));
+        }
+
+        return new MwsTestHistoryPage(items, nextCursor, hasMore);
+    }
+
     /**
      * Liste tous les tests d'un utilisateur.
      */
@@ -436,6 +1403,7 @@ public class MwsTestService {
     private Integer calculateProgress(MwsTestStatus status) {
         return switch (status) {
             case CREATED -> 10;
+            case QUEUED -> 15;
             case PENDING_AGENT -> 25;
             case RUNNING -> 50;
             case SUCCESS, FAILED -> 100;
@@ -449,6 +1417,7 @@ public class MwsTestService {
     private String getStatusMessage(MwsTestStatus status) {
         return switch (status) {
             case CREATED -> "Test créé, en attente de traitement";
+            case QUEUED -> "Test en file d'attente d'exécution";
             case PENDING_AGENT -> "Envoi à l'agent en cours...";
             case RUNNING -> "Exécution du test en cours...";
             case SUCCESS -> "Test terminé avec succès";
@@ -0,0 +1,306 @@
+package org.example.ariesbackendweb.MWS.assertions;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.entities.MwsAssertionCondition;
+import org.example.ariesbackendweb.MWS.entities.MwsAssertionResult;
+import org.example.ariesbackendweb.MWS.entities.MwsOperationAssertion;
+import org.example.ariesbackendweb.MWS.entities.MwsTestRequest;
+import org.example.ariesbackendweb.MWS.entities.MwsTestResult;
+import org.example.ariesbackendweb.MWS.execution.MwsExecutionProperties;
+import org.example.ariesbackendweb.MWS.repositories.MwsOperationAssertionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.w3c.dom.Document;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Évaluation des assertions XPath d'une opération sur les réponses SOAP.
+ *
+ * Les assertions actives d'une opération sont chargées et compilées à la
+ * première réponse, puis conservées en cache (au plus
+ * {@code assertionCacheTtlMillis}) : une opération sans assertion ne coûte
+ * qu'une lecture du cache. Une {@link XPathExpression} n'étant pas utilisable
+ * par plusieurs threads à la fois, chaque opération garde un petit stock de
+ * jeux d'expressions compilées, emprunté le temps d'une évaluation : il y a
+ * au plus autant de compilations que d'évaluations simultanées.
+ *
+ * Chaque réponse est lue une seule fois, en un DOM sans espaces de noms
+ * (voir {@link ResponseDocuments}), sur lequel toutes les assertions sont évaluées.
+ */
+@Component
+@Slf4j
+public class MwsAssertionEngine {
+
+    private static final int MAX_ACTUAL_VALUE_LENGTH = 255;
+    private static final int MAX_MESSAGE_LENGTH = 500;
+
+    @Autowired
+    private MwsOperationAssertionRepository assertionRepository;
+
+    @Autowired
+    private MwsExecutionProperties properties;
+
+    private final Map<OperationKey, CompiledOperation> cache = new ConcurrentHashMap<>();
+
+    private record OperationKey(UUID programId, String operationName) {
+    }
+
+    /**
+     * Assertion active, copiée de l'entité pour être partagée entre threads.
+     */
+    private record Definition(Long id, String name, String xpath, MwsAssertionCondition condition,
+                              String expectedValue, Pattern pattern) {
+    }
+
+    /**
+     * Assertions compilées d'une opération.
+     */
+    private static class CompiledOperation {
+
+        private final List<Definition> definitions;
+        private final long loadedAt = System.currentTimeMillis();
+
+        // Jeux d'expressions libres, dans l'ordre de definitions
+        private final Queue<XPathExpression[]> pool = new ConcurrentLinkedQueue<>();
+
+        private CompiledOperation(List<Definition> definitions) {
+            this.definitions = definitions;
+        }
+
+        private XPathExpression[] borrow() throws XPathExpressionException {
+            XPathExpression[] expressions = pool.poll();
+            if (expressions != null) {
+                return expressions;
+            }
+            expressions = new XPathExpression[definitions.size()];
+            XPath xpath = ResponseDocuments.newXPath();
+            for (int i = 0; i < expressions.length; i++) {
+                expressions[i] = xpath.compile(definitions.get(i).xpath());
+            }
+            return expressions;
+        }
+
+        private void release(XPathExpression[] expressions) {
+            pool.offer(expressions);
+        }
+    }
+
+    /**
+     * Évalue les assertions de l'opération du test sur la réponse, et reporte
+     * le détail et le décompte des assertions sur le résultat.
+     *
+     * @return false si au moins une assertion a échoué, true sinon (y compris sans assertion)
+     */
+    public boolean applyAssertions(MwsTestRequest testRequest, MwsTestResult result) {
+        if (testRequest.isLoadTest() || result.getResponseBody() == null) {
+            return true;
+        }
+
+        CompiledOperation operation;
+        try {
+            operation = compiledOperation(testRequest.getProgram().getId(), testRequest.getOperationName());
+        } catch (Exception e) {
+            log.warn("Chargement des assertions impossible pour le test {}: {}", testRequest.getId(), e.getMessage());
+            return true;
+        }
+        if (operation.definitions.isEmpty()) {
+            return true;
+        }
+
+        List<MwsAssertionResult> outcomes = evaluate(operation, result.getResponseBody());
+
+        int failed = 0;
+        for (MwsAssertionResult outcome : outcomes) {
+            outcome.setResult(result);
+            if (!outcome.isPassed()) {
+                failed++;
+            }
+        }
+        result.setAssertionResults(outcomes);
+        result.setAssertionsPassed(outcomes.size() - failed);
+        result.setAssertionsFailed(failed);
+
+        if (failed > 0) {
+            log.info("Test {} : {} assertion(s) en échec sur {}", testRequest.getId(), failed, outcomes.size());
+        }
+        return failed == 0;
+    }
+
+    /**
+     * Vérifie qu'une assertion est valide (XPath compilable, valeur attendue et
+     * expression régulière cohérentes avec la condition).
+     *
+     * @throws IllegalArgumentException Si l'assertion est invalide
+     */
+    public void validate(String xpath, MwsAssertionCondition condition, String expectedValue) {
+        if (xpath == null || xpath.isBlank()) {
+            throw new IllegalArgumentException("L'expression XPath est obligatoire");
+        }
+        if (condition == null) {
+            throw new IllegalArgumentException("La condition est obligatoire");
+        }
+        try {
+            ResponseDocuments.newXPath().compile(xpath);
+        } catch (XPathExpressionException e) {
+            throw new IllegalArgumentException("Expression XPath invalide: " + xpath);
+        }
+
+        boolean needsValue = condition == MwsAssertionCondition.EQUALS || condition == MwsAssertionCondition.NOT_EQUALS
+                || condition == MwsAssertionCondition.CONTAINS || condition == MwsAssertionCondition.MATCHES;
+        if (needsValue && expectedValue == null) {
+            throw new IllegalArgumentException("La condition " + condition + " nécessite une valeur attendue");
+        }
+        if (condition == MwsAssertionCondition.MATCHES) {
+            try {
+                Pattern.compile(expectedValue);
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException("Expression régulière invalide: " + expectedValue);
+            }
+        }
+    }
+
+    /**
+     * Oublie les assertions compilées d'une opération.
+     * Si une transaction est active, l'invalidation n'a lieu qu'après son commit.
+     */
+    public void invalidate(UUID programId, String operationName) {
+        afterCommit(() -> cache.remove(new OperationKey(programId, operationName)));
+    }
+
+    /**
+     * Oublie les assertions compilées de toutes les opérations d'un programme
+     * (resynchronisation des opérations).
+     */
+    public void invalidateProgram(UUID programId) {
+        afterCommit(() -> cache.keySet().removeIf(key -> key.programId().equals(programId)));
+    }
+
+    private CompiledOperation compiledOperation(UUID programId, String operationName) {
+        OperationKey key = new OperationKey(programId, operationName);
+        CompiledOperation operation = cache.get(key);
+        if (operation != null && System.currentTimeMillis() - operation.loadedAt < properties.getAssertionCacheTtlMillis()) {
+            return operation;
+        }
+
+        // Deux chargements simultanés sont sans conséquence : le dernier reste en cache
+        List<Definition> definitions = new ArrayList<>();
+        for (MwsOperationAssertion assertion : assertionRepository.findByOperation(programId, operationName)) {
+            if (!assertion.isEnabled()) {
+                continue;
+            }
+            Pattern pattern = assertion.getCondition() == MwsAssertionCondition.MATCHES
+                    ? Pattern.compile(assertion.getExpectedValue()) : null;
+            definitions.add(new Definition(assertion.getId(), assertion.getName(), assertion.getXpath(),
+                    assertion.getCondition(), assertion.getExpectedValue(), pattern));
+        }
+
+        operation = new CompiledOperation(List.copyOf(definitions));
+        cache.put(key, operation);
+        return operation;
+    }
+
+    private List<MwsAssertionResult> evaluate(CompiledOperation operation, String responseBody) {
+        List<Definition> definitions = operation.definitions;
+        List<MwsAssertionResult> outcomes = new ArrayList<>(definitions.size());
+
+        Document document;
+        try {
+            document = ResponseDocuments.parse(responseBody);
+        } catch (XMLStreamException e) {
+            for (Definition definition : definitions) {
+                outcomes.add(outcome(definition, false, null, "Réponse non XML: " + e.getMessage()));
+            }
+            return outcomes;
+        }
+
+        XPathExpression[] expressions;
+        try {
+            expressions = operation.borrow();
+        } catch (XPathExpressionException e) {
+            // Une assertion modifiée sur une autre instance peut ne plus compiler ici
+            for (Definition definition : definitions) {
+                outcomes.add(outcome(definition, false, null, "Expression XPath invalide: " + e.getMessage()));
+            }
+            return outcomes;
+        }
+
+        try {
+            for (int i = 0; i < definitions.size(); i++) {
+                outcomes.add(check(definitions.get(i), expressions[i], document));
+            }
+        } finally {
+            operation.release(expressions);
+        }
+        return outcomes;
+    }
+
+    private static MwsAssertionResult check(Definition definition, XPathExpression expression, Document document) {
+        try {
+            if (definition.condition() == MwsAssertionCondition.EXISTS) {
+                boolean exists = (Boolean) expression.evaluate(document, XPathConstants.BOOLEAN);
+                return outcome(definition, exists, String.valueOf(exists), exists ? null : "Aucun nœud trouvé");
+            }
+
+            String actual = expression.evaluate(document).strip();
+            String expected = definition.expectedValue();
+            boolean passed = switch (definition.condition()) {
+                case NOT_EMPTY -> !actual.isEmpty();
+                case EQUALS -> actual.equals(expected);
+                case NOT_EQUALS -> !actual.equals(expected);
+                case CONTAINS -> actual.contains(expected);
+                case MATCHES -> definition.pattern().matcher(actual).matches();
+                case EXISTS -> throw new IllegalStateException();
+            };
+            return outcome(definition, passed, actual, passed ? null :
+                    definition.condition() + (expected != null ? " '" + expected + "'" : "") +
+                            " attendu, '" + actual + "' obtenu");
+
+        } catch (XPathExpressionException e) {
+            return outcome(definition, false, null, "Évaluation impossible: " + e.getMessage());
+        }
+    }
+
+    private static MwsAssertionResult outcome(Definition definition, boolean passed, String actual, String message) {
+        MwsAssertionResult outcome = new MwsAssertionResult();
+        outcome.setAssertionId(definition.id());
+        outcome.setName(definition.name());
+        outcome.setPassed(passed);
+        outcome.setActualValue(truncate(actual, MAX_ACTUAL_VALUE_LENGTH));
+        outcome.setMessage(truncate(message, MAX_MESSAGE_LENGTH));
+        return outcome;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.ariesbackendweb.MWS.assertions;
+
+import org.w3c.dom.DOMImplementation;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathFactory;
+import java.io.StringReader;
+
+/**
+ * Lecture des réponses SOAP pour l'évaluation d'expressions XPath
+ * (assertions, extraction de variables des scénarios).
+ *
+ * La réponse est lue en une passe StAX vers un DOM sans espaces de noms :
+ * éléments et attributs n'y portent que leur nom local, ce qui permet
+ * d'écrire //CUNM plutôt que //ns:CUNM avec un contexte de préfixes.
+ */
+public final class ResponseDocuments {
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+    private static final XPathFactory XPATH_FACTORY = XPathFactory.newInstance();
+    private static final DOMImplementation DOM = createDomImplementation();
+
+    private ResponseDocuments() {
+    }
+
+    /**
+     * Construit le DOM sans espaces de noms d'une réponse. Les textes ne
+     * contenant que des espaces (indentation) ne sont pas conservés.
+     *
+     * @throws XMLStreamException Si la réponse n'est pas un XML bien formé
+     */
+    public static Document parse(String xml) throws XMLStreamException {
+        Document document = DOM.createDocument(null, null, null);
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(new StringReader(xml));
+        try {
+            Node current = document;
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        Element element = document.createElement(reader.getLocalName());
+                        for (int i = 0; i < reader.getAttributeCount(); i++) {
+                            element.setAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+                        }
+                        current.appendChild(element);
+                        current = element;
+                    }
+                    case XMLStreamConstants.END_ELEMENT -> current = current.getParentNode();
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> {
+                        if (current != document && !reader.isWhiteSpace()) {
+                            current.appendChild(document.createTextNode(reader.getText()));
+                        }
+                    }
+                    default -> {
+                        // Commentaires, instructions de traitement : sans intérêt pour XPath
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return document;
+    }
+
+    /**
+     * Crée un évaluateur XPath, propre à l'appelant : ni XPath ni les
+     * expressions compilées ne peuvent être partagés entre threads.
+     */
+    public static XPath newXPath() {
+        // XPathFactory n'est pas thread-safe
+        synchronized (XPATH_FACTORY) {
+            return XPATH_FACTORY.newXPath();
+        }
+    }
+
+    /**
+     * Les DTD et entités externes sont refusées : les réponses proviennent de services tiers.
+     */
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    private static DOMImplementation createDomImplementation() {
+        try {
+            return DocumentBuilderFactory.newInstance().newDocumentBuilder().getDOMImplementation();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
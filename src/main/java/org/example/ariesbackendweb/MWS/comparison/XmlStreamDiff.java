@@ -0,0 +1,448 @@
+package org.example.ariesbackendweb.MWS.comparison;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Reader;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Comparaison en flux (StAX) de deux documents XML sous forme canonique.
+ *
+ * Les deux documents sont parcourus en parallèle, événement par événement :
+ * la mémoire utilisée dépend de la profondeur du document et du nombre
+ * d'attributs d'un élément, jamais de sa taille. Le texte des éléments n'est
+ * pas conservé : seuls un condensé SHA-256 et un court extrait servent à la
+ * comparaison et au rapport.
+ *
+ * Forme canonique retenue :
+ * <ul>
+ *     <li>les éléments et attributs sont comparés par espace de noms et nom local
+ *     (les préfixes et déclarations xmlns sont ignorés) ;</li>
+ *     <li>l'ordre des attributs est ignoré ;</li>
+ *     <li>les espaces en début et fin de texte sont ignorés, les suites d'espaces
+ *     internes sont ramenées à un seul espace ;</li>
+ *     <li>les commentaires et instructions de traitement sont ignorés.</li>
+ * </ul>
+ *
+ * Les éléments dont le nom local figure dans la liste d'exclusion (horodatages,
+ * identifiants de transaction...) sont sautés avec tout leur contenu, des deux côtés.
+ *
+ * Une différence de texte ou d'attribut n'interrompt pas la comparaison ; une
+ * divergence de structure (élément différent, élément manquant) l'arrête, les
+ * événements suivants n'étant plus alignés.
+ */
+public class XmlStreamDiff {
+
+    /**
+     * Nombre maximal de différences détaillées dans le résultat.
+     */
+    public static final int MAX_REPORTED_DIFFERENCES = 20;
+
+    private static final int PREVIEW_LENGTH = 60;
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private final Set<String> ignoredElements;
+
+    /**
+     * @param ignoredElements Noms locaux des éléments à ignorer (sensibles à la casse)
+     */
+    public XmlStreamDiff(Collection<String> ignoredElements) {
+        this.ignoredElements = ignoredElements != null ? Set.copyOf(ignoredElements) : Set.of();
+    }
+
+    /**
+     * Résultat d'une comparaison.
+     *
+     * @param identical       true si les deux documents sont équivalents
+     * @param differenceCount Nombre de différences relevées (au-delà de la première divergence de structure, non comptées)
+     * @param differences     Les premières différences, au plus {@link #MAX_REPORTED_DIFFERENCES}
+     */
+    public record Result(boolean identical, int differenceCount, List<String> differences) {
+
+        /**
+         * Synthèse lisible, stockée avec le résultat du test.
+         */
+        public String summary() {
+            if (identical) {
+                return "Identique à la référence";
+            }
+            StringBuilder summary = new StringBuilder()
+                    .append(differenceCount).append(" différence(s) avec la référence");
+            for (String difference : differences) {
+                summary.append('\n').append("- ").append(difference);
+            }
+            if (differenceCount > differences.size()) {
+                summary.append('\n').append("- ... ").append(differenceCount - differences.size()).append(" autre(s)");
+            }
+            return summary.toString();
+        }
+    }
+
+    /**
+     * Compare deux documents XML.
+     *
+     * @param expected Le document de référence
+     * @param actual   Le document à comparer
+     */
+    public Result compare(Reader expected, Reader actual) {
+        Report report = new Report();
+        XMLStreamReader left = null;
+        XMLStreamReader right = null;
+
+        try {
+            try {
+                left = INPUT_FACTORY.createXMLStreamReader(expected);
+            } catch (XMLStreamException e) {
+                report.add("référence illisible: " + e.getMessage());
+                return report.toResult();
+            }
+            try {
+                right = INPUT_FACTORY.createXMLStreamReader(actual);
+            } catch (XMLStreamException e) {
+                report.add("réponse non XML: " + e.getMessage());
+                return report.toResult();
+            }
+
+            walk(left, right, report);
+
+        } finally {
+            close(left);
+            close(right);
+        }
+        return report.toResult();
+    }
+
+    /**
+     * Parcourt les deux documents en parallèle jusqu'à leur fin ou jusqu'à une divergence de structure.
+     */
+    private void walk(XMLStreamReader left, XMLStreamReader right, Report report) {
+        Path path = new Path();
+        CanonicalText leftText = new CanonicalText();
+        CanonicalText rightText = new CanonicalText();
+
+        while (true) {
+            int leftEvent;
+            int rightEvent;
+            try {
+                leftEvent = nextStructural(left, leftText);
+            } catch (XMLStreamException e) {
+                report.add(path + ": référence illisible: " + e.getMessage());
+                return;
+            }
+            try {
+                rightEvent = nextStructural(right, rightText);
+            } catch (XMLStreamException e) {
+                report.add(path + ": réponse illisible: " + e.getMessage());
+                return;
+            }
+
+            // Texte accumulé avant l'événement courant
+            if (!leftText.sameAs(rightText)) {
+                report.add(path + ": texte '" + leftText.preview() + "' attendu, '" + rightText.preview() + "' obtenu");
+            }
+            leftText.reset();
+            rightText.reset();
+
+            if (leftEvent != rightEvent) {
+                report.add(path + ": " + describe(left, leftEvent) + " attendu, " + describe(right, rightEvent) + " obtenu");
+                return;
+            }
+
+            switch (leftEvent) {
+                case XMLStreamConstants.END_DOCUMENT -> {
+                    return;
+                }
+                case XMLStreamConstants.END_ELEMENT -> path.pop();
+                case XMLStreamConstants.START_ELEMENT -> {
+                    if (!sameName(left, right)) {
+                        report.add(path + ": " + describe(left, leftEvent) + " attendu, " + describe(right, rightEvent) + " obtenu");
+                        return;
+                    }
+                    path.push(left.getLocalName());
+
+                    if (ignoredElements.contains(left.getLocalName())) {
+                        try {
+                            skipElement(left);
+                            skipElement(right);
+                        } catch (XMLStreamException e) {
+                            report.add(path + ": document illisible: " + e.getMessage());
+                            return;
+                        }
+                        path.pop();
+                    } else {
+                        compareAttributes(left, right, path, report);
+                    }
+                }
+                default -> throw new IllegalStateException("Événement inattendu: " + leftEvent);
+            }
+        }
+    }
+
+    /**
+     * Avance jusqu'au prochain début ou fin d'élément (ou fin de document), en accumulant le texte rencontré.
+     */
+    private static int nextStructural(XMLStreamReader reader, CanonicalText text) throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT, XMLStreamConstants.END_ELEMENT,
+                     XMLStreamConstants.END_DOCUMENT -> {
+                    return event;
+                }
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE ->
+                        text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                default -> {
+                    // Commentaires, instructions de traitement, DTD : hors forme canonique
+                }
+            }
+        }
+        return XMLStreamConstants.END_DOCUMENT;
+    }
+
+    /**
+     * Saute le contenu de l'élément courant, jusqu'à sa balise fermante incluse.
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static boolean sameName(XMLStreamReader left, XMLStreamReader right) {
+        return left.getLocalName().equals(right.getLocalName())
+                && namespace(left.getNamespaceURI()).equals(namespace(right.getNamespaceURI()));
+    }
+
+    private void compareAttributes(XMLStreamReader left, XMLStreamReader right, Path path, Report report) {
+        Map<String, String> expected = attributes(left);
+        Map<String, String> actual = attributes(right);
+        if (expected.equals(actual)) {
+            return;
+        }
+
+        for (Map.Entry<String, String> attribute : expected.entrySet()) {
+            String value = actual.get(attribute.getKey());
+            if (value == null) {
+                report.add(path + "/@" + attribute.getKey() + ": attribut manquant");
+            } else if (!value.equals(attribute.getValue())) {
+                report.add(path + "/@" + attribute.getKey() + ": '" + preview(attribute.getValue()) +
+                        "' attendu, '" + preview(value) + "' obtenu");
+            }
+        }
+        for (String name : actual.keySet()) {
+            if (!expected.containsKey(name)) {
+                report.add(path + "/@" + name + ": attribut inattendu");
+            }
+        }
+    }
+
+    /**
+     * Attributs de l'élément courant, triés par nom qualifié par l'espace de noms.
+     */
+    private static Map<String, String> attributes(XMLStreamReader reader) {
+        Map<String, String> attributes = new TreeMap<>();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String namespace = namespace(reader.getAttributeNamespace(i));
+            String name = namespace.isEmpty()
+                    ? reader.getAttributeLocalName(i)
+                    : "{" + namespace + "}" + reader.getAttributeLocalName(i);
+            attributes.put(name, reader.getAttributeValue(i).strip());
+        }
+        return attributes;
+    }
+
+    private static String describe(XMLStreamReader reader, int event) {
+        return switch (event) {
+            case XMLStreamConstants.START_ELEMENT -> "élément <" + reader.getLocalName() + ">";
+            case XMLStreamConstants.END_ELEMENT -> "fin de </" + reader.getLocalName() + ">";
+            default -> "fin du document";
+        };
+    }
+
+    private static String namespace(String namespace) {
+        return namespace != null ? namespace : XMLConstants.NULL_NS_URI;
+    }
+
+    private static String preview(String value) {
+        return value.length() > PREVIEW_LENGTH ? value.substring(0, PREVIEW_LENGTH) + "..." : value;
+    }
+
+    private static void close(XMLStreamReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException ignored) {
+                // Le flux sous-jacent est fermé par l'appelant
+            }
+        }
+    }
+
+    /**
+     * Les DTD et entités externes sont refusées : les réponses comparées proviennent de services tiers.
+     */
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+
+    /**
+     * Chemin de l'élément courant, avec le rang de l'élément parmi ses frères de même nom
+     * (par exemple /Envelope/Body/LstItemResponse/Item[3]/ITNO).
+     */
+    private static class Path {
+
+        private final Deque<String> names = new ArrayDeque<>();
+
+        // Pour chaque niveau ouvert, nombre d'enfants déjà rencontrés par nom
+        private final Deque<Map<String, Integer>> siblings = new ArrayDeque<>(List.of(new HashMap<>()));
+
+        private void push(String name) {
+            int rank = siblings.peek().merge(name, 1, Integer::sum);
+            names.push(rank > 1 ? name + "[" + rank + "]" : name);
+            siblings.push(new HashMap<>());
+        }
+
+        private void pop() {
+            names.pop();
+            siblings.pop();
+        }
+
+        @Override
+        public String toString() {
+            if (names.isEmpty()) {
+                return "/";
+            }
+            List<String> ordered = new ArrayList<>(names);
+            StringBuilder path = new StringBuilder();
+            for (int i = ordered.size() - 1; i >= 0; i--) {
+                path.append('/').append(ordered.get(i));
+            }
+            return path.toString();
+        }
+    }
+
+    /**
+     * Texte d'un nœud sous forme canonique, réduit à sa longueur, son condensé
+     * et un court extrait : la taille du texte n'influe pas sur la mémoire utilisée.
+     * Les blocs successifs renvoyés par le parseur sont agrégés, leur découpage
+     * pouvant différer d'un document à l'autre.
+     */
+    private static class CanonicalText {
+
+        private final MessageDigest digest = sha256();
+        private final byte[] buffer = new byte[2048];
+        private final StringBuilder preview = new StringBuilder(PREVIEW_LENGTH);
+        private int buffered;
+        private long length;
+        private boolean pendingSpace;
+
+        private void append(char[] chars, int start, int count) {
+            for (int i = start; i < start + count; i++) {
+                char c = chars[i];
+                if (Character.isWhitespace(c)) {
+                    pendingSpace = length > 0;
+                    continue;
+                }
+                if (pendingSpace) {
+                    emit(' ');
+                    pendingSpace = false;
+                }
+                emit(c);
+            }
+        }
+
+        private void emit(char c) {
+            if (preview.length() < PREVIEW_LENGTH) {
+                preview.append(c);
+            }
+            length++;
+            if (buffered == buffer.length) {
+                digest.update(buffer, 0, buffered);
+                buffered = 0;
+            }
+            buffer[buffered++] = (byte) (c >>> 8);
+            buffer[buffered++] = (byte) c;
+        }
+
+        private boolean sameAs(CanonicalText other) {
+            if (length != other.length) {
+                return false;
+            }
+            if (length == 0) {
+                return true;
+            }
+            return Arrays.equals(finish(), other.finish());
+        }
+
+        private byte[] finish() {
+            digest.update(buffer, 0, buffered);
+            buffered = 0;
+            return digest.digest();
+        }
+
+        private String preview() {
+            return length > preview.length() ? preview + "..." : preview.toString();
+        }
+
+        private void reset() {
+            digest.reset();
+            preview.setLength(0);
+            buffered = 0;
+            length = 0;
+            pendingSpace = false;
+        }
+
+        private static MessageDigest sha256() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Différences relevées, dont seules les premières sont détaillées.
+     */
+    private static class Report {
+
+        private final List<String> differences = new ArrayList<>();
+        private int count;
+
+        private void add(String difference) {
+            count++;
+            if (differences.size() < MAX_REPORTED_DIFFERENCES) {
+                differences.add(difference);
+            }
+        }
+
+        private Result toResult() {
+            return new Result(count == 0, count, List.copyOf(differences));
+        }
+    }
+}
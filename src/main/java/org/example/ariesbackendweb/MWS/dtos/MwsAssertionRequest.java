@@ -0,0 +1,17 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+import lombok.Data;
+import org.example.ariesbackendweb.MWS.entities.MwsAssertionCondition;
+
+/**
+ * DTO de création ou de modification d'une assertion sur la réponse d'une opération.
+ */
+@Data
+public class MwsAssertionRequest {
+
+    private String name;
+    private String xpath; // Sans préfixes d'espaces de noms, par exemple //CUNM
+    private MwsAssertionCondition condition;
+    private String expectedValue; // Obligatoire pour EQUALS, NOT_EQUALS, CONTAINS et MATCHES
+    private Boolean enabled;
+}
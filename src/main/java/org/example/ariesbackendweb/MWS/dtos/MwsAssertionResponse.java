@@ -0,0 +1,22 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO représentant une assertion sur la réponse d'une opération.
+ */
+@Data
+public class MwsAssertionResponse {
+
+    private Long id;
+    private String programId;
+    private String operationName;
+    private String name;
+    private String xpath;
+    private String condition;
+    private String expectedValue;
+    private boolean enabled;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,16 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+import lombok.Data;
+
+/**
+ * DTO du résultat d'une assertion pour un test.
+ */
+@Data
+public class MwsAssertionResultResponse {
+
+    private Long assertionId;
+    private String name;
+    private boolean passed;
+    private String actualValue;
+    private String message; // Raison de l'échec, null si l'assertion est vérifiée
+}
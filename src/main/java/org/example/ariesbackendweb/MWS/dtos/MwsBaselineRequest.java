@@ -0,0 +1,18 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO de désignation d'une réponse de référence : le résultat du test
+ * indiqué devient la référence de son opération dans son environnement.
+ */
+@Data
+public class MwsBaselineRequest {
+
+    private String testId;
+
+    // Noms locaux des éléments volatils à ignorer (horodatages, identifiants de transaction...)
+    private List<String> ignoredElements;
+}
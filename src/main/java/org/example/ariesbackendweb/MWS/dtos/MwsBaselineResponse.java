@@ -0,0 +1,22 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO représentant la réponse de référence d'une opération MWS dans un environnement.
+ */
+@Data
+public class MwsBaselineResponse {
+
+    private String id;
+    private String programId;
+    private String operationName;
+    private String environment;
+    private String testId;
+    private List<String> ignoredElements;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
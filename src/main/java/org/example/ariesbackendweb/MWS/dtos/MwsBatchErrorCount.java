@@ -0,0 +1,11 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+/**
+ * Projection d'un message d'erreur et du nombre de résultats d'un lot qui le portent.
+ */
+public interface MwsBatchErrorCount {
+
+    String getMessage();
+
+    Long getCount();
+}
@@ -0,0 +1,17 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+/**
+ * Projection des agrégats des résultats d'un lot de tests.
+ */
+public interface MwsBatchResultStats {
+
+    Long getResults();
+
+    Long getSucceeded();
+
+    Double getAvgDurationMillis();
+
+    Long getMinDurationMillis();
+
+    Long getMaxDurationMillis();
+}
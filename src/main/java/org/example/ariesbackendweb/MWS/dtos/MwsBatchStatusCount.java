@@ -0,0 +1,13 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+import org.example.ariesbackendweb.MWS.entities.MwsTestStatus;
+
+/**
+ * Projection du nombre de tests d'un lot par statut.
+ */
+public interface MwsBatchStatusCount {
+
+    MwsTestStatus getStatus();
+
+    Long getCount();
+}
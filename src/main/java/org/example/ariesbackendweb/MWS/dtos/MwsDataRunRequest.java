@@ -0,0 +1,30 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+import lombok.Data;
+
+/**
+ * Paramètres d'une exécution pilotée par CSV (champs du formulaire multipart,
+ * à côté du fichier).
+ */
+@Data
+public class MwsDataRunRequest {
+
+    private String programId;
+
+    private String environment;
+
+    private String operationName;
+
+    /**
+     * Corps de requête à ${colonne}. Par défaut, le modèle généré depuis le
+     * WSDL (GET /api/mws/programs/{id}/template), dont les éléments &lt;X&gt;?&lt;/X&gt;
+     * sont remplis par la colonne X du fichier, ou vidés s'il n'y en a pas.
+     */
+    private String requestTemplate;
+
+    private String m3Username;
+
+    private String m3Password;
+
+    private Integer timeoutMillis;
+}
@@ -0,0 +1,50 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO représentant une exécution pilotée par CSV : avancement de la
+ * soumission des lignes et, pour une exécution seule, agrégats de ses tests.
+ * L'identifiant de l'exécution est le batchId de ses tests.
+ */
+@Data
+public class MwsDataRunResponse {
+
+    private String runId;
+    private String programId;
+    private String environment;
+    private String operationName;
+    private String originalFileName;
+    private String status;
+
+    private long rowsRead;
+    private long testsSubmitted;
+    private long rowsRejected;
+    private String firstRejection;
+    private String failureReason;
+    private LocalDateTime createdAt;
+    private LocalDateTime submittedAt;
+
+    // Agrégats des tests (null dans les listes)
+    private Long testsPending;
+    private Long testsSucceeded;
+    private Long testsFailed;
+    private Boolean completed; // Soumission terminée et plus aucun test en cours
+    private Long avgDurationMillis;
+    private Long minDurationMillis;
+    private Long maxDurationMillis;
+    private List<ErrorCount> topErrors;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ErrorCount {
+        private String message;
+        private long count;
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Statistiques de latence d'une opération MWS sur une période,
+ * calculées à partir des agrégats horaires.
+ */
+@Data
+public class MwsLatencyStatsResponse {
+
+    private UUID programId;
+    private String operationName;
+    private String environment;
+
+    // Début de la période (null pour une agrégation sur toute la plage demandée)
+    private LocalDateTime periodStart;
+
+    private long count;
+    private long successCount;
+    private Double successRate;
+
+    // Latences en millisecondes
+    private Double meanMillis;
+    private Long minMillis;
+    private Long p50Millis;
+    private Long p90Millis;
+    private Long p99Millis;
+    private Long maxMillis;
+}
@@ -0,0 +1,36 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+import lombok.Data;
+
+/**
+ * DTO contenant la synthèse d'un tir de charge.
+ * Les latences sont exprimées en millisecondes.
+ */
+@Data
+public class MwsLoadTestSummaryResponse {
+
+    private Integer iterations;
+    private Integer concurrency;
+    private Integer warmupIterations;
+
+    private Long successCount;
+    private Long failureCount;
+
+    // Latence totale (durationMillis)
+    private Long durationMin;
+    private Double durationMean;
+    private Long durationP50;
+    private Long durationP90;
+    private Long durationP99;
+    private Long durationMax;
+
+    // Temps réseau (timeTaken)
+    private Long networkP50;
+    private Long networkP90;
+    private Long networkP99;
+    private Long networkMax;
+
+    private Long wallClockMillis;
+    private Double throughputPerSecond;
+    private String firstErrorMessage;
+}
@@ -0,0 +1,24 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+import org.example.ariesbackendweb.MWS.entities.MwsTestPriority;
+import org.example.ariesbackendweb.MWS.entities.MwsTestStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Test resté en cours lors du précédent arrêt du backend, lu en JPQL
+ * par la reprise au démarrage (sans les corps SOAP).
+ */
+public record MwsRecoverableTest(UUID testId,
+                                 MwsTestStatus status,
+                                 MwsTestPriority priority,
+                                 String operationName,
+                                 Integer loadIterations,
+                                 LocalDateTime deadlineAt,
+                                 LocalDateTime createdAt) {
+
+    public boolean isLoadTest() {
+        return loadIterations != null;
+    }
+}
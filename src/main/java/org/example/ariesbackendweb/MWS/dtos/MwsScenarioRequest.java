@@ -0,0 +1,31 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO de création ou de modification d'un scénario de test MWS.
+ */
+@Data
+public class MwsScenarioRequest {
+
+    private String name;
+
+    private String programId;
+
+    private String environment;
+
+    private String m3Username;
+
+    private String m3Password;
+
+    // Délai de chaque test d'étape
+    private Integer timeoutMillis;
+
+    /**
+     * Étapes, dans l'ordre du scénario.
+     */
+    private List<MwsScenarioStepRequest> steps = new ArrayList<>();
+}
@@ -0,0 +1,24 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO représentant un scénario de test MWS.
+ */
+@Data
+public class MwsScenarioResponse {
+
+    private String id;
+    private String name;
+    private String programId;
+    private String environment;
+    private Integer timeoutMillis;
+    private List<MwsScenarioStepResponse> steps;
+
+    // Variables à fournir au lancement (utilisées sans être extraites par une étape)
+    private List<String> inputVariables;
+    private LocalDateTime createdAt;
+}
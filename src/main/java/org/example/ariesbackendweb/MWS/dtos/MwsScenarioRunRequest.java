@@ -0,0 +1,15 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * DTO de lancement d'un scénario : valeurs des variables d'entrée.
+ */
+@Data
+public class MwsScenarioRunRequest {
+
+    private Map<String, String> variables = new LinkedHashMap<>();
+}
@@ -0,0 +1,25 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO représentant une exécution de scénario et l'état de ses étapes.
+ * L'identifiant de l'exécution est le batchId des tests des étapes.
+ */
+@Data
+public class MwsScenarioRunResponse {
+
+    private String runId;
+    private String scenarioId;
+    private String status;
+    private Map<String, String> inputs;
+    private List<MwsScenarioStepRunResponse> steps;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private Long durationMillis;
+    private String failureReason;
+}
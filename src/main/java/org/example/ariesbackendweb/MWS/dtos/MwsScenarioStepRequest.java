@@ -0,0 +1,37 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO d'une étape de scénario.
+ */
+@Data
+public class MwsScenarioStepRequest {
+
+    private String name;
+
+    private String operationName;
+
+    /**
+     * Corps de requête SOAP ; les ${variable} sont remplacées à l'exécution par
+     * les valeurs fournies au lancement ou extraites par une étape précédente.
+     */
+    private String requestBody;
+
+    /**
+     * Noms d'étapes précédentes à attendre, en plus de celles qui extraient
+     * une variable utilisée par cette étape (attendues d'office).
+     */
+    private List<String> dependsOn = new ArrayList<>();
+
+    /**
+     * Variables à extraire de la réponse : nom -> expression XPath sans
+     * préfixe d'espace de noms, par exemple "ORNO" -> "//AddOrderResponse/ORNO".
+     */
+    private Map<String, String> extract = new LinkedHashMap<>();
+}
@@ -0,0 +1,22 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO représentant une étape de scénario.
+ */
+@Data
+public class MwsScenarioStepResponse {
+
+    private int order;
+    private String name;
+    private String operationName;
+    private String requestBody;
+
+    // Étapes attendues, explicites ou déduites des variables utilisées
+    private List<String> dependsOn;
+    private Map<String, String> extract;
+}
@@ -0,0 +1,24 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * DTO représentant l'exécution d'une étape de scénario.
+ */
+@Data
+public class MwsScenarioStepRunResponse {
+
+    private int order;
+    private String name;
+    private String status;
+    private String testId;
+
+    // Variables extraites de la réponse
+    private Map<String, String> variables;
+    private String errorMessage;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,45 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+import lombok.Data;
+
+/**
+ * DTO de création ou de modification d'une planification de test MWS.
+ */
+@Data
+public class MwsScheduleRequest {
+
+    private String name;
+
+    private String programId;
+
+    private String environment;
+
+    private String operationName;
+
+    private String requestBody;
+
+    private String m3Username;
+
+    private String m3Password;
+
+    private Integer timeoutMillis;
+
+    /**
+     * Expression cron à 6 champs (seconde minute heure jour mois jour-de-semaine).
+     * Par exemple "0 *&#47;5 * * * *" pour toutes les 5 minutes.
+     */
+    private String cronExpression;
+
+    /**
+     * Délai aléatoire maximal, en secondes, ajouté à chaque déclenchement.
+     */
+    private Integer jitterSeconds = 0;
+
+    /**
+     * Si true (défaut), un déclenchement est ignoré tant que le test précédent
+     * de la planification n'est pas terminé.
+     */
+    private Boolean skipIfRunning = true;
+
+    private Boolean enabled = true;
+}
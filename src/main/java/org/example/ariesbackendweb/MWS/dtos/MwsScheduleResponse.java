@@ -0,0 +1,30 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO représentant une planification de test MWS et son dernier déclenchement.
+ */
+@Data
+public class MwsScheduleResponse {
+
+    private String id;
+    private String name;
+    private String programId;
+    private String environment;
+    private String operationName;
+    private Integer timeoutMillis;
+    private String cronExpression;
+    private int jitterSeconds;
+    private boolean skipIfRunning;
+    private boolean enabled;
+
+    // Prochain déclenchement prévu (hors délai aléatoire), null si désactivée
+    private LocalDateTime nextRunAt;
+    private LocalDateTime lastRunAt;
+    private String lastTestId;
+    private long skippedRuns;
+    private LocalDateTime createdAt;
+}
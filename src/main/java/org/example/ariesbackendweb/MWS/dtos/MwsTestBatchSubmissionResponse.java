@@ -0,0 +1,57 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO de réponse retourné après la soumission d'un lot de tests.
+ * Il contient l'identifiant du lot ainsi que les identifiants de chaque
+ * test créé, dans l'ordre des demandes soumises.
+ */
+@Data
+public class MwsTestBatchSubmissionResponse {
+
+    /**
+     * Identifiant unique du lot.
+     */
+    private String batchId;
+
+    /**
+     * Identifiants des tests créés, dans le même ordre que les demandes.
+     */
+    private List<String> testIds;
+
+    /**
+     * Nombre de tests créés.
+     */
+    private int count;
+
+    /**
+     * Statut initial des tests du lot.
+     */
+    private String status;
+
+    /**
+     * Timestamp de création du lot.
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * Message de confirmation pour l'utilisateur.
+     */
+    private String message;
+
+    /**
+     * Constructeur de convenance pour créer rapidement une réponse.
+     */
+    public MwsTestBatchSubmissionResponse(String batchId, List<String> testIds, String status, String message) {
+        this.batchId = batchId;
+        this.testIds = testIds;
+        this.count = testIds.size();
+        this.status = status;
+        this.message = message;
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+import org.example.ariesbackendweb.MWS.entities.MwsTestStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Ligne de l'historique des tests MWS.
+ * Projection construite directement en JPQL : les corps SOAP ne sont jamais lus.
+ */
+public record MwsTestHistoryItem(UUID testId,
+                                 UUID programId,
+                                 UUID batchId,
+                                 UUID scheduleId,
+                                 String serviceName,
+                                 String operationName,
+                                 String environment,
+                                 MwsTestStatus status,
+                                 Integer loadIterations,
+                                 LocalDateTime createdAt,
+                                 LocalDateTime completedAt) {
+}
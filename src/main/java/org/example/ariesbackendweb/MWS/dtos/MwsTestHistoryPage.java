@@ -0,0 +1,24 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Page de l'historique des tests MWS, du plus récent au plus ancien.
+ */
+@Data
+@AllArgsConstructor
+public class MwsTestHistoryPage {
+
+    private List<MwsTestHistoryItem> items;
+
+    /**
+     * Curseur opaque à repasser en paramètre "cursor" pour obtenir la page suivante,
+     * null s'il n'y a plus de résultats.
+     */
+    private String nextCursor;
+
+    private boolean hasMore;
+}
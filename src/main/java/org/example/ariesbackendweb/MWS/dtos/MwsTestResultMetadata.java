@@ -0,0 +1,32 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+/**
+ * Projection des métadonnées d'un résultat de test, sans les colonnes
+ * volumineuses (corps de réponse, stack trace).
+ */
+public interface MwsTestResultMetadata {
+
+    Boolean getSuccess();
+
+    Integer getHttpStatus();
+
+    String getErrorMessage();
+
+    Long getDurationMillis();
+
+    Long getTimeTaken();
+
+    String getExecutedBy();
+
+    String getAgentVersion();
+
+    Long getResponseBodySize();
+
+    Boolean getBaselineMatch();
+
+    String getBaselineDiff();
+
+    Integer getAssertionsPassed();
+
+    Integer getAssertionsFailed();
+}
@@ -4,6 +4,7 @@ package org.example.ariesbackendweb.MWS.dtos;
 import lombok.Data;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -35,12 +36,25 @@ public class MwsTestResultResponse {
     private Boolean success;
     private Integer httpStatus;
     private String responseBody;
+    private Long responseBodySize; // Taille en octets, le corps pouvant être omis (includeBody=false)
     private Map<String, String> responseHeaders;
     private String errorMessage;
     private String exceptionStackTrace;
 
+    // Comparaison avec la réponse de référence, null si aucune référence n'est définie
+    private Boolean baselineMatch;
+    private String baselineDiff;
+
+    // Assertions métier de l'opération, null si l'opération n'en a pas
+    private Integer assertionsPassed;
+    private Integer assertionsFailed;
+    private List<MwsAssertionResultResponse> assertions;
+
     // Métadonnées d'exécution
     private String executedBy;
     private String agentVersion;
     private String submittedBy;
+
+    // Synthèse du tir de charge, null pour une exécution simple
+    private MwsLoadTestSummaryResponse loadTestSummary;
 }
\ No newline at end of file
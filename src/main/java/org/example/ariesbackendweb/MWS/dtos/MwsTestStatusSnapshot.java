@@ -0,0 +1,36 @@
+package org.example.ariesbackendweb.MWS.dtos;
+
+import org.example.ariesbackendweb.MWS.entities.MwsTestRequest;
+import org.example.ariesbackendweb.MWS.entities.MwsTestStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * État d'un test réduit aux champs nécessaires au suivi de son avancement.
+ * Sert à la fois d'entrée du cache de statuts et de projection en base
+ * (sans les corps SOAP).
+ */
+public record MwsTestStatusSnapshot(UUID testId,
+                                    String serviceName,
+                                    String operationName,
+                                    String environment,
+                                    MwsTestStatus status,
+                                    LocalDateTime createdAt,
+                                    LocalDateTime completedAt) {
+
+    public static MwsTestStatusSnapshot of(MwsTestRequest testRequest) {
+        return new MwsTestStatusSnapshot(
+                testRequest.getId(),
+                testRequest.getServiceName(),
+                testRequest.getOperationName(),
+                testRequest.getEnvironment(),
+                testRequest.getStatus(),
+                testRequest.getCreatedAt(),
+                testRequest.getCompletedAt());
+    }
+
+    public boolean isTerminal() {
+        return status == MwsTestStatus.SUCCESS || status == MwsTestStatus.FAILED;
+    }
+}
@@ -1,6 +1,8 @@
 package org.example.ariesbackendweb.MWS.dtos;
 
 import lombok.Data;
+import org.example.ariesbackendweb.MWS.entities.MwsTestPriority;
+
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -56,12 +58,53 @@ public class MwsTestSubmissionRequest {
      */
     private Integer timeoutMillis;
 
+    /**
+     * Priorité d'exécution (INTERACTIVE, NORMAL, BULK).
+     * Si non spécifiée : NORMAL pour une soumission unitaire, BULK pour un lot.
+     * Un test INTERACTIVE passe devant les lots en cours d'exécution.
+     */
+    private MwsTestPriority priority;
+
     /**
      * Métadonnées additionnelles optionnelles.
      * Peut contenir des informations contextuelles comme un numéro de ticket,
      * un identifiant de campagne de test, etc.
      */
     private Map<String, String> metadata = new HashMap<>();
+
+    /**
+     * Fenêtre de réutilisation en secondes (optionnelle).
+     * Si renseignée, un test identique (même programme, opération, environnement,
+     * utilisateur M3 et corps de requête) soumis depuis moins de ce délai et non
+     * échoué est retourné au lieu de relancer une exécution sur l'agent.
+     */
+    private Integer reuseWindowSeconds;
+
+    /**
+     * Paramètres du mode tir de charge (optionnel).
+     * Si renseigné, la requête est exécutée plusieurs fois et seule une
+     * synthèse des latences est conservée au lieu d'un résultat par appel.
+     */
+    private LoadTestOptions loadTest;
+
+    @Data
+    public static class LoadTestOptions {
+
+        /**
+         * Nombre d'exécutions mesurées.
+         */
+        private Integer iterations;
+
+        /**
+         * Nombre maximal d'exécutions simultanées.
+         */
+        private Integer concurrency = 1;
+
+        /**
+         * Nombre d'exécutions de chauffe, non comptabilisées dans la synthèse.
+         */
+        private Integer warmupIterations = 0;
+    }
 }
 
 
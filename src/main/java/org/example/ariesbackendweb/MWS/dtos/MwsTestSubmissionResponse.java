@@ -35,6 +35,12 @@ public class MwsTestSubmissionResponse {
      */
     private String message;
 
+    /**
+     * true si aucun nouveau test n'a été créé : le test retourné avait déjà été
+     * soumis avec la même clé d'idempotence, ou un test identique récent a été réutilisé.
+     */
+    private boolean reused;
+
     /**
      * Constructeur de convenance pour créer rapidement une réponse.
      */
@@ -36,5 +36,9 @@ public class MwsAgentTestRequestDto {
 
         private Map<String, String> metadata = new HashMap<>();
 
+        // Mode asynchrone : URL sur laquelle l'agent doit POSTer le résultat,
+        // null pour une exécution synchrone
+        private String callbackUrl;
+
 
 }
@@ -0,0 +1,10 @@
+package org.example.ariesbackendweb.MWS.entities;
+
+/**
+ * Condition vérifiée par une assertion sur la valeur d'une expression XPath.
+ * EXISTS évalue l'expression en booléen (nœud présent, ou expression
+ * booléenne vraie) ; les autres conditions portent sur sa valeur texte.
+ */
+public enum MwsAssertionCondition {
+    EXISTS, NOT_EMPTY, EQUALS, NOT_EQUALS, CONTAINS, MATCHES
+}
@@ -0,0 +1,51 @@
+package org.example.ariesbackendweb.MWS.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Résultat d'une assertion pour un résultat de test.
+ *
+ * Écrit avec son résultat de test par MwsResultWriter (insertions groupées).
+ * L'assertion est référencée par son identifiant seul, sans clé étrangère :
+ * le résultat est conservé si l'assertion est supprimée par la suite.
+ */
+@Entity
+@Table(name = "mws_assertion_result",
+        indexes = @Index(name = "idx_assertion_result_result", columnList = "result_id"))
+@Data
+@NoArgsConstructor
+public class MwsAssertionResult {
+
+    // Même générateur que MwsTestResult, pour permettre les insertions groupées
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "mws_assertion_result_id")
+    @TableGenerator(name = "mws_assertion_result_id", table = "mws_id_generator",
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "mws_assertion_result", allocationSize = 500)
+    private Long id;
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "result_id", nullable = false)
+    private MwsTestResult result;
+
+    @Column(name = "assertion_id", nullable = false)
+    private Long assertionId;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @Column(nullable = false)
+    private boolean passed;
+
+    @Column(name = "actual_value", length = 255)
+    private String actualValue;
+
+    @Column(length = 500)
+    private String message;
+}
@@ -0,0 +1,88 @@
+package org.example.ariesbackendweb.MWS.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Exécution pilotée par un fichier CSV : une opération appelée une fois par
+ * ligne, le corps de requête étant rendu à partir des colonnes de la ligne.
+ *
+ * Les tests créés portent l'identifiant de l'exécution comme batchId : ils
+ * se suivent comme un lot (flux SSE), et les résultats sont agrégés par lot.
+ */
+@Entity
+@Table(name = "mws_data_run",
+        indexes = @Index(name = "idx_data_run_program_created", columnList = "program_id, created_at"))
+@Data
+@NoArgsConstructor
+public class MwsDataRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "program_id", nullable = false)
+    private MwsProgram program;
+
+    @Column(nullable = false, length = 20)
+    private String environment;
+
+    @Column(name = "operation_name", nullable = false, length = 100)
+    private String operationName;
+
+    // Corps de requête à ${colonne}, tel que rendu pour chaque ligne
+    @ToString.Exclude
+    @Column(name = "request_template", columnDefinition = "LONGTEXT", nullable = false)
+    private String requestTemplate;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName; // Nom du fichier dans le stockage (FileSystemStorageService)
+
+    @Column(name = "original_file_name")
+    private String originalFileName;
+
+    @Column(name = "m3_username", length = 100)
+    private String m3Username;
+
+    @ToString.Exclude
+    @Column(name = "password_encrypted", length = 500)
+    private String m3Password; // À chiffrer en production, comme pour MwsTestRequest
+
+    @Column(name = "timeout_millis")
+    private Integer timeoutMillis;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private MwsDataRunStatus status = MwsDataRunStatus.SUBMITTING;
+
+    // Avancement, mis à jour dans la transaction de chaque paquet de tests soumis
+    @Column(name = "rows_read", nullable = false)
+    private long rowsRead;
+
+    @Column(name = "tests_submitted", nullable = false)
+    private long testsSubmitted;
+
+    @Column(name = "rows_rejected", nullable = false)
+    private long rowsRejected;
+
+    @Column(name = "first_rejection", length = 500)
+    private String firstRejection;
+
+    @Column(name = "failure_reason", length = 500)
+    private String failureReason;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "submitted_at")
+    private LocalDateTime submittedAt; // Fin de la soumission (toutes les lignes lues)
+}
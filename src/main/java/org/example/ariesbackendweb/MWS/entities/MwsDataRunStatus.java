@@ -0,0 +1,9 @@
+package org.example.ariesbackendweb.MWS.entities;
+
+/**
+ * Avancement de la soumission des lignes d'une exécution pilotée par CSV.
+ * L'exécution des tests soumis se suit par leurs statuts (lot de l'exécution).
+ */
+public enum MwsDataRunStatus {
+    SUBMITTING, SUBMITTED, CANCELLED, FAILED
+}
@@ -0,0 +1,68 @@
+package org.example.ariesbackendweb.MWS.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Agrégat des latences d'une opération MWS sur une tranche horaire.
+ *
+ * Une ligne par (programme, opération, environnement, heure), mise à jour au
+ * fil de l'eau à partir des résultats reçus. Les compteurs et l'histogramme
+ * sont additifs : plusieurs tranches se fusionnent pour répondre à une question
+ * sur une période quelconque sans relire mws_test_result.
+ */
+@Entity
+@Table(name = "mws_latency_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_latency_rollup_key",
+                columnNames = {"program_id", "operation_name", "environment", "bucket_start"}),
+        indexes = @Index(name = "idx_latency_rollup_operation_bucket",
+                columnList = "operation_name, environment, bucket_start"))
+@Data
+@NoArgsConstructor
+public class MwsLatencyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "program_id", nullable = false)
+    private UUID programId;
+
+    @Column(name = "operation_name", nullable = false, length = 100)
+    private String operationName;
+
+    @Column(nullable = false, length = 20)
+    private String environment;
+
+    // Début de la tranche horaire (minutes et secondes à zéro)
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    // Nombre de latences mesurées
+    @Column(name = "sample_count", nullable = false)
+    private long count;
+
+    @Column(name = "success_count", nullable = false)
+    private long successCount;
+
+    @Column(name = "sum_millis", nullable = false)
+    private long sumMillis;
+
+    @Column(name = "min_millis")
+    private Long minMillis;
+
+    @Column(name = "max_millis")
+    private Long maxMillis;
+
+    // LatencyHistogram sérialisé, fusionnable
+    @Lob
+    @Column(name = "histogram", columnDefinition = "BLOB")
+    private byte[] histogram;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
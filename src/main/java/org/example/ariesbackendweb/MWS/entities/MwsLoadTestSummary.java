@@ -0,0 +1,95 @@
+package org.example.ariesbackendweb.MWS.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Synthèse d'un tir de charge MWS.
+ *
+ * Un tir de charge exécute la même requête un grand nombre de fois : plutôt que
+ * de conserver un MwsTestResult complet par appel, on ne stocke qu'une ligne
+ * agrégée (compteurs, percentiles de latence, débit) ainsi que l'histogramme
+ * sérialisé, qui permet de recalculer d'autres percentiles a posteriori.
+ */
+@Entity
+@Table(name = "mws_load_test_summary")
+@Data
+@NoArgsConstructor
+public class MwsLoadTestSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "request_id", nullable = false, unique = true)
+    private MwsTestRequest request;
+
+    @Column(nullable = false)
+    private Integer iterations;
+
+    @Column(nullable = false)
+    private Integer concurrency;
+
+    @Column(name = "warmup_iterations", nullable = false)
+    private Integer warmupIterations;
+
+    @Column(name = "success_count", nullable = false)
+    private Long successCount;
+
+    @Column(name = "failure_count", nullable = false)
+    private Long failureCount;
+
+    // Latence totale côté agent (durationMillis)
+    @Column(name = "duration_min")
+    private Long durationMin;
+
+    @Column(name = "duration_mean")
+    private Double durationMean;
+
+    @Column(name = "duration_p50")
+    private Long durationP50;
+
+    @Column(name = "duration_p90")
+    private Long durationP90;
+
+    @Column(name = "duration_p99")
+    private Long durationP99;
+
+    @Column(name = "duration_max")
+    private Long durationMax;
+
+    // Temps réseau uniquement (timeTaken)
+    @Column(name = "network_p50")
+    private Long networkP50;
+
+    @Column(name = "network_p90")
+    private Long networkP90;
+
+    @Column(name = "network_p99")
+    private Long networkP99;
+
+    @Column(name = "network_max")
+    private Long networkMax;
+
+    @Column(name = "wall_clock_millis", nullable = false)
+    private Long wallClockMillis; // Durée réelle du tir, chauffe exclue
+
+    @Column(name = "throughput_per_second")
+    private Double throughputPerSecond;
+
+    @Column(name = "first_error_message", columnDefinition = "TEXT")
+    private String firstErrorMessage;
+
+    @Lob
+    @Column(name = "duration_histogram", columnDefinition = "BLOB")
+    private byte[] durationHistogram; // LatencyHistogram sérialisé
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
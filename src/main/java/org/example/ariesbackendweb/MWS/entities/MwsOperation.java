@@ -2,8 +2,12 @@ package org.example.ariesbackendweb.MWS.entities;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 @Entity
@@ -26,4 +30,9 @@ public class MwsOperation {
 
     @OneToMany(mappedBy = "operation")
     private Set<MwsTestRequest> testRequests = new HashSet<>();
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @OneToMany(mappedBy = "operation", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<MwsOperationAssertion> assertions = new ArrayList<>();
 }
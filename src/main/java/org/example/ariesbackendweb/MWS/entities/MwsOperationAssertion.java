@@ -0,0 +1,56 @@
+package org.example.ariesbackendweb.MWS.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Assertion métier sur la réponse SOAP d'une opération, par exemple
+ * « CUNM n'est pas vide » ou « STAT = 20 ».
+ *
+ * Les assertions actives d'une opération sont évaluées sur chaque résultat
+ * de test (voir MwsAssertionEngine) : un test dont une assertion échoue est FAILED.
+ */
+@Entity
+@Table(name = "mws_operation_assertion",
+        indexes = @Index(name = "idx_assertion_operation", columnList = "operation_id"))
+@Data
+@NoArgsConstructor
+public class MwsOperationAssertion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "operation_id", nullable = false)
+    private MwsOperation operation;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    // Évaluée sur la réponse sans espaces de noms : //CUNM plutôt que //ns:CUNM
+    @Column(nullable = false, length = 1000)
+    private String xpath;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "assertion_condition", nullable = false, length = 20)
+    private MwsAssertionCondition condition;
+
+    @Column(name = "expected_value", length = 500)
+    private String expectedValue;
+
+    @Column(nullable = false)
+    private boolean enabled = true;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,62 @@
+package org.example.ariesbackendweb.MWS.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Réponse de référence (golden response) d'une opération MWS dans un environnement.
+ *
+ * Le corps de réponse des nouveaux résultats de la même opération est comparé
+ * à celui du résultat désigné ; le résultat de la comparaison est stocké avec
+ * chaque résultat (voir MwsTestResult#baselineMatch).
+ */
+@Entity
+@Table(name = "mws_response_baseline",
+        uniqueConstraints = @UniqueConstraint(name = "uk_baseline_program_operation_env",
+                columnNames = {"program_id", "operation_name", "environment"}))
+@Data
+@NoArgsConstructor
+public class MwsResponseBaseline {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "program_id", nullable = false)
+    private MwsProgram program;
+
+    @Column(name = "operation_name", nullable = false, length = 100)
+    private String operationName;
+
+    @Column(nullable = false, length = 20)
+    private String environment;
+
+    // Résultat dont le corps de réponse sert de référence
+    @Column(name = "result_id", nullable = false)
+    private Long resultId;
+
+    @Column(name = "test_id", nullable = false)
+    private UUID testId;
+
+    // Noms locaux des éléments volatils ignorés par la comparaison, séparés par des virgules
+    @Column(name = "ignored_elements", length = 2000)
+    private String ignoredElements;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    // Date de la dernière désignation, la référence d'un triplet pouvant être remplacée
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
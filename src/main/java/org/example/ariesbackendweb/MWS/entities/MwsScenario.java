@@ -0,0 +1,64 @@
+package org.example.ariesbackendweb.MWS.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Scénario de test MWS : suite ordonnée d'opérations d'un programme, dont
+ * les réponses alimentent les requêtes suivantes (AddOrder, puis GetOrder
+ * avec l'ORNO retourné, puis DltOrder).
+ *
+ * Les étapes forment un graphe de dépendances (explicites, ou déduites des
+ * variables utilisées) : les étapes indépendantes s'exécutent en parallèle,
+ * voir MwsScenarioExecutor.
+ */
+@Entity
+@Table(name = "mws_scenario")
+@Data
+@NoArgsConstructor
+public class MwsScenario {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "program_id", nullable = false)
+    private MwsProgram program;
+
+    @Column(nullable = false, length = 20)
+    private String environment;
+
+    @Column(name = "m3_username", length = 100)
+    private String m3Username;
+
+    @ToString.Exclude
+    @Column(name = "password_encrypted", length = 500)
+    private String m3Password; // À chiffrer en production, comme pour MwsTestRequest
+
+    @Column(name = "timeout_millis")
+    private Integer timeoutMillis;
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @OneToMany(mappedBy = "scenario", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("stepOrder")
+    private List<MwsScenarioStep> steps = new ArrayList<>();
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
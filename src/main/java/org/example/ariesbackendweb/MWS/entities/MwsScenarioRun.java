@@ -0,0 +1,61 @@
+package org.example.ariesbackendweb.MWS.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Exécution d'un scénario. Les tests des étapes portent l'identifiant de
+ * l'exécution comme batchId : ils se suivent comme un lot (historique, flux SSE).
+ */
+@Entity
+@Table(name = "mws_scenario_run",
+        indexes = @Index(name = "idx_scenario_run_scenario_started", columnList = "scenario_id, started_at"))
+@Data
+@NoArgsConstructor
+public class MwsScenarioRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "scenario_id", nullable = false)
+    private MwsScenario scenario;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private MwsScenarioRunStatus status = MwsScenarioRunStatus.RUNNING;
+
+    // Variables fournies au lancement
+    @ElementCollection
+    @CollectionTable(name = "mws_scenario_run_input", joinColumns = @JoinColumn(name = "run_id"))
+    @MapKeyColumn(name = "variable_name", length = 100)
+    @Column(name = "variable_value", length = 1000)
+    private Map<String, String> inputs = new LinkedHashMap<>();
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @OneToMany(mappedBy = "run", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("stepOrder")
+    private List<MwsScenarioStepRun> steps = new ArrayList<>();
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "failure_reason", length = 500)
+    private String failureReason;
+}
@@ -0,0 +1,5 @@
+package org.example.ariesbackendweb.MWS.entities;
+
+public enum MwsScenarioRunStatus {
+    RUNNING, SUCCESS, FAILED
+}
@@ -0,0 +1,56 @@
+package org.example.ariesbackendweb.MWS.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Étape d'un scénario : une opération MWS et son corps de requête, dans
+ * lequel les ${variable} sont remplacées à l'exécution.
+ */
+@Entity
+@Table(name = "mws_scenario_step",
+        uniqueConstraints = @UniqueConstraint(name = "uk_scenario_step_name", columnNames = {"scenario_id", "name"}))
+@Data
+@NoArgsConstructor
+public class MwsScenarioStep {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "scenario_id", nullable = false)
+    private MwsScenario scenario;
+
+    @Column(name = "step_order", nullable = false)
+    private int stepOrder;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @Column(name = "operation_name", nullable = false, length = 100)
+    private String operationName;
+
+    @Column(name = "request_body", columnDefinition = "LONGTEXT", nullable = false)
+    private String requestBody;
+
+    // Noms des étapes précédentes à attendre, séparés par des virgules ; celles
+    // qui extraient une variable utilisée par l'étape sont attendues d'office
+    @Column(name = "depends_on", length = 1000)
+    private String dependsOn;
+
+    // Variables extraites de la réponse : nom -> expression XPath (sans espaces de noms)
+    @ElementCollection
+    @CollectionTable(name = "mws_scenario_step_extraction", joinColumns = @JoinColumn(name = "step_id"))
+    @MapKeyColumn(name = "variable_name", length = 100)
+    @Column(name = "xpath", nullable = false, length = 1000)
+    private Map<String, String> extractions = new LinkedHashMap<>();
+}
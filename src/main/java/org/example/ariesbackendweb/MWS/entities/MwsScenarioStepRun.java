@@ -0,0 +1,60 @@
+package org.example.ariesbackendweb.MWS.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Exécution d'une étape de scénario : le test lancé et les variables extraites de sa réponse.
+ */
+@Entity
+@Table(name = "mws_scenario_step_run")
+@Data
+@NoArgsConstructor
+public class MwsScenarioStepRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "run_id", nullable = false)
+    private MwsScenarioRun run;
+
+    @Column(name = "step_order", nullable = false)
+    private int stepOrder;
+
+    @Column(name = "step_name", nullable = false, length = 100)
+    private String stepName;
+
+    @Column(name = "test_id")
+    private UUID testId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private MwsScenarioStepStatus status = MwsScenarioStepStatus.PENDING;
+
+    @ElementCollection
+    @CollectionTable(name = "mws_scenario_step_run_variable", joinColumns = @JoinColumn(name = "step_run_id"))
+    @MapKeyColumn(name = "variable_name", length = 100)
+    @Column(name = "variable_value", length = 1000)
+    private Map<String, String> variables = new LinkedHashMap<>();
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,9 @@
+package org.example.ariesbackendweb.MWS.entities;
+
+/**
+ * Statut d'une étape dans une exécution de scénario. Une étape dont une
+ * dépendance a échoué n'est pas lancée : elle est SKIPPED.
+ */
+public enum MwsScenarioStepStatus {
+    PENDING, RUNNING, SUCCESS, FAILED, SKIPPED
+}
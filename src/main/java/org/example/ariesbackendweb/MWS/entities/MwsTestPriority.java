@@ -0,0 +1,9 @@
+package org.example.ariesbackendweb.MWS.entities;
+
+/**
+ * Priorité d'exécution d'un test MWS : chaque priorité correspond à une voie
+ * de la file d'exécution (voir MwsTestDispatcher).
+ */
+public enum MwsTestPriority {
+    INTERACTIVE, NORMAL, BULK
+}
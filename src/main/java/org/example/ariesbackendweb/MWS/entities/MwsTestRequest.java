@@ -1,9 +1,14 @@
 package org.example.ariesbackendweb.MWS.entities;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import org.example.ariesbackendweb.common.entities.Test;
+import org.example.ariesbackendweb.common.persistence.CompressedTextConverter;
 
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
@@ -12,12 +17,30 @@ import java.util.Set;
 import java.util.UUID;
 
 @EqualsAndHashCode(callSuper = true)
-@Table(name = "mec_program_test")
+@Table(name = "mec_program_test", indexes = {
+        @Index(name = "idx_test_status_deadline", columnList = "status, deadline_at"),
+        // Historique : pagination par (created_at, id), avec ou sans filtre
+        @Index(name = "idx_test_created", columnList = "created_at, id"),
+        @Index(name = "idx_test_program_created", columnList = "program_id, created_at, id"),
+        @Index(name = "idx_test_program_operation_created", columnList = "program_id, operation_name, created_at, id"),
+        @Index(name = "idx_test_environment_created", columnList = "environment, created_at, id"),
+        @Index(name = "idx_test_status_created", columnList = "status, created_at, id"),
+        @Index(name = "idx_test_schedule_created", columnList = "schedule_id, created_at, id"),
+        // Suivi d'un lot : décompte par statut, tests encore en cours
+        @Index(name = "idx_test_batch_status", columnList = "batch_id, status"),
+        // File en base : réclamation des tests QUEUED par priorité, prolongation des baux d'une instance
+        @Index(name = "idx_test_queue", columnList = "status, priority, created_at"),
+        @Index(name = "idx_test_lease_owner", columnList = "lease_owner"),
+        // Réutilisation d'un test identique récent
+        @Index(name = "idx_test_reuse", columnList = "program_id, operation_name, environment, request_hash, created_at")
+})
 @Entity
 @Data
 public class MwsTestRequest extends Test {
+    // UUID généré côté application : contrairement à IDENTITY, cela permet
+    // à Hibernate de grouper les insertions (soumission par lots)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -31,6 +54,10 @@ public class MwsTestRequest extends Test {
     @Enumerated(EnumType.STRING)
     private MwsTestStatus status;
 
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private MwsTestPriority priority = MwsTestPriority.NORMAL;
+
     @Column(name = "service_name", nullable = false, length = 100)
     private String serviceName;
 
@@ -43,8 +70,17 @@ public class MwsTestRequest extends Test {
     @Column(name = "endpoint_url", nullable = false, length = 500)
     private String endpointUrl;
 
+    // XML SOAP, stocké compressé. L'ancienne colonne texte n'est plus lue
+    // que pour les tests créés avant la compression (voir getRequestBody)
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "request_body_z", columnDefinition = "LONGBLOB")
+    private String requestBody;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
     @Column(name = "request_body", columnDefinition = "LONGTEXT", nullable = false)
-    private String requestBody; // XML SOAP
+    private String legacyRequestBody = "";
 
     @Column(length = 100)
     private String M3Username; // Credentials M3
@@ -58,11 +94,56 @@ public class MwsTestRequest extends Test {
     @Column(name = "timeout_millis")
     private Integer timeoutMillis = 60000;
 
+    @Column(name = "deadline_at")
+    private LocalDateTime deadlineAt; // Échéance au-delà de laquelle le test est considéré bloqué (TIMEOUT)
+
+    // File en base : instance qui détient le test et fin de son bail. Écrits
+    // uniquement en SQL par MwsJobQueue, jamais lors d'une sauvegarde de l'entité
+    @Column(name = "lease_owner", length = 100, insertable = false, updatable = false)
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at", insertable = false, updatable = false)
+    private LocalDateTime leaseExpiresAt;
+
     @Column(nullable = false, length = 20)
     private String environment;
 
+    @Column(name = "idempotency_key", length = 100, unique = true)
+    private String idempotencyKey; // En-tête Idempotency-Key de la soumission, null si absent
+
+    @Column(name = "request_hash", length = 64)
+    private String requestHash; // SHA-256 de (programme, opération, environnement, utilisateur M3, corps)
+
+    @Column(name = "batch_id")
+    private UUID batchId; // Lot de soumission, null pour un test unitaire
+
+    @Column(name = "schedule_id")
+    private UUID scheduleId; // Planification à l'origine du test, null pour une soumission manuelle
+
+    // Mode tir de charge : null pour une exécution simple
+    @Column(name = "load_iterations")
+    private Integer loadIterations;
+
+    @Column(name = "load_concurrency")
+    private Integer loadConcurrency;
+
+    @Column(name = "load_warmup_iterations")
+    private Integer loadWarmupIterations;
+
     @OneToMany(mappedBy = "request", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<MwsTestResult> results = new HashSet<>();
 
+    public String getRequestBody() {
+        return requestBody != null ? requestBody : legacyRequestBody;
+    }
+
+    public void setRequestBody(String requestBody) {
+        this.requestBody = requestBody;
+        this.legacyRequestBody = "";
+    }
+
+    public boolean isLoadTest() {
+        return loadIterations != null;
+    }
 
 }
@@ -2,12 +2,22 @@ package org.example.ariesbackendweb.MWS.entities;
 
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.example.ariesbackendweb.common.persistence.CompressedTextConverter;
 import org.hibernate.annotations.CreationTimestamp;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
 
 @Entity
 @Table(name = "mws_test_result")
@@ -15,8 +25,18 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 public class MwsTestResult {
 
+    /**
+     * Taille des blocs d'identifiants réservés par le générateur (voir MwsResultWriter).
+     */
+    public static final int ID_ALLOCATION_SIZE = 500;
+
+    // Générateur par table avec pré-allocation (pooled) : contrairement à IDENTITY,
+    // Hibernate connaît l'identifiant avant l'INSERT et peut grouper les insertions
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "mws_test_result_id")
+    @TableGenerator(name = "mws_test_result_id", table = "mws_id_generator",
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "mws_test_result", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "result_id", nullable = false, unique = true, length = 36)
@@ -38,15 +58,34 @@ public class MwsTestResult {
     @Column(name = "http_status")
     private Integer httpStatus;
 
-    @Column(name = "response_body", columnDefinition = "LONGTEXT")
-    private String responseBody; // XML SOAP de réponse
+    // XML SOAP de réponse, stocké compressé (voir getResponseBody pour les anciennes lignes)
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "response_body_z", columnDefinition = "LONGBLOB")
+    private String responseBody;
 
     @Column(name = "error_message", columnDefinition = "TEXT")
     private String errorMessage;
 
-    @Column(name = "exception_stack_trace", columnDefinition = "LONGTEXT")
+    @Column(name = "response_body_size")
+    private Long responseBodySize; // Taille en octets (UTF-8) du corps de réponse décompressé
+
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "exception_stack_trace_z", columnDefinition = "LONGBLOB")
     private String exceptionStackTrace;
 
+    // Colonnes texte antérieures à la compression : lues seulement, jamais écrites
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @Column(name = "response_body", columnDefinition = "LONGTEXT", insertable = false, updatable = false)
+    private String legacyResponseBody;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @Column(name = "exception_stack_trace", columnDefinition = "LONGTEXT", insertable = false, updatable = false)
+    private String legacyExceptionStackTrace;
+
     @Column(name = "start_time", nullable = false)
     private Long startTime; // Timestamp en millisecondes
 
@@ -68,10 +107,46 @@ public class MwsTestResult {
     @Column(length = 20)
     private String environment;
 
+    // Comparaison avec la réponse de référence : null si aucune référence n'est définie
+    @Column(name = "baseline_id")
+    private UUID baselineId;
+
+    @Column(name = "baseline_match")
+    private Boolean baselineMatch;
+
+    @Column(name = "baseline_diff", columnDefinition = "TEXT")
+    private String baselineDiff; // Synthèse des différences (voir XmlStreamDiff)
+
+    // Assertions métier de l'opération : null si l'opération n'en a pas
+    @Column(name = "assertions_passed")
+    private Integer assertionsPassed;
+
+    @Column(name = "assertions_failed")
+    private Integer assertionsFailed;
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @OneToMany(mappedBy = "result", cascade = CascadeType.PERSIST)
+    private List<MwsAssertionResult> assertionResults = new ArrayList<>();
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
+    public String getResponseBody() {
+        return responseBody != null ? responseBody : legacyResponseBody;
+    }
+
+    public void setResponseBody(String responseBody) {
+        this.responseBody = responseBody;
+        this.responseBodySize = responseBody != null ?
+                (long) responseBody.getBytes(StandardCharsets.UTF_8).length : null;
+    }
+
+    public String getExceptionStackTrace() {
+        return exceptionStackTrace != null ? exceptionStackTrace : legacyExceptionStackTrace;
+    }
+
     @PrePersist
     public void prePersist() {
         if (resultId == null) {
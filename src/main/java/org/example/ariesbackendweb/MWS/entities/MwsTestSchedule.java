@@ -0,0 +1,87 @@
+package org.example.ariesbackendweb.MWS.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Planification récurrente d'un test MWS (sonde de supervision synthétique).
+ *
+ * À chaque déclenchement de l'expression cron, un test est soumis via
+ * MwsTestService avec l'identifiant de la planification, ce qui permet de
+ * suivre l'évolution de ses résultats dans l'historique.
+ */
+@Entity
+@Table(name = "mws_test_schedule")
+@Data
+@NoArgsConstructor
+public class MwsTestSchedule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "program_id", nullable = false)
+    private MwsProgram program;
+
+    @Column(name = "operation_name", nullable = false, length = 100)
+    private String operationName;
+
+    @Column(nullable = false, length = 20)
+    private String environment;
+
+    @Column(name = "request_body", columnDefinition = "LONGTEXT", nullable = false)
+    private String requestBody;
+
+    @Column(name = "m3_username", length = 100)
+    private String m3Username;
+
+    @ToString.Exclude
+    @Column(name = "password_encrypted", length = 500)
+    private String m3Password; // À chiffrer en production, comme pour MwsTestRequest
+
+    @Column(name = "timeout_millis")
+    private Integer timeoutMillis;
+
+    // Expression cron Spring à 6 champs (seconde minute heure jour mois jour-de-semaine)
+    @Column(name = "cron_expression", nullable = false, length = 100)
+    private String cronExpression;
+
+    // Délai aléatoire maximal ajouté à chaque déclenchement, pour étaler les sondes planifiées à la même heure
+    @Column(name = "jitter_seconds", nullable = false)
+    private int jitterSeconds;
+
+    // Si true, un déclenchement est ignoré tant que le test précédent n'est pas terminé
+    @Column(name = "skip_if_running", nullable = false)
+    private boolean skipIfRunning = true;
+
+    @Column(nullable = false)
+    private boolean enabled = true;
+
+    @Column(name = "last_run_at")
+    private LocalDateTime lastRunAt;
+
+    // Dernier déclenchement cron traité (test soumis ou ignoré), toutes instances confondues
+    @Column(name = "last_fired_at")
+    private LocalDateTime lastFiredAt;
+
+    @Column(name = "last_test_id")
+    private UUID lastTestId;
+
+    @Column(name = "skipped_runs", nullable = false)
+    private long skippedRuns;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
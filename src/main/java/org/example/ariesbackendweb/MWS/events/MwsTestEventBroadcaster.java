@@ -0,0 +1,178 @@
+package org.example.ariesbackendweb.MWS.events;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Diffuse en Server-Sent Events les transitions de statut des tests MWS.
+ *
+ * Un abonné suit tous les tests d'un programme ou d'un lot sur une seule
+ * connexion, au lieu d'un polling ou d'une souscription STOMP par test.
+ *
+ * Chaque abonné dispose de sa propre file et de son propre thread virtuel
+ * d'envoi : un client lent ne retarde ni les workers qui publient les
+ * événements, ni les autres abonnés. Un abonné dont la file déborde est
+ * déconnecté (l'EventSource du navigateur se reconnecte automatiquement).
+ *
+ * Le flux est local à l'instance : avec la file en base
+ * ({@code mws.execution.queue-mode=database}), un abonné ne reçoit que les
+ * transitions des tests exécutés par l'instance à laquelle il est connecté,
+ * comme pour les topics STOMP du broker simple. Un client qui doit suivre
+ * tous les tests relit leur statut (GET /mws/tests/{id}/status), qui
+ * reflète la base.
+ */
+@Component
+@Slf4j
+public class MwsTestEventBroadcaster {
+
+    private static final long EMITTER_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private static final int SUBSCRIBER_QUEUE_CAPACITY = 1000;
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Ouvre un flux d'événements filtré par programme et/ou par lot.
+     *
+     * @param programId Le programme suivi, ou null
+     * @param batchId   Le lot suivi, ou null
+     * @return L'émetteur SSE à retourner par le controller
+     * @throws IllegalArgumentException Si aucun filtre n'est fourni
+     */
+    public SseEmitter subscribe(UUID programId, UUID batchId) {
+        if (programId == null && batchId == null) {
+            throw new IllegalArgumentException("Un programId ou un batchId est requis");
+        }
+
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+        Subscription subscription = new Subscription(emitter, programId, batchId);
+
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+
+        subscriptions.add(subscription);
+        subscription.start();
+
+        log.debug("Nouvel abonné aux événements MWS (programme {}, lot {}), {} abonné(s)",
+                programId, batchId, subscriptions.size());
+        return emitter;
+    }
+
+    /**
+     * Relaie une transition aux abonnés concernés, après le commit de la
+     * transaction qui l'a produite (immédiatement s'il n'y en a pas).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusEvent(MwsTestStatusEvent event) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.matches(event)) {
+                subscription.offer(event);
+            }
+        }
+    }
+
+    /**
+     * Commentaire SSE périodique : maintient les connexions ouvertes à travers
+     * les proxys et détecte les clients partis.
+     */
+    @Scheduled(fixedDelay = 15000)
+    public void heartbeat() {
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(Subscription.HEARTBEAT);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscriptions.forEach(subscription -> subscription.emitter.complete());
+    }
+
+    private class Subscription {
+
+        private static final Object HEARTBEAT = new Object();
+
+        private final SseEmitter emitter;
+        private final UUID programId;
+        private final UUID batchId;
+        private final BlockingQueue<Object> pending = new LinkedBlockingQueue<>(SUBSCRIBER_QUEUE_CAPACITY);
+        private volatile boolean closed;
+        private Thread sender;
+
+        private Subscription(SseEmitter emitter, UUID programId, UUID batchId) {
+            this.emitter = emitter;
+            this.programId = programId;
+            this.batchId = batchId;
+        }
+
+        private void start() {
+            sender = Thread.ofVirtual()
+                    .name("mws-sse-sender")
+                    .start(this::sendLoop);
+        }
+
+        private boolean matches(MwsTestStatusEvent event) {
+            return (programId == null || programId.equals(event.programId()))
+                    && (batchId == null || batchId.equals(event.batchId()));
+        }
+
+        private void offer(Object event) {
+            if (!closed && !pending.offer(event)) {
+                log.warn("Abonné aux événements MWS trop lent, déconnexion (programme {}, lot {})",
+                        programId, batchId);
+                emitter.complete();
+                close();
+            }
+        }
+
+        private void sendLoop() {
+            try {
+                while (!closed) {
+                    Object event = pending.take();
+                    if (event == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        MwsTestStatusEvent statusEvent = (MwsTestStatusEvent) event;
+                        emitter.send(SseEmitter.event()
+                                .name("status")
+                                .id(statusEvent.testId() + ":" + statusEvent.status())
+                                .data(statusEvent));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException e) {
+                // Client déconnecté ou émetteur déjà terminé
+                log.debug("Abonné aux événements MWS déconnecté: {}", e.getMessage());
+            } finally {
+                close();
+            }
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            subscriptions.remove(this);
+            if (sender != null && sender != Thread.currentThread()) {
+                sender.interrupt();
+            }
+        }
+    }
+}
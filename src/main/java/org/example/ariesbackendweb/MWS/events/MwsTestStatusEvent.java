@@ -0,0 +1,33 @@
+package org.example.ariesbackendweb.MWS.events;
+
+import org.example.ariesbackendweb.MWS.entities.MwsTestRequest;
+import org.example.ariesbackendweb.MWS.entities.MwsTestStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Transition de statut d'un test MWS, publiée via l'ApplicationEventPublisher
+ * et relayée aux abonnés du flux d'événements de son programme ou de son lot.
+ *
+ * Volontairement compacte : l'UI récupère les détails (résultat, durée...)
+ * par les endpoints REST lorsqu'un test se termine.
+ */
+public record MwsTestStatusEvent(UUID testId,
+                                 UUID programId,
+                                 UUID batchId,
+                                 String operationName,
+                                 MwsTestStatus status,
+                                 LocalDateTime timestamp) {
+
+    public static MwsTestStatusEvent of(MwsTestRequest testRequest) {
+        return new MwsTestStatusEvent(
+                testRequest.getId(),
+                // L'identifiant d'un proxy LAZY est lisible sans initialisation
+                testRequest.getProgram() != null ? testRequest.getProgram().getId() : null,
+                testRequest.getBatchId(),
+                testRequest.getOperationName(),
+                testRequest.getStatus(),
+                LocalDateTime.now());
+    }
+}
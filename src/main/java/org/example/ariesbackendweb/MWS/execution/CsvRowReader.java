@@ -0,0 +1,142 @@
+package org.example.ariesbackendweb.MWS.execution;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecture d'un fichier CSV ligne à ligne, sans le charger en mémoire.
+ *
+ * Format RFC 4180 : champs entre guillemets (séparateurs, guillemets doublés
+ * et retours à la ligne compris), fins de ligne CRLF ou LF, BOM UTF-8 ignoré.
+ * Le séparateur (virgule ou point-virgule, comme dans les exports Excel
+ * français) est déduit de la première ligne.
+ */
+public class CsvRowReader implements Closeable {
+
+    private static final int MAX_HEADER_LENGTH = 64 * 1024;
+    private static final int MAX_FIELD_LENGTH = 64 * 1024;
+
+    private final BufferedReader reader;
+    private final char separator;
+    private long lineNumber;
+    private long recordLineNumber;
+
+    public CsvRowReader(Reader reader) throws IOException {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        this.separator = detectSeparator();
+    }
+
+    /**
+     * Enregistrement suivant, ou null en fin de fichier.
+     *
+     * @throws IOException Si la lecture échoue ou si le fichier est mal formé
+     */
+    public List<String> next() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        lineNumber++;
+        recordLineNumber = lineNumber;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        while (true) {
+            if (c == -1) {
+                if (quoted) {
+                    throw new IOException("Ligne " + recordLineNumber + " : guillemet non fermé");
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+
+            if (field.length() > MAX_FIELD_LENGTH) {
+                throw new IOException("Ligne " + recordLineNumber + " : champ trop long");
+            }
+            c = reader.read();
+        }
+    }
+
+    /**
+     * Numéro (à partir de 1) de la ligne où commence le dernier enregistrement lu.
+     */
+    public long getRecordLineNumber() {
+        return recordLineNumber;
+    }
+
+    public char getSeparator() {
+        return separator;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Ignore le BOM éventuel, puis retient le séparateur le plus fréquent de
+     * la première ligne (la virgule à égalité).
+     */
+    private char detectSeparator() throws IOException {
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') {
+            reader.reset();
+        }
+
+        reader.mark(MAX_HEADER_LENGTH);
+        int commas = 0;
+        int semicolons = 0;
+        for (int i = 0; i < MAX_HEADER_LENGTH; i++) {
+            int c = reader.read();
+            if (c == -1 || c == '\n' || c == '\r') {
+                break;
+            }
+            if (c == ',') {
+                commas++;
+            } else if (c == ';') {
+                semicolons++;
+            }
+        }
+        reader.reset();
+        return semicolons > commas ? ';' : ',';
+    }
+}
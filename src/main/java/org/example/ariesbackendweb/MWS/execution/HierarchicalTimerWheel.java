@@ -0,0 +1,180 @@
+package org.example.ariesbackendweb.MWS.execution;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Roue temporelle hiérarchique : planifie un grand nombre d'échéances avec
+ * un coût constant par ajout, annulation et tick, sans parcourir la base
+ * ni trier les échéances.
+ *
+ * Chaque niveau compte 64 cases ; une case du niveau 0 dure un tick, une case
+ * du niveau n dure 64^n ticks. Une échéance est rangée au niveau le plus fin
+ * qui la couvre, puis redescend d'un niveau (cascade) chaque fois que la roue
+ * inférieure a fait un tour, jusqu'à expirer au niveau 0. Avec 4 niveaux et
+ * des ticks de 100 ms, la roue couvre environ 19 jours ; une échéance plus
+ * lointaine est rangée à la limite puis replanifiée.
+ *
+ * L'annulation est paresseuse : l'entrée est oubliée et ignorée lorsque sa
+ * case est vidée. Les méthodes sont thread-safe ; {@link #advance} n'est
+ * appelée que par le thread qui fait tourner la roue.
+ *
+ * @param <K> Le type des clés (une seule échéance active par clé)
+ */
+public final class HierarchicalTimerWheel<K> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELTA_TICKS = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final long tickMillis;
+    private final long originMillis;
+    private final ArrayDeque<Entry<K>>[][] wheels;
+    private final Map<K, Entry<K>> entries = new ConcurrentHashMap<>();
+
+    // Dernier tick traité
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimerWheel(long tickMillis, long originMillis) {
+        this.tickMillis = tickMillis;
+        this.originMillis = originMillis;
+        this.wheels = new ArrayDeque[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheels[level][slot] = new ArrayDeque<>();
+            }
+        }
+    }
+
+    /**
+     * Planifie (ou replanifie) l'échéance d'une clé.
+     *
+     * @return true si l'échéance est déjà passée : elle sera rendue au prochain tick
+     */
+    public synchronized boolean schedule(K key, long deadlineMillis) {
+        Entry<K> entry = new Entry<>(key, deadlineMillis, ticksAt(deadlineMillis));
+        entries.put(key, entry);
+        return place(entry);
+    }
+
+    /**
+     * Annule l'échéance d'une clé.
+     *
+     * @return true si l'échéance était active, false si elle avait déjà expiré ou n'existait pas
+     */
+    public boolean cancel(K key) {
+        return entries.remove(key) != null;
+    }
+
+    public boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * Fait tourner la roue jusqu'à l'instant donné.
+     *
+     * @return Les clés dont l'échéance est atteinte ; elles ne sont plus suivies
+     */
+    public List<K> advance(long nowMillis) {
+        List<K> expired = new ArrayList<>();
+        long targetTick = Math.floorDiv(nowMillis - originMillis, tickMillis);
+
+        synchronized (this) {
+            // Échéances déjà passées lors de leur planification
+            drain(wheels[0][(int) (currentTick & SLOT_MASK)], expired, nowMillis);
+
+            while (currentTick < targetTick) {
+                currentTick++;
+
+                // Cascade : une roue qui a fait un tour redescend la case suivante de la roue supérieure
+                for (int level = 1; level < LEVELS; level++) {
+                    if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                        break;
+                    }
+                    ArrayDeque<Entry<K>> slot = wheels[level][(int) ((currentTick >> (SLOT_BITS * level)) & SLOT_MASK)];
+                    List<Entry<K>> cascaded = new ArrayList<>(slot);
+                    slot.clear();
+                    for (Entry<K> entry : cascaded) {
+                        if (entries.get(entry.key) == entry) {
+                            place(entry);
+                        }
+                    }
+                }
+
+                drain(wheels[0][(int) (currentTick & SLOT_MASK)], expired, nowMillis);
+            }
+        }
+        return expired;
+    }
+
+    private void drain(ArrayDeque<Entry<K>> slot, List<K> expired, long nowMillis) {
+        List<Entry<K>> due = new ArrayList<>(slot);
+        slot.clear();
+
+        for (Entry<K> entry : due) {
+            if (entries.get(entry.key) != entry) {
+                continue; // annulée ou replanifiée
+            }
+            if (entry.deadlineMillis > nowMillis) {
+                // Échéance au-delà de la portée de la roue : rangée à nouveau
+                entry.tick = ticksAt(entry.deadlineMillis);
+                place(entry);
+            } else if (entries.remove(entry.key, entry)) {
+                expired.add(entry.key);
+            }
+        }
+    }
+
+    /**
+     * Range une entrée dans la case qui correspond à son tick d'expiration.
+     *
+     * @return true si l'entrée est rangée dans la case courante (déjà échue)
+     */
+    private boolean place(Entry<K> entry) {
+        long delta = Math.min(entry.tick - currentTick, MAX_DELTA_TICKS);
+        if (delta <= 0) {
+            wheels[0][(int) (currentTick & SLOT_MASK)].add(entry);
+            return true;
+        }
+
+        long tick = currentTick + delta;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < (1L << (SLOT_BITS * (level + 1)))) {
+                wheels[level][(int) ((tick >> (SLOT_BITS * level)) & SLOT_MASK)].add(entry);
+                return false;
+            }
+        }
+        throw new IllegalStateException("Échéance hors de portée de la roue: " + entry.deadlineMillis);
+    }
+
+    private long ticksAt(long millis) {
+        // Arrondi au tick supérieur : une échéance n'expire jamais en avance
+        return Math.floorDiv(millis - originMillis + tickMillis - 1, tickMillis);
+    }
+
+    private static final class Entry<K> {
+        private final K key;
+        private final long deadlineMillis;
+        private long tick;
+
+        private Entry(K key, long deadlineMillis, long tick) {
+            this.key = key;
+            this.deadlineMillis = deadlineMillis;
+            this.tick = tick;
+        }
+    }
+}
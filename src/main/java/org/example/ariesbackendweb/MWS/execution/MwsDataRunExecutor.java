@@ -0,0 +1,274 @@
+package org.example.ariesbackendweb.MWS.execution;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.MwsTestService;
+import org.example.ariesbackendweb.MWS.dtos.MwsTestSubmissionRequest;
+import org.example.ariesbackendweb.MWS.entities.MwsDataRunStatus;
+import org.example.ariesbackendweb.MWS.entities.MwsTestStatus;
+import org.example.ariesbackendweb.MWS.repositories.MwsDataRunRepository;
+import org.example.ariesbackendweb.MWS.repositories.MwsTestRepository;
+import org.example.ariesbackendweb.common.file.FileSystemStorageService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Soumet les lignes d'une exécution pilotée par CSV.
+ *
+ * Le fichier est lu en flux, dans un thread virtuel : chaque ligne donne un
+ * corps de requête (modèle compilé une fois), et les tests sont soumis par
+ * paquets de {@code dataRunChunkSize}, chacun dans sa propre transaction avec
+ * l'avancement de l'exécution. La lecture est suspendue tant que
+ * l'exécution a plus de {@code dataRunMaxInFlight} tests non terminés, ou
+ * que la file d'exécution refuse le paquet : un fichier de 50 000 lignes
+ * n'occupe jamais toute la file, et la mémoire utilisée ne dépend pas de la
+ * taille du fichier.
+ */
+@Component
+@Slf4j
+public class MwsDataRunExecutor {
+
+    private static final List<MwsTestStatus> ACTIVE_STATUSES = List.of(
+            MwsTestStatus.CREATED, MwsTestStatus.LAUNCHED, MwsTestStatus.QUEUED,
+            MwsTestStatus.PENDING_AGENT, MwsTestStatus.RUNNING);
+
+    private static final int MAX_REASON_LENGTH = 500;
+
+    @Autowired
+    private MwsTestService testService;
+
+    @Autowired
+    private MwsTestRepository testRepository;
+
+    @Autowired
+    private MwsDataRunRepository runRepository;
+
+    @Autowired
+    private FileSystemStorageService storageService;
+
+    @Autowired
+    private MwsExecutionProperties properties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private LocalDateTime startedAt;
+
+    /**
+     * Exécution à soumettre, copiée de l'entité pour le thread de soumission.
+     *
+     * @param requestTemplate Corps de requête à ${colonne}
+     */
+    public record DataRunPlan(UUID runId, UUID programId, String environment, String operationName,
+                              String requestTemplate, String fileName, String m3Username,
+                              String m3Password, Integer timeoutMillis) {
+    }
+
+    /**
+     * Avancement de la soumission, propre au thread de soumission.
+     */
+    private static class Progress {
+        private long rowsRead;
+        private long testsSubmitted;
+        private long rowsRejected;
+        private String firstRejection;
+
+        private void reject(long lineNumber, String reason) {
+            rowsRejected++;
+            if (firstRejection == null) {
+                firstRejection = truncate("Ligne " + lineNumber + " : " + reason);
+            }
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        startedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Clôture les soumissions interrompues par l'arrêt précédent. Les tests
+     * déjà soumis sont repris comme les autres (voir MwsStartupRecovery). En
+     * mode file en base, une soumission peut appartenir à une autre instance :
+     * elles sont laissées en l'état.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedRuns() {
+        if (properties.getQueueMode() == MwsExecutionProperties.QueueMode.DATABASE) {
+            return;
+        }
+        Integer count = transactionTemplate.execute(status -> runRepository.failInterrupted(
+                MwsDataRunStatus.SUBMITTING, MwsDataRunStatus.FAILED, startedAt,
+                "Soumission interrompue par un redémarrage"));
+        if (count != null && count > 0) {
+            log.info("{} soumission(s) CSV interrompue(s) clôturée(s)", count);
+        }
+    }
+
+    /**
+     * Lance la soumission des lignes, dans un thread virtuel, après le commit
+     * de la transaction qui a créé l'exécution (immédiatement s'il n'y en a pas).
+     */
+    public void start(DataRunPlan plan) {
+        Runnable launch = () -> Thread.ofVirtual()
+                .name("mws-data-run-" + plan.runId())
+                .start(() -> execute(plan));
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            launch.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                launch.run();
+            }
+        });
+    }
+
+    private void execute(DataRunPlan plan) {
+        log.info("Exécution CSV {} : soumission des lignes de {}", plan.runId(), plan.fileName());
+        RequestTemplate template = RequestTemplate.compile(plan.requestTemplate());
+        Progress progress = new Progress();
+
+        try (CsvRowReader csv = new CsvRowReader(
+                Files.newBufferedReader(storageService.load(plan.fileName()), StandardCharsets.UTF_8))) {
+
+            List<String> header = csv.next();
+            if (header == null) {
+                complete(plan.runId(), MwsDataRunStatus.FAILED, "Fichier vide");
+                return;
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim(), i);
+            }
+
+            List<MwsTestSubmissionRequest> chunk = new ArrayList<>(properties.getDataRunChunkSize());
+            List<String> row;
+            while ((row = csv.next()) != null) {
+                if (row.size() == 1 && row.get(0).isBlank()) {
+                    continue;
+                }
+                if (progress.rowsRead >= properties.getDataRunMaxRows()) {
+                    if (submit(plan, chunk, progress)) {
+                        complete(plan.runId(), MwsDataRunStatus.FAILED, "Fichier limité à "
+                                + properties.getDataRunMaxRows() + " lignes : les suivantes n'ont pas été soumises");
+                    }
+                    return;
+                }
+
+                progress.rowsRead++;
+                if (row.size() != header.size()) {
+                    progress.reject(csv.getRecordLineNumber(),
+                            row.size() + " colonne(s), " + header.size() + " attendue(s)");
+                    continue;
+                }
+
+                List<String> values = row;
+                chunk.add(toRequest(plan, template.render(name -> values.get(columns.get(name)))));
+                if (chunk.size() >= properties.getDataRunChunkSize()) {
+                    if (!submit(plan, chunk, progress)) {
+                        return;
+                    }
+                    chunk.clear();
+                }
+            }
+
+            if (submit(plan, chunk, progress)) {
+                complete(plan.runId(), MwsDataRunStatus.SUBMITTED, null);
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            complete(plan.runId(), MwsDataRunStatus.FAILED, "Soumission interrompue");
+        } catch (Exception e) {
+            log.error("Erreur lors de la soumission de l'exécution CSV {}", plan.runId(), e);
+            complete(plan.runId(), MwsDataRunStatus.FAILED,
+                    truncate("Ligne " + progress.rowsRead + " : " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Soumet un paquet de tests et enregistre l'avancement, dans une même
+     * transaction. Attend au préalable que l'exécution ait assez peu de tests
+     * en cours ; réessaie tant que la file d'exécution est pleine.
+     *
+     * @return false si l'exécution a été annulée : la lecture s'arrête
+     */
+    private boolean submit(DataRunPlan plan, List<MwsTestSubmissionRequest> chunk, Progress progress)
+            throws InterruptedException {
+        while (true) {
+            if (runRepository.findStatusById(plan.runId()) != MwsDataRunStatus.SUBMITTING) {
+                log.info("Exécution CSV {} annulée après {} test(s) soumis", plan.runId(), progress.testsSubmitted);
+                return false;
+            }
+
+            if (!chunk.isEmpty()) {
+                long inFlight = testRepository.countByBatchIdAndStatusIn(plan.runId(), ACTIVE_STATUSES);
+                if (inFlight > 0 && inFlight + chunk.size() > properties.getDataRunMaxInFlight()) {
+                    Thread.sleep(properties.getDataRunPollIntervalMillis());
+                    continue;
+                }
+            }
+
+            long submitted = progress.testsSubmitted + chunk.size();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    testService.submitDataRunRows(chunk, plan.runId());
+                    runRepository.updateProgress(plan.runId(), progress.rowsRead, submitted,
+                            progress.rowsRejected, progress.firstRejection);
+                });
+            } catch (RejectedExecutionException e) {
+                log.debug("Exécution CSV {} : file d'exécution pleine, nouvelle tentative", plan.runId());
+                Thread.sleep(properties.getDataRunPollIntervalMillis());
+                continue;
+            }
+
+            progress.testsSubmitted = submitted;
+            log.debug("Exécution CSV {} : {} ligne(s) lue(s), {} test(s) soumis",
+                    plan.runId(), progress.rowsRead, submitted);
+            return true;
+        }
+    }
+
+    private static MwsTestSubmissionRequest toRequest(DataRunPlan plan, String requestBody) {
+        MwsTestSubmissionRequest request = new MwsTestSubmissionRequest();
+        request.setProgramId(plan.programId().toString());
+        request.setEnvironment(plan.environment());
+        request.setOperationName(plan.operationName());
+        request.setRequestBody(requestBody);
+        request.setM3Username(plan.m3Username());
+        request.setM3Password(plan.m3Password());
+        request.setTimeoutMillis(plan.timeoutMillis());
+        return request;
+    }
+
+    private void complete(UUID runId, MwsDataRunStatus status, String failureReason) {
+        transactionTemplate.executeWithoutResult(tx -> runRepository.complete(
+                runId, MwsDataRunStatus.SUBMITTING, status, LocalDateTime.now(), failureReason));
+        log.info("Exécution CSV {} : soumission terminée avec le statut {}", runId, status);
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > MAX_REASON_LENGTH ? value.substring(0, MAX_REASON_LENGTH) : value;
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.ariesbackendweb.MWS.execution;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.MwsTestService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Suivi des échéances des tests PENDING_AGENT / RUNNING.
+ *
+ * Chaque test envoyé à l'agent reçoit une échéance (timeout du test plus une
+ * marge), suivie dans une {@link HierarchicalTimerWheel} en mémoire : aucun
+ * parcours de la table n'est nécessaire pour retrouver les tests bloqués.
+ * À échéance, le test est marqué FAILED avec un motif TIMEOUT (voir
+ * {@link MwsTestService#expireTest}), ce qui publie l'événement de statut.
+ *
+ * Le premier qui retire un test du suivi décide de son issue : le résultat
+ * de l'agent arrivé après l'échéance est ignoré, et inversement un test dont
+ * le résultat est arrivé à temps n'expire plus.
+ *
+ * Au démarrage, les échéances des tests encore en cours sont reprises par
+ * {@link MwsStartupRecovery}.
+ */
+@Component
+@Slf4j
+public class MwsDeadlineTracker {
+
+    @Autowired
+    private MwsExecutionProperties properties;
+
+    @Autowired
+    @Lazy
+    private MwsTestService testService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private HierarchicalTimerWheel<UUID> wheel;
+    private Counter timeouts;
+    private Thread ticker;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        wheel = new HierarchicalTimerWheel<>(properties.getDeadlineTickMillis(), System.currentTimeMillis());
+        timeouts = meterRegistry.counter("mws.tests.timeout");
+        meterRegistry.gauge("mws.tests.deadlines.tracked", wheel, HierarchicalTimerWheel::size);
+
+        running = true;
+        ticker = Thread.ofPlatform()
+                .name("mws-deadline-wheel")
+                .daemon(true)
+                .start(this::tickLoop);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        ticker.interrupt();
+    }
+
+    /**
+     * Suit (ou remplace) l'échéance d'un test.
+     */
+    public void track(UUID testId, LocalDateTime deadlineAt) {
+        wheel.schedule(testId, deadlineAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    /**
+     * Retire un test du suivi.
+     *
+     * @return true si le test était suivi, false s'il a déjà expiré (ou n'était pas suivi)
+     */
+    public boolean cancel(UUID testId) {
+        return wheel.cancel(testId);
+    }
+
+    public int getTrackedCount() {
+        return wheel.size();
+    }
+
+    private void tickLoop() {
+        while (running) {
+            try {
+                Thread.sleep(wheel.getTickMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            List<UUID> expired = wheel.advance(System.currentTimeMillis());
+            if (!expired.isEmpty()) {
+                log.warn("{} test(s) ont dépassé leur échéance", expired.size());
+                // Les accès base se font hors du thread de la roue, un lot à la fois
+                Thread.ofVirtual()
+                        .name("mws-deadline-expiry")
+                        .start(() -> expired.forEach(this::expire));
+            }
+        }
+    }
+
+    private void expire(UUID testId) {
+        try {
+            if (testService.expireTest(testId)) {
+                timeouts.increment();
+            }
+        } catch (Exception e) {
+            log.error("Erreur lors de l'expiration du test {}", testId, e);
+        }
+    }
+}
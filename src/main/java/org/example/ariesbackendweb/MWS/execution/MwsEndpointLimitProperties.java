@@ -0,0 +1,75 @@
+package org.example.ariesbackendweb.MWS.execution;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Limites d'appels vers les serveurs M3, appliquées avant chaque appel à l'agent.
+ *
+ * Les limites par endpoint s'appliquent à chaque URL d'endpoint MWS
+ * ({@code endpoints} si elle y est configurée, {@code defaults} sinon) ; les
+ * limites par environnement, optionnelles, s'appliquent à l'ensemble des
+ * appels vers un environnement.
+ *
+ * Exemple :
+ * <pre>
+ * mws.limits.defaults.max-in-flight=20
+ * mws.limits.defaults.requests-per-second=50
+ * mws.limits.endpoints[https://m3-prd:13080/mws/services/CustomerService].requests-per-second=5
+ * mws.limits.environments.PRD.max-in-flight=30
+ * </pre>
+ */
+@Data
+@Component
+@ConfigurationProperties("mws.limits")
+public class MwsEndpointLimitProperties {
+
+    /**
+     * Limites appliquées à chaque endpoint sans configuration propre.
+     */
+    private Limit defaults = new Limit();
+
+    /**
+     * Limites propres à certains endpoints, par URL d'endpoint.
+     */
+    private Map<String, Limit> endpoints = new HashMap<>();
+
+    /**
+     * Limites globales par environnement (DEV, TEST, PRD...).
+     */
+    private Map<String, Limit> environments = new HashMap<>();
+
+    /**
+     * Délai avant de reprendre un test refusé faute de place (appels en vol
+     * au maximum), en millisecondes.
+     */
+    private long inFlightRetryDelayMillis = 250;
+
+    @Data
+    public static class Limit {
+
+        /**
+         * Nombre maximal d'appels simultanés, 0 pour ne pas limiter.
+         */
+        private int maxInFlight = 0;
+
+        /**
+         * Débit maximal soutenu en appels par seconde, 0 pour ne pas limiter.
+         */
+        private double requestsPerSecond = 0;
+
+        /**
+         * Nombre d'appels pouvant partir d'un coup après une période calme
+         * (capacité du seau de jetons). Par défaut, une seconde de débit.
+         */
+        private Integer burst;
+
+        public boolean isUnlimited() {
+            return maxInFlight <= 0 && requestsPerSecond <= 0;
+        }
+    }
+}
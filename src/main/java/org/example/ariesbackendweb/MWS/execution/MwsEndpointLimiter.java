@@ -0,0 +1,242 @@
+package org.example.ariesbackendweb.MWS.execution;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limiteur des appels vers les endpoints MWS, pour protéger les serveurs M3
+ * des tirs de charge et des gros lots.
+ *
+ * Chaque endpoint (et, s'il est configuré, chaque environnement) dispose d'un
+ * compteur d'appels en vol et d'un seau de jetons pour le débit. Un appel doit
+ * obtenir une autorisation de l'environnement et de l'endpoint avant de partir
+ * vers l'agent ; l'autorisation est rendue à la fin de l'appel.
+ *
+ * La limite est locale à l'instance du backend.
+ */
+@Component
+@Slf4j
+public class MwsEndpointLimiter {
+
+    @Autowired
+    private MwsEndpointLimitProperties properties;
+
+    private final Map<String, Bucket> endpointBuckets = new ConcurrentHashMap<>();
+    private final Map<String, Bucket> environmentBuckets = new ConcurrentHashMap<>();
+
+    // Autorisations conservées jusqu'à l'arrivée du résultat (mode callback)
+    private final Map<UUID, Permit> heldPermits = new ConcurrentHashMap<>();
+
+    private final Map<String, MwsEndpointLimitProperties.Limit> environmentLimits = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        properties.getEnvironments().forEach((environment, limit) ->
+                environmentLimits.put(environment.toUpperCase(), limit));
+    }
+
+    /**
+     * Tente d'obtenir une autorisation d'appel, sans attendre.
+     *
+     * @return L'autorisation, à fermer à la fin de l'appel
+     * @throws MwsThrottledException Si une limite de l'endpoint ou de l'environnement est atteinte
+     */
+    public Permit tryAcquire(String environment, String endpointUrl) {
+        Bucket environmentBucket = environmentBucket(environment);
+        Bucket endpointBucket = endpointBucket(endpointUrl);
+
+        long wait = environmentBucket.tryAcquire(properties.getInFlightRetryDelayMillis());
+        if (wait > 0) {
+            throw new MwsThrottledException("Limite atteinte pour l'environnement " + environment, wait);
+        }
+
+        wait = endpointBucket.tryAcquire(properties.getInFlightRetryDelayMillis());
+        if (wait > 0) {
+            environmentBucket.cancel();
+            throw new MwsThrottledException("Limite atteinte pour l'endpoint " + endpointUrl, wait);
+        }
+
+        return new Permit(environmentBucket, endpointBucket);
+    }
+
+    /**
+     * Obtient une autorisation d'appel, en attendant si nécessaire.
+     * Destinée aux tirs de charge, dont chaque appel s'exécute sur son propre thread virtuel.
+     */
+    public Permit acquire(String environment, String endpointUrl) throws InterruptedException {
+        while (true) {
+            try {
+                return tryAcquire(environment, endpointUrl);
+            } catch (MwsThrottledException e) {
+                Thread.sleep(e.getRetryAfterMillis());
+            }
+        }
+    }
+
+    /**
+     * Conserve l'autorisation d'un test soumis en mode callback jusqu'à
+     * l'arrivée de son résultat (voir {@link #release(UUID)}).
+     */
+    public void hold(UUID testId, Permit permit) {
+        heldPermits.put(testId, permit);
+    }
+
+    /**
+     * Rend l'autorisation conservée pour un test, s'il y en a une.
+     */
+    public void release(UUID testId) {
+        Permit permit = heldPermits.remove(testId);
+        if (permit != null) {
+            permit.close();
+        }
+    }
+
+    /**
+     * État courant des limiteurs, pour l'endpoint actuator {@code mwslimits}.
+     */
+    public List<LimiterState> getEnvironmentStates() {
+        return environmentBuckets.values().stream().map(Bucket::state).toList();
+    }
+
+    public List<LimiterState> getEndpointStates() {
+        return endpointBuckets.values().stream().map(Bucket::state).toList();
+    }
+
+    public int getHeldCount() {
+        return heldPermits.size();
+    }
+
+    private Bucket environmentBucket(String environment) {
+        String key = environment != null ? environment.toUpperCase() : "";
+        return environmentBuckets.computeIfAbsent(key, k ->
+                new Bucket(k, environmentLimits.getOrDefault(k, new MwsEndpointLimitProperties.Limit())));
+    }
+
+    private Bucket endpointBucket(String endpointUrl) {
+        return endpointBuckets.computeIfAbsent(endpointUrl, k ->
+                new Bucket(k, properties.getEndpoints().getOrDefault(k, properties.getDefaults())));
+    }
+
+    /**
+     * Autorisation d'appel : rend la place en vol prise sur chaque limiteur
+     * (une seule fois, même si elle est fermée plusieurs fois).
+     */
+    public static final class Permit implements AutoCloseable {
+
+        private final Bucket[] buckets;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Bucket... buckets) {
+            this.buckets = buckets;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                for (Bucket bucket : buckets) {
+                    bucket.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * État d'un limiteur à un instant donné.
+     */
+    public record LimiterState(String key,
+                               int maxInFlight,
+                               double requestsPerSecond,
+                               int inFlight,
+                               Double availableTokens,
+                               long acquiredCount,
+                               long throttledCount) {
+    }
+
+    /**
+     * Compteur d'appels en vol et seau de jetons d'un endpoint ou d'un environnement.
+     */
+    private static final class Bucket {
+
+        private final String key;
+        private final int maxInFlight;
+        private final double requestsPerSecond;
+        private final double capacity;
+
+        private int inFlight;
+        private double tokens;
+        private long lastRefillNanos = System.nanoTime();
+        private long acquiredCount;
+        private long throttledCount;
+
+        private Bucket(String key, MwsEndpointLimitProperties.Limit limit) {
+            this.key = key;
+            this.maxInFlight = limit.getMaxInFlight();
+            this.requestsPerSecond = limit.getRequestsPerSecond();
+            this.capacity = limit.getBurst() != null && limit.getBurst() > 0
+                    ? limit.getBurst() : Math.max(1, requestsPerSecond);
+            this.tokens = capacity;
+        }
+
+        /**
+         * @return 0 si l'appel est autorisé, sinon le délai conseillé avant une nouvelle tentative
+         */
+        private synchronized long tryAcquire(long inFlightRetryDelayMillis) {
+            refill();
+
+            if (maxInFlight > 0 && inFlight >= maxInFlight) {
+                throttledCount++;
+                return Math.max(1, inFlightRetryDelayMillis);
+            }
+
+            if (requestsPerSecond > 0) {
+                if (tokens < 1) {
+                    throttledCount++;
+                    return Math.max(1, (long) Math.ceil((1 - tokens) * 1000 / requestsPerSecond));
+                }
+                tokens -= 1;
+            }
+
+            inFlight++;
+            acquiredCount++;
+            return 0;
+        }
+
+        /**
+         * Annule une autorisation accordée mais non utilisée : le jeton est rendu.
+         */
+        private synchronized void cancel() {
+            inFlight--;
+            acquiredCount--;
+            if (requestsPerSecond > 0) {
+                tokens = Math.min(capacity, tokens + 1);
+            }
+        }
+
+        private synchronized void release() {
+            inFlight--;
+        }
+
+        private synchronized LimiterState state() {
+            refill();
+            return new LimiterState(key, maxInFlight, requestsPerSecond, inFlight,
+                    requestsPerSecond > 0 ? Double.valueOf(tokens) : null, acquiredCount, throttledCount);
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            if (requestsPerSecond > 0) {
+                tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * requestsPerSecond / 1e9);
+            }
+            lastRefillNanos = now;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package org.example.ariesbackendweb.MWS.execution;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration du moteur d'exécution des tests MWS.
+ */
+@Data
+@Component
+@ConfigurationProperties("mws.execution")
+public class MwsExecutionProperties {
+
+    /**
+     * File en mémoire (une seule instance du backend) ou file en base
+     * (plusieurs instances se partagent les tests, voir MwsJobQueue).
+     */
+    public enum QueueMode {
+        MEMORY, DATABASE
+    }
+
+    /**
+     * Mode de la file d'exécution.
+     */
+    private QueueMode queueMode = QueueMode.MEMORY;
+
+    /**
+     * Identifiant de cette instance dans la file en base.
+     * Par défaut : nom d'hôte suivi d'un suffixe aléatoire.
+     */
+    private String nodeId;
+
+    /**
+     * File en base : durée d'un bail sur un test réclamé, en millisecondes.
+     * Un bail non prolongé dans ce délai (instance arrêtée) libère le test.
+     */
+    private long leaseDurationMillis = 60000;
+
+    /**
+     * File en base : intervalle de prolongation des baux de cette instance, en millisecondes.
+     */
+    private long leaseHeartbeatIntervalMillis = 15000;
+
+    /**
+     * File en base : intervalle de recherche des baux expirés, en millisecondes.
+     */
+    private long leaseReaperIntervalMillis = 30000;
+
+    /**
+     * File en base : délai maximal entre deux recherches de tests à réclamer,
+     * en millisecondes (une soumission sur cette instance réveille la recherche).
+     */
+    private long claimPollIntervalMillis = 500;
+
+    /**
+     * Nombre de workers (threads virtuels) qui consomment la file d'exécution.
+     * Correspond au nombre maximal de tests envoyés simultanément à l'agent.
+     */
+    private int workers = 64;
+
+    /**
+     * Nombre maximal de tests en attente dans la file.
+     * Au-delà, les nouvelles soumissions sont refusées.
+     */
+    private int queueCapacity = 5000;
+
+    /**
+     * Nombre de workers, parmi {@link #workers}, réservés aux tests de priorité
+     * INTERACTIVE : ils ne prennent jamais de test NORMAL ou BULK.
+     */
+    private int interactiveReservedWorkers = 2;
+
+    /**
+     * Poids relatifs des voies de la file d'exécution : quand plusieurs voies
+     * ont des tests en attente, chacune reçoit une part des workers libérés
+     * proportionnelle à son poids.
+     */
+    private int interactiveWeight = 16;
+
+    private int normalWeight = 4;
+
+    private int bulkWeight = 1;
+
+    /**
+     * Nombre maximal d'itérations autorisé pour un tir de charge.
+     */
+    private int loadTestMaxIterations = 100000;
+
+    /**
+     * Concurrence maximale autorisée pour un tir de charge.
+     */
+    private int loadTestMaxConcurrency = 200;
+
+    /**
+     * Délai avant de relancer un test remis en file suite à une indisponibilité
+     * des agents, en millisecondes (une part aléatoire y est ajoutée).
+     */
+    private long parkDelayMillis = 5000;
+
+    /**
+     * Durée maximale, depuis sa création, pendant laquelle un test peut être
+     * remis en file faute d'agent disponible. Au-delà, il est marqué FAILED.
+     */
+    private long parkMaxMillis = 600000;
+
+    /**
+     * Nombre maximal de résultats écrits en base en une seule transaction.
+     */
+    private int resultBatchSize = 500;
+
+    /**
+     * Délai maximal, en millisecondes, avant l'écriture d'un résultat terminé.
+     */
+    private long resultFlushIntervalMillis = 200;
+
+    /**
+     * Nombre maximal de résultats en attente d'écriture.
+     * Au-delà, les workers attendent que le tampon se vide.
+     */
+    private int resultBufferCapacity = 20000;
+
+    /**
+     * Durée de conservation, en millisecondes, du statut d'un test terminé
+     * dans le cache de statuts.
+     */
+    private long statusCacheTerminalTtlMillis = 600000;
+
+    /**
+     * Nombre d'entrées au-delà duquel les tests terminés sont retirés du cache de statuts.
+     */
+    private int statusCacheMaxEntries = 100000;
+
+    /**
+     * File en base : durée, en millisecondes, pendant laquelle le statut d'un
+     * test en cours reste servi depuis le cache. Ses transitions peuvent avoir
+     * lieu sur une autre instance : au-delà, il est relu en base.
+     */
+    private long statusCacheActiveTtlMillis = 2000;
+
+    /**
+     * Intervalle, en millisecondes, entre deux écritures des agrégats de
+     * latence par heure (voir MwsLatencyRollupAggregator). Les durées reçues
+     * entre deux écritures sont fusionnées en mémoire.
+     */
+    private long rollupFlushIntervalMillis = 30000;
+
+    /**
+     * Marge ajoutée au timeout d'un test avant de le considérer comme bloqué
+     * et de le marquer FAILED (TIMEOUT), en millisecondes. En mode callback,
+     * c'est agent.callback.grace-millis qui s'applique.
+     */
+    private long deadlineGraceMillis = 30000;
+
+    /**
+     * Résolution du suivi des échéances (durée d'un tick de la roue temporelle),
+     * en millisecondes.
+     */
+    private long deadlineTickMillis = 100;
+
+    /**
+     * Durée de conservation, en millisecondes, des assertions compilées d'une
+     * opération. Les modifications faites sur cette instance sont prises en
+     * compte immédiatement ; ce délai borne la prise en compte de celles faites
+     * sur une autre instance (file en base).
+     */
+    private long assertionCacheTtlMillis = 60000;
+
+    /**
+     * Nombre maximal d'étapes d'un scénario.
+     */
+    private int scenarioMaxSteps = 100;
+
+    /**
+     * Durée maximale d'attente du test d'une étape de scénario, en millisecondes.
+     * Au-delà, l'étape est en échec (le test lui-même n'est pas interrompu).
+     */
+    private long scenarioStepTimeoutMillis = 900000;
+
+    /**
+     * Intervalle de relecture en base du statut du test d'une étape de
+     * scénario, en plus de son événement de fin, en millisecondes.
+     */
+    private long scenarioPollIntervalMillis = 5000;
+
+    /**
+     * Nombre maximal de lignes d'un fichier CSV d'exécution pilotée par données.
+     */
+    private int dataRunMaxRows = 200000;
+
+    /**
+     * Nombre de lignes CSV soumises par transaction (insertions groupées).
+     */
+    private int dataRunChunkSize = 500;
+
+    /**
+     * Nombre maximal de tests non terminés d'une exécution pilotée par CSV :
+     * la lecture du fichier est suspendue au-delà, pour laisser la file
+     * d'exécution aux autres tests.
+     */
+    private int dataRunMaxInFlight = 2000;
+
+    /**
+     * Intervalle de nouvelle tentative, en millisecondes, quand une exécution
+     * pilotée par CSV attend de la place (tests en cours ou file pleine).
+     */
+    private long dataRunPollIntervalMillis = 1000;
+
+    /**
+     * Nombre de tests repris par lot lors de la reprise au démarrage.
+     */
+    private int recoveryBatchSize = 500;
+
+    /**
+     * Préfixes des opérations M3 en lecture seule (insensibles à la casse).
+     * Un test resté RUNNING lors d'un arrêt n'est relancé que si son opération
+     * commence par l'un d'eux : la rejouer ne peut pas modifier les données M3.
+     */
+    private List<String> readOnlyOperationPrefixes = new ArrayList<>(List.of("Get", "Lst", "List", "Sel", "Search"));
+
+    /**
+     * Indique si une opération M3 est en lecture seule, et peut donc être
+     * rejouée sans risque (voir {@link #readOnlyOperationPrefixes}).
+     */
+    public boolean isReadOnlyOperation(String operationName) {
+        if (operationName == null) {
+            return false;
+        }
+        return readOnlyOperationPrefixes.stream()
+                .anyMatch(prefix -> operationName.regionMatches(true, 0, prefix, 0, prefix.length()));
+    }
+}
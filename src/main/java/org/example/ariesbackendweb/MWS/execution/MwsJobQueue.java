@@ -0,0 +1,232 @@
+package org.example.ariesbackendweb.MWS.execution;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.entities.MwsTestPriority;
+import org.example.ariesbackendweb.MWS.entities.MwsTestStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * File d'exécution en base, partagée par plusieurs instances du backend
+ * (mws.execution.queue-mode=database).
+ *
+ * La file, c'est la table mec_program_test elle-même : un test QUEUED sans
+ * bail en cours est disponible. Une instance réclame des tests par lots avec
+ * {@code SELECT ... FOR UPDATE SKIP LOCKED} (deux instances ne réclament jamais
+ * le même test et ne s'attendent pas), puis pose sur eux un bail à son nom.
+ * Le bail est prolongé régulièrement tant que le test n'est pas terminé ; si
+ * l'instance s'arrête, il expire :
+ * <ul>
+ *   <li>un test QUEUED redevient disponible pour les autres instances ;</li>
+ *   <li>un test PENDING_AGENT, ou RUNNING sur une opération en lecture seule,
+ *   est remis en file ;</li>
+ *   <li>un test RUNNING sur une opération qui peut modifier M3 est marqué FAILED.</li>
+ * </ul>
+ *
+ * Les colonnes du bail ne sont écrites qu'ici, en SQL : les sauvegardes de
+ * l'entité MwsTestRequest ne les écrasent jamais. Les échéances des baux sont
+ * calculées avec l'horloge de chaque instance, qui doivent être synchronisées.
+ */
+@Component
+@Slf4j
+public class MwsJobQueue {
+
+    private static final String TABLE = "mec_program_test";
+
+    @Autowired
+    private MwsExecutionProperties properties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private String nodeId;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        nodeId = properties.getNodeId() != null ? properties.getNodeId() : defaultNodeId();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Réclame au plus {@code limit} tests QUEUED disponibles d'une priorité,
+     * les plus anciens d'abord, et pose un bail au nom de cette instance.
+     *
+     * @return Les UUID des tests réclamés
+     */
+    public List<UUID> claim(MwsTestPriority priority, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        // Les tests antérieurs aux voies de priorité n'ont pas de priorité : ils sont NORMAL
+        String priorityFilter = priority == MwsTestPriority.NORMAL
+                ? "(priority = ? OR priority IS NULL)" : "priority = ?";
+
+        return transactionTemplate.execute(status -> {
+            List<byte[]> ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM " + TABLE + " WHERE status = ? AND " + priorityFilter +
+                            " AND (lease_expires_at IS NULL OR lease_expires_at < ?)" +
+                            " ORDER BY created_at LIMIT ? FOR UPDATE SKIP LOCKED",
+                    byte[].class, MwsTestStatus.QUEUED.name(), priority.name(), now, limit);
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+
+            jdbcTemplate.update(
+                    "UPDATE " + TABLE + " SET lease_owner = ?, lease_expires_at = ? WHERE id IN (" +
+                            placeholders(ids.size()) + ")",
+                    withIds(ids, nodeId, now.plus(Duration.ofMillis(properties.getLeaseDurationMillis()))));
+
+            return ids.stream().map(MwsJobQueue::toUuid).toList();
+        });
+    }
+
+    /**
+     * Prolonge les baux de tous les tests non terminés détenus par cette instance.
+     *
+     * @return Le nombre de baux prolongés
+     */
+    public int heartbeat() {
+        return jdbcTemplate.update(
+                "UPDATE " + TABLE + " SET lease_expires_at = ? WHERE lease_owner = ? AND status IN (?, ?, ?)",
+                LocalDateTime.now().plus(Duration.ofMillis(properties.getLeaseDurationMillis())), nodeId,
+                MwsTestStatus.QUEUED.name(), MwsTestStatus.PENDING_AGENT.name(), MwsTestStatus.RUNNING.name());
+    }
+
+    /**
+     * Rend un test à la file, disponible pour n'importe quelle instance après
+     * {@code delayMillis} (test remis en file ou retardé par un limiteur).
+     */
+    public void defer(UUID testId, long delayMillis) {
+        jdbcTemplate.update(
+                "UPDATE " + TABLE + " SET lease_owner = NULL, lease_expires_at = ? WHERE id = ?",
+                LocalDateTime.now().plus(Duration.ofMillis(delayMillis)), toBytes(testId));
+    }
+
+    /**
+     * Rend immédiatement à la file les tests réclamés par cette instance mais
+     * pas encore démarrés (arrêt de l'instance).
+     *
+     * @return Le nombre de tests rendus
+     */
+    public int releaseQueued() {
+        return jdbcTemplate.update(
+                "UPDATE " + TABLE + " SET lease_owner = NULL, lease_expires_at = NULL " +
+                        "WHERE lease_owner = ? AND status = ?",
+                nodeId, MwsTestStatus.QUEUED.name());
+    }
+
+    /**
+     * Traite au plus {@code limit} tests PENDING_AGENT / RUNNING dont le bail a
+     * expiré (instance arrêtée en cours d'exécution). Les tests qui peuvent être
+     * rejoués sont remis en file ; les autres sont réclamés par cette instance
+     * et retournés, pour être marqués FAILED par l'appelant.
+     *
+     * @return Les UUID des tests à marquer FAILED
+     */
+    public List<UUID> reapExpired(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+
+        return transactionTemplate.execute(status -> {
+            List<UUID> requeue = new ArrayList<>();
+            List<UUID> fail = new ArrayList<>();
+
+            jdbcTemplate.query(
+                    "SELECT id, status, operation_name FROM " + TABLE +
+                            " WHERE status IN (?, ?) AND lease_owner IS NOT NULL AND lease_expires_at < ?" +
+                            " LIMIT ? FOR UPDATE SKIP LOCKED",
+                    rs -> {
+                        UUID id = toUuid(rs.getBytes("id"));
+                        boolean running = MwsTestStatus.RUNNING.name().equals(rs.getString("status"));
+                        if (!running || properties.isReadOnlyOperation(rs.getString("operation_name"))) {
+                            requeue.add(id);
+                        } else {
+                            fail.add(id);
+                        }
+                    },
+                    MwsTestStatus.PENDING_AGENT.name(), MwsTestStatus.RUNNING.name(), now, limit);
+
+            if (!requeue.isEmpty()) {
+                jdbcTemplate.update(
+                        "UPDATE " + TABLE + " SET status = ?, lease_owner = NULL, lease_expires_at = NULL, " +
+                                "deadline_at = NULL WHERE id IN (" + placeholders(requeue.size()) + ")",
+                        withIds(requeue.stream().map(MwsJobQueue::toBytes).toList(), MwsTestStatus.QUEUED.name()));
+                log.warn("{} test(s) d'une instance arrêtée remis en file", requeue.size());
+            }
+
+            if (!fail.isEmpty()) {
+                // Bail repris par cette instance le temps de marquer les tests FAILED
+                jdbcTemplate.update(
+                        "UPDATE " + TABLE + " SET lease_owner = ?, lease_expires_at = ? WHERE id IN (" +
+                                placeholders(fail.size()) + ")",
+                        withIds(fail.stream().map(MwsJobQueue::toBytes).toList(),
+                                nodeId, now.plus(Duration.ofMillis(properties.getLeaseDurationMillis()))));
+            }
+
+            return fail;
+        });
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    /**
+     * Paramètres d'une requête : les valeurs fixes, suivies des identifiants de la clause IN.
+     */
+    private static Object[] withIds(List<byte[]> ids, Object... leading) {
+        Object[] params = new Object[leading.length + ids.size()];
+        System.arraycopy(leading, 0, params, 0, leading.length);
+        for (int i = 0; i < ids.size(); i++) {
+            params[leading.length + i] = ids.get(i);
+        }
+        return params;
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Les colonnes UUID sont stockées par Hibernate en BINARY(16) sous MySQL.
+     */
+    private static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    private static UUID toUuid(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
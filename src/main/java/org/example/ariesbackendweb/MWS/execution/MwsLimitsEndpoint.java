@@ -0,0 +1,29 @@
+package org.example.ariesbackendweb.MWS.execution;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint actuator exposant l'état des limiteurs d'appels vers M3.
+ *
+ * GET /api/v1/actuator/mwslimits
+ */
+@Component
+@Endpoint(id = "mwslimits")
+public class MwsLimitsEndpoint {
+
+    @Autowired
+    private MwsEndpointLimiter limiter;
+
+    @ReadOperation
+    public Map<String, Object> limits() {
+        return Map.of(
+                "environments", limiter.getEnvironmentStates(),
+                "endpoints", limiter.getEndpointStates(),
+                "heldForCallback", limiter.getHeldCount());
+    }
+}
@@ -0,0 +1,182 @@
+package org.example.ariesbackendweb.MWS.execution;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.dtos.agent.MwsAgentTestRequestDto;
+import org.example.ariesbackendweb.MWS.dtos.agent.MwsAgentTestResult;
+import org.example.ariesbackendweb.MWS.entities.MwsLoadTestSummary;
+import org.example.ariesbackendweb.MWS.entities.MwsTestRequest;
+import org.example.ariesbackendweb.MWS.metrics.LatencyHistogram;
+import org.example.ariesbackendweb.common.api.AgentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Exécute un test MWS en mode tir de charge.
+ *
+ * La requête est envoyée N fois à l'agent via {@link AgentService#sendTestToAgent},
+ * avec au plus C appels simultanés (un thread virtuel par appel). Les latences
+ * retournées par l'agent sont agrégées dans des {@link LatencyHistogram} et
+ * seule une synthèse est produite : les réponses individuelles ne sont pas
+ * conservées.
+ *
+ * Chaque appel obtient au préalable une autorisation du {@link MwsEndpointLimiter} :
+ * la concurrence et le débit réels du tir sont donc aussi bornés par les
+ * limites configurées pour l'endpoint M3 visé.
+ */
+@Component
+@Slf4j
+public class MwsLoadTestRunner {
+
+    @Autowired
+    private AgentService agentService;
+
+    @Autowired
+    private MwsEndpointLimiter endpointLimiter;
+
+    /**
+     * Lance le tir de charge décrit par la demande de test.
+     *
+     * @param testRequest La demande de test (paramètres de charge renseignés)
+     * @param template    La requête agent à rejouer
+     * @return La synthèse du tir, non encore persistée
+     */
+    public MwsLoadTestSummary run(MwsTestRequest testRequest, MwsAgentTestRequestDto template)
+            throws InterruptedException {
+        int iterations = testRequest.getLoadIterations();
+        int concurrency = testRequest.getLoadConcurrency() != null ? testRequest.getLoadConcurrency() : 1;
+        int warmup = testRequest.getLoadWarmupIterations() != null ? testRequest.getLoadWarmupIterations() : 0;
+
+        log.info("Tir de charge du test {}: {} itération(s), concurrence {}, chauffe {}",
+                testRequest.getId(), iterations, concurrency, warmup);
+
+        // Phase de chauffe : résultats ignorés
+        if (warmup > 0) {
+            execute(template, "warmup", warmup, concurrency, null);
+        }
+
+        // Phase mesurée
+        LoadStats stats = new LoadStats();
+        long start = System.nanoTime();
+        execute(template, "run", iterations, concurrency, stats);
+        long wallClockMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        MwsLoadTestSummary summary = new MwsLoadTestSummary();
+        summary.setRequest(testRequest);
+        summary.setIterations(iterations);
+        summary.setConcurrency(concurrency);
+        summary.setWarmupIterations(warmup);
+        summary.setSuccessCount(stats.success.get());
+        summary.setFailureCount(stats.failure.get());
+        summary.setFirstErrorMessage(stats.firstError.get());
+        summary.setWallClockMillis(wallClockMillis);
+        summary.setThroughputPerSecond(wallClockMillis > 0 ?
+                iterations * 1000.0 / wallClockMillis : null);
+
+        LatencyHistogram duration = stats.duration;
+        summary.setDurationMin(duration.getMin());
+        summary.setDurationMean(duration.getMean());
+        summary.setDurationP50(duration.getValueAtPercentile(50));
+        summary.setDurationP90(duration.getValueAtPercentile(90));
+        summary.setDurationP99(duration.getValueAtPercentile(99));
+        summary.setDurationMax(duration.getMax());
+        summary.setDurationHistogram(duration.toByteArray());
+
+        LatencyHistogram network = stats.network;
+        summary.setNetworkP50(network.getValueAtPercentile(50));
+        summary.setNetworkP90(network.getValueAtPercentile(90));
+        summary.setNetworkP99(network.getValueAtPercentile(99));
+        summary.setNetworkMax(network.getMax());
+
+        log.info("Tir de charge du test {} terminé: {} succès, {} échec(s), p99={} ms, {} req/s",
+                testRequest.getId(), summary.getSuccessCount(), summary.getFailureCount(),
+                summary.getDurationP99(), summary.getThroughputPerSecond());
+
+        return summary;
+    }
+
+    /**
+     * Exécute {@code count} appels à l'agent avec au plus {@code concurrency} appels en vol.
+     * Rend la main lorsque tous les appels sont terminés.
+     */
+    private void execute(MwsAgentTestRequestDto template, String phase, int count, int concurrency,
+                         LoadStats stats) throws InterruptedException {
+        Semaphore permits = new Semaphore(concurrency);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < count; i++) {
+                permits.acquire();
+                MwsAgentTestRequestDto call = copyForIteration(template, phase + "-" + i);
+
+                executor.submit(() -> {
+                    try (MwsEndpointLimiter.Permit ignored =
+                                 endpointLimiter.acquire(call.getEnvironment(), call.getEndpointUrl())) {
+                        MwsAgentTestResult result = agentService.sendTestToAgent(call);
+                        if (stats != null) {
+                            stats.record(result);
+                        }
+                    } catch (Exception e) {
+                        if (stats != null) {
+                            stats.recordError(e.getMessage());
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+    }
+
+    private MwsAgentTestRequestDto copyForIteration(MwsAgentTestRequestDto template, String suffix) {
+        MwsAgentTestRequestDto dto = new MwsAgentTestRequestDto();
+        dto.setSessionId(template.getSessionId() + "-" + suffix);
+        dto.setServiceName(template.getServiceName());
+        dto.setWsdlUrl(template.getWsdlUrl());
+        dto.setEndpointUrl(template.getEndpointUrl());
+        dto.setOperationName(template.getOperationName());
+        dto.setRequestBody(template.getRequestBody());
+        dto.setUsername(template.getUsername());
+        dto.setPassword(template.getPassword());
+        dto.setTimeoutMillis(template.getTimeoutMillis());
+        dto.setCreatedAt(template.getCreatedAt());
+        dto.setSubmittedBy(template.getSubmittedBy());
+        dto.setEnvironment(template.getEnvironment());
+        dto.setMetadata(new HashMap<>(template.getMetadata()));
+        return dto;
+    }
+
+    /**
+     * Compteurs partagés par les appels d'une phase mesurée.
+     */
+    private static class LoadStats {
+        private final LatencyHistogram duration = new LatencyHistogram();
+        private final LatencyHistogram network = new LatencyHistogram();
+        private final AtomicLong success = new AtomicLong();
+        private final AtomicLong failure = new AtomicLong();
+        private final AtomicReference<String> firstError = new AtomicReference<>();
+
+        private void record(MwsAgentTestResult result) {
+            duration.record(result.getDurationMillis());
+            network.record(result.getTimeTaken());
+
+            if (result.isSuccess()) {
+                success.incrementAndGet();
+            } else {
+                failure.incrementAndGet();
+                firstError.compareAndSet(null, result.getErrorMessage());
+            }
+        }
+
+        private void recordError(String message) {
+            failure.incrementAndGet();
+            firstError.compareAndSet(null, message);
+        }
+    }
+}
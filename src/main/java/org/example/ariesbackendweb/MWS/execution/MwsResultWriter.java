@@ -0,0 +1,305 @@
+package org.example.ariesbackendweb.MWS.execution;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.entities.MwsTestRequest;
+import org.example.ariesbackendweb.MWS.entities.MwsTestResult;
+import org.example.ariesbackendweb.MWS.entities.MwsTestStatus;
+import org.example.ariesbackendweb.MWS.events.MwsTestStatusEvent;
+import org.example.ariesbackendweb.MWS.repositories.MwsTestRepository;
+import org.example.ariesbackendweb.MWS.repositories.MwsTestResultRepository;
+import org.example.ariesbackendweb.common.api.CoalescingStatusPublisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Persistance différée (write-behind) des résultats de tests MWS.
+ *
+ * Les résultats terminés sont déposés dans un tampon borné, vidé par un thread
+ * unique dès que {@code resultBatchSize} résultats sont en attente ou au plus
+ * tard toutes les {@code resultFlushIntervalMillis} ms. Chaque vidage insère
+ * les résultats en une seule transaction (insertions groupées par Hibernate)
+ * et met à jour le statut des demandes par une requête par statut final.
+ *
+ * Les notifications WebSocket et le cache de statuts ne sont mis à jour
+ * qu'après le commit : un client notifié trouve toujours le résultat en base.
+ *
+ * Le tampon est vidé à l'arrêt de l'application. Après l'arrêt du thread,
+ * les résultats éventuels sont écrits immédiatement.
+ */
+@Component
+@Slf4j
+public class MwsResultWriter {
+
+    private static final String ID_GENERATOR_TABLE = "mws_id_generator";
+
+    @Autowired
+    private MwsExecutionProperties properties;
+
+    @Autowired
+    private MwsTestResultRepository testResultRepository;
+
+    @Autowired
+    private MwsTestRepository testRequestRepository;
+
+    @Autowired
+    private CoalescingStatusPublisher statusPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MwsTestStatusCache statusCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private BlockingQueue<PendingResult> buffer;
+    private final Set<UUID> pendingTests = ConcurrentHashMap.newKeySet();
+
+    private TransactionTemplate transactionTemplate;
+    private Thread flusher;
+    private volatile boolean running;
+
+    /**
+     * Un résultat en attente d'écriture, avec le statut final de sa demande
+     * et la notification à envoyer une fois persisté.
+     */
+    private record PendingResult(MwsTestResult result, MwsTestStatus finalStatus,
+                                 LocalDateTime completedAt, String notification) {
+    }
+
+    @PostConstruct
+    public void start() {
+        buffer = new LinkedBlockingQueue<>(properties.getResultBufferCapacity());
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        alignIdGenerator();
+
+        running = true;
+        flusher = Thread.ofVirtual()
+                .name("mws-result-writer")
+                .start(this::flushLoop);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Vidage final de ce qui reste dans le tampon
+        List<PendingResult> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            log.info("Écriture de {} résultat(s) en attente avant l'arrêt", remaining.size());
+            flush(remaining);
+        }
+    }
+
+    /**
+     * Dépose un résultat terminé dans le tampon d'écriture.
+     *
+     * Bloque si le tampon est plein, ce qui ralentit les workers
+     * plutôt que de laisser la mémoire croître sans limite.
+     *
+     * @param result       Le résultat à persister
+     * @param finalStatus  Le statut final de la demande de test
+     * @param notification Le message WebSocket à publier après l'écriture
+     */
+    public void write(MwsTestResult result, MwsTestStatus finalStatus, String notification) {
+        PendingResult pending = new PendingResult(result, finalStatus, LocalDateTime.now(), notification);
+        UUID testId = result.getRequest().getId();
+        pendingTests.add(testId);
+
+        if (!running) {
+            flush(List.of(pending));
+            return;
+        }
+
+        try {
+            buffer.put(pending);
+        } catch (InterruptedException e) {
+            // Interruption d'un worker à l'arrêt : le résultat est écrit tout de suite
+            Thread.currentThread().interrupt();
+            flush(List.of(pending));
+        }
+    }
+
+    /**
+     * Indique si un résultat est en attente d'écriture pour ce test :
+     * sa demande est alors déjà terminée, même si la base ne le reflète pas encore.
+     */
+    public boolean isPending(UUID testId) {
+        return pendingTests.contains(testId);
+    }
+
+    /**
+     * Nombre de résultats en attente d'écriture.
+     */
+    public int getBufferedCount() {
+        return buffer.size();
+    }
+
+    private void flushLoop() {
+        int batchSize = properties.getResultBatchSize();
+        List<PendingResult> batch = new ArrayList<>(batchSize);
+
+        while (running) {
+            try {
+                PendingResult first = buffer.poll(properties.getResultFlushIntervalMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Laisse le lot se remplir jusqu'à l'échéance de vidage
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getResultFlushIntervalMillis());
+                while (batch.size() < batchSize) {
+                    buffer.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingResult next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingResult> batch) {
+        try {
+            writeBatch(batch);
+        } catch (Exception e) {
+            // Un résultat invalide ne doit pas faire perdre tout le lot : on isole le fautif
+            log.error("Échec de l'écriture groupée de {} résultat(s), écriture unitaire", batch.size(), e);
+            for (PendingResult pending : batch) {
+                try {
+                    writeBatch(List.of(pending));
+                } catch (Exception single) {
+                    log.error("Impossible d'écrire le résultat du test {}",
+                            pending.result().getRequest().getId(), single);
+                    failUnwritable(pending);
+                }
+            }
+            return;
+        }
+        log.debug("{} résultat(s) écrit(s)", batch.size());
+    }
+
+    private void writeBatch(List<PendingResult> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            testResultRepository.saveAll(batch.stream().map(PendingResult::result).toList());
+
+            // Une requête UPDATE par statut final plutôt qu'une par demande
+            Map<MwsTestStatus, List<UUID>> idsByStatus = batch.stream()
+                    .collect(Collectors.groupingBy(PendingResult::finalStatus,
+                            Collectors.mapping(p -> p.result().getRequest().getId(), Collectors.toList())));
+            LocalDateTime completedAt = batch.get(batch.size() - 1).completedAt();
+            idsByStatus.forEach((finalStatus, ids) ->
+                    testRequestRepository.completeAll(ids, finalStatus, completedAt));
+        });
+
+        for (PendingResult pending : batch) {
+            UUID testId = pending.result().getRequest().getId();
+            // Le statut final n'est visible qu'une fois le résultat lisible en base
+            statusCache.put(pending.result().getRequest());
+            eventPublisher.publishEvent(MwsTestStatusEvent.of(pending.result().getRequest()));
+            pendingTests.remove(testId);
+            statusPublisher.publish("/topic/status/" + testId, pending.notification());
+        }
+    }
+
+    /**
+     * Clôture en FAILED, sans résultat, un test dont le résultat n'a pas pu
+     * être écrit : son échéance est déjà annulée, et ni l'expiration ni la
+     * reprise au démarrage ne le reprendraient tant qu'il était en attente.
+     */
+    private void failUnwritable(PendingResult pending) {
+        MwsTestRequest testRequest = pending.result().getRequest();
+        try {
+            transactionTemplate.executeWithoutResult(status -> testRequestRepository.completeAll(
+                    List.of(testRequest.getId()), MwsTestStatus.FAILED, pending.completedAt()));
+
+            testRequest.setStatus(MwsTestStatus.FAILED);
+            testRequest.setCompletedAt(pending.completedAt());
+            statusCache.put(testRequest);
+            eventPublisher.publishEvent(MwsTestStatusEvent.of(testRequest));
+            statusPublisher.publish("/topic/status/" + testRequest.getId(), MwsTestStatus.FAILED.name());
+        } catch (Exception e) {
+            log.error("Impossible de clôturer le test {} en FAILED", testRequest.getId(), e);
+        } finally {
+            pendingTests.remove(testRequest.getId());
+        }
+    }
+
+    /**
+     * Les identifiants de mws_test_result étaient auparavant générés par
+     * AUTO_INCREMENT : le générateur par table doit repartir au-delà du plus
+     * grand identifiant existant.
+     *
+     * Sans cet alignement, chaque écriture entrerait en collision avec un
+     * résultat existant et tous les tests finiraient FAILED : le démarrage
+     * est donc interrompu plutôt que poursuivi.
+     *
+     * @throws IllegalStateException Si le générateur ne peut pas être aligné
+     */
+    private void alignIdGenerator() {
+        try {
+            Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM mws_test_result", Long.class);
+            jdbcTemplate.update("INSERT INTO " + ID_GENERATOR_TABLE + " (sequence_name, next_val) " +
+                            "VALUES ('mws_test_result', ?) " +
+                            "ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val))",
+                    idGeneratorSeed(maxId != null ? maxId : 0));
+        } catch (DataAccessException e) {
+            throw new IllegalStateException(
+                    "Impossible d'aligner le générateur d'identifiants des résultats sur mws_test_result", e);
+        }
+    }
+
+    /**
+     * Valeur à stocker dans le générateur pour que le prochain bloc commence
+     * après maxId. L'optimiseur pooled d'Hibernate lit la valeur stockée comme
+     * la borne haute du bloc suivant : il attribue ensuite les identifiants
+     * de (valeur - taille du bloc + 1) à valeur.
+     */
+    static long idGeneratorSeed(long maxId) {
+        return maxId + MwsTestResult.ID_ALLOCATION_SIZE;
+    }
+}
@@ -0,0 +1,307 @@
+package org.example.ariesbackendweb.MWS.execution;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.MwsTestService;
+import org.example.ariesbackendweb.MWS.assertions.ResponseDocuments;
+import org.example.ariesbackendweb.MWS.dtos.MwsTestSubmissionRequest;
+import org.example.ariesbackendweb.MWS.entities.MwsScenarioRunStatus;
+import org.example.ariesbackendweb.MWS.entities.MwsScenarioStepRun;
+import org.example.ariesbackendweb.MWS.entities.MwsScenarioStepStatus;
+import org.example.ariesbackendweb.MWS.entities.MwsTestStatus;
+import org.example.ariesbackendweb.MWS.repositories.MwsResponseBodyReader;
+import org.example.ariesbackendweb.MWS.repositories.MwsScenarioRunRepository;
+import org.example.ariesbackendweb.MWS.repositories.MwsScenarioStepRunRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.w3c.dom.Document;
+
+import javax.xml.xpath.XPath;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Exécute les scénarios MWS comme un graphe de dépendances.
+ *
+ * Chaque étape est un {@link CompletableFuture} qui démarre, dans un thread
+ * virtuel, dès que les étapes dont elle dépend sont terminées : les étapes
+ * indépendantes s'exécutent en parallèle, et un scénario dure le temps de son
+ * chemin critique plutôt que la somme de ses étapes.
+ *
+ * Une étape soumet son test via {@link MwsTestService} (file d'exécution,
+ * limites d'appels M3 et échéances comprises), attend sa fin, puis extrait
+ * ses variables de la réponse. Les variables d'une étape sont celles fournies
+ * au lancement et celles extraites par ses ancêtres dans le graphe. Une étape
+ * dont une dépendance a échoué n'est pas lancée.
+ */
+@Component
+@Slf4j
+public class MwsScenarioExecutor {
+
+    private static final int MAX_VARIABLE_LENGTH = 1000;
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private MwsTestService testService;
+
+    @Autowired
+    private MwsResponseBodyReader responseBodyReader;
+
+    @Autowired
+    private MwsScenarioRunRepository runRepository;
+
+    @Autowired
+    private MwsScenarioStepRunRepository stepRunRepository;
+
+    @Autowired
+    private MwsExecutionProperties properties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private LocalDateTime startedAt;
+
+    /**
+     * Étape à exécuter, copiée des entités pour être partagée entre threads.
+     *
+     * @param dependencies Indices des étapes attendues, toutes antérieures à celle-ci
+     */
+    public record StepPlan(Long stepRunId, String name, String operationName, String requestBody,
+                           List<Integer> dependencies, Map<String, String> extractions) {
+    }
+
+    /**
+     * Exécution de scénario à lancer, étapes dans l'ordre du scénario.
+     */
+    public record ScenarioPlan(UUID runId, UUID programId, String environment, String m3Username,
+                               String m3Password, Integer timeoutMillis, Map<String, String> inputs,
+                               List<StepPlan> steps) {
+    }
+
+    /**
+     * Issue d'une étape, avec les variables visibles par ses descendants.
+     */
+    private record StepOutcome(boolean success, Map<String, String> variables) {
+    }
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        startedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Clôture les exécutions interrompues par l'arrêt précédent. En mode file
+     * en base, une exécution en cours peut appartenir à une autre instance :
+     * elles sont laissées en l'état.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedRuns() {
+        if (properties.getQueueMode() == MwsExecutionProperties.QueueMode.DATABASE) {
+            return;
+        }
+        Integer count = transactionTemplate.execute(status -> runRepository.failInterrupted(
+                MwsScenarioRunStatus.RUNNING, MwsScenarioRunStatus.FAILED, startedAt, LocalDateTime.now(),
+                "Exécution interrompue par un redémarrage"));
+        if (count != null && count > 0) {
+            log.info("{} exécution(s) de scénario interrompue(s) clôturée(s)", count);
+        }
+    }
+
+    /**
+     * Lance une exécution de scénario, dans un thread virtuel, après le commit
+     * de la transaction qui l'a créée (immédiatement s'il n'y en a pas).
+     */
+    public void start(ScenarioPlan plan) {
+        Runnable launch = () -> Thread.ofVirtual()
+                .name("mws-scenario-" + plan.runId())
+                .start(() -> execute(plan));
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            launch.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                launch.run();
+            }
+        });
+    }
+
+    private void execute(ScenarioPlan plan) {
+        log.info("Exécution {} du scénario : {} étape(s)", plan.runId(), plan.steps().size());
+        List<StepPlan> steps = plan.steps();
+        List<CompletableFuture<StepOutcome>> futures = new ArrayList<>(steps.size());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (StepPlan step : steps) {
+                // Les dépendances d'une étape la précèdent toujours : leurs futurs existent déjà
+                CompletableFuture<?>[] dependencies = step.dependencies().stream()
+                        .map(futures::get)
+                        .toArray(CompletableFuture<?>[]::new);
+
+                futures.add(CompletableFuture.allOf(dependencies)
+                        .thenApplyAsync(ignored -> runStep(plan, step, step.dependencies().stream()
+                                .map(index -> futures.get(index).join())
+                                .toList()), executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+            String failedStep = null;
+            for (int i = 0; i < steps.size(); i++) {
+                if (!futures.get(i).join().success()) {
+                    failedStep = steps.get(i).name();
+                    break;
+                }
+            }
+            completeRun(plan.runId(), failedStep == null ? MwsScenarioRunStatus.SUCCESS : MwsScenarioRunStatus.FAILED,
+                    failedStep == null ? null : "Étape en échec: " + failedStep);
+
+        } catch (Exception e) {
+            log.error("Erreur lors de l'exécution {} du scénario", plan.runId(), e);
+            completeRun(plan.runId(), MwsScenarioRunStatus.FAILED, truncate("Erreur interne: " + e.getMessage()));
+        }
+    }
+
+    private StepOutcome runStep(ScenarioPlan plan, StepPlan step, List<StepOutcome> dependencies) {
+        Map<String, String> variables = new HashMap<>(plan.inputs());
+        boolean dependenciesSucceeded = true;
+        for (StepOutcome dependency : dependencies) {
+            variables.putAll(dependency.variables());
+            dependenciesSucceeded &= dependency.success();
+        }
+
+        if (!dependenciesSucceeded) {
+            updateStep(step.stepRunId(), stepRun -> {
+                stepRun.setStatus(MwsScenarioStepStatus.SKIPPED);
+                stepRun.setErrorMessage("Une étape précédente a échoué");
+            });
+            return new StepOutcome(false, variables);
+        }
+
+        UUID testId = null;
+        try {
+            MwsTestSubmissionRequest request = new MwsTestSubmissionRequest();
+            request.setProgramId(plan.programId().toString());
+            request.setEnvironment(plan.environment());
+            request.setOperationName(step.operationName());
+            request.setRequestBody(RequestTemplate.compile(step.requestBody()).render(variables::get));
+            request.setM3Username(plan.m3Username());
+            request.setM3Password(plan.m3Password());
+            request.setTimeoutMillis(plan.timeoutMillis());
+
+            testId = UUID.fromString(testService.submitScenarioStep(request, plan.runId()).getTestId());
+            UUID submitted = testId;
+            updateStep(step.stepRunId(), stepRun -> {
+                stepRun.setStatus(MwsScenarioStepStatus.RUNNING);
+                stepRun.setTestId(submitted);
+                stepRun.setStartedAt(LocalDateTime.now());
+            });
+
+            MwsTestStatus status = testService.awaitCompletion(testId, properties.getScenarioStepTimeoutMillis());
+            if (status == null) {
+                return failStep(step, variables, "Test " + testId + " non terminé après "
+                        + properties.getScenarioStepTimeoutMillis() + " ms");
+            }
+            if (status != MwsTestStatus.SUCCESS) {
+                return failStep(step, variables, "Test " + testId + " en échec");
+            }
+
+            Map<String, String> extracted = extract(testId, step.extractions());
+            variables.putAll(extracted);
+            updateStep(step.stepRunId(), stepRun -> {
+                stepRun.setStatus(MwsScenarioStepStatus.SUCCESS);
+                stepRun.getVariables().putAll(extracted);
+                stepRun.setCompletedAt(LocalDateTime.now());
+            });
+            return new StepOutcome(true, variables);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failStep(step, variables, "Exécution interrompue");
+        } catch (RejectedExecutionException e) {
+            return failStep(step, variables, "File d'exécution pleine");
+        } catch (Exception e) {
+            log.warn("Étape {} de l'exécution {} en échec (test {}): {}",
+                    step.name(), plan.runId(), testId, e.getMessage());
+            return failStep(step, variables, e.getMessage());
+        }
+    }
+
+    private StepOutcome failStep(StepPlan step, Map<String, String> variables, String reason) {
+        updateStep(step.stepRunId(), stepRun -> {
+            stepRun.setStatus(MwsScenarioStepStatus.FAILED);
+            stepRun.setErrorMessage(truncate(reason));
+            stepRun.setCompletedAt(LocalDateTime.now());
+        });
+        return new StepOutcome(false, variables);
+    }
+
+    /**
+     * Extrait les variables de l'étape de la réponse de son test.
+     *
+     * @throws IllegalStateException Si la réponse n'est pas lisible ou si une variable est vide
+     */
+    private Map<String, String> extract(UUID testId, Map<String, String> extractions) throws Exception {
+        Map<String, String> extracted = new LinkedHashMap<>();
+        if (extractions.isEmpty()) {
+            return extracted;
+        }
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        if (!responseBodyReader.writeResponseBody(testId, body)) {
+            throw new IllegalStateException("Aucun résultat pour le test " + testId);
+        }
+        Document document = ResponseDocuments.parse(body.toString(StandardCharsets.UTF_8));
+
+        XPath xpath = ResponseDocuments.newXPath();
+        for (Map.Entry<String, String> extraction : extractions.entrySet()) {
+            String value = xpath.evaluate(extraction.getValue(), document).strip();
+            if (value.isEmpty()) {
+                throw new IllegalStateException("Variable " + extraction.getKey() + " vide (" + extraction.getValue() + ")");
+            }
+            if (value.length() > MAX_VARIABLE_LENGTH) {
+                throw new IllegalStateException("Variable " + extraction.getKey() + " trop longue");
+            }
+            extracted.put(extraction.getKey(), value);
+        }
+        return extracted;
+    }
+
+    private void updateStep(Long stepRunId, Consumer<MwsScenarioStepRun> update) {
+        transactionTemplate.executeWithoutResult(status -> stepRunRepository.findById(stepRunId).ifPresent(update));
+    }
+
+    private void completeRun(UUID runId, MwsScenarioRunStatus status, String failureReason) {
+        transactionTemplate.executeWithoutResult(tx -> runRepository.findById(runId).ifPresent(run -> {
+            run.setStatus(status);
+            run.setCompletedAt(LocalDateTime.now());
+            run.setFailureReason(failureReason);
+        }));
+        log.info("Exécution {} du scénario terminée avec le statut {}", runId, status);
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > MAX_ERROR_LENGTH ? value.substring(0, MAX_ERROR_LENGTH) : value;
+    }
+}
@@ -0,0 +1,199 @@
+package org.example.ariesbackendweb.MWS.execution;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.MwsTestService;
+import org.example.ariesbackendweb.MWS.dtos.MwsRecoverableTest;
+import org.example.ariesbackendweb.MWS.entities.MwsTestPriority;
+import org.example.ariesbackendweb.MWS.entities.MwsTestStatus;
+import org.example.ariesbackendweb.MWS.repositories.MwsTestRepository;
+import org.example.ariesbackendweb.common.api.AgentProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Reprise, au démarrage, des tests laissés en cours par le précédent arrêt
+ * du backend (déploiement, redémarrage, crash).
+ *
+ * La file d'exécution étant en mémoire, les tests CREATED, QUEUED ou
+ * PENDING_AGENT (jamais envoyés à l'agent) sont perdus à l'arrêt : ils sont
+ * retrouvés statut par statut et remis en file, par lots bornés. Pour un test
+ * RUNNING, l'agent a pu exécuter l'appel ; il n'est relancé que si c'est sans
+ * risque :
+ * <ul>
+ *   <li>opération en lecture seule (Get, Lst, Sel... voir
+ *   {@link MwsExecutionProperties#getReadOnlyOperationPrefixes()}) : relancé ;</li>
+ *   <li>mode callback avant échéance : le résultat peut encore arriver,
+ *   l'échéance est simplement reprise par le {@link MwsDeadlineTracker} ;</li>
+ *   <li>sinon : marqué FAILED, plutôt que de rejouer une mise à jour M3.</li>
+ * </ul>
+ *
+ * Seuls les tests créés avant le démarrage de cette instance sont repris :
+ * ceux soumis depuis sont déjà dans la file. La reprise suppose une seule
+ * instance du backend par base ; avec la file en base, elle est inutile (les
+ * tests QUEUED restent en base et les baux expirés sont repris par
+ * {@link MwsJobQueue}).
+ */
+@Component
+@Slf4j
+public class MwsStartupRecovery {
+
+    // QUEUED en dernier : un test remis en file depuis ce statut peut passer
+    // PENDING_AGENT puis RUNNING pendant la reprise, ces statuts sont donc
+    // parcourus avant lui
+    private static final List<MwsTestStatus> RECOVERABLE_STATUSES = List.of(
+            MwsTestStatus.RUNNING, MwsTestStatus.PENDING_AGENT, MwsTestStatus.CREATED, MwsTestStatus.QUEUED);
+
+    @Autowired
+    private MwsExecutionProperties properties;
+
+    @Autowired
+    private AgentProperties agentProperties;
+
+    @Autowired
+    private MwsTestRepository testRequestRepository;
+
+    @Autowired
+    private MwsTestService testService;
+
+    @Autowired
+    private MwsTestDispatcher testDispatcher;
+
+    @Autowired
+    private MwsDeadlineTracker deadlineTracker;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Instant de démarrage, avant que l'application n'accepte des soumissions
+    private LocalDateTime startedAt;
+
+    @PostConstruct
+    public void init() {
+        startedAt = LocalDateTime.now();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Lance la reprise en tâche de fond : le démarrage n'attend pas qu'elle se termine.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (properties.getQueueMode() == MwsExecutionProperties.QueueMode.DATABASE) {
+            return;
+        }
+
+        Thread.ofVirtual()
+                .name("mws-startup-recovery")
+                .start(this::recover);
+    }
+
+    private void recover() {
+        int requeued = 0;
+        int awaitingCallback = 0;
+        int failed = 0;
+        // Tests repassés QUEUED depuis un autre statut : peu nombreux (en cours lors de l'arrêt)
+        Set<UUID> requeuedEarlier = new HashSet<>();
+
+        try {
+            // Un statut à la fois : chaque page est un parcours de plage de
+            // l'index (status, created_at, id), sans tri
+            for (MwsTestStatus status : RECOVERABLE_STATUSES) {
+                List<MwsRecoverableTest> batch = testRequestRepository.findRecoverable(
+                        status, startedAt, PageRequest.of(0, batchSize()));
+
+                while (!batch.isEmpty()) {
+                    Map<MwsTestPriority, List<UUID>> toRequeue = new EnumMap<>(MwsTestPriority.class);
+                    LocalDateTime now = LocalDateTime.now();
+
+                    for (MwsRecoverableTest test : batch) {
+                        if (requeuedEarlier.contains(test.testId())) {
+                            // Déjà remis en file, et peut-être déjà exécuté
+                            continue;
+                        }
+                        if (test.status() != MwsTestStatus.RUNNING || properties.isReadOnlyOperation(test.operationName())) {
+                            toRequeue.computeIfAbsent(test.priority() != null ? test.priority() : MwsTestPriority.NORMAL,
+                                    p -> new ArrayList<>()).add(test.testId());
+                        } else if (isAwaitingCallback(test, now)) {
+                            deadlineTracker.track(test.testId(), test.deadlineAt());
+                            awaitingCallback++;
+                        } else if (testService.failInterruptedTest(test.testId(),
+                                "Exécution interrompue par un redémarrage du backend ; opération " +
+                                        test.operationName() + " non relancée car elle peut modifier les données M3")) {
+                            failed++;
+                        }
+                    }
+
+                    requeued += requeue(toRequeue);
+                    if (status != MwsTestStatus.QUEUED) {
+                        toRequeue.values().forEach(requeuedEarlier::addAll);
+                    }
+
+                    MwsRecoverableTest last = batch.get(batch.size() - 1);
+                    batch = testRequestRepository.findRecoverableAfter(
+                            status, startedAt, last.createdAt(), last.testId(), PageRequest.of(0, batchSize()));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Reprise des tests interrompue");
+        } catch (Exception e) {
+            log.error("Erreur lors de la reprise des tests au démarrage", e);
+        }
+
+        if (requeued + awaitingCallback + failed > 0) {
+            log.info("Reprise au démarrage: {} test(s) remis en file, {} en attente de callback, {} marqué(s) FAILED",
+                    requeued, awaitingCallback, failed);
+        }
+    }
+
+    private int batchSize() {
+        return Math.max(1, properties.getRecoveryBatchSize());
+    }
+
+    /**
+     * Repasse les tests au statut QUEUED puis les place dans la file, en
+     * attendant qu'elle ait la place d'accueillir le lot.
+     */
+    private int requeue(Map<MwsTestPriority, List<UUID>> testIds) throws InterruptedException {
+        List<UUID> ids = testIds.values().stream().flatMap(List::stream).toList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        transactionTemplate.executeWithoutResult(status ->
+                testRequestRepository.requeueAll(ids, RECOVERABLE_STATUSES));
+
+        while (true) {
+            try {
+                testDispatcher.dispatchAll(testIds);
+                return ids.size();
+            } catch (RejectedExecutionException e) {
+                Thread.sleep(properties.getParkDelayMillis());
+            }
+        }
+    }
+
+    private boolean isAwaitingCallback(MwsRecoverableTest test, LocalDateTime now) {
+        AgentProperties.Callback callback = agentProperties.getCallback();
+        return callback.isEnabled() && callback.getBaseUrl() != null && !test.isLoadTest()
+                && test.deadlineAt() != null && test.deadlineAt().isAfter(now);
+    }
+}
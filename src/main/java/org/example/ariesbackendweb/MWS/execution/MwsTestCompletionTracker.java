@@ -0,0 +1,52 @@
+package org.example.ariesbackendweb.MWS.execution;
+
+import org.example.ariesbackendweb.MWS.entities.MwsTestStatus;
+import org.example.ariesbackendweb.MWS.events.MwsTestStatusEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fin des tests attendus par un appelant (étapes de scénario).
+ *
+ * Le futur d'un test est complété par l'événement de son statut final, publié
+ * une fois le résultat écrit en base. L'attente ne repose pas que sur
+ * l'événement : le test peut s'être terminé avant l'inscription, ou sur une
+ * autre instance (file en base), voir MwsTestService#awaitCompletion.
+ */
+@Component
+public class MwsTestCompletionTracker {
+
+    private final Map<UUID, CompletableFuture<MwsTestStatus>> waiting = new ConcurrentHashMap<>();
+
+    /**
+     * Inscrit l'attente de la fin d'un test.
+     *
+     * @return Le futur complété par le statut final du test
+     */
+    public CompletableFuture<MwsTestStatus> register(UUID testId) {
+        return waiting.computeIfAbsent(testId, id -> new CompletableFuture<>());
+    }
+
+    /**
+     * Retire l'attente d'un test, terminé ou abandonné.
+     */
+    public void forget(UUID testId) {
+        waiting.remove(testId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusEvent(MwsTestStatusEvent event) {
+        if (event.status() != MwsTestStatus.SUCCESS && event.status() != MwsTestStatus.FAILED) {
+            return;
+        }
+        CompletableFuture<MwsTestStatus> future = waiting.remove(event.testId());
+        if (future != null) {
+            future.complete(event.status());
+        }
+    }
+}
@@ -0,0 +1,570 @@
+package org.example.ariesbackendweb.MWS.execution;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.MwsTestService;
+import org.example.ariesbackendweb.MWS.entities.MwsTestPriority;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moteur de dispatch des tests MWS.
+ *
+ * Les tests soumis sont placés (statut QUEUED) dans une file en mémoire bornée,
+ * consommée par un pool de workers s'exécutant sur des threads virtuels.
+ * Le thread HTTP qui soumet le test rend donc la main immédiatement, et
+ * l'attente de l'agent ne consomme plus de thread Tomcat.
+ *
+ * La capacité de la file est réservée au moment de la soumission, mais le test
+ * n'est réellement déposé dans la file qu'après le commit de la transaction :
+ * un worker ne peut ainsi jamais chercher un test qui n'est pas encore visible
+ * en base.
+ *
+ * La file est divisée en voies, une par priorité (INTERACTIVE, NORMAL, BULK).
+ * Quand un worker se libère, il choisit la voie par un tourniquet pondéré
+ * (smooth weighted round-robin) parmi les voies non vides : sous charge, un
+ * test interactif est pris avant les tests d'un lot, sans que la voie BULK
+ * soit jamais affamée. De plus, quelques workers sont réservés à la voie
+ * INTERACTIVE : même si tous les autres sont occupés par un lot, un test
+ * interactif démarre sans attendre qu'un test du lot se termine.
+ *
+ * Avec mws.execution.queue-mode=database, la file de référence est la table
+ * des tests (voir {@link MwsJobQueue}) : cette instance ne garde en mémoire
+ * que les tests qu'elle a réclamés, au plus autant que de workers libres
+ * (les workers réservés ne comptant que pour la voie INTERACTIVE), et en
+ * réclame de nouveaux dès qu'un worker se libère. Plusieurs instances du
+ * backend se partagent ainsi les tests soumis sur n'importe laquelle d'entre elles.
+ */
+@Component
+@Slf4j
+public class MwsTestDispatcher {
+
+    @Autowired
+    private MwsExecutionProperties properties;
+
+    @Autowired
+    @Lazy
+    private MwsTestService testService;
+
+    @Autowired
+    private MwsJobQueue jobQueue;
+
+    private final Map<MwsTestPriority, ArrayDeque<UUID>> lanes = new EnumMap<>(MwsTestPriority.class);
+    private final Map<MwsTestPriority, Integer> weights = new EnumMap<>(MwsTestPriority.class);
+    private final Map<MwsTestPriority, Integer> currentWeights = new EnumMap<>(MwsTestPriority.class);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition interactiveNotEmpty = lock.newCondition();
+    private final Condition claimWanted = lock.newCondition();
+    private int queuedCount;
+
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final AtomicInteger activeReservedWorkers = new AtomicInteger();
+    private final AtomicInteger parkedCount = new AtomicInteger();
+
+    private final ScheduledExecutorService delayedDispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "mws-delayed-dispatch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Semaphore capacity;
+    private int reservedWorkers;
+    private volatile boolean running;
+    private boolean databaseMode;
+    private Thread claimer;
+
+    @PostConstruct
+    public void start() {
+        capacity = new Semaphore(properties.getQueueCapacity());
+        running = true;
+
+        for (MwsTestPriority priority : MwsTestPriority.values()) {
+            lanes.put(priority, new ArrayDeque<>());
+            currentWeights.put(priority, 0);
+        }
+        weights.put(MwsTestPriority.INTERACTIVE, Math.max(1, properties.getInteractiveWeight()));
+        weights.put(MwsTestPriority.NORMAL, Math.max(1, properties.getNormalWeight()));
+        weights.put(MwsTestPriority.BULK, Math.max(1, properties.getBulkWeight()));
+
+        // Au moins un worker reste disponible pour toutes les voies
+        reservedWorkers = Math.max(0, Math.min(properties.getInteractiveReservedWorkers(), properties.getWorkers() - 1));
+
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            boolean interactiveOnly = i < reservedWorkers;
+            workers.add(Thread.ofVirtual()
+                    .name(interactiveOnly ? "mws-worker-interactive-" + i : "mws-worker-" + i)
+                    .start(() -> workerLoop(interactiveOnly)));
+        }
+
+        databaseMode = properties.getQueueMode() == MwsExecutionProperties.QueueMode.DATABASE;
+        if (databaseMode) {
+            claimer = Thread.ofVirtual()
+                    .name("mws-claimer")
+                    .start(this::claimLoop);
+            delayedDispatcher.scheduleWithFixedDelay(this::heartbeat,
+                    properties.getLeaseHeartbeatIntervalMillis(), properties.getLeaseHeartbeatIntervalMillis(),
+                    TimeUnit.MILLISECONDS);
+            delayedDispatcher.scheduleWithFixedDelay(this::reapExpiredLeases,
+                    properties.getLeaseReaperIntervalMillis(), properties.getLeaseReaperIntervalMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+
+        log.info("Moteur d'exécution MWS démarré ({}): {} worker(s) dont {} réservé(s) aux tests interactifs, " +
+                        "capacité de file {}, poids {}",
+                databaseMode ? "file en base, instance " + jobQueue.getNodeId() : "file en mémoire",
+                properties.getWorkers(), reservedWorkers, properties.getQueueCapacity(), weights);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        delayedDispatcher.shutdownNow();
+        if (claimer != null) {
+            claimer.interrupt();
+        }
+        workers.forEach(Thread::interrupt);
+
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        // Les tests encore en file restent en base avec le statut QUEUED ;
+        // avec la file en base, ils sont rendus aux autres instances
+        if (databaseMode) {
+            try {
+                jobQueue.releaseQueued();
+            } catch (Exception e) {
+                log.warn("Impossible de rendre les tests réclamés par cette instance, ils le seront à l'expiration du bail", e);
+            }
+        }
+        log.info("Moteur d'exécution MWS arrêté, {} test(s) restaient en file", getQueuedCount());
+    }
+
+    /**
+     * Place un test dans la file d'exécution.
+     *
+     * Si une transaction est active, le test n'est déposé dans la file qu'après
+     * son commit ; en cas de rollback, la place réservée est libérée.
+     *
+     * @param testId   L'UUID du test à exécuter
+     * @param priority La voie dans laquelle placer le test (NORMAL si null)
+     * @throws RejectedExecutionException Si la file d'exécution est pleine
+     */
+    public void dispatch(UUID testId, MwsTestPriority priority) {
+        dispatchAll(Map.of(lane(priority), List.of(testId)));
+    }
+
+    /**
+     * Place un lot de tests dans la file d'exécution.
+     *
+     * La capacité est réservée pour tout le lot en une seule fois : soit tous
+     * les tests sont acceptés, soit aucun.
+     *
+     * @param testIds Les UUID des tests à exécuter, par priorité
+     * @throws RejectedExecutionException Si la file ne peut pas accueillir tout le lot
+     */
+    public void dispatchAll(Map<MwsTestPriority, List<UUID>> testIds) {
+        if (databaseMode) {
+            // Les tests sont déjà dans la file (en base) : la réclamation est juste réveillée
+            afterCommit(this::signalClaimer);
+            return;
+        }
+
+        int count = testIds.values().stream().mapToInt(List::size).sum();
+        if (!capacity.tryAcquire(count)) {
+            throw new RejectedExecutionException(
+                    "La file d'exécution MWS ne peut pas accueillir " + count + " test(s) (capacité " +
+                            properties.getQueueCapacity() + ", " + getQueuedCount() +
+                            " en attente). Réessayez plus tard.");
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(testIds);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    enqueue(testIds);
+                } else {
+                    capacity.release(count);
+                }
+            }
+        });
+    }
+
+    /**
+     * Replace un test dans la file après un délai, par exemple lorsqu'aucun
+     * agent n'est disponible. Le test reste QUEUED en base pendant l'attente.
+     * Si la file est pleine au moment de la relance, une nouvelle tentative
+     * est programmée après le même délai.
+     *
+     * @param testId      L'UUID du test à relancer
+     * @param priority    La voie dans laquelle replacer le test
+     * @param delayMillis Le délai avant la remise en file
+     */
+    public void dispatchLater(UUID testId, MwsTestPriority priority, long delayMillis) {
+        if (databaseMode) {
+            jobQueue.defer(testId, delayMillis);
+            return;
+        }
+
+        parkedCount.incrementAndGet();
+        delayedDispatcher.schedule(() -> {
+            parkedCount.decrementAndGet();
+            try {
+                dispatch(testId, priority);
+            } catch (RejectedExecutionException e) {
+                log.warn("File pleine, nouvelle tentative de remise en file du test {} dans {} ms",
+                        testId, delayMillis);
+                dispatchLater(testId, priority, delayMillis);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Nombre de tests en attente d'une remise en file différée.
+     */
+    public int getParkedCount() {
+        return parkedCount.get();
+    }
+
+    /**
+     * Nombre de tests en attente dans la file, toutes voies confondues.
+     */
+    public int getQueuedCount() {
+        lock.lock();
+        try {
+            return queuedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Nombre de tests en attente dans une voie de la file.
+     */
+    public int getQueuedCount(MwsTestPriority priority) {
+        lock.lock();
+        try {
+            return lanes.get(priority).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Nombre de workers en train d'exécuter un test.
+     */
+    public int getActiveCount() {
+        return activeWorkers.get();
+    }
+
+    private void workerLoop(boolean interactiveOnly) {
+        while (running) {
+            UUID testId;
+            try {
+                testId = take(interactiveOnly);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (!databaseMode) {
+                capacity.release();
+            }
+
+            activeWorkers.incrementAndGet();
+            if (interactiveOnly) {
+                activeReservedWorkers.incrementAndGet();
+            }
+            try {
+                testService.executeTest(testId);
+            } catch (Exception e) {
+                log.error("Erreur non gérée lors de l'exécution du test {}", testId, e);
+            } finally {
+                if (interactiveOnly) {
+                    activeReservedWorkers.decrementAndGet();
+                }
+                activeWorkers.decrementAndGet();
+                if (databaseMode) {
+                    signalClaimer();
+                }
+            }
+        }
+    }
+
+    /**
+     * File en base : réclame des tests tant que des workers sont libres, puis
+     * attend qu'un worker se libère, qu'un test soit soumis sur cette instance
+     * ou que l'intervalle de recherche soit écoulé (tests soumis ailleurs).
+     */
+    private void claimLoop() {
+        while (running) {
+            try {
+                int free = properties.getWorkers() - activeWorkers.get() - getQueuedCount();
+                int claimed = free > 0 ? claim(free, claimBudget()) : 0;
+
+                if (claimed == 0 || claimed >= free) {
+                    lock.lockInterruptibly();
+                    try {
+                        claimWanted.await(properties.getClaimPollIntervalMillis(), TimeUnit.MILLISECONDS);
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Erreur lors de la réclamation de tests dans la file en base", e);
+                try {
+                    Thread.sleep(properties.getClaimPollIntervalMillis());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Places libres pour une réclamation, par voie : celles des workers
+     * réservés ne servent qu'aux tests INTERACTIVE.
+     */
+    private static class ClaimBudget {
+        private int reserved;
+        private int shared;
+
+        private int available(MwsTestPriority priority) {
+            return priority == MwsTestPriority.INTERACTIVE ? reserved + shared : shared;
+        }
+
+        /**
+         * Un test INTERACTIVE occupe d'abord une place réservée.
+         */
+        private void consume(MwsTestPriority priority, int count) {
+            if (priority == MwsTestPriority.INTERACTIVE) {
+                int fromReserved = Math.min(count, reserved);
+                reserved -= fromReserved;
+                count -= fromReserved;
+            }
+            shared -= count;
+        }
+    }
+
+    /**
+     * Répartit les workers libres entre places réservées et places partagées.
+     * Les tests INTERACTIVE déjà en file occupent d'abord les workers réservés
+     * inoccupés, le surplus des places partagées.
+     */
+    private ClaimBudget claimBudget() {
+        lock.lock();
+        try {
+            int queuedInteractive = lanes.get(MwsTestPriority.INTERACTIVE).size();
+            int idleReserved = Math.max(0, reservedWorkers - activeReservedWorkers.get());
+            int activeShared = activeWorkers.get() - activeReservedWorkers.get();
+
+            ClaimBudget budget = new ClaimBudget();
+            budget.reserved = Math.max(0, idleReserved - queuedInteractive);
+            budget.shared = Math.max(0, properties.getWorkers() - reservedWorkers - activeShared
+                    - (queuedCount - queuedInteractive) - Math.max(0, queuedInteractive - idleReserved));
+            return budget;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Réclame au plus {@code free} tests, répartis entre les voies selon leurs
+     * poids, sans dépasser les places de chaque voie : les tests NORMAL et
+     * BULK ne sont jamais réclamés pour des workers réservés. La part
+     * inutilisée d'une voie revient ensuite aux voies plus prioritaires.
+     *
+     * @return Le nombre de tests réclamés
+     */
+    private int claim(int free, ClaimBudget budget) {
+        int totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+        Map<MwsTestPriority, List<UUID>> claimed = new EnumMap<>(MwsTestPriority.class);
+        List<MwsTestPriority> saturated = new ArrayList<>();
+        int remaining = free;
+
+        for (MwsTestPriority priority : MwsTestPriority.values()) {
+            int share = Math.min(Math.min(remaining, budget.available(priority)),
+                    free * weights.get(priority) / totalWeight);
+            List<UUID> ids = share > 0 ? jobQueue.claim(priority, share) : List.of();
+            claimed.put(priority, new ArrayList<>(ids));
+            budget.consume(priority, ids.size());
+            remaining -= ids.size();
+            if (ids.size() == share) {
+                saturated.add(priority);
+            }
+        }
+
+        for (MwsTestPriority priority : saturated) {
+            int share = Math.min(remaining, budget.available(priority));
+            if (share <= 0) {
+                continue;
+            }
+            List<UUID> ids = jobQueue.claim(priority, share);
+            claimed.get(priority).addAll(ids);
+            budget.consume(priority, ids.size());
+            remaining -= ids.size();
+        }
+
+        if (remaining < free) {
+            enqueue(claimed);
+        }
+        return free - remaining;
+    }
+
+    private void heartbeat() {
+        try {
+            jobQueue.heartbeat();
+        } catch (Exception e) {
+            log.error("Erreur lors de la prolongation des baux de l'instance {}", jobQueue.getNodeId(), e);
+        }
+    }
+
+    private void reapExpiredLeases() {
+        try {
+            for (UUID testId : jobQueue.reapExpired(properties.getRecoveryBatchSize())) {
+                testService.failInterruptedTest(testId,
+                        "Exécution interrompue par l'arrêt de l'instance qui l'exécutait ; " +
+                                "opération non relancée car elle peut modifier les données M3");
+            }
+        } catch (Exception e) {
+            log.error("Erreur lors de la reprise des baux expirés", e);
+        }
+    }
+
+    private void signalClaimer() {
+        lock.lock();
+        try {
+            claimWanted.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void enqueue(Map<MwsTestPriority, List<UUID>> testIds) {
+        lock.lock();
+        try {
+            testIds.forEach((priority, ids) -> {
+                lanes.get(lane(priority)).addAll(ids);
+                queuedCount += ids.size();
+            });
+            notEmpty.signalAll();
+            if (!lanes.get(MwsTestPriority.INTERACTIVE).isEmpty()) {
+                interactiveNotEmpty.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retire le prochain test à exécuter, en attendant qu'il y en ait un.
+     * Les workers réservés ne prennent que des tests de la voie INTERACTIVE.
+     */
+    private UUID take(boolean interactiveOnly) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                MwsTestPriority priority = interactiveOnly
+                        ? (lanes.get(MwsTestPriority.INTERACTIVE).isEmpty() ? null : MwsTestPriority.INTERACTIVE)
+                        : selectLane();
+
+                if (priority != null) {
+                    queuedCount--;
+                    return lanes.get(priority).poll();
+                }
+
+                if (interactiveOnly) {
+                    interactiveNotEmpty.await();
+                } else {
+                    notEmpty.await();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Tourniquet pondéré lissé : chaque voie non vide gagne son poids, la voie
+     * ayant le plus gros crédit est servie et perd la somme des poids en jeu.
+     * Avec des poids 16/4/1, une voie BULK saturée reçoit environ un worker
+     * libéré sur 21 tant que les autres voies ont du travail, et tous sinon.
+     *
+     * @return La voie à servir, ou null si toutes sont vides
+     */
+    private MwsTestPriority selectLane() {
+        MwsTestPriority selected = null;
+        int total = 0;
+
+        for (MwsTestPriority priority : MwsTestPriority.values()) {
+            if (lanes.get(priority).isEmpty()) {
+                continue;
+            }
+            int weight = weights.get(priority);
+            int current = currentWeights.get(priority) + weight;
+            currentWeights.put(priority, current);
+            total += weight;
+
+            if (selected == null || current > currentWeights.get(selected)) {
+                selected = priority;
+            }
+        }
+
+        if (selected != null) {
+            currentWeights.put(selected, currentWeights.get(selected) - total);
+        }
+        return selected;
+    }
+
+    private static MwsTestPriority lane(MwsTestPriority priority) {
+        return priority != null ? priority : MwsTestPriority.NORMAL;
+    }
+}
@@ -0,0 +1,242 @@
+package org.example.ariesbackendweb.MWS.execution;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.MwsScheduleService;
+import org.example.ariesbackendweb.MWS.entities.MwsTestSchedule;
+import org.example.ariesbackendweb.MWS.repositories.MwsTestScheduleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Déclencheur des planifications de tests MWS.
+ *
+ * Chaque planification active est enregistrée auprès d'un ordonnanceur dédié
+ * avec son expression cron. À chaque déclenchement, l'exécution est décalée
+ * d'un délai aléatoire borné par le jitter de la planification : les sondes
+ * planifiées « à l'heure pile » ne partent donc pas toutes vers l'agent au
+ * même instant. Le délai est lui-même programmé sur l'ordonnanceur, aucun
+ * thread n'est bloqué pendant l'attente.
+ *
+ * L'ordonnanceur ne fait que soumettre les tests (voir
+ * {@link MwsScheduleService#runSchedule}) ; leur exécution passe par la file
+ * du moteur d'exécution, comme pour une soumission manuelle.
+ *
+ * Avec plusieurs instances (file en base), chacune déclenche toutes les
+ * planifications ; l'heure prévue du déclenchement, transmise au service,
+ * lui permet de ne soumettre qu'un test par déclenchement. Les
+ * planifications modifiées sur une autre instance sont relues périodiquement.
+ */
+@Component
+@Slf4j
+public class MwsTestScheduler {
+
+    private static final int POOL_SIZE = 2;
+
+    @Autowired
+    private MwsTestScheduleRepository scheduleRepository;
+
+    @Autowired
+    @Lazy
+    private MwsScheduleService scheduleService;
+
+    @Autowired
+    private MwsExecutionProperties properties;
+
+    // Ordonnanceur propre aux planifications : celui du broker STOMP n'est pas partagé
+    private final ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+    private final Map<UUID, Registration> triggers = new ConcurrentHashMap<>();
+
+    private record Registration(String cron, int jitterSeconds, ScheduledFuture<?> future) {
+    }
+
+    @PostConstruct
+    public void init() {
+        taskScheduler.setPoolSize(POOL_SIZE);
+        taskScheduler.setThreadNamePrefix("mws-schedule-");
+        taskScheduler.setDaemon(true);
+        taskScheduler.initialize();
+    }
+
+    @PreDestroy
+    public void stop() {
+        triggers.values().forEach(registration -> registration.future().cancel(false));
+        triggers.clear();
+        taskScheduler.shutdown();
+    }
+
+    /**
+     * Enregistre toutes les planifications actives au démarrage de l'application.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void registerAll() {
+        int count = 0;
+        for (MwsTestSchedule schedule : scheduleRepository.findByEnabledTrue()) {
+            try {
+                doRegister(schedule.getId(), schedule.getCronExpression(), schedule.getJitterSeconds());
+                count++;
+            } catch (IllegalArgumentException e) {
+                log.error("Planification {} ignorée, expression cron invalide: {}",
+                        schedule.getId(), schedule.getCronExpression());
+            }
+        }
+        log.info("{} planification(s) de test MWS enregistrée(s)", count);
+    }
+
+    /**
+     * File en base : reprend les planifications créées, modifiées ou
+     * supprimées sur une autre instance, qui ne les a enregistrées que
+     * dans son propre ordonnanceur.
+     */
+    @Scheduled(fixedDelay = 60000, initialDelay = 60000)
+    public void refresh() {
+        if (properties.getQueueMode() != MwsExecutionProperties.QueueMode.DATABASE) {
+            return;
+        }
+
+        Set<UUID> enabled = new HashSet<>();
+        for (MwsTestSchedule schedule : scheduleRepository.findByEnabledTrue()) {
+            enabled.add(schedule.getId());
+            Registration registration = triggers.get(schedule.getId());
+            if (registration != null && registration.cron().equals(schedule.getCronExpression())
+                    && registration.jitterSeconds() == schedule.getJitterSeconds()) {
+                continue;
+            }
+            try {
+                doRegister(schedule.getId(), schedule.getCronExpression(), schedule.getJitterSeconds());
+            } catch (IllegalArgumentException e) {
+                log.error("Planification {} ignorée, expression cron invalide: {}",
+                        schedule.getId(), schedule.getCronExpression());
+            }
+        }
+        for (UUID scheduleId : List.copyOf(triggers.keySet())) {
+            if (!enabled.contains(scheduleId)) {
+                doUnregister(scheduleId);
+            }
+        }
+    }
+
+    /**
+     * Enregistre (ou ré-enregistre) une planification. Une planification
+     * désactivée est simplement retirée de l'ordonnanceur.
+     *
+     * Si une transaction est active, l'enregistrement n'a lieu qu'après son commit.
+     */
+    public void register(MwsTestSchedule schedule) {
+        UUID scheduleId = schedule.getId();
+        String cron = schedule.getCronExpression();
+        int jitterSeconds = schedule.getJitterSeconds();
+        boolean enabled = schedule.isEnabled();
+
+        afterCommit(() -> {
+            if (enabled) {
+                doRegister(scheduleId, cron, jitterSeconds);
+            } else {
+                doUnregister(scheduleId);
+            }
+        });
+    }
+
+    /**
+     * Retire une planification de l'ordonnanceur.
+     * Si une transaction est active, le retrait n'a lieu qu'après son commit.
+     */
+    public void unregister(UUID scheduleId) {
+        afterCommit(() -> doUnregister(scheduleId));
+    }
+
+    /**
+     * Indique si une planification est actuellement enregistrée.
+     */
+    public boolean isRegistered(UUID scheduleId) {
+        return triggers.containsKey(scheduleId);
+    }
+
+    private void doRegister(UUID scheduleId, String cron, int jitterSeconds) {
+        CronTrigger cronTrigger = new CronTrigger(cron);
+        doUnregister(scheduleId);
+
+        // Heure prévue de l'exécution en cours : calculée juste avant sa programmation
+        AtomicReference<Instant> scheduledAt = new AtomicReference<>();
+        Trigger trigger = context -> {
+            Instant next = cronTrigger.nextExecution(context);
+            scheduledAt.set(next);
+            return next;
+        };
+        ScheduledFuture<?> future = taskScheduler.schedule(
+                () -> fire(scheduleId, cron, scheduledAt.get(), jitterSeconds), trigger);
+        triggers.put(scheduleId, new Registration(cron, jitterSeconds, future));
+        log.debug("Planification {} enregistrée ({}, jitter {} s)", scheduleId, cron, jitterSeconds);
+    }
+
+    private void doUnregister(UUID scheduleId) {
+        Registration registration = triggers.remove(scheduleId);
+        if (registration != null) {
+            registration.future().cancel(false);
+        }
+    }
+
+    private void fire(UUID scheduleId, String cron, Instant scheduledAt, int jitterSeconds) {
+        LocalDateTime firedAt = LocalDateTime.ofInstant(scheduledAt, ZoneId.systemDefault());
+        if (jitterSeconds <= 0) {
+            run(scheduleId, cron, firedAt);
+            return;
+        }
+
+        long delayMillis = ThreadLocalRandom.current().nextLong(jitterSeconds * 1000L + 1);
+        taskScheduler.schedule(() -> run(scheduleId, cron, firedAt), Instant.now().plusMillis(delayMillis));
+    }
+
+    private void run(UUID scheduleId, String cron, LocalDateTime firedAt) {
+        // Planification supprimée ou désactivée pendant le délai aléatoire
+        if (!triggers.containsKey(scheduleId)) {
+            return;
+        }
+
+        try {
+            scheduleService.runSchedule(scheduleId, cron, firedAt);
+        } catch (RejectedExecutionException e) {
+            log.warn("Exécution de la planification {} abandonnée, file d'exécution pleine", scheduleId);
+        } catch (Exception e) {
+            log.error("Erreur lors de l'exécution de la planification {}", scheduleId, e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
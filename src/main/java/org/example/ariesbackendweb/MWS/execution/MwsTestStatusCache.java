@@ -0,0 +1,110 @@
+package org.example.ariesbackendweb.MWS.execution;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.dtos.MwsTestStatusSnapshot;
+import org.example.ariesbackendweb.MWS.entities.MwsTestRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache en mémoire du statut des tests MWS.
+ *
+ * Tenu à jour à chaque changement de statut par le service et par le
+ * {@link MwsResultWriter}, il permet de répondre au polling de l'UI
+ * (GET /mws/tests/{id}/status, environ une fois par seconde et par test)
+ * sans aucune requête en base.
+ *
+ * Les tests en cours restent en cache jusqu'à leur fin ; les tests terminés
+ * en sont retirés après {@code statusCacheTerminalTtlMillis}, ou plus tôt si
+ * le cache dépasse {@code statusCacheMaxEntries}.
+ *
+ * Avec la file en base, un test peut être exécuté par une autre instance :
+ * ses transitions n'arrivent pas dans ce cache. Le statut d'un test en cours
+ * n'y est donc valable que {@code statusCacheActiveTtlMillis}, puis relu en base.
+ */
+@Component
+@Slf4j
+public class MwsTestStatusCache {
+
+    @Autowired
+    private MwsExecutionProperties properties;
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    private record Entry(MwsTestStatusSnapshot snapshot, long cachedAtMillis) {
+    }
+
+    public Optional<MwsTestStatusSnapshot> get(UUID testId) {
+        Entry entry = entries.get(testId);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (isStale(entry, System.currentTimeMillis())) {
+            entries.remove(testId, entry);
+            return Optional.empty();
+        }
+        return Optional.of(entry.snapshot());
+    }
+
+    public void put(MwsTestStatusSnapshot snapshot) {
+        entries.put(snapshot.testId(), new Entry(snapshot, System.currentTimeMillis()));
+    }
+
+    /**
+     * Ajoute un statut lu en base, sauf si une transition plus récente
+     * a été enregistrée entre-temps.
+     *
+     * @return Le statut effectivement en cache
+     */
+    public MwsTestStatusSnapshot putIfAbsent(MwsTestStatusSnapshot snapshot) {
+        Entry entry = entries.computeIfAbsent(snapshot.testId(),
+                id -> new Entry(snapshot, System.currentTimeMillis()));
+        return entry.snapshot();
+    }
+
+    public void put(MwsTestRequest testRequest) {
+        put(MwsTestStatusSnapshot.of(testRequest));
+    }
+
+    /**
+     * Statut d'un test en cours, mis en cache trop tôt pour refléter une
+     * transition exécutée par une autre instance (file en base uniquement).
+     */
+    private boolean isStale(Entry entry, long now) {
+        return properties.getQueueMode() == MwsExecutionProperties.QueueMode.DATABASE
+                && !entry.snapshot().isTerminal()
+                && now - entry.cachedAtMillis() >= properties.getStatusCacheActiveTtlMillis();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        long expiredBefore = now - properties.getStatusCacheTerminalTtlMillis();
+        entries.values().removeIf(entry -> isStale(entry, now)
+                || (entry.snapshot().isTerminal() && entry.cachedAtMillis() < expiredBefore));
+
+        // Au-delà de la taille maximale, les tests terminés sont retirés en premier
+        int excess = entries.size() - properties.getStatusCacheMaxEntries();
+        if (excess > 0) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (excess > 0 && iterator.hasNext()) {
+                if (iterator.next().snapshot().isTerminal()) {
+                    iterator.remove();
+                    excess--;
+                }
+            }
+            log.debug("Cache de statuts au-delà de sa taille maximale, {} entrée(s)", entries.size());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.ariesbackendweb.MWS.execution;
+
+/**
+ * Levée lorsqu'un appel vers un endpoint MWS dépasserait une limite
+ * configurée (appels en vol ou débit).
+ *
+ * Ce n'est pas un échec du test : il reste QUEUED et peut être relancé
+ * après {@link #getRetryAfterMillis()}.
+ */
+public class MwsThrottledException extends RuntimeException {
+
+    private final long retryAfterMillis;
+
+    public MwsThrottledException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
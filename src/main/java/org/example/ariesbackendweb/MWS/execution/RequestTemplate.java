@@ -0,0 +1,123 @@
+package org.example.ariesbackendweb.MWS.execution;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Corps de requête SOAP à ${variable}, découpé une fois pour toutes en
+ * fragments littéraux et variables : le rendu d'une requête n'est qu'une
+ * concaténation, ce qui compte quand un même modèle sert à des dizaines de
+ * milliers de requêtes (exécutions pilotées par CSV).
+ *
+ * Les valeurs sont échappées à l'insertion : elles viennent de réponses XML
+ * ou de fichiers, et sont insérées dans du XML.
+ */
+public final class RequestTemplate {
+
+    /**
+     * Variable dans un corps de requête : ${ORNO}.
+     */
+    public static final Pattern VARIABLE = Pattern.compile("\\$\\{([A-Za-z_][A-Za-z0-9_]*)}");
+
+    // Élément à remplir d'un modèle généré depuis le WSDL : <CUNO>?</CUNO>, avec ou sans préfixe
+    private static final Pattern UNFILLED_ELEMENT =
+            Pattern.compile("<((?:[\\w.-]+:)?([A-Za-z_][\\w.-]*))(\\s[^>]*)?>\\s*\\?\\s*</\\1\\s*>");
+
+    // Fragments en alternance : littéral, variable, littéral, ..., littéral
+    private final String[] literals;
+    private final String[] variables;
+    private final int length;
+
+    private RequestTemplate(String[] literals, String[] variables, int length) {
+        this.literals = literals;
+        this.variables = variables;
+        this.length = length;
+    }
+
+    public static RequestTemplate compile(String template) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        Matcher matcher = VARIABLE.matcher(template);
+        int start = 0;
+        while (matcher.find()) {
+            literals.add(template.substring(start, matcher.start()));
+            variables.add(matcher.group(1));
+            start = matcher.end();
+        }
+        literals.add(template.substring(start));
+        return new RequestTemplate(literals.toArray(String[]::new), variables.toArray(String[]::new), template.length());
+    }
+
+    /**
+     * Noms des variables utilisées par un corps de requête.
+     */
+    public static Set<String> variablesOf(String template) {
+        return compile(template).variables();
+    }
+
+    /**
+     * Lie les éléments à remplir (contenu "?") d'un modèle généré depuis le
+     * WSDL : un élément dont le nom est l'un des noms donnés devient
+     * ${nom}, les autres sont vidés.
+     */
+    public static String bindUnfilledElements(String template, Collection<String> names) {
+        Matcher matcher = UNFILLED_ELEMENT.matcher(template);
+        StringBuilder bound = new StringBuilder(template.length());
+        while (matcher.find()) {
+            String attributes = matcher.group(3) != null ? matcher.group(3) : "";
+            String content = names.contains(matcher.group(2)) ? "${" + matcher.group(2) + "}" : "";
+            matcher.appendReplacement(bound, Matcher.quoteReplacement(
+                    "<" + matcher.group(1) + attributes + ">" + content + "</" + matcher.group(1) + ">"));
+        }
+        matcher.appendTail(bound);
+        return bound.toString();
+    }
+
+    public Set<String> variables() {
+        Set<String> names = new LinkedHashSet<>();
+        for (String variable : variables) {
+            names.add(variable);
+        }
+        return names;
+    }
+
+    /**
+     * Produit le corps de requête, les valeurs étant échappées pour XML.
+     *
+     * @param values Valeur de chaque variable
+     * @throws IllegalArgumentException Si une variable n'a pas de valeur
+     */
+    public String render(Function<String, String> values) {
+        StringBuilder body = new StringBuilder(length + 16 * variables.length);
+        for (int i = 0; i < variables.length; i++) {
+            body.append(literals[i]);
+            String value = values.apply(variables[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("Variable sans valeur: " + variables[i]);
+            }
+            appendEscaped(body, value);
+        }
+        body.append(literals[variables.length]);
+        return body.toString();
+    }
+
+    private static void appendEscaped(StringBuilder body, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> body.append("&amp;");
+                case '<' -> body.append("&lt;");
+                case '>' -> body.append("&gt;");
+                case '"' -> body.append("&quot;");
+                case '\'' -> body.append("&apos;");
+                default -> body.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package org.example.ariesbackendweb.MWS.metrics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Histogramme de latences à précision relative constante, inspiré de HdrHistogram.
+ *
+ * Les valeurs (en millisecondes) sont rangées dans des buckets log-linéaires :
+ * chaque puissance de deux est découpée en 64 sous-buckets, ce qui garantit
+ * une erreur relative inférieure à 1,6 % sur les percentiles, avec une empreinte
+ * mémoire fixe quel que soit le nombre de valeurs enregistrées.
+ *
+ * Deux histogrammes peuvent être fusionnés sans perte ({@link #merge}), ce qui
+ * permet d'agréger des mesures produites séparément (par exemple par tranche
+ * horaire). Les méthodes sont synchronisées : une même instance peut être
+ * alimentée par plusieurs threads.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_HALF_COUNT_MAGNITUDE = 6;
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_HALF_COUNT_MAGNITUDE;
+    private static final int SUB_BUCKET_MASK = (SUB_BUCKET_HALF_COUNT << 1) - 1;
+
+    /**
+     * Plus grande valeur enregistrable (environ 24 jours en millisecondes).
+     * Les valeurs supérieures sont ramenées à ce plafond.
+     */
+    public static final long MAX_VALUE = Integer.MAX_VALUE;
+
+    private static final int COUNTS_LENGTH = countsIndex(MAX_VALUE) + 1;
+
+    private final long[] counts = new long[COUNTS_LENGTH];
+    private long totalCount;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /**
+     * Enregistre une valeur.
+     *
+     * @param value La valeur à enregistrer, en millisecondes (les valeurs négatives sont ramenées à 0)
+     */
+    public synchronized void record(long value) {
+        long v = Math.min(Math.max(value, 0), MAX_VALUE);
+        counts[countsIndex(v)]++;
+        totalCount++;
+        sum += v;
+        min = Math.min(min, v);
+        max = Math.max(max, v);
+    }
+
+    /**
+     * Ajoute toutes les valeurs d'un autre histogramme à celui-ci.
+     */
+    public synchronized void merge(LatencyHistogram other) {
+        long[] otherCounts;
+        long otherTotal, otherSum, otherMin, otherMax;
+        synchronized (other) {
+            otherCounts = other.counts.clone();
+            otherTotal = other.totalCount;
+            otherSum = other.sum;
+            otherMin = other.min;
+            otherMax = other.max;
+        }
+
+        for (int i = 0; i < COUNTS_LENGTH; i++) {
+            counts[i] += otherCounts[i];
+        }
+        totalCount += otherTotal;
+        sum += otherSum;
+        min = Math.min(min, otherMin);
+        max = Math.max(max, otherMax);
+    }
+
+    public synchronized long getTotalCount() {
+        return totalCount;
+    }
+
+    public synchronized long getSum() {
+        return sum;
+    }
+
+    /**
+     * Plus petite valeur enregistrée, ou 0 si l'histogramme est vide.
+     */
+    public synchronized long getMin() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    /**
+     * Plus grande valeur enregistrée, ou 0 si l'histogramme est vide.
+     */
+    public synchronized long getMax() {
+        return max;
+    }
+
+    public synchronized double getMean() {
+        return totalCount == 0 ? 0.0 : (double) sum / totalCount;
+    }
+
+    /**
+     * Retourne la valeur en dessous de laquelle se trouvent {@code percentile} %
+     * des valeurs enregistrées.
+     *
+     * @param percentile Le percentile demandé, entre 0 et 100
+     * @return La valeur du percentile (borne haute du bucket correspondant), ou 0 si vide
+     */
+    public synchronized long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        double clamped = Math.min(Math.max(percentile, 0.0), 100.0);
+        long countAtPercentile = Math.max(1, (long) Math.ceil(clamped / 100.0 * totalCount));
+
+        long running = 0;
+        for (int i = 0; i < COUNTS_LENGTH; i++) {
+            running += counts[i];
+            if (running >= countAtPercentile) {
+                // On ne dépasse jamais le maximum réellement observé
+                return Math.min(highestEquivalentValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Sérialise l'histogramme dans un format compact (seuls les buckets non vides sont écrits).
+     */
+    public synchronized byte[] toByteArray() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(totalCount);
+            out.writeLong(sum);
+            out.writeLong(getMin());
+            out.writeLong(max);
+
+            int nonEmpty = 0;
+            for (long count : counts) {
+                if (count != 0) {
+                    nonEmpty++;
+                }
+            }
+            out.writeInt(nonEmpty);
+            for (int i = 0; i < COUNTS_LENGTH; i++) {
+                if (counts[i] != 0) {
+                    out.writeShort(i);
+                    out.writeLong(counts[i]);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reconstruit un histogramme à partir de sa forme sérialisée.
+     *
+     * @param data Les octets produits par {@link #toByteArray()}, ou null pour un histogramme vide
+     */
+    public static LatencyHistogram fromByteArray(byte[] data) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        if (data == null || data.length == 0) {
+            return histogram;
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            histogram.totalCount = in.readLong();
+            histogram.sum = in.readLong();
+            long min = in.readLong();
+            histogram.min = histogram.totalCount == 0 ? Long.MAX_VALUE : min;
+            histogram.max = in.readLong();
+
+            int nonEmpty = in.readInt();
+            for (int i = 0; i < nonEmpty; i++) {
+                int index = in.readUnsignedShort();
+                histogram.counts[index] = in.readLong();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Histogramme sérialisé invalide", e);
+        }
+        return histogram;
+    }
+
+    private static int countsIndex(long value) {
+        int bucketIndex = 63 - Long.numberOfLeadingZeros(value | SUB_BUCKET_MASK)
+                - SUB_BUCKET_HALF_COUNT_MAGNITUDE;
+        int subBucketIndex = (int) (value >>> bucketIndex);
+        return ((bucketIndex + 1) << SUB_BUCKET_HALF_COUNT_MAGNITUDE) + (subBucketIndex - SUB_BUCKET_HALF_COUNT);
+    }
+
+    private static long highestEquivalentValue(int index) {
+        int bucketIndex = (index >> SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1;
+        long subBucketIndex = (index & (SUB_BUCKET_HALF_COUNT - 1)) + SUB_BUCKET_HALF_COUNT;
+        if (bucketIndex < 0) {
+            subBucketIndex -= SUB_BUCKET_HALF_COUNT;
+            bucketIndex = 0;
+        }
+        return (subBucketIndex << bucketIndex) + (1L << bucketIndex) - 1;
+    }
+}
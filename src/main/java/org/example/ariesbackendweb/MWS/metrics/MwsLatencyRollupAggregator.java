@@ -0,0 +1,181 @@
+package org.example.ariesbackendweb.MWS.metrics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ariesbackendweb.MWS.entities.MwsLatencyRollup;
+import org.example.ariesbackendweb.MWS.repositories.MwsLatencyRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Alimente les agrégats de latence par (programme, opération, environnement, heure).
+ *
+ * Les mesures sont d'abord cumulées en mémoire, puis fusionnées périodiquement
+ * dans mws_latency_rollup : chaque tranche touchée est relue sous verrou
+ * pessimiste, son histogramme fusionné avec les nouvelles mesures, puis réécrite.
+ * Une rafale de milliers de résultats se traduit ainsi par une écriture par
+ * tranche et par période de vidage.
+ */
+@Component
+@Slf4j
+public class MwsLatencyRollupAggregator {
+
+    @Autowired
+    private MwsLatencyRollupRepository rollupRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final Map<RollupKey, PartialRollup> pending = new ConcurrentHashMap<>();
+
+    private record RollupKey(UUID programId, String operationName, String environment,
+                             LocalDateTime bucketStart) {
+    }
+
+    /**
+     * Mesures d'une tranche pas encore écrites en base. Toujours modifiée
+     * sous le verrou de sa clé dans {@link #pending} (via compute).
+     */
+    private static class PartialRollup {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private long successCount;
+    }
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Enregistre la latence d'une exécution.
+     *
+     * @param completedAt    L'instant de fin de l'exécution, qui détermine la tranche
+     * @param durationMillis La durée mesurée par l'agent
+     * @param success        Le succès de l'exécution
+     */
+    public void record(UUID programId, String operationName, String environment,
+                       LocalDateTime completedAt, long durationMillis, boolean success) {
+        if (programId == null) {
+            return;
+        }
+        pending.compute(keyOf(programId, operationName, environment, completedAt), (key, partial) -> {
+            PartialRollup rollup = partial != null ? partial : new PartialRollup();
+            rollup.histogram.record(durationMillis);
+            if (success) {
+                rollup.successCount++;
+            }
+            return rollup;
+        });
+    }
+
+    /**
+     * Enregistre d'un coup les latences d'un tir de charge.
+     *
+     * @param histogram    L'histogramme des durées du tir
+     * @param successCount Le nombre d'exécutions réussies parmi celles de l'histogramme
+     */
+    public void recordAll(UUID programId, String operationName, String environment,
+                          LocalDateTime completedAt, LatencyHistogram histogram, long successCount) {
+        if (programId == null || histogram.getTotalCount() == 0) {
+            return;
+        }
+        pending.compute(keyOf(programId, operationName, environment, completedAt), (key, partial) -> {
+            PartialRollup rollup = partial != null ? partial : new PartialRollup();
+            rollup.histogram.merge(histogram);
+            rollup.successCount += successCount;
+            return rollup;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "#{@mwsExecutionProperties.rollupFlushIntervalMillis}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // Ordre stable des tranches : deux vidages concurrents (plusieurs instances)
+        // verrouillent les lignes dans le même ordre et ne peuvent pas s'interbloquer
+        List<RollupKey> keys = new ArrayList<>(pending.keySet());
+        keys.sort(Comparator.comparing(RollupKey::bucketStart)
+                .thenComparing(key -> key.programId().toString())
+                .thenComparing(RollupKey::operationName)
+                .thenComparing(RollupKey::environment));
+
+        List<Map.Entry<RollupKey, PartialRollup>> batch = new ArrayList<>(keys.size());
+        for (RollupKey key : keys) {
+            PartialRollup partial = pending.remove(key);
+            if (partial != null) {
+                batch.add(Map.entry(key, partial));
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    batch.forEach(entry -> mergeInto(entry.getKey(), entry.getValue())));
+            log.debug("{} tranche(s) de latence mises à jour", batch.size());
+
+        } catch (Exception e) {
+            // Les mesures sont remises en attente pour le prochain vidage
+            log.error("Échec de la mise à jour de {} tranche(s) de latence, nouvel essai au prochain vidage",
+                    batch.size(), e);
+            batch.forEach(entry -> pending.merge(entry.getKey(), entry.getValue(), (current, failed) -> {
+                current.histogram.merge(failed.histogram);
+                current.successCount += failed.successCount;
+                return current;
+            }));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    private void mergeInto(RollupKey key, PartialRollup partial) {
+        MwsLatencyRollup rollup = rollupRepository.findForUpdate(
+                        key.programId(), key.operationName(), key.environment(), key.bucketStart())
+                .orElseGet(() -> {
+                    MwsLatencyRollup created = new MwsLatencyRollup();
+                    created.setProgramId(key.programId());
+                    created.setOperationName(key.operationName());
+                    created.setEnvironment(key.environment());
+                    created.setBucketStart(key.bucketStart());
+                    return created;
+                });
+
+        LatencyHistogram histogram = rollup.getHistogram() != null ?
+                LatencyHistogram.fromByteArray(rollup.getHistogram()) : new LatencyHistogram();
+        histogram.merge(partial.histogram);
+
+        rollup.setCount(histogram.getTotalCount());
+        rollup.setSuccessCount(rollup.getSuccessCount() + partial.successCount);
+        rollup.setSumMillis(histogram.getSum());
+        rollup.setMinMillis(histogram.getMin());
+        rollup.setMaxMillis(histogram.getMax());
+        rollup.setHistogram(histogram.toByteArray());
+        rollup.setUpdatedAt(LocalDateTime.now());
+
+        rollupRepository.save(rollup);
+    }
+
+    private static RollupKey keyOf(UUID programId, String operationName, String environment,
+                                   LocalDateTime completedAt) {
+        return new RollupKey(programId, operationName, environment,
+                completedAt.truncatedTo(ChronoUnit.HOURS));
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.ariesbackendweb.MWS.repositories;
+
+import org.example.ariesbackendweb.MWS.entities.MwsAssertionResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface MwsAssertionResultRepository extends JpaRepository<MwsAssertionResult, Long> {
+
+    @Query("select a from MwsAssertionResult a where a.result.request.id = :testId order by a.id")
+    List<MwsAssertionResult> findByTestId(@Param("testId") UUID testId);
+}
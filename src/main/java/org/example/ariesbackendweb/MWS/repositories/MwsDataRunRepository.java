@@ -0,0 +1,59 @@
+package org.example.ariesbackendweb.MWS.repositories;
+
+import org.example.ariesbackendweb.MWS.entities.MwsDataRun;
+import org.example.ariesbackendweb.MWS.entities.MwsDataRunStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface MwsDataRunRepository extends JpaRepository<MwsDataRun, UUID> {
+
+    List<MwsDataRun> findAllByOrderByCreatedAtDesc(Pageable pageable);
+
+    List<MwsDataRun> findByProgramIdOrderByCreatedAtDesc(UUID programId, Pageable pageable);
+
+    @Query("select r.status from MwsDataRun r where r.id = :id")
+    MwsDataRunStatus findStatusById(@Param("id") UUID id);
+
+    /**
+     * Enregistre l'avancement de la soumission, sans toucher au statut
+     * (qu'une annulation peut modifier en parallèle).
+     */
+    @Modifying
+    @Query("update MwsDataRun r set r.rowsRead = :rowsRead, r.testsSubmitted = :testsSubmitted, " +
+            "r.rowsRejected = :rowsRejected, r.firstRejection = :firstRejection where r.id = :id")
+    int updateProgress(@Param("id") UUID id,
+                       @Param("rowsRead") long rowsRead,
+                       @Param("testsSubmitted") long testsSubmitted,
+                       @Param("rowsRejected") long rowsRejected,
+                       @Param("firstRejection") String firstRejection);
+
+    /**
+     * Termine la soumission, sauf si l'exécution a été annulée entre-temps.
+     */
+    @Modifying
+    @Query("update MwsDataRun r set r.status = :status, r.submittedAt = :now, r.failureReason = :reason " +
+            "where r.id = :id and r.status = :submitting")
+    int complete(@Param("id") UUID id,
+                 @Param("submitting") MwsDataRunStatus submitting,
+                 @Param("status") MwsDataRunStatus status,
+                 @Param("now") LocalDateTime now,
+                 @Param("reason") String reason);
+
+    /**
+     * Clôture les soumissions interrompues par un arrêt de l'application.
+     */
+    @Modifying
+    @Query("update MwsDataRun r set r.status = :failed, r.failureReason = :reason " +
+            "where r.status = :submitting and r.createdAt < :before")
+    int failInterrupted(@Param("submitting") MwsDataRunStatus submitting,
+                        @Param("failed") MwsDataRunStatus failed,
+                        @Param("before") LocalDateTime before,
+                        @Param("reason") String reason);
+}
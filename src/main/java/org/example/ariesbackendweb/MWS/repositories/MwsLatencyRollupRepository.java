@@ -0,0 +1,43 @@
+package org.example.ariesbackendweb.MWS.repositories;
+
+import jakarta.persistence.LockModeType;
+import org.example.ariesbackendweb.MWS.entities.MwsLatencyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface MwsLatencyRollupRepository extends JpaRepository<MwsLatencyRollup, Long> {
+
+    /**
+     * Lit une tranche en la verrouillant, le temps d'y fusionner de nouvelles mesures.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from MwsLatencyRollup r where r.programId = :programId " +
+            "and r.operationName = :operationName and r.environment = :environment " +
+            "and r.bucketStart = :bucketStart")
+    Optional<MwsLatencyRollup> findForUpdate(@Param("programId") UUID programId,
+                                             @Param("operationName") String operationName,
+                                             @Param("environment") String environment,
+                                             @Param("bucketStart") LocalDateTime bucketStart);
+
+    /**
+     * Tranches d'une période, les filtres à null étant ignorés.
+     */
+    @Query("select r from MwsLatencyRollup r " +
+            "where (:programId is null or r.programId = :programId) " +
+            "and (:operationName is null or r.operationName = :operationName) " +
+            "and (:environment is null or r.environment = :environment) " +
+            "and r.bucketStart >= :from and r.bucketStart < :to " +
+            "order by r.bucketStart")
+    List<MwsLatencyRollup> findBuckets(@Param("programId") UUID programId,
+                                       @Param("operationName") String operationName,
+                                       @Param("environment") String environment,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,12 @@
+package org.example.ariesbackendweb.MWS.repositories;
+
+import org.example.ariesbackendweb.MWS.entities.MwsLoadTestSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface MwsLoadTestSummaryRepository extends JpaRepository<MwsLoadTestSummary, Long> {
+
+    Optional<MwsLoadTestSummary> findByRequest_Id(UUID requestId);
+}
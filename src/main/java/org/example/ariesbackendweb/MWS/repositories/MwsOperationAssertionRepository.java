@@ -0,0 +1,21 @@
+package org.example.ariesbackendweb.MWS.repositories;
+
+import org.example.ariesbackendweb.MWS.entities.MwsOperationAssertion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface MwsOperationAssertionRepository extends JpaRepository<MwsOperationAssertion, Long> {
+
+    /**
+     * Assertions d'une opération, dans leur ordre de création.
+     */
+    @Query("select a from MwsOperationAssertion a " +
+            "where a.operation.program.id = :programId and a.operation.operationName = :operationName " +
+            "order by a.id")
+    List<MwsOperationAssertion> findByOperation(@Param("programId") UUID programId,
+                                                @Param("operationName") String operationName);
+}
@@ -6,17 +6,21 @@ import org.example.ariesbackendweb.MWS.entities.MwsProgramEndpoint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
 @Repository
-public interface MwsOperationRepository extends JpaRepository<MwsOperation, UUID> {
+public interface MwsOperationRepository extends JpaRepository<MwsOperation, Long> {
     /**
      * Supprime toutes les opérations d'un programme.
-     * Utilisé lors de la resynchronisation.
      */
     int deleteByProgram(MwsProgram service);
 
+    /**
+     * Opérations d'un programme, fusionnées avec le WSDL lors de la resynchronisation.
+     */
+    List<MwsOperation> findByProgram(MwsProgram service);
+
     /**
      * Recherche une opération par son nom dans un programme donné.
      */
@@ -0,0 +1,17 @@
+package org.example.ariesbackendweb.MWS.repositories;
+
+import org.example.ariesbackendweb.MWS.entities.MwsResponseBaseline;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface MwsResponseBaselineRepository extends JpaRepository<MwsResponseBaseline, UUID> {
+
+    Optional<MwsResponseBaseline> findByProgramIdAndOperationNameAndEnvironment(UUID programId,
+                                                                                String operationName,
+                                                                                String environment);
+
+    List<MwsResponseBaseline> findByProgramId(UUID programId);
+}
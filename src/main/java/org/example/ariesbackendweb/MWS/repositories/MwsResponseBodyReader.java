@@ -0,0 +1,135 @@
+package org.example.ariesbackendweb.MWS.repositories;
+
+import org.example.ariesbackendweb.common.persistence.CompressedTextConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Lecture en flux du corps de réponse SOAP d'un test, directement depuis la
+ * colonne binaire compressée vers le flux de sortie HTTP.
+ *
+ * Contrairement au chargement de l'entité {@code MwsTestResult}, le texte
+ * n'est jamais matérialisé en entier sous forme de String : il est décompressé
+ * par blocs au fil de l'écriture.
+ */
+@Repository
+public class MwsResponseBodyReader {
+
+    private static final String SELECT_BODY =
+            "SELECT response_body_z, response_body FROM mws_test_result WHERE request_id = ? LIMIT 1";
+
+    private static final String SELECT_BODY_BY_RESULT =
+            "SELECT response_body_z, response_body FROM mws_test_result WHERE id = ?";
+
+    /**
+     * Traitement appliqué au corps de réponse pendant sa lecture.
+     */
+    @FunctionalInterface
+    public interface BodyCallback<T> {
+        T read(Reader body) throws IOException;
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Écrit le corps de réponse du test dans le flux fourni, en UTF-8.
+     *
+     * @param testId L'UUID du test
+     * @param out    Le flux de destination
+     * @return true si un résultat existe pour ce test, false sinon
+     */
+    public boolean writeResponseBody(UUID testId, OutputStream out) {
+        Boolean found = jdbcTemplate.query(SELECT_BODY, rs -> {
+            if (!rs.next()) {
+                return false;
+            }
+
+            try {
+                InputStream compressed = rs.getBinaryStream("response_body_z");
+                if (compressed != null) {
+                    try (InputStream body = CompressedTextConverter.openDecompressedStream(compressed)) {
+                        body.transferTo(out);
+                    }
+                } else {
+                    // Résultat antérieur à la compression
+                    Reader legacy = rs.getCharacterStream("response_body");
+                    if (legacy != null) {
+                        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                        legacy.transferTo(writer);
+                        writer.flush();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        }, toBytes(testId));
+
+        return Boolean.TRUE.equals(found);
+    }
+
+    /**
+     * Lit en flux le corps de réponse d'un résultat : le callback reçoit le
+     * texte décompressé au fil de la lecture, jamais matérialisé en entier.
+     * Le flux n'est valide que pendant l'appel du callback.
+     *
+     * @param resultId L'identifiant du résultat
+     * @param callback Le traitement à appliquer au corps de réponse
+     * @return La valeur du callback, vide si le résultat n'existe pas ou n'a pas de corps de réponse
+     */
+    public <T> Optional<T> readResponseBody(long resultId, BodyCallback<T> callback) {
+        return jdbcTemplate.query(SELECT_BODY_BY_RESULT, rs -> {
+            if (!rs.next()) {
+                return Optional.<T>empty();
+            }
+
+            try {
+                InputStream compressed = rs.getBinaryStream("response_body_z");
+                if (compressed != null) {
+                    try (Reader body = new InputStreamReader(
+                            CompressedTextConverter.openDecompressedStream(compressed), StandardCharsets.UTF_8)) {
+                        return Optional.ofNullable(callback.read(body));
+                    }
+                }
+                // Résultat antérieur à la compression
+                Reader legacy = rs.getCharacterStream("response_body");
+                if (legacy == null) {
+                    return Optional.<T>empty();
+                }
+                try (legacy) {
+                    return Optional.ofNullable(callback.read(legacy));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, resultId);
+    }
+
+    /**
+     * Les colonnes UUID sont stockées par Hibernate en BINARY(16) sous MySQL.
+     */
+    private static byte[] toBytes(UUID uuid) {
+        byte[] bytes = new byte[16];
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (msb >>> (8 * (7 - i)));
+            bytes[8 + i] = (byte) (lsb >>> (8 * (7 - i)));
+        }
+        return bytes;
+    }
+}
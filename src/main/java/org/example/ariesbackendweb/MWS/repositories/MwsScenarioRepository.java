@@ -0,0 +1,12 @@
+package org.example.ariesbackendweb.MWS.repositories;
+
+import org.example.ariesbackendweb.MWS.entities.MwsScenario;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface MwsScenarioRepository extends JpaRepository<MwsScenario, UUID> {
+
+    List<MwsScenario> findByProgramId(UUID programId);
+}
@@ -0,0 +1,34 @@
+package org.example.ariesbackendweb.MWS.repositories;
+
+import org.example.ariesbackendweb.MWS.entities.MwsScenarioRun;
+import org.example.ariesbackendweb.MWS.entities.MwsScenarioRunStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface MwsScenarioRunRepository extends JpaRepository<MwsScenarioRun, UUID> {
+
+    List<MwsScenarioRun> findByScenarioIdOrderByStartedAtDesc(UUID scenarioId, Pageable pageable);
+
+    boolean existsByScenarioIdAndStatus(UUID scenarioId, MwsScenarioRunStatus status);
+
+    void deleteByScenarioId(UUID scenarioId);
+
+    /**
+     * Clôture les exécutions restées en cours lors d'un arrêt de l'application.
+     */
+    @Modifying
+    @Query("update MwsScenarioRun r set r.status = :failed, r.completedAt = :now, r.failureReason = :reason " +
+            "where r.status = :running and r.startedAt < :before")
+    int failInterrupted(@Param("running") MwsScenarioRunStatus running,
+                        @Param("failed") MwsScenarioRunStatus failed,
+                        @Param("before") LocalDateTime before,
+                        @Param("now") LocalDateTime now,
+                        @Param("reason") String reason);
+}
@@ -0,0 +1,7 @@
+package org.example.ariesbackendweb.MWS.repositories;
+
+import org.example.ariesbackendweb.MWS.entities.MwsScenarioStepRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface MwsScenarioStepRunRepository extends JpaRepository<MwsScenarioStepRun, Long> {
+}
@@ -0,0 +1,30 @@
+package org.example.ariesbackendweb.MWS.repositories;
+
+import org.example.ariesbackendweb.MWS.dtos.MwsTestHistoryItem;
+import org.example.ariesbackendweb.MWS.entities.MwsTestStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Requête de l'historique des tests, construite selon les filtres renseignés
+ * (voir {@link MwsTestHistoryQueryImpl}). Rattachée à {@link MwsTestRepository}.
+ */
+public interface MwsTestHistoryQuery {
+
+    /**
+     * Historique des tests, du plus récent au plus ancien, paginé par clé :
+     * la page suivante commence strictement après le couple (createdAt, id)
+     * du dernier élément de la page précédente, quelle que soit la profondeur.
+     * Les filtres à null sont ignorés.
+     *
+     * @param afterCreatedAt createdAt du dernier élément de la page précédente, ou null
+     * @param afterId        id du dernier élément de la page précédente, ou null
+     * @param limit          Nombre maximal d'éléments retournés
+     */
+    List<MwsTestHistoryItem> findHistory(UUID programId, String operationName, String environment,
+                                         MwsTestStatus status, UUID scheduleId,
+                                         LocalDateTime from, LocalDateTime to,
+                                         LocalDateTime afterCreatedAt, UUID afterId, int limit);
+}
@@ -0,0 +1,84 @@
+package org.example.ariesbackendweb.MWS.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.example.ariesbackendweb.MWS.dtos.MwsTestHistoryItem;
+import org.example.ariesbackendweb.MWS.entities.MwsTestRequest;
+import org.example.ariesbackendweb.MWS.entities.MwsTestStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Historique des tests, une requête par combinaison de filtres.
+ *
+ * Seuls les filtres renseignés deviennent des prédicats : une condition
+ * "(:x is null or colonne = :x)" empêche MySQL de parcourir les index
+ * (filtre, created_at, id) par plage. Le curseur s'écrit
+ * "created_at <= :a and (created_at < :a or id < :id)" : la première
+ * condition borne le parcours de l'index, la seconde n'écarte que les
+ * tests de même created_at déjà retournés.
+ */
+public class MwsTestHistoryQueryImpl implements MwsTestHistoryQuery {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<MwsTestHistoryItem> findHistory(UUID programId, String operationName, String environment,
+                                                MwsTestStatus status, UUID scheduleId,
+                                                LocalDateTime from, LocalDateTime to,
+                                                LocalDateTime afterCreatedAt, UUID afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<MwsTestHistoryItem> query = cb.createQuery(MwsTestHistoryItem.class);
+        Root<MwsTestRequest> test = query.from(MwsTestRequest.class);
+        Path<UUID> id = test.get("id");
+        Path<UUID> program = test.get("program").get("id");
+        Path<LocalDateTime> createdAt = test.get("createdAt");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (programId != null) {
+            predicates.add(cb.equal(program, programId));
+        }
+        if (operationName != null) {
+            predicates.add(cb.equal(test.get("operationName"), operationName));
+        }
+        if (environment != null) {
+            predicates.add(cb.equal(test.get("environment"), environment));
+        }
+        if (status != null) {
+            predicates.add(cb.equal(test.get("status"), status));
+        }
+        if (scheduleId != null) {
+            predicates.add(cb.equal(test.get("scheduleId"), scheduleId));
+        }
+        if (from != null) {
+            predicates.add(cb.greaterThanOrEqualTo(createdAt, from));
+        }
+        if (to != null) {
+            predicates.add(cb.lessThan(createdAt, to));
+        }
+        if (afterCreatedAt != null && afterId != null) {
+            predicates.add(cb.lessThanOrEqualTo(createdAt, afterCreatedAt));
+            predicates.add(cb.or(cb.lessThan(createdAt, afterCreatedAt), cb.lessThan(id, afterId)));
+        }
+
+        query.select(cb.construct(MwsTestHistoryItem.class,
+                        id, program, test.get("batchId"), test.get("scheduleId"), test.get("serviceName"),
+                        test.get("operationName"), test.get("environment"), test.get("status"),
+                        test.get("loadIterations"), createdAt, test.get("completedAt")))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.desc(createdAt), cb.desc(id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
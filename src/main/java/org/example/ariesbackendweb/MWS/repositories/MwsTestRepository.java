@@ -1,10 +1,112 @@
 package org.example.ariesbackendweb.MWS.repositories;
 
+import org.example.ariesbackendweb.MWS.dtos.MwsBatchStatusCount;
+import org.example.ariesbackendweb.MWS.dtos.MwsRecoverableTest;
+import org.example.ariesbackendweb.MWS.dtos.MwsTestStatusSnapshot;
 import org.example.ariesbackendweb.MWS.entities.MwsProgram;
 import org.example.ariesbackendweb.MWS.entities.MwsTestRequest;
+import org.example.ariesbackendweb.MWS.entities.MwsTestStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
-public interface MwsTestRepository extends JpaRepository<MwsTestRequest, UUID> {
+public interface MwsTestRepository extends JpaRepository<MwsTestRequest, UUID>, MwsTestHistoryQuery {
+
+    /**
+     * Clôture en une seule requête un ensemble de demandes de test.
+     */
+    @Modifying
+    @Query("update MwsTestRequest t set t.status = :status, t.completedAt = :completedAt, t.deadlineAt = null " +
+            "where t.id in :ids")
+    int completeAll(@Param("ids") List<UUID> ids,
+                    @Param("status") MwsTestStatus status,
+                    @Param("completedAt") LocalDateTime completedAt);
+
+    @Query("select new org.example.ariesbackendweb.MWS.dtos.MwsTestStatusSnapshot(" +
+            "t.id, t.serviceName, t.operationName, t.environment, t.status, t.createdAt, t.completedAt) " +
+            "from MwsTestRequest t where t.id = :id")
+    Optional<MwsTestStatusSnapshot> findStatusSnapshotById(@Param("id") UUID id);
+
+    Optional<MwsTestRequest> findByIdempotencyKey(String idempotencyKey);
+
+    boolean existsByScheduleIdAndStatusIn(UUID scheduleId, List<MwsTestStatus> statuses);
+
+    /**
+     * Tests identiques créés depuis {@code since}, hors échecs et tirs de charge,
+     * du plus récent au plus ancien.
+     */
+    @Query("select new org.example.ariesbackendweb.MWS.dtos.MwsTestStatusSnapshot(" +
+            "t.id, t.serviceName, t.operationName, t.environment, t.status, t.createdAt, t.completedAt) " +
+            "from MwsTestRequest t " +
+            "where t.program.id = :programId and t.operationName = :operationName " +
+            "and t.environment = :environment and t.requestHash = :requestHash " +
+            "and t.createdAt >= :since and t.status <> org.example.ariesbackendweb.MWS.entities.MwsTestStatus.FAILED " +
+            "and t.loadIterations is null " +
+            "order by t.createdAt desc")
+    List<MwsTestStatusSnapshot> findReusable(@Param("programId") UUID programId,
+                                             @Param("operationName") String operationName,
+                                             @Param("environment") String environment,
+                                             @Param("requestHash") String requestHash,
+                                             @Param("since") LocalDateTime since,
+                                             Pageable pageable);
+
+    @Query("select t.status from MwsTestRequest t where t.id = :id")
+    Optional<MwsTestStatus> findStatusById(@Param("id") UUID id);
+
+    /**
+     * Nombre de tests d'un lot par statut.
+     */
+    @Query("select t.status as status, count(t) as count from MwsTestRequest t " +
+            "where t.batchId = :batchId group by t.status")
+    List<MwsBatchStatusCount> countByStatusForBatch(@Param("batchId") UUID batchId);
+
+    long countByBatchIdAndStatusIn(UUID batchId, Collection<MwsTestStatus> statuses);
+
+    /**
+     * Premiers tests d'un statut créés avant {@code before}, dans l'ordre de
+     * création : parcours de l'index idx_test_status_created (status, created_at, id).
+     */
+    @Query("select new org.example.ariesbackendweb.MWS.dtos.MwsRecoverableTest(" +
+            "t.id, t.status, t.priority, t.operationName, t.loadIterations, t.deadlineAt, t.createdAt) " +
+            "from MwsTestRequest t " +
+            "where t.status = :status and t.createdAt < :before " +
+            "order by t.createdAt, t.id")
+    List<MwsRecoverableTest> findRecoverable(@Param("status") MwsTestStatus status,
+                                             @Param("before") LocalDateTime before,
+                                             Pageable pageable);
+
+    /**
+     * Page suivante de {@link #findRecoverable(MwsTestStatus, LocalDateTime, Pageable)},
+     * après le couple (createdAt, id) du dernier test de la page précédente.
+     * La condition "createdAt >= :afterCreatedAt" borne le parcours de l'index ;
+     * la seconde n'écarte que les tests de même createdAt déjà retournés.
+     */
+    @Query("select new org.example.ariesbackendweb.MWS.dtos.MwsRecoverableTest(" +
+            "t.id, t.status, t.priority, t.operationName, t.loadIterations, t.deadlineAt, t.createdAt) " +
+            "from MwsTestRequest t " +
+            "where t.status = :status and t.createdAt < :before " +
+            "and t.createdAt >= :afterCreatedAt " +
+            "and (t.createdAt > :afterCreatedAt or t.id > :afterId) " +
+            "order by t.createdAt, t.id")
+    List<MwsRecoverableTest> findRecoverableAfter(@Param("status") MwsTestStatus status,
+                                                  @Param("before") LocalDateTime before,
+                                                  @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                  @Param("afterId") UUID afterId,
+                                                  Pageable pageable);
+
+    /**
+     * Repasse au statut QUEUED les tests donnés, s'ils ont encore l'un des statuts attendus.
+     */
+    @Modifying
+    @Query("update MwsTestRequest t set t.status = org.example.ariesbackendweb.MWS.entities.MwsTestStatus.QUEUED, " +
+            "t.deadlineAt = null where t.id in :ids and t.status in :statuses")
+    int requeueAll(@Param("ids") List<UUID> ids, @Param("statuses") List<MwsTestStatus> statuses);
 }
@@ -1,9 +1,52 @@
 package org.example.ariesbackendweb.MWS.repositories;
 
+import org.example.ariesbackendweb.MWS.dtos.MwsBatchErrorCount;
+import org.example.ariesbackendweb.MWS.dtos.MwsBatchResultStats;
+import org.example.ariesbackendweb.MWS.dtos.MwsTestResultMetadata;
 import org.example.ariesbackendweb.MWS.entities.MwsTestResult;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.UUID;
 
-public interface MwsTestResultRepository  extends JpaRepository<MwsTestResult, UUID> {
+public interface MwsTestResultRepository  extends JpaRepository<MwsTestResult, Long> {
+
+    /**
+     * Métadonnées du résultat d'un test, sans charger le corps de réponse.
+     * Pour les résultats antérieurs à la compression, la taille est celle de l'ancienne colonne texte.
+     */
+    @Query("select r.success as success, r.httpStatus as httpStatus, r.errorMessage as errorMessage, " +
+            "r.durationMillis as durationMillis, r.timeTaken as timeTaken, r.executedBy as executedBy, " +
+            "r.agentVersion as agentVersion, " +
+            "coalesce(r.responseBodySize, cast(length(r.legacyResponseBody) as Long)) as responseBodySize, " +
+            "r.baselineMatch as baselineMatch, r.baselineDiff as baselineDiff, " +
+            "r.assertionsPassed as assertionsPassed, r.assertionsFailed as assertionsFailed " +
+            "from MwsTestResult r where r.request.id = :testId")
+    List<MwsTestResultMetadata> findMetadataByRequestId(@Param("testId") UUID testId);
+
+    /**
+     * Identifiant du résultat d'un test, sans charger l'entité.
+     */
+    @Query("select r.id from MwsTestResult r where r.request.id = :testId")
+    List<Long> findIdsByRequestId(@Param("testId") UUID testId);
+
+    /**
+     * Agrégats des résultats des tests d'un lot : nombre, succès et durées.
+     */
+    @Query("select count(r) as results, coalesce(sum(case when r.success = true then 1 else 0 end), 0) as succeeded, " +
+            "avg(r.durationMillis) as avgDurationMillis, min(r.durationMillis) as minDurationMillis, " +
+            "max(r.durationMillis) as maxDurationMillis " +
+            "from MwsTestResult r where r.request.batchId = :batchId")
+    MwsBatchResultStats aggregateByBatchId(@Param("batchId") UUID batchId);
+
+    /**
+     * Messages d'erreur les plus fréquents parmi les résultats en échec d'un lot.
+     */
+    @Query("select r.errorMessage as message, count(r) as count from MwsTestResult r " +
+            "where r.request.batchId = :batchId and r.success = false " +
+            "group by r.errorMessage order by count(r) desc")
+    List<MwsBatchErrorCount> findTopErrorsByBatchId(@Param("batchId") UUID batchId, Pageable pageable);
 }
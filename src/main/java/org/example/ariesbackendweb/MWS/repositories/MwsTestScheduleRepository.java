@@ -0,0 +1,25 @@
+package org.example.ariesbackendweb.MWS.repositories;
+
+import jakarta.persistence.LockModeType;
+import org.example.ariesbackendweb.MWS.entities.MwsTestSchedule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface MwsTestScheduleRepository extends JpaRepository<MwsTestSchedule, UUID> {
+
+    List<MwsTestSchedule> findByEnabledTrue();
+
+    /**
+     * Lit une planification en la verrouillant, le temps de traiter un
+     * déclenchement : une seule instance à la fois décide de soumettre un test.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from MwsTestSchedule s where s.id = :id")
+    Optional<MwsTestSchedule> findForUpdate(@Param("id") UUID id);
+}
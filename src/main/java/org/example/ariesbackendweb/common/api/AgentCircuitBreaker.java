@@ -0,0 +1,130 @@
+package org.example.ariesbackendweb.common.api;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Disjoncteur associé à un agent.
+ *
+ * - CLOSED : les appels passent ; après {@code failureThreshold} échecs
+ *   transitoires consécutifs, le disjoncteur s'ouvre.
+ * - OPEN : les appels sont refusés immédiatement pendant {@code openDurationMillis},
+ *   sans attendre un timeout réseau.
+ * - HALF_OPEN : un seul appel de test est autorisé ; s'il réussit le disjoncteur
+ *   se referme, sinon il se rouvre pour une nouvelle période.
+ */
+@Slf4j
+public class AgentCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String agentUrl;
+    private final int failureThreshold;
+    private final long openDurationMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public AgentCircuitBreaker(String agentUrl, int failureThreshold, long openDurationMillis) {
+        this.agentUrl = agentUrl;
+        this.failureThreshold = failureThreshold;
+        this.openDurationMillis = openDurationMillis;
+    }
+
+    /**
+     * Indique, sans modifier l'état, si un appel serait actuellement autorisé.
+     */
+    public synchronized boolean isCallPermitted() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> System.currentTimeMillis() - openedAt >= openDurationMillis;
+            case HALF_OPEN -> !probeInFlight;
+        };
+    }
+
+    /**
+     * Demande l'autorisation d'effectuer un appel.
+     * Un disjoncteur ouvert dont la période est écoulée passe en HALF_OPEN
+     * et autorise un unique appel de test.
+     *
+     * @return true si l'appel peut être effectué
+     */
+    public synchronized boolean tryAcquirePermission() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() - openedAt < openDurationMillis) {
+                    return false;
+                }
+                log.info("Disjoncteur de l'agent {} semi-ouvert, envoi d'un appel de test", agentUrl);
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                return true;
+            case HALF_OPEN:
+            default:
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    /**
+     * Enregistre un appel réussi (l'agent a répondu, quel que soit le résultat du test).
+     */
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("Disjoncteur de l'agent {} refermé", agentUrl);
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    /**
+     * Enregistre un échec transitoire (erreur réseau, agent indisponible).
+     */
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        probeInFlight = false;
+
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                log.warn("Disjoncteur de l'agent {} ouvert après {} échec(s) consécutif(s)",
+                        agentUrl, consecutiveFailures);
+            }
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Libère la permission d'un appel qui n'a produit ni succès ni échec
+     * transitoire (par exemple une erreur fonctionnelle de l'agent).
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            // L'agent a répondu : il est joignable
+            onSuccess();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Délai avant qu'un appel de test puisse être tenté, en millisecondes (0 si fermé).
+     */
+    public synchronized long getRemainingOpenMillis() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, openDurationMillis - (System.currentTimeMillis() - openedAt));
+    }
+}
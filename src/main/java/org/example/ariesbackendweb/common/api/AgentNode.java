@@ -0,0 +1,80 @@
+package org.example.ariesbackendweb.common.api;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Un agent du pool, avec son client HTTP, son disjoncteur et son état de charge et de santé.
+ *
+ * Tous les appels ont un délai de connexion et un délai de réponse : un agent
+ * bloqué ne retient pas indéfiniment le thread (et la place du dispatcher)
+ * qui l'appelle. Les clients HTTP partagent les connexions de l'agent et ne
+ * diffèrent que par leur délai de réponse.
+ */
+@Getter
+public class AgentNode {
+
+    private final String url;
+    private final String wsUrl;
+    private final RestClient restClient;
+    private final AgentCircuitBreaker circuitBreaker;
+
+    @Getter(AccessLevel.NONE)
+    private final HttpClient httpClient;
+
+    // Clients par délai de réponse (timeouts des tests : peu de valeurs distinctes)
+    @Getter(AccessLevel.NONE)
+    private final Map<Long, RestClient> restClientsByReadTimeout = new ConcurrentHashMap<>();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean healthy = true;
+
+    public AgentNode(String url, String wsUrl, AgentCircuitBreaker circuitBreaker, AgentProperties.Http http) {
+        this.url = url;
+        this.wsUrl = wsUrl;
+        this.circuitBreaker = circuitBreaker;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(http.getConnectTimeoutMillis()))
+                .build();
+        this.restClient = getRestClient(http.getReadTimeoutMillis());
+    }
+
+    /**
+     * Client HTTP de l'agent qui abandonne l'appel si la réponse n'arrive pas
+     * dans le délai donné.
+     */
+    public RestClient getRestClient(long readTimeoutMillis) {
+        return restClientsByReadTimeout.computeIfAbsent(readTimeoutMillis, timeout -> {
+            JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+            requestFactory.setReadTimeout(Duration.ofMillis(timeout));
+            return RestClient.builder()
+                    .baseUrl(url)
+                    .requestFactory(requestFactory)
+                    .build();
+        });
+    }
+
+    /**
+     * Nombre de requêtes actuellement en cours sur cet agent.
+     */
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    void setHealthy(boolean healthy) {
+        this.healthy = healthy;
+    }
+
+    @Override
+    public String toString() {
+        return url;
+    }
+}
@@ -0,0 +1,200 @@
+package org.example.ariesbackendweb.common.api;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool des agents d'exécution.
+ *
+ * Chaque appel à un agent commence par {@link #acquire()}, qui choisit l'agent
+ * sain ayant le moins de requêtes en cours (least outstanding requests), et se
+ * termine par {@link #release(AgentNode)}. À charge égale, les agents sont
+ * départagés à tour de rôle pour répartir les appels.
+ *
+ * La santé des agents est vérifiée périodiquement via leur endpoint
+ * /actuator/health, et un agent est aussi marqué indisponible dès qu'un appel
+ * échoue pour une raison réseau. Ajouter un agent au pool suffit donc à
+ * augmenter la capacité d'exécution.
+ *
+ * Chaque agent possède en outre un {@link AgentCircuitBreaker} : un agent dont
+ * le disjoncteur est ouvert n'est plus sélectionné, et si tous les disjoncteurs
+ * sont ouverts {@link #acquire()} lève immédiatement une
+ * {@link AgentUnavailableException} au lieu d'attendre un échec réseau.
+ */
+@Component
+@Slf4j
+public class AgentPool {
+
+    @Autowired
+    private AgentProperties properties;
+
+    private List<AgentNode> agents = List.of();
+    private final AtomicInteger roundRobin = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        List<AgentNode> nodes = new ArrayList<>();
+        for (String url : properties.getEffectiveUrls()) {
+            String baseUrl = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+            AgentCircuitBreaker circuitBreaker = new AgentCircuitBreaker(baseUrl,
+                    properties.getCircuit().getFailureThreshold(),
+                    properties.getCircuit().getOpenDurationMillis());
+            nodes.add(new AgentNode(baseUrl, baseUrl + properties.getWsPath(), circuitBreaker, properties.getHttp()));
+        }
+
+        if (nodes.isEmpty()) {
+            throw new IllegalStateException(
+                    "Aucun agent configuré. Renseignez agent.urls dans la configuration.");
+        }
+
+        agents = Collections.unmodifiableList(nodes);
+        log.info("Pool d'agents initialisé: {}", agents);
+    }
+
+    /**
+     * Réserve l'agent sain le moins chargé parmi ceux dont le disjoncteur autorise un appel.
+     * <p>
+     * Si aucun agent n'est déclaré sain, l'agent le moins chargé dont le disjoncteur
+     * est fermé est tout de même retourné : l'appel échouera rapidement s'il est
+     * réellement indisponible.
+     *
+     * @return L'agent réservé, à libérer avec {@link #release(AgentNode)}
+     * @throws AgentUnavailableException Si tous les disjoncteurs sont ouverts
+     */
+    public AgentNode acquire() {
+        // Plusieurs essais : un autre thread peut avoir pris l'unique appel
+        // de test d'un disjoncteur semi-ouvert entre la sélection et la réservation
+        for (int attempt = 0; attempt < agents.size(); attempt++) {
+            AgentNode selected = selectLeastLoaded(true);
+            if (selected == null) {
+                selected = selectLeastLoaded(false);
+            }
+            if (selected == null) {
+                break;
+            }
+
+            if (selected.getCircuitBreaker().tryAcquirePermission()) {
+                selected.getInFlight().incrementAndGet();
+                return selected;
+            }
+        }
+
+        long retryAfter = agents.stream()
+                .mapToLong(agent -> agent.getCircuitBreaker().getRemainingOpenMillis())
+                .min()
+                .orElse(0);
+
+        throw new AgentUnavailableException(
+                "Aucun agent disponible : tous les disjoncteurs sont ouverts. " +
+                        "Nouvelle tentative possible dans " + retryAfter + " ms.",
+                Math.max(retryAfter, 1000));
+    }
+
+    /**
+     * Libère un agent réservé par {@link #acquire()}.
+     */
+    public void release(AgentNode agent) {
+        agent.getInFlight().decrementAndGet();
+    }
+
+    /**
+     * Signale un appel réussi sur un agent.
+     */
+    public void reportSuccess(AgentNode agent) {
+        agent.getCircuitBreaker().onSuccess();
+        agent.setHealthy(true);
+    }
+
+    /**
+     * Signale qu'un agent a répondu, mais avec une erreur fonctionnelle
+     * qui ne remet pas en cause sa disponibilité.
+     */
+    public void reportReachable(AgentNode agent) {
+        agent.getCircuitBreaker().onIgnored();
+    }
+
+    /**
+     * Signale un échec transitoire (réseau, agent indisponible) sur un agent.
+     * L'agent est retiré de la rotation jusqu'à la prochaine vérification de
+     * santé réussie, et l'échec est comptabilisé par son disjoncteur.
+     */
+    public void reportFailure(AgentNode agent) {
+        if (agent.isHealthy()) {
+            log.warn("Agent {} marqué indisponible suite à une erreur de communication", agent);
+            agent.setHealthy(false);
+        }
+        agent.getCircuitBreaker().onFailure();
+    }
+
+    public List<AgentNode> getAgents() {
+        return agents;
+    }
+
+    /**
+     * Indique si au moins un agent du pool est disponible.
+     */
+    public boolean hasHealthyAgent() {
+        return agents.stream().anyMatch(AgentNode::isHealthy);
+    }
+
+    /**
+     * Vérifie périodiquement la santé de chaque agent.
+     */
+    @Scheduled(fixedDelayString = "${agent.health-check-interval-millis:10000}")
+    public void checkHealth() {
+        for (AgentNode agent : agents) {
+            boolean healthy = ping(agent);
+            if (healthy != agent.isHealthy()) {
+                log.info("Agent {} désormais {}", agent, healthy ? "disponible" : "indisponible");
+            }
+            agent.setHealthy(healthy);
+        }
+    }
+
+    private boolean ping(AgentNode agent) {
+        try {
+            HttpStatusCode status = agent.getRestClient(properties.getHttp().getSubmitTimeoutMillis()).get()
+                    .uri("/actuator/health")
+                    .retrieve()
+                    .onStatus(HttpStatusCode::isError, (request, response) -> {
+                        log.debug("Health check de l'agent {} a retourné: {}", agent, response.getStatusCode());
+                    })
+                    .toBodilessEntity()
+                    .getStatusCode();
+            return status.is2xxSuccessful();
+        } catch (RestClientException e) {
+            log.debug("Agent {} non disponible: {}", agent, e.getMessage());
+            return false;
+        }
+    }
+
+    private AgentNode selectLeastLoaded(boolean healthyOnly) {
+        int size = agents.size();
+        int offset = Math.floorMod(roundRobin.getAndIncrement(), size);
+
+        AgentNode best = null;
+        for (int i = 0; i < size; i++) {
+            AgentNode candidate = agents.get((offset + i) % size);
+            if (!candidate.getCircuitBreaker().isCallPermitted()) {
+                continue;
+            }
+            if (healthyOnly && !candidate.isHealthy()) {
+                continue;
+            }
+            if (best == null || candidate.getInFlightCount() < best.getInFlightCount()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,134 @@
+package org.example.ariesbackendweb.common.api;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration du pool d'agents d'exécution.
+ */
+@Data
+@Component
+@ConfigurationProperties("agent")
+public class AgentProperties {
+
+    /**
+     * URLs de base des agents du pool (ex: http://agent-1:8081/api/v1).
+     */
+    private List<String> urls = new ArrayList<>();
+
+    /**
+     * URL d'un agent unique, conservée pour compatibilité avec l'ancienne configuration.
+     * Utilisée uniquement si {@code agent.urls} est vide.
+     */
+    private String url;
+
+    /**
+     * Chemin de l'endpoint WebSocket exposé par chaque agent, relatif à son URL de base.
+     */
+    private String wsPath = "/agent-websocket";
+
+    /**
+     * Intervalle entre deux vérifications de santé des agents, en millisecondes.
+     */
+    private long healthCheckIntervalMillis = 10000;
+
+    private Circuit circuit = new Circuit();
+
+    private Retry retry = new Retry();
+
+    private Callback callback = new Callback();
+
+    private Http http = new Http();
+
+    public List<String> getEffectiveUrls() {
+        if (!urls.isEmpty()) {
+            return urls;
+        }
+        return url != null ? List.of(url) : List.of();
+    }
+
+    @Data
+    public static class Circuit {
+
+        /**
+         * Nombre d'échecs transitoires consécutifs qui ouvrent le disjoncteur d'un agent.
+         */
+        private int failureThreshold = 5;
+
+        /**
+         * Durée pendant laquelle un disjoncteur ouvert refuse les appels, en millisecondes.
+         */
+        private long openDurationMillis = 10000;
+    }
+
+    @Data
+    public static class Http {
+
+        /**
+         * Délai maximal d'établissement de la connexion à un agent, en millisecondes.
+         */
+        private long connectTimeoutMillis = 2000;
+
+        /**
+         * Délai maximal d'attente de la réponse d'un agent, en millisecondes
+         * (découverte WSDL, templates SOAP, lancement MEC).
+         */
+        private long readTimeoutMillis = 60000;
+
+        /**
+         * Délai maximal d'attente de la réponse d'un agent pour les appels qui
+         * n'attendent qu'un accusé de réception (soumission asynchrone, health check).
+         */
+        private long submitTimeoutMillis = 5000;
+
+        /**
+         * Marge ajoutée au timeout d'un test pour l'attente de la réponse de
+         * l'agent en mode synchrone : au-delà, l'appel est abandonné et le
+         * worker libéré.
+         */
+        private long executeGraceMillis = 30000;
+    }
+
+    @Data
+    public static class Callback {
+
+        /**
+         * Si true, les tests MWS sont soumis à l'agent sans attendre leur exécution :
+         * l'agent répond 202 puis renvoie le résultat sur l'endpoint de callback.
+         */
+        private boolean enabled = false;
+
+        /**
+         * URL de base du backend, telle que joignable par les agents (ex: http://backend:8080/api/v1).
+         */
+        private String baseUrl;
+
+        /**
+         * Marge ajoutée au timeout du test avant de considérer que le callback ne viendra plus.
+         */
+        private long graceMillis = 30000;
+    }
+
+    @Data
+    public static class Retry {
+
+        /**
+         * Nombre maximal de tentatives pour un appel en échec transitoire (première tentative incluse).
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * Attente avant la première nouvelle tentative, doublée à chaque essai.
+         */
+        private long initialBackoffMillis = 200;
+
+        /**
+         * Attente maximale entre deux tentatives.
+         */
+        private long maxBackoffMillis = 5000;
+    }
+}
@@ -1,18 +1,17 @@
 package org.example.ariesbackendweb.common.api;
 
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.ariesbackendweb.MEC.DTOs.LaunchAgentTestDto;
+import org.example.ariesbackendweb.MWS.assertions.MwsAssertionEngine;
 import org.example.ariesbackendweb.MWS.dtos.agent.MwsAgentTestRequestDto;
 import org.example.ariesbackendweb.MWS.dtos.agent.MwsAgentTestResult;
 import org.example.ariesbackendweb.MWS.entities.*;
+import org.example.ariesbackendweb.MWS.execution.MwsExecutionProperties;
 import org.example.ariesbackendweb.MWS.repositories.MwsOperationRepository;
 import org.example.ariesbackendweb.MWS.repositories.MwsProgramRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.core.io.ByteArrayResource;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.ClientHttpResponse;
@@ -20,28 +19,50 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestClient;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 
 /**
- * Classe pour la communication avec l'agent, exploitera le repository/apiClient
+ * Classe pour la communication avec les agents, exploitera le repository/apiClient.
+ *
+ * Chaque appel est routé vers l'agent sain le moins chargé du {@link AgentPool}.
  * */
 @Service
-@AllArgsConstructor
 @Slf4j
 public class AgentService {
 
-    @Value("${agent.url}")
-    private String agentBaseUrl;
+    @Autowired
+    private AgentPool agentPool;
+
+    @Autowired
+    private AgentProperties agentProperties;
+
+    @Autowired
+    private AgentWsService agentWsService;
 
-    private RestClient restClient;
+    @Autowired
+    private MwsExecutionProperties executionProperties;
 
     @Autowired
     private MwsProgramRepository programRepository;
@@ -49,26 +70,72 @@ public class AgentService {
     @Autowired
     private MwsOperationRepository operationRepository;
 
-    
-    public AgentService (){
-        this.restClient = RestClient.builder()
-                .baseUrl(agentBaseUrl)
-                .build();
-    }
+    @Autowired
+    private MwsAssertionEngine assertionEngine;
 
+    // Agents réservés par les tests soumis en mode asynchrone, par sessionId
+    private final Map<String, AgentNode> pendingCallbacks = new ConcurrentHashMap<>();
 
-    public void launchMecTestAgent(LaunchAgentTestDto data) throws IOException {
+    /**
+     * Lance un test MEC sur un agent du pool.
+     *
+     * Le canal WebSocket (logs, statuts) est ouvert sur le même agent que celui
+     * qui exécute le test, avant l'envoi du fichier de dépôt.
+     *
+     * @param data        Les paramètres du test MEC
+     * @param logFileName Le fichier dans lequel écrire les logs reçus de l'agent
+     */
+    public void launchMecTestAgent(LaunchAgentTestDto data, String logFileName)
+            throws IOException, ExecutionException, InterruptedException {
         MultiValueMap<String, Object> body = getBody(data);
 
-        Map<?, ?> response = restClient.post()
-                .uri(agentBaseUrl + "/mec/launch")
-                .contentType(MediaType.MULTIPART_FORM_DATA)
-                .body(body)
-                .retrieve()
-                .body(Map.class);
+        AgentNode agent = agentPool.acquire();
+        try {
+            // on connecte sur les voies ws de l'agent choisi
+            agentWsService.connect(data.getSessionId().toString(), logFileName, agent.getWsUrl());
 
-        assert response != null;
-        log.info(response.toString());
+            Map<?, ?> response = agent.getRestClient().post()
+                    .uri(agent.getUrl() + "/mec/launch")
+                    .contentType(MediaType.MULTIPART_FORM_DATA)
+                    .body(body)
+                    .retrieve()
+                    .body(Map.class);
+
+            assert response != null;
+            agentPool.reportSuccess(agent);
+            log.info("Test MEC lancé sur l'agent {}: {}", agent, response);
+        } catch (ResourceAccessException | IOException | ExecutionException e) {
+            // Agent injoignable (HTTP ou WebSocket)
+            agentPool.reportFailure(agent);
+            throw e;
+        } catch (RuntimeException | InterruptedException e) {
+            agentPool.reportReachable(agent);
+            throw e;
+        } finally {
+            agentPool.release(agent);
+        }
+    }
+
+    /**
+     * Exécute un appel sur l'agent le moins chargé du pool, en tenant à jour
+     * le nombre de requêtes en cours et la santé de l'agent.
+     */
+    private <T> T callAgent(Function<AgentNode, T> call) {
+        AgentNode agent = agentPool.acquire();
+        try {
+            T result = call.apply(agent);
+            agentPool.reportSuccess(agent);
+            return result;
+        } catch (ResourceAccessException e) {
+            // Erreur réseau (connexion refusée, timeout...) : l'agent sort de la rotation
+            agentPool.reportFailure(agent);
+            throw e;
+        } catch (RuntimeException e) {
+            agentPool.reportReachable(agent);
+            throw e;
+        } finally {
+            agentPool.release(agent);
+        }
     }
 
     private static MultiValueMap<String, Object> getBody(LaunchAgentTestDto datas) throws IOException {
@@ -132,13 +199,13 @@ public class AgentService {
 
         String[] operationNames;
         try {
-            operationNames = restClient.get()
+            operationNames = callAgent(agent -> agent.getRestClient().get()
                     .uri(uriBuilder -> uriBuilder
                             .path("/api/wsdl/operations")
                             .queryParam("wsdlUrl", wsdlUrl)
                             .build())
                     .retrieve()
-                    .body(String[].class);
+                    .body(String[].class));
         } catch (RestClientException e) {
             log.error("Erreur lors de l'appel à l'agent pour la découverte des opérations", e);
             throw new RuntimeException(
@@ -155,16 +222,26 @@ public class AgentService {
 
         log.info("{} opération(s) découverte(s) dans le WSDL", operationNames.length);
 
-        // Suppression des anciennes opérations
-        // Dans une approche plus sophistiquée, nous pourrions faire un merge intelligent
-        // pour détecter les opérations ajoutées, supprimées et inchangées. Mais pour
-        // la simplicité et la clarté, nous supprimons tout et recréons.
-        //TODO : penser à un merge plus intelligent.
-        int deletedCount = operationRepository.deleteByProgram(program);
-        log.debug("{} ancienne(s) opération(s) supprimée(s)", deletedCount);
+        // Fusion avec les opérations existantes : seules les opérations disparues du
+        // WSDL sont supprimées, les autres conservent leurs assertions
+        Set<String> discovered = new LinkedHashSet<>(Arrays.asList(operationNames));
+        Set<String> existing = new HashSet<>();
+        List<MwsOperation> removed = new ArrayList<>();
+        for (MwsOperation operation : operationRepository.findByProgram(program)) {
+            if (discovered.contains(operation.getOperationName())) {
+                existing.add(operation.getOperationName());
+            } else {
+                removed.add(operation);
+            }
+        }
+        operationRepository.deleteAll(removed);
+        log.debug("{} ancienne(s) opération(s) supprimée(s)", removed.size());
 
         // Création des nouvelles opérations
-        for (String operationName : operationNames) {
+        for (String operationName : discovered) {
+            if (existing.contains(operationName)) {
+                continue;
+            }
             MwsOperation operation = new MwsOperation();
             operation.setProgram(program);
             operation.setOperationName(operationName);
@@ -175,13 +252,14 @@ public class AgentService {
 
             log.debug("Opération créée: {}", operationName);
         }
+        assertionEngine.invalidateProgram(programId);
 
         // Mise à jour de la date de dernière synchronisation
         program.setLastSyncedAt(LocalDateTime.now());
         programRepository.save(program);
 
         log.info("Synchronisation terminée avec succès. {} opération(s) enregistrée(s)",
-                operationNames.length);
+                discovered.size());
     }
 
 
@@ -231,14 +309,14 @@ public class AgentService {
         // Construction de l'URL pour appeler l'agent
         String template;
         try {
-            template = restClient.get()
+            template = callAgent(agent -> agent.getRestClient().get()
                     .uri(uriBuilder -> uriBuilder
                             .path("/api/wsdl/template")
                             .queryParam("wsdlUrl", wsdlUrl)
                             .queryParam("operationName", operationName)
                             .build())
                     .retrieve()
-                    .body(String.class);
+                    .body(String.class));
         } catch (RestClientException e) {
             log.error("Erreur lors de l'appel à l'agent pour la génération du template", e);
             throw new RuntimeException(
@@ -266,39 +344,109 @@ public class AgentService {
      * Elle gère aussi les erreurs de communication réseau de manière
      * robuste en les transformant en exceptions métier compréhensibles.
      *
+     * Un échec est retenté, éventuellement sur un autre agent, avec un délai
+     * exponentiel et aléatoire (cf. agent.retry.*), seulement si le rejouer ne
+     * peut pas exécuter deux fois l'opération M3 (voir
+     * {@link AgentCommunicationException#isRetryable(boolean)}) : la requête
+     * n'a pas quitté le backend (connexion refusée, timeout de connexion), ou
+     * l'opération est en lecture seule. Si tous les disjoncteurs sont ouverts,
+     * l'appel échoue immédiatement avec une {@link AgentUnavailableException}.
+     *
      * @param testRequest La demande de test à envoyer
      * @return Le résultat du test retourné par l'agent
      * @throws AgentCommunicationException Si la communication avec l'agent échoue
      */
     public MwsAgentTestResult sendTestToAgent(MwsAgentTestRequestDto testRequest) {
-        log.info("Envoi du test {} à l'agent: {}",
-                testRequest.getSessionId(),
-                agentBaseUrl);
+        return withRetry(testRequest, this::sendTestToAgentOnce);
+    }
 
-        // Construction de l'URL complète de l'endpoint de l'agent
-        String url = agentBaseUrl + "/mws/launch";
+    /**
+     * Soumet une demande de test à l'agent sans attendre son exécution.
+     *
+     * L'agent répond 202 Accepted dès réception, puis POSTe le résultat sur
+     * {@link MwsAgentTestRequestDto#getCallbackUrl()} une fois le test terminé.
+     * Aucune connexion ni aucun thread n'est donc bloqué pendant l'exécution SOAP.
+     *
+     * L'agent choisi reste comptabilisé comme ayant une requête en cours jusqu'à
+     * l'appel de {@link #releaseCallback(String)}, afin que le routage tienne
+     * compte des tests qu'il exécute encore.
+     *
+     * Les échecs sont retentés aux mêmes conditions que pour {@link #sendTestToAgent}.
+     *
+     * @param testRequest La demande de test à envoyer (callbackUrl renseignée)
+     * @return L'URL de l'agent qui a accepté le test
+     * @throws AgentCommunicationException Si la communication avec l'agent échoue
+     */
+    public String submitTestToAgent(MwsAgentTestRequestDto testRequest) {
+        return withRetry(testRequest, this::submitTestToAgentOnce);
+    }
+
+    /**
+     * Libère l'agent réservé par {@link #submitTestToAgent} pour ce test,
+     * une fois son résultat reçu ou son échéance dépassée.
+     *
+     * @param sessionId L'identifiant de session du test
+     */
+    public void releaseCallback(String sessionId) {
+        AgentNode agent = pendingCallbacks.remove(sessionId);
+        if (agent != null) {
+            agentPool.release(agent);
+        }
+    }
+
+    private <T> T withRetry(MwsAgentTestRequestDto testRequest, Function<MwsAgentTestRequestDto, T> call) {
+        int maxAttempts = Math.max(1, agentProperties.getRetry().getMaxAttempts());
+        boolean readOnly = executionProperties.isReadOnlyOperation(testRequest.getOperationName());
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call.apply(testRequest);
+
+            } catch (AgentUnavailableException e) {
+                // Inutile de réessayer : aucun agent n'accepte d'appel pour le moment
+                throw e;
+
+            } catch (AgentCommunicationException e) {
+                if (!e.isRetryable(readOnly) || attempt >= maxAttempts) {
+                    throw e;
+                }
+
+                long backoff = computeBackoff(attempt);
+                log.warn("Échec transitoire pour le test {} (tentative {}/{}), nouvel essai dans {} ms",
+                        testRequest.getSessionId(), attempt, maxAttempts, backoff);
+
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
 
+    private MwsAgentTestResult sendTestToAgentOnce(MwsAgentTestRequestDto testRequest) {
+        AgentNode agent = agentPool.acquire();
+
+        log.info("Envoi du test {} à l'agent: {} ({} requête(s) en cours)",
+                testRequest.getSessionId(),
+                agent,
+                agent.getInFlightCount());
 
         try {
             // Appel HTTP POST vers l'agent
             // Nous utilisons exchange() plutôt que postForObject() pour avoir
             // plus de contrôle sur les headers et pouvoir récupérer le code HTTP
-            MwsAgentTestResult result = restClient.post()
+            // Au-delà du timeout du test et de sa marge, l'appel est abandonné :
+            // un agent bloqué ne retient ni ce thread ni sa place dans le dispatcher
+            long readTimeoutMillis = testRequest.getTimeoutMillis() + agentProperties.getHttp().getExecuteGraceMillis();
+            MwsAgentTestResult result = agent.getRestClient(readTimeoutMillis).post()
                     .uri("/api/test/execute")
                     .contentType(MediaType.APPLICATION_JSON)
                     .body(testRequest)
                     .retrieve()
-                    .onStatus(HttpStatusCode::isError, (request, response) -> {
-                        String errorBody = extractErrorBody(response);
-                        log.error("L'agent a retourné une erreur pour le test {}: Status={}, Body={}",
-                                testRequest.getSessionId(),
-                                response.getStatusCode(),
-                                errorBody);
-
-                        throw new AgentCommunicationException(
-                                "Erreur de l'agent MWS (Status: " + response.getStatusCode() + "): " + errorBody
-                        );
-                    })
+                    .onStatus(HttpStatusCode::isError, (request, response) ->
+                            throwAgentError(testRequest, response))
                     .body(MwsAgentTestResult.class);
 
             // Vérification que nous avons bien reçu une réponse
@@ -309,72 +457,226 @@ public class AgentService {
                         "L'agent a retourné une réponse vide. Vérifiez les logs de l'agent.");
             }
 
-            log.info("Test {} exécuté par l'agent avec succès: {}",
+            agentPool.reportSuccess(agent);
+
+            log.info("Test {} exécuté par l'agent {}: {}",
                     testRequest.getSessionId(),
+                    agent,
                     result.isSuccess() ? "SUCCESS" : "FAILED");
 
             return result;
 
-        } catch (RestClientException e) {
-            // Cette exception est levée par RestTemplate en cas de problème réseau,
-            // timeout, erreur HTTP 4xx ou 5xx, etc.
-            log.error("Erreur de communication avec l'agent pour le test {}",
-                    testRequest.getSessionId(), e);
-
-            // Nous transformons l'exception technique en exception métier
-            // avec un message plus compréhensible pour l'utilisateur
-            throw new AgentCommunicationException(
-                    "Impossible de communiquer avec l'agent MWS. " +
-                            "Vérifiez que l'agent est démarré et accessible. " +
-                            "Erreur: " + e.getMessage(),
-                    e
-            );
+        } catch (RuntimeException e) {
+            throw handleAgentError(agent, testRequest, e);
+        } finally {
+            agentPool.release(agent);
+        }
+    }
+
+    private String submitTestToAgentOnce(MwsAgentTestRequestDto testRequest) {
+        AgentNode agent = agentPool.acquire();
+        boolean accepted = false;
+
+        log.info("Soumission asynchrone du test {} à l'agent: {} ({} requête(s) en cours)",
+                testRequest.getSessionId(),
+                agent,
+                agent.getInFlightCount());
+
+        // Enregistré avant l'envoi : le callback peut arriver avant la réponse 202
+        pendingCallbacks.put(testRequest.getSessionId(), agent);
+
+        try {
+            agent.getRestClient(agentProperties.getHttp().getSubmitTimeoutMillis()).post()
+                    .uri("/api/test/submit")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(testRequest)
+                    .retrieve()
+                    .onStatus(HttpStatusCode::isError, (request, response) ->
+                            throwAgentError(testRequest, response))
+                    .toBodilessEntity();
+
+            agentPool.reportSuccess(agent);
+
+            // L'agent reste réservé jusqu'à la réception du résultat
+            accepted = true;
+
+            log.info("Test {} accepté par l'agent {}, résultat attendu sur {}",
+                    testRequest.getSessionId(), agent, testRequest.getCallbackUrl());
+
+            return agent.getUrl();
+
+        } catch (RuntimeException e) {
+            throw handleAgentError(agent, testRequest, e);
+        } finally {
+            if (!accepted && pendingCallbacks.remove(testRequest.getSessionId(), agent)) {
+                agentPool.release(agent);
+            }
+        }
+    }
+
+    private void throwAgentError(MwsAgentTestRequestDto testRequest, ClientHttpResponse response)
+            throws IOException {
+        String errorBody = extractErrorBody(response);
+        log.error("L'agent a retourné une erreur pour le test {}: Status={}, Body={}",
+                testRequest.getSessionId(),
+                response.getStatusCode(),
+                errorBody);
+
+        throw new AgentCommunicationException(
+                "Erreur de l'agent MWS (Status: " + response.getStatusCode() + "): " + errorBody,
+                isTransientStatus(response.getStatusCode())
+        );
+    }
+
+    /**
+     * Met à jour la santé et le disjoncteur de l'agent suite à une erreur, et la
+     * transforme en {@link AgentCommunicationException}.
+     */
+    private AgentCommunicationException handleAgentError(AgentNode agent,
+                                                         MwsAgentTestRequestDto testRequest,
+                                                         RuntimeException e) {
+        if (e instanceof AgentCommunicationException communicationException) {
+            if (communicationException.isTransientFailure()) {
+                agentPool.reportFailure(agent);
+            } else {
+                agentPool.reportReachable(agent);
+            }
+            return communicationException;
+        }
+
+        // Une RestClientException est levée par RestClient en cas de problème réseau,
+        // timeout, erreur HTTP 4xx ou 5xx, etc.
+        log.error("Erreur de communication avec l'agent {} pour le test {}",
+                agent, testRequest.getSessionId(), e);
+
+        boolean transientFailure = e instanceof ResourceAccessException;
+        boolean undelivered = transientFailure && isConnectFailure(e);
+        if (transientFailure) {
+            agentPool.reportFailure(agent);
+        } else {
+            agentPool.reportReachable(agent);
+        }
+
+        // Nous transformons l'exception technique en exception métier
+        // avec un message plus compréhensible pour l'utilisateur
+        return new AgentCommunicationException(
+                "Impossible de communiquer avec l'agent MWS " + agent + ". " +
+                        "Vérifiez que l'agent est démarré et accessible. " +
+                        "Erreur: " + e.getMessage(),
+                e,
+                transientFailure,
+                undelivered
+        );
+    }
+
+    /**
+     * Indique si l'erreur réseau est survenue avant l'envoi de la requête
+     * (connexion refusée, hôte inconnu, timeout de connexion) : l'agent ne
+     * l'a alors certainement pas reçue. Après un timeout de lecture ou une
+     * connexion coupée, l'agent a pu exécuter le test.
+     */
+    static boolean isConnectFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof NoRouteToHostException
+                    || cause instanceof UnknownHostException || cause instanceof HttpConnectTimeoutException) {
+                return true;
+            }
         }
+        return false;
     }
 
     /**
-     * Vérifie si l'agent est accessible et opérationnel.
+     * Délai avant la tentative suivante : exponentiel et plafonné, avec une part
+     * aléatoire ("equal jitter") pour éviter que tous les tests en échec ne
+     * retentent au même instant.
+     */
+    private long computeBackoff(int attempt) {
+        AgentProperties.Retry retry = agentProperties.getRetry();
+        long exponential = retry.getInitialBackoffMillis() << Math.min(attempt - 1, 20);
+        long cap = Math.max(1, Math.min(retry.getMaxBackoffMillis(), exponential));
+        return cap / 2 + ThreadLocalRandom.current().nextLong(cap / 2 + 1);
+    }
+
+    /**
+     * Statut d'un agent momentanément indisponible : compte comme un échec
+     * pour sa santé, mais ne garantit pas que le test n'a pas démarré
+     * (un proxy peut répondre 502/504 après transmission à l'agent, et
+     * l'agent ne s'engage pas à ne rien exécuter quand il répond 503).
+     */
+    private static boolean isTransientStatus(HttpStatusCode status) {
+        int code = status.value();
+        return code == 502 || code == 503 || code == 504;
+    }
+
+    /**
+     * Vérifie si au moins un agent du pool est accessible et opérationnel.
      *
      * Cette méthode peut être utilisée avant d'envoyer un test pour
-     * détecter rapidement si l'agent est down, évitant ainsi de perdre
+     * détecter rapidement si les agents sont down, évitant ainsi de perdre
      * du temps à attendre un timeout.
      *
-     * @return true si l'agent répond, false sinon
+     * @return true si au moins un agent répond, false sinon
      */
     public boolean isAgentAvailable() {
-        log.debug("Vérification de la disponibilité de l'agent: {}", agentBaseUrl);
-
-        try {
-            // Tentative de ping vers l'agent
-            // Vous devriez avoir un endpoint /health ou /ping dans votre agent
-            return restClient.get()
-                    .uri("/actuator/health")
-                    .retrieve()
-                    .onStatus(HttpStatusCode::isError, (request, response) -> {
-                        log.warn("Health check de l'agent a retourné un statut d'erreur: {}",
-                                response.getStatusCode());
-                    })
-                    .toBodilessEntity()
-                    .getStatusCode() == HttpStatus.OK;
-
-        } catch (RestClientException e) {
-            log.warn("Agent non disponible: {}", e.getMessage());
-            return false;
-        }
+        agentPool.checkHealth();
+        return agentPool.hasHealthyAgent();
     }
 
     /**
      * Exception personnalisée pour les erreurs de communication avec l'agent.
      * Cette exception permet de distinguer les erreurs réseau des erreurs
      * métier et de les traiter différemment dans votre code.
+     *
+     * Une erreur transitoire (réseau, agent momentanément indisponible) met
+     * en cause l'agent ; les autres proviennent d'une réponse de l'agent.
+     * Une erreur "non transmise" garantit en plus que l'agent n'a pas reçu
+     * la requête, et donc qu'aucun appel M3 n'a eu lieu.
      */
     public static class AgentCommunicationException extends RuntimeException {
+        private final boolean transientFailure;
+        private final boolean undelivered;
+
         public AgentCommunicationException(String message) {
-            super(message);
+            this(message, false);
+        }
+
+        public AgentCommunicationException(String message, boolean transientFailure) {
+            this(message, null, transientFailure, false);
         }
 
         public AgentCommunicationException(String message, Throwable cause) {
+            this(message, cause, false);
+        }
+
+        public AgentCommunicationException(String message, Throwable cause, boolean transientFailure) {
+            this(message, cause, transientFailure, false);
+        }
+
+        public AgentCommunicationException(String message, Throwable cause, boolean transientFailure,
+                                           boolean undelivered) {
             super(message, cause);
+            this.transientFailure = transientFailure;
+            this.undelivered = undelivered;
+        }
+
+        public boolean isTransientFailure() {
+            return transientFailure;
+        }
+
+        public boolean isUndelivered() {
+            return undelivered;
+        }
+
+        /**
+         * Indique si le test peut être renvoyé (nouvelle tentative ou remise en
+         * file) sans risquer d'exécuter deux fois l'opération M3 : la requête
+         * n'a pas été transmise, ou l'échec est transitoire et l'opération
+         * est en lecture seule.
+         *
+         * @param readOnlyOperation Si l'opération du test est en lecture seule
+         */
+        public boolean isRetryable(boolean readOnlyOperation) {
+            return undelivered || (transientFailure && readOnlyOperation);
         }
     }
 
@@ -18,12 +18,15 @@ public class AgentSessionHandler implements StompSessionHandler {
     private final String sessionId;
     private final PrintWriter writer;
     private final SimpMessagingTemplate brokerMessagingTemplate;
+    private final CoalescingStatusPublisher statusPublisher;
     private final ApplicationEventPublisher eventPublisher;
 
-    public AgentSessionHandler(String sessionId, PrintWriter writer, SimpMessagingTemplate brokerMessagingTemplate, ApplicationEventPublisher eventPublisher) {
+    public AgentSessionHandler(String sessionId, PrintWriter writer, SimpMessagingTemplate brokerMessagingTemplate,
+                               CoalescingStatusPublisher statusPublisher, ApplicationEventPublisher eventPublisher) {
         this.sessionId = sessionId;
         this.writer = writer;
         this.brokerMessagingTemplate = brokerMessagingTemplate;
+        this.statusPublisher = statusPublisher;
         this.eventPublisher = eventPublisher;
     }
 
@@ -105,7 +108,8 @@ public class AgentSessionHandler implements StompSessionHandler {
     private void handleStatus(String message, String sessionId) {
         log.info("STATUS AGENT [{}] -> {}", sessionId, message);
         try {
-            brokerMessagingTemplate.convertAndSend("/topic/status/" + sessionId,
+            // Regroupé : seul le dernier statut de la fenêtre est relayé à l'UI
+            statusPublisher.publish("/topic/status/" + sessionId,
                     Map.of("status", message, "timestamp", System.currentTimeMillis()).toString());
         } catch (Exception e) {
             log.error("Erreur lors de l'envoi du status", e);
@@ -0,0 +1,23 @@
+package org.example.ariesbackendweb.common.api;
+
+/**
+ * Levée lorsqu'aucun agent du pool ne peut accepter d'appel
+ * (tous les disjoncteurs sont ouverts).
+ *
+ * Ce n'est pas un échec du test : aucune requête n'est partie, l'appelant
+ * peut donc le remettre en file quelle que soit l'opération, et le relancer
+ * après {@link #getRetryAfterMillis()}.
+ */
+public class AgentUnavailableException extends AgentService.AgentCommunicationException {
+
+    private final long retryAfterMillis;
+
+    public AgentUnavailableException(String message, long retryAfterMillis) {
+        super(message, null, true, true);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -4,7 +4,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.messaging.converter.StringMessageConverter;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
@@ -36,16 +35,21 @@ public class AgentWsService {
     private SimpMessagingTemplate brokerMessagingTemplate;
 
     @Autowired
-    private ApplicationEventPublisher eventPublisher;
+    private CoalescingStatusPublisher statusPublisher;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
 
-    @Value("${agent.ws.url}")
-    private String agentWsUrl;
 
     private final Map<String, String> sessionIds = new ConcurrentHashMap<>();
 
-    public void connect(String sessionId, String logFileName) throws ExecutionException, InterruptedException, IOException {
+    /**
+     * Ouvre la connexion STOMP vers l'agent qui exécute le test.
+     *
+     * @param agentWsUrl URL WebSocket de l'agent (cf. {@link AgentNode#getWsUrl()})
+     */
+    public void connect(String sessionId, String logFileName, String agentWsUrl) throws ExecutionException, InterruptedException, IOException {
 
         // Configuration des transports (WebSocket + XHR fallback)
         List<Transport> transports = Arrays.asList(
@@ -61,7 +65,7 @@ public class AgentWsService {
         PrintWriter writer = new PrintWriter(logFileName + ".txt", StandardCharsets.UTF_8);
 
         try {
-            stompClient.connectAsync(agentWsUrl, new AgentSessionHandler(sessionId, writer, brokerMessagingTemplate, eventPublisher)).get(10, TimeUnit.SECONDS);
+            stompClient.connectAsync(agentWsUrl, new AgentSessionHandler(sessionId, writer, brokerMessagingTemplate, statusPublisher, eventPublisher)).get(10, TimeUnit.SECONDS);
         } catch (TimeoutException e) {
             log.error("Connection timeout for sessionId={}", sessionId);
             writer.close();
@@ -0,0 +1,130 @@
+package org.example.ariesbackendweb.common.api;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publication STOMP des statuts avec regroupement.
+ *
+ * Au lieu d'envoyer chaque transition au broker dès qu'elle survient, seul le
+ * dernier message de chaque destination est conservé, et les messages en
+ * attente sont envoyés ensemble à la fin de chaque fenêtre (50 ms par défaut).
+ * Lors des rafales (tirs de charge, lots), les états intermédiaires d'un même
+ * test (QUEUED, PENDING_AGENT, RUNNING...) se remplacent au lieu d'encombrer
+ * le canal sortant du broker ; le client reçoit toujours le dernier état.
+ *
+ * Métriques exposées (actuator) :
+ * - stomp.status.merged : messages remplacés par un plus récent avant envoi
+ * - stomp.status.dropped : messages abandonnés (table pleine ou envoi en échec)
+ * - stomp.status.sent : messages envoyés au broker
+ *
+ * Réservé aux statuts : les logs, dont chaque ligne compte, restent envoyés directement.
+ */
+@Component
+@Slf4j
+public class CoalescingStatusPublisher {
+
+    @Autowired
+    private SimpMessagingTemplate brokerMessagingTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${messaging.status.coalescing-window-millis:50}")
+    private long windowMillis;
+
+    @Value("${messaging.status.max-pending-destinations:10000}")
+    private int maxPendingDestinations;
+
+    private final Map<String, Object> pending = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "stomp-status-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Counter mergedCounter;
+    private Counter droppedCounter;
+    private Counter sentCounter;
+
+    @PostConstruct
+    public void start() {
+        mergedCounter = meterRegistry.counter("stomp.status.merged");
+        droppedCounter = meterRegistry.counter("stomp.status.dropped");
+        sentCounter = meterRegistry.counter("stomp.status.sent");
+        Gauge.builder("stomp.status.pending", pending, Map::size).register(meterRegistry);
+
+        flusher.scheduleWithFixedDelay(this::flush, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Derniers statuts en attente
+        flush();
+    }
+
+    /**
+     * Programme l'envoi d'un message, qui remplace celui éventuellement
+     * en attente pour la même destination.
+     *
+     * @param destination La destination STOMP (ex: /topic/status/{id})
+     * @param payload     Le message
+     */
+    public void publish(String destination, Object payload) {
+        if (pending.size() >= maxPendingDestinations && !pending.containsKey(destination)) {
+            droppedCounter.increment();
+            log.warn("Trop de statuts en attente d'envoi, message pour {} abandonné", destination);
+            return;
+        }
+
+        if (pending.put(destination, payload) != null) {
+            mergedCounter.increment();
+        }
+    }
+
+    public double getMergedCount() {
+        return mergedCounter.count();
+    }
+
+    public double getDroppedCount() {
+        return droppedCounter.count();
+    }
+
+    private void flush() {
+        for (String destination : pending.keySet()) {
+            Object payload = pending.remove(destination);
+            if (payload == null) {
+                continue;
+            }
+
+            try {
+                brokerMessagingTemplate.convertAndSend(destination, payload);
+                sentCounter.increment();
+            } catch (Exception e) {
+                droppedCounter.increment();
+                log.error("Erreur lors de l'envoi du statut sur {}", destination, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.ariesbackendweb.common.persistence;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Stocke un texte volumineux (XML SOAP, stack traces) compressé en deflate
+ * dans une colonne binaire.
+ *
+ * Le premier octet indique le format, afin de pouvoir changer d'algorithme
+ * sans rendre illisibles les lignes déjà écrites :
+ * 0 = texte UTF-8 non compressé (textes trop courts pour être compressés utilement),
+ * 1 = deflate.
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+
+    private static final byte FORMAT_PLAIN = 0;
+    private static final byte FORMAT_DEFLATE = 1;
+
+    // En dessous de cette taille, l'en-tête deflate coûte plus qu'il ne rapporte
+    private static final int MIN_COMPRESSED_LENGTH = 128;
+
+    @Override
+    public byte[] convertToDatabaseColumn(String text) {
+        if (text == null) {
+            return null;
+        }
+
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        if (raw.length < MIN_COMPRESSED_LENGTH) {
+            return withHeader(FORMAT_PLAIN, raw, raw.length);
+        }
+
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 8 + 16);
+            out.write(FORMAT_DEFLATE);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(chunk);
+                out.write(chunk, 0, length);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+
+        return switch (data[0]) {
+            case FORMAT_PLAIN -> new String(data, 1, data.length - 1, StandardCharsets.UTF_8);
+            case FORMAT_DEFLATE -> new String(inflate(data), StandardCharsets.UTF_8);
+            default -> throw new IllegalStateException("Format de compression inconnu: " + data[0]);
+        };
+    }
+
+    /**
+     * Décode en flux le contenu d'une colonne écrite par ce converter, sans
+     * matérialiser le texte complet en mémoire.
+     *
+     * @param stored Le flux binaire de la colonne, positionné sur l'octet de format
+     * @return Le flux du texte UTF-8 décompressé
+     * @throws IOException Si la lecture échoue ou si le format est inconnu
+     */
+    public static InputStream openDecompressedStream(InputStream stored) throws IOException {
+        int format = stored.read();
+        return switch (format) {
+            case -1, FORMAT_PLAIN -> stored;
+            case FORMAT_DEFLATE -> new InflaterInputStream(stored, new Inflater(), 8192);
+            default -> throw new IOException("Format de compression inconnu: " + format);
+        };
+    }
+
+    private static byte[] inflate(byte[] data) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, 1, data.length - 1);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 8);
+            byte[] chunk = new byte[8192];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(chunk);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Données compressées tronquées");
+                }
+                out.write(chunk, 0, length);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Données compressées invalides", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] withHeader(byte format, byte[] payload, int length) {
+        byte[] data = new byte[length + 1];
+        data[0] = format;
+        System.arraycopy(payload, 0, data, 1, length);
+        return data;
+    }
+}
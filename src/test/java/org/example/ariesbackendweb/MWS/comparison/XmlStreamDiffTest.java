@@ -0,0 +1,139 @@
+package org.example.ariesbackendweb.MWS.comparison;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class XmlStreamDiffTest {
+
+    private final XmlStreamDiff diff = new XmlStreamDiff(List.of("Timestamp"));
+
+    private XmlStreamDiff.Result compare(String expected, String actual) {
+        return diff.compare(new StringReader(expected), new StringReader(actual));
+    }
+
+    @Test
+    void prefixesAttributeOrderWhitespaceAndCommentsAreIgnored() {
+        XmlStreamDiff.Result result = compare(
+                "<s:Envelope xmlns:s=\"urn:soap\"><s:Body>" +
+                        "<r:Resp xmlns:r=\"urn:r\" b=\"2\" a=\" 1 \">\n   hello \t  world  </r:Resp><!-- trace -->" +
+                        "</s:Body></s:Envelope>",
+                "<?xml version=\"1.0\"?><env:Envelope xmlns:env=\"urn:soap\"><env:Body>" +
+                        "<Resp xmlns=\"urn:r\" a=\"1\" b=\"2\">hello world</Resp>" +
+                        "</env:Body></env:Envelope>");
+
+        assertTrue(result.identical(), result.summary());
+        assertEquals(0, result.differenceCount());
+        assertEquals("Identique à la référence", result.summary());
+    }
+
+    @Test
+    void textSplitIntoSeveralEventsIsComparedAsAWhole() {
+        assertTrue(compare("<a>he<![CDATA[llo]]> <!-- c -->world</a>", "<a>hello world</a>").identical());
+    }
+
+    @Test
+    void textDifferenceIsReportedWithTheSiblingRankInThePath() {
+        XmlStreamDiff.Result result = compare(
+                "<List><Item><ITNO>A</ITNO></Item><Item><ITNO>B</ITNO></Item></List>",
+                "<List><Item><ITNO>A</ITNO></Item><Item><ITNO>C</ITNO></Item></List>");
+
+        assertFalse(result.identical());
+        assertEquals(List.of("/List/Item[2]/ITNO: texte 'B' attendu, 'C' obtenu"), result.differences());
+    }
+
+    @Test
+    void longTextsAreComparedBeyondTheirPreview() {
+        String prefix = "x".repeat(5000);
+        XmlStreamDiff.Result result = compare("<a>" + prefix + "1</a>", "<a>" + prefix + "2</a>");
+
+        assertEquals(1, result.differenceCount());
+        String expectedPreview = "x".repeat(60) + "...";
+        assertEquals("/a: texte '" + expectedPreview + "' attendu, '" + expectedPreview + "' obtenu",
+                result.differences().get(0));
+    }
+
+    @Test
+    void attributeDifferencesDoNotStopTheComparison() {
+        XmlStreamDiff.Result result = compare(
+                "<a><b x=\"1\" y=\"2\">t</b><c>1</c></a>",
+                "<a><b x=\"9\" z=\"3\">t</b><c>2</c></a>");
+
+        assertEquals(List.of(
+                "/a/b/@x: '1' attendu, '9' obtenu",
+                "/a/b/@y: attribut manquant",
+                "/a/b/@z: attribut inattendu",
+                "/a/c: texte '1' attendu, '2' obtenu"), result.differences());
+    }
+
+    @Test
+    void structuralDivergenceStopsTheComparison() {
+        XmlStreamDiff.Result result = compare(
+                "<a><b>1</b><c>2</c></a>",
+                "<a><x>1</x><c>3</c></a>");
+
+        assertEquals(List.of("/a: élément <b> attendu, élément <x> obtenu"), result.differences());
+    }
+
+    @Test
+    void missingElementIsReported() {
+        XmlStreamDiff.Result result = compare("<a><b/><c/></a>", "<a><b/></a>");
+
+        assertEquals(List.of("/a: élément <c> attendu, fin de </a> obtenu"), result.differences());
+    }
+
+    @Test
+    void sameLocalNameInAnotherNamespaceIsADifferentElement() {
+        XmlStreamDiff.Result result = compare("<a xmlns=\"urn:one\"/>", "<a xmlns=\"urn:two\"/>");
+
+        assertFalse(result.identical());
+        assertEquals(1, result.differenceCount());
+    }
+
+    @Test
+    void ignoredElementsAreSkippedWithTheirContent() {
+        assertTrue(compare(
+                "<a><Timestamp>2024-01-01<n>1</n></Timestamp><b>1</b></a>",
+                "<a><Timestamp at=\"x\">2025-06-30</Timestamp><b>1</b></a>").identical());
+
+        // Exclusion sensible à la casse
+        assertFalse(compare("<a><timestamp>1</timestamp></a>", "<a><timestamp>2</timestamp></a>").identical());
+    }
+
+    @Test
+    void onlyTheFirstDifferencesAreDetailed() {
+        StringBuilder expected = new StringBuilder("<a>");
+        StringBuilder actual = new StringBuilder("<a>");
+        for (int i = 0; i < 30; i++) {
+            expected.append("<v>").append(i).append("</v>");
+            actual.append("<v>").append(i + 100).append("</v>");
+        }
+        XmlStreamDiff.Result result = compare(expected.append("</a>").toString(), actual.append("</a>").toString());
+
+        assertEquals(30, result.differenceCount());
+        assertEquals(XmlStreamDiff.MAX_REPORTED_DIFFERENCES, result.differences().size());
+        assertTrue(result.summary().startsWith("30 différence(s) avec la référence\n- /a/v: "));
+        assertTrue(result.summary().endsWith("\n- ... 10 autre(s)"));
+    }
+
+    @Test
+    void malformedResponseIsADifference() {
+        XmlStreamDiff.Result result = compare("<a>1</a>", "<a>1</b>");
+
+        assertFalse(result.identical());
+        assertTrue(result.differences().get(0).contains("réponse"), result.differences().get(0));
+    }
+
+    @Test
+    void externalEntitiesAreNotResolved() {
+        XmlStreamDiff.Result result = compare("<a>1</a>",
+                "<!DOCTYPE a [<!ENTITY x SYSTEM \"file:///etc/hostname\">]><a>&x;</a>");
+
+        assertFalse(result.identical());
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.ariesbackendweb.MWS.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvRowReaderTest {
+
+    private static List<List<String>> readAll(String csv) throws IOException {
+        try (CsvRowReader reader = new CsvRowReader(new StringReader(csv))) {
+            List<List<String>> rows = new ArrayList<>();
+            for (List<String> row = reader.next(); row != null; row = reader.next()) {
+                rows.add(row);
+            }
+            return rows;
+        }
+    }
+
+    @Test
+    void readsSimpleRecords() throws IOException {
+        assertEquals(List.of(List.of("ORNO", "CUNO"), List.of("1", "A"), List.of("2", "B")),
+                readAll("ORNO,CUNO\n1,A\n2,B\n"));
+    }
+
+    @Test
+    void lastRecordWithoutLineEndIsRead() throws IOException {
+        assertEquals(List.of(List.of("a", "b"), List.of("1", "")), readAll("a,b\n1,"));
+    }
+
+    @Test
+    void crlfAndLoneCrEndRecords() throws IOException {
+        assertEquals(List.of(List.of("a", "b"), List.of("1", "2"), List.of("3", "4")),
+                readAll("a,b\r\n1,2\r3,4\r\n"));
+    }
+
+    @Test
+    void byteOrderMarkIsSkipped() throws IOException {
+        List<List<String>> rows = readAll("\uFEFFORNO;CUNO\n1;A\n");
+
+        assertEquals(List.of("ORNO", "CUNO"), rows.get(0));
+    }
+
+    @Test
+    void separatorIsDetectedFromTheFirstLine() throws IOException {
+        try (CsvRowReader reader = new CsvRowReader(new StringReader("a;b;c\n1,5;2,5;3\n"))) {
+            assertEquals(';', reader.getSeparator());
+            reader.next();
+            assertEquals(List.of("1,5", "2,5", "3"), reader.next());
+        }
+        // Virgule par défaut et à égalité
+        assertEquals(',', new CsvRowReader(new StringReader("single\n")).getSeparator());
+        assertEquals(',', new CsvRowReader(new StringReader("a;b,c\n")).getSeparator());
+        assertEquals(',', new CsvRowReader(new StringReader("")).getSeparator());
+    }
+
+    @Test
+    void quotedFieldsKeepSeparatorsQuotesAndLineBreaks() throws IOException {
+        List<List<String>> rows = readAll("a,b,c\n\"x,y\",\"say \"\"hi\"\"\",\"line1\r\nline2\nline3\"\n");
+
+        assertEquals(List.of("x,y", "say \"hi\"", "line1\r\nline2\nline3"), rows.get(1));
+        assertEquals(2, rows.size());
+    }
+
+    @Test
+    void quoteInsideAnUnquotedFieldIsLiteral() throws IOException {
+        assertEquals(List.of(List.of("a", "5\"", "b\"c")), readAll("a,5\",b\"c"));
+    }
+
+    @Test
+    void emptyQuotedFieldIsEmpty() throws IOException {
+        assertEquals(List.of(List.of("", "x", "")), readAll("\"\",x,\"\"\n"));
+    }
+
+    @Test
+    void blankLineIsASingleEmptyField() throws IOException {
+        assertEquals(List.of(List.of("a"), List.of(""), List.of("b")), readAll("a\n\nb\n"));
+    }
+
+    @Test
+    void recordLineNumbersAccountForQuotedLineBreaks() throws IOException {
+        try (CsvRowReader reader = new CsvRowReader(new StringReader("h1,h2\n\"a\nb\nc\",1\nx,2\n"))) {
+            reader.next();
+            assertEquals(1, reader.getRecordLineNumber());
+            reader.next();
+            assertEquals(2, reader.getRecordLineNumber());
+            reader.next();
+            assertEquals(5, reader.getRecordLineNumber());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void unclosedQuoteIsRejectedWithTheRecordLine() throws IOException {
+        try (CsvRowReader reader = new CsvRowReader(new StringReader("a,b\n\"open,1\nmore\n"))) {
+            reader.next();
+            IOException e = assertThrows(IOException.class, reader::next);
+            assertTrue(e.getMessage().startsWith("Ligne 2 "), e.getMessage());
+        }
+    }
+
+    @Test
+    void oversizedFieldIsRejected() {
+        String csv = "a\n" + "x".repeat(64 * 1024 + 1) + "\n";
+
+        assertThrows(IOException.class, () -> readAll(csv));
+    }
+}
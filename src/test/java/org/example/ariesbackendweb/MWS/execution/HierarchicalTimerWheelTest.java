@@ -0,0 +1,173 @@
+package org.example.ariesbackendweb.MWS.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HierarchicalTimerWheelTest {
+
+    private static final long TICK = 100;
+
+    // Durée couverte par une case des niveaux 1, 2 et 3, en ticks
+    private static final long LEVEL_1 = 64;
+    private static final long LEVEL_2 = 64 * 64;
+    private static final long LEVEL_3 = 64 * 64 * 64;
+    private static final long RANGE = 64L * 64 * 64 * 64;
+
+    private final HierarchicalTimerWheel<String> wheel = new HierarchicalTimerWheel<>(TICK, 0);
+
+    private static long at(long tick) {
+        return tick * TICK;
+    }
+
+    /**
+     * Une échéance expire au premier tick qui ne la précède pas : jamais en
+     * avance, au plus un tick en retard.
+     */
+    private static boolean isDue(long deadlineMillis, long nowMillis) {
+        return Math.floorDiv(deadlineMillis + TICK - 1, TICK) <= Math.floorDiv(nowMillis, TICK);
+    }
+
+    @Test
+    void expiresOnTheTickOfItsDeadlineNeverBefore() {
+        wheel.schedule("a", 250);
+
+        assertEquals(List.of(), wheel.advance(299));
+        assertTrue(wheel.contains("a"));
+        assertEquals(List.of("a"), wheel.advance(300));
+        assertFalse(wheel.contains("a"));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void pastDeadlineIsReturnedOnTheNextAdvance() {
+        wheel.advance(at(10));
+
+        assertTrue(wheel.schedule("late", at(3)));
+        assertEquals(List.of("late"), wheel.advance(at(10)));
+    }
+
+    @Test
+    void deadlinesAcrossLevelBoundariesExpireOnTime() {
+        long[] deltas = {1, LEVEL_1 - 1, LEVEL_1, LEVEL_1 + 1, LEVEL_2 - 1, LEVEL_2, LEVEL_2 + 1,
+                LEVEL_3 - 1, LEVEL_3, LEVEL_3 + 1};
+        long[] starts = {0, 1, 37, LEVEL_1 - 1, LEVEL_1, LEVEL_2 - 1, LEVEL_2 + 5};
+
+        for (long start : starts) {
+            HierarchicalTimerWheel<String> wheel = new HierarchicalTimerWheel<>(TICK, 0);
+            wheel.advance(at(start));
+            for (long delta : deltas) {
+                wheel.schedule("+" + delta, at(start + delta));
+            }
+
+            for (long delta : deltas) {
+                String key = "+" + delta;
+                assertFalse(wheel.advance(at(start + delta) - 1).contains(key), key + " depuis " + start);
+                assertTrue(wheel.contains(key), key + " depuis " + start);
+                assertEquals(List.of(key), wheel.advance(at(start + delta)), key + " depuis " + start);
+            }
+            assertEquals(0, wheel.size());
+        }
+    }
+
+    @Test
+    void randomDeadlinesMatchABruteForceSchedule() {
+        Random random = new Random(42);
+        Map<String, Long> deadlines = new HashMap<>();
+        long now = 0;
+
+        for (int round = 0; round < 2000; round++) {
+            // Échéances de toutes les portées, y compris entre deux ticks
+            for (int i = 0; i < 5; i++) {
+                String key = "k" + round + "-" + i;
+                long horizon = switch (random.nextInt(4)) {
+                    case 0 -> LEVEL_1;
+                    case 1 -> LEVEL_2;
+                    case 2 -> LEVEL_3;
+                    default -> 2 * LEVEL_3;
+                };
+                long deadline = now + 1 + (long) (random.nextDouble() * at(horizon));
+                wheel.schedule(key, deadline);
+                deadlines.put(key, deadline);
+            }
+
+            now += 1 + (long) (random.nextDouble() * at(random.nextBoolean() ? LEVEL_1 : LEVEL_2));
+            long current = now;
+            List<String> expected = new ArrayList<>();
+            deadlines.forEach((key, deadline) -> {
+                if (isDue(deadline, current)) {
+                    expected.add(key);
+                }
+            });
+
+            List<String> expired = wheel.advance(now);
+            assertEquals(expected.stream().sorted().toList(), expired.stream().sorted().toList(), "à " + now);
+            expected.forEach(deadlines::remove);
+            assertEquals(deadlines.size(), wheel.size());
+        }
+    }
+
+    @Test
+    void deadlineBeyondTheWheelRangeIsRescheduledUntilDue() {
+        long deadline = at(RANGE + 1000) + 50;
+        wheel.schedule("far", deadline);
+
+        // Rangée à la limite de la roue, puis replanifiée sans expirer
+        assertEquals(List.of(), wheel.advance(at(RANGE)));
+        assertTrue(wheel.contains("far"));
+        assertEquals(List.of(), wheel.advance(deadline));
+        assertEquals(List.of("far"), wheel.advance(at(RANGE + 1001)));
+    }
+
+    @Test
+    void cancelBeforeACascadeDropsTheEntry() {
+        wheel.schedule("a", at(LEVEL_2 + 100));
+        wheel.advance(at(LEVEL_2 - 1));
+
+        assertTrue(wheel.cancel("a"));
+        assertFalse(wheel.cancel("a"));
+        assertEquals(List.of(), wheel.advance(at(2 * LEVEL_2)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void rescheduleAfterACascadeExpiresOnlyAtTheNewDeadline() {
+        wheel.schedule("a", at(LEVEL_2 + 100));
+        // La cascade du tick LEVEL_2 a redescendu l'entrée d'origine au niveau 0
+        wheel.advance(at(LEVEL_2 + 1));
+
+        wheel.schedule("a", at(LEVEL_2 + 50));
+        assertEquals(List.of("a"), wheel.advance(at(LEVEL_2 + 50)));
+        assertEquals(List.of(), wheel.advance(at(LEVEL_2 + 200)));
+    }
+
+    @Test
+    void rescheduleBeforeACascadeIgnoresTheStaleEntry() {
+        wheel.schedule("a", at(LEVEL_2 + 100));
+        wheel.advance(at(LEVEL_2 - 1));
+
+        // L'entrée d'origine sera encore redescendue par la cascade, puis ignorée
+        wheel.schedule("a", at(3 * LEVEL_2));
+        assertEquals(List.of(), wheel.advance(at(3 * LEVEL_2) - 1));
+        assertTrue(wheel.contains("a"));
+        assertEquals(List.of("a"), wheel.advance(at(3 * LEVEL_2)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelIsReportedOnlyForActiveDeadlines() {
+        wheel.schedule("a", at(5));
+        wheel.advance(at(5));
+
+        assertFalse(wheel.cancel("a"));
+        assertFalse(wheel.cancel("unknown"));
+    }
+}
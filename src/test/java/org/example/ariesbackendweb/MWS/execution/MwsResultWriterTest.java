@@ -0,0 +1,92 @@
+package org.example.ariesbackendweb.MWS.execution;
+
+import org.example.ariesbackendweb.MWS.entities.MwsTestResult;
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.PooledOptimizer;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MwsResultWriterTest {
+
+    private static final int BLOCK = MwsTestResult.ID_ALLOCATION_SIZE;
+
+    /**
+     * Ligne du générateur par table : chaque accès renvoie la valeur stockée
+     * et l'augmente de la taille du bloc, comme le TableGenerator d'Hibernate.
+     */
+    private static class GeneratorRow implements AccessCallback {
+        private long nextVal;
+
+        private GeneratorRow(long nextVal) {
+            this.nextVal = nextVal;
+        }
+
+        @Override
+        public IntegralDataTypeHolder getNextValue() {
+            IntegralDataTypeHolder value = IdentifierGeneratorHelper.getIntegralDataTypeHolder(Long.class);
+            value.initialize(nextVal);
+            nextVal += BLOCK;
+            return value;
+        }
+
+        @Override
+        public String getTenantIdentifier() {
+            return null;
+        }
+    }
+
+    private static long[] generate(long seed, int count) {
+        PooledOptimizer optimizer = new PooledOptimizer(Long.class, BLOCK);
+        // initialValue de @TableGenerator (0 par défaut) + 1, comme le fait Hibernate
+        optimizer.injectInitialValue(1);
+        GeneratorRow row = new GeneratorRow(seed);
+
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = (Long) optimizer.generate(row);
+        }
+        return ids;
+    }
+
+    @Test
+    void firstIdsFollowExistingRows() {
+        long maxId = 12_345;
+
+        long[] ids = generate(MwsResultWriter.idGeneratorSeed(maxId), 3 * BLOCK);
+
+        // Identifiants consécutifs, sur plusieurs blocs, sans chevauchement avec l'existant
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(maxId + 1 + i, ids[i]);
+        }
+    }
+
+    @Test
+    void firstIdsOfAnEmptyTableStartAtOne() {
+        long[] ids = generate(MwsResultWriter.idGeneratorSeed(0), BLOCK + 1);
+
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(1 + i, ids[i]);
+        }
+    }
+
+    @Test
+    void failedAlignmentStopsTheStartup() {
+        MwsResultWriter writer = new MwsResultWriter();
+        ReflectionTestUtils.setField(writer, "properties", new MwsExecutionProperties());
+        ReflectionTestUtils.setField(writer, "jdbcTemplate", new JdbcTemplate() {
+            @Override
+            public <T> T queryForObject(String sql, Class<T> requiredType) {
+                throw new DataAccessResourceFailureException("Connexion refusée");
+            }
+        });
+
+        assertThrows(IllegalStateException.class, writer::start);
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.ariesbackendweb.MWS.execution;
+
+import org.example.ariesbackendweb.MWS.dtos.MwsTestStatusSnapshot;
+import org.example.ariesbackendweb.MWS.entities.MwsTestStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MwsTestStatusCacheTest {
+
+    private final MwsExecutionProperties properties = new MwsExecutionProperties();
+    private final MwsTestStatusCache cache = new MwsTestStatusCache();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cache, "properties", properties);
+    }
+
+    private static MwsTestStatusSnapshot snapshot(UUID testId, MwsTestStatus status) {
+        return new MwsTestStatusSnapshot(testId, "OIS100MI", "AddBatchHead", "TST", status,
+                LocalDateTime.now(), status == MwsTestStatus.SUCCESS ? LocalDateTime.now() : null);
+    }
+
+    @Test
+    void memoryModeKeepsActiveStatusesUntilTheirNextTransition() {
+        properties.setStatusCacheActiveTtlMillis(0);
+        UUID testId = UUID.randomUUID();
+        cache.putIfAbsent(snapshot(testId, MwsTestStatus.RUNNING));
+
+        cache.evictExpired();
+
+        assertEquals(MwsTestStatus.RUNNING, cache.get(testId).orElseThrow().status());
+    }
+
+    @Test
+    void databaseModeRereadsActiveStatusesAfterTheirTtl() {
+        properties.setQueueMode(MwsExecutionProperties.QueueMode.DATABASE);
+        properties.setStatusCacheActiveTtlMillis(0);
+        UUID testId = UUID.randomUUID();
+        cache.putIfAbsent(snapshot(testId, MwsTestStatus.QUEUED));
+
+        // Transition exécutée sur une autre instance : seule la base la connaît
+        assertTrue(cache.get(testId).isEmpty());
+        assertEquals(MwsTestStatus.SUCCESS, cache.putIfAbsent(snapshot(testId, MwsTestStatus.SUCCESS)).status());
+        assertEquals(MwsTestStatus.SUCCESS, cache.get(testId).orElseThrow().status());
+    }
+
+    @Test
+    void databaseModeServesFreshActiveStatusesFromTheCache() {
+        properties.setQueueMode(MwsExecutionProperties.QueueMode.DATABASE);
+        properties.setStatusCacheActiveTtlMillis(60_000);
+        UUID testId = UUID.randomUUID();
+        cache.put(snapshot(testId, MwsTestStatus.RUNNING));
+
+        assertEquals(MwsTestStatus.RUNNING, cache.get(testId).orElseThrow().status());
+    }
+
+    @Test
+    void evictionDropsStaleActiveStatusesInDatabaseMode() {
+        properties.setQueueMode(MwsExecutionProperties.QueueMode.DATABASE);
+        properties.setStatusCacheActiveTtlMillis(0);
+        cache.put(snapshot(UUID.randomUUID(), MwsTestStatus.RUNNING));
+        UUID done = UUID.randomUUID();
+        cache.put(snapshot(done, MwsTestStatus.SUCCESS));
+
+        cache.evictExpired();
+
+        assertEquals(1, cache.size());
+        assertFalse(cache.get(done).isEmpty());
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.ariesbackendweb.MWS.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestTemplateTest {
+
+    @Test
+    void rendersLiteralsAndVariablesInOrder() {
+        RequestTemplate template = RequestTemplate.compile("<a>${ORNO}</a><b>${CUNO}-${ORNO}</b>");
+
+        assertEquals("<a>100</a><b>C1-100</b>", template.render(Map.of("ORNO", "100", "CUNO", "C1")::get));
+    }
+
+    @Test
+    void templateWithoutVariablesIsRenderedAsIs() {
+        assertEquals("<a>$ {x} ${1x}</a>", RequestTemplate.compile("<a>$ {x} ${1x}</a>").render(name -> "?"));
+        assertEquals("", RequestTemplate.compile("").render(name -> "?"));
+    }
+
+    @Test
+    void valuesAreEscapedForXml() {
+        String body = RequestTemplate.compile("<a v=\"${V}\">${V}</a>").render(name -> "<&>\"'");
+
+        assertEquals("<a v=\"&lt;&amp;&gt;&quot;&apos;\">&lt;&amp;&gt;&quot;&apos;</a>", body);
+    }
+
+    @Test
+    void valueLookingLikeAVariableIsNotExpanded() {
+        assertEquals("<a>${B}</a>", RequestTemplate.compile("<a>${A}</a>").render(Map.of("A", "${B}", "B", "x")::get));
+    }
+
+    @Test
+    void missingValueIsRejected() {
+        RequestTemplate template = RequestTemplate.compile("<a>${ORNO}</a>");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> template.render(Map.<String, String>of()::get));
+        assertTrue(e.getMessage().contains("ORNO"), e.getMessage());
+    }
+
+    @Test
+    void variablesAreListedOnceInOrderOfAppearance() {
+        Set<String> variables = RequestTemplate.variablesOf("${B}${A_1}<x>${B}</x>${_c}");
+
+        assertEquals(List.of("B", "A_1", "_c"), List.copyOf(variables));
+    }
+
+    @Test
+    void unfilledElementsAreBoundOrEmptied() {
+        String template = "<m:Req xmlns:m=\"urn:m\"><m:CUNO>?</m:CUNO><ORNO attr=\"1\"> ? </ORNO>"
+                + "<WHLO>?</WHLO><FACI>fixed</FACI><DATE>?</m:DATE></m:Req>";
+
+        String bound = RequestTemplate.bindUnfilledElements(template, Set.of("CUNO", "ORNO", "FACI"));
+
+        assertEquals("<m:Req xmlns:m=\"urn:m\"><m:CUNO>${CUNO}</m:CUNO><ORNO attr=\"1\">${ORNO}</ORNO>"
+                + "<WHLO></WHLO><FACI>fixed</FACI><DATE>?</m:DATE></m:Req>", bound);
+    }
+}
@@ -0,0 +1,150 @@
+package org.example.ariesbackendweb.MWS.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    /**
+     * Borne haute du bucket d'une valeur, lue via le premier percentile d'un
+     * histogramme qui contient aussi une valeur bien plus grande.
+     */
+    private static long bucketUpperBound(long value) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(value);
+        histogram.record(LatencyHistogram.MAX_VALUE);
+        return histogram.getValueAtPercentile(50);
+    }
+
+    @Test
+    void valuesBelow128AreExact() {
+        for (long value = 0; value < 128; value++) {
+            assertEquals(value, bucketUpperBound(value));
+        }
+    }
+
+    @Test
+    void bucketBoundsStayWithinTheRelativeError() {
+        Random random = new Random(7);
+        long[] values = new long[2000];
+        for (int i = 0; i < 62; i += 2) {
+            values[i] = (1L << (i / 2)) - 1;
+            values[i + 1] = 1L << (i / 2);
+        }
+        for (int i = 62; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * Math.log(LatencyHistogram.MAX_VALUE - 1));
+        }
+
+        for (long value : values) {
+            long upper = bucketUpperBound(value);
+            assertTrue(upper >= value, value + " -> " + upper);
+            assertTrue(upper - value <= value / 64, value + " -> " + upper);
+            // La borne haute d'un bucket appartient au même bucket
+            assertEquals(upper, bucketUpperBound(upper), "borne de " + value);
+        }
+    }
+
+    @Test
+    void percentilesOfAUniformDistribution() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(10_000, histogram.getTotalCount());
+        assertEquals(1, histogram.getMin());
+        assertEquals(10_000, histogram.getMax());
+        assertEquals(5000.5, histogram.getMean(), 1e-9);
+        assertEquals(1, histogram.getValueAtPercentile(0));
+        assertEquals(5000, histogram.getValueAtPercentile(50), 5000 / 64.0);
+        assertEquals(9900, histogram.getValueAtPercentile(99), 9900 / 64.0);
+        assertEquals(10_000, histogram.getValueAtPercentile(100));
+        assertEquals(10_000, histogram.getValueAtPercentile(150));
+    }
+
+    @Test
+    void outOfRangeValuesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(0, histogram.getMin());
+        assertEquals(LatencyHistogram.MAX_VALUE, histogram.getMax());
+        assertEquals(LatencyHistogram.MAX_VALUE, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void emptyHistogramReportsZeros() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getMin());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0.0, histogram.getMean(), 0.0);
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    @Test
+    void mergeMatchesRecordingEverythingInOneHistogram() {
+        Random random = new Random(11);
+        LatencyHistogram all = new LatencyHistogram();
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        for (int i = 0; i < 5000; i++) {
+            long value = random.nextInt(60_000);
+            all.record(value);
+            (i % 3 == 0 ? first : second).record(value);
+        }
+
+        first.merge(second);
+
+        assertArrayEquals(all.toByteArray(), first.toByteArray());
+    }
+
+    @Test
+    void serializationRoundTripKeepsCountsAndStatistics() {
+        Random random = new Random(3);
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 10_000; i++) {
+            histogram.record((long) Math.exp(random.nextDouble() * 15));
+        }
+
+        byte[] bytes = histogram.toByteArray();
+        LatencyHistogram copy = LatencyHistogram.fromByteArray(bytes);
+
+        assertArrayEquals(bytes, copy.toByteArray());
+        assertEquals(histogram.getTotalCount(), copy.getTotalCount());
+        assertEquals(histogram.getSum(), copy.getSum());
+        assertEquals(histogram.getMin(), copy.getMin());
+        assertEquals(histogram.getMax(), copy.getMax());
+        for (double percentile : new double[]{0, 50, 90, 99, 99.9, 100}) {
+            assertEquals(histogram.getValueAtPercentile(percentile), copy.getValueAtPercentile(percentile));
+        }
+    }
+
+    @Test
+    void emptyHistogramRoundTripKeepsTheMinimumUnset() {
+        LatencyHistogram copy = LatencyHistogram.fromByteArray(new LatencyHistogram().toByteArray());
+        copy.record(42);
+
+        assertEquals(42, copy.getMin());
+        assertEquals(0, LatencyHistogram.fromByteArray(null).getTotalCount());
+        assertEquals(0, LatencyHistogram.fromByteArray(new byte[0]).getTotalCount());
+    }
+
+    @Test
+    void truncatedDataIsRejected() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(10);
+        byte[] bytes = histogram.toByteArray();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> LatencyHistogram.fromByteArray(Arrays.copyOf(bytes, bytes.length - 3)));
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.ariesbackendweb.common.api;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AgentCircuitBreakerTest {
+
+    private static final String AGENT = "http://agent:8080";
+
+    // Période d'ouverture qui n'expire pas pendant le test
+    private static final long LONG_OPEN = 3_600_000;
+
+    private static AgentCircuitBreaker opened(long openDurationMillis) {
+        AgentCircuitBreaker breaker = new AgentCircuitBreaker(AGENT, 1, openDurationMillis);
+        breaker.tryAcquirePermission();
+        breaker.onFailure();
+        return breaker;
+    }
+
+    @Test
+    void opensAfterThresholdConsecutiveFailures() {
+        AgentCircuitBreaker breaker = new AgentCircuitBreaker(AGENT, 3, LONG_OPEN);
+
+        for (int i = 0; i < 2; i++) {
+            assertTrue(breaker.tryAcquirePermission());
+            breaker.onFailure();
+            assertEquals(AgentCircuitBreaker.State.CLOSED, breaker.getState());
+            assertEquals(0, breaker.getRemainingOpenMillis());
+        }
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onFailure();
+
+        assertEquals(AgentCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.isCallPermitted());
+        assertFalse(breaker.tryAcquirePermission());
+        long remaining = breaker.getRemainingOpenMillis();
+        assertTrue(remaining > LONG_OPEN - 60_000 && remaining <= LONG_OPEN, "restant " + remaining);
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        AgentCircuitBreaker breaker = new AgentCircuitBreaker(AGENT, 2, LONG_OPEN);
+
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+
+        assertEquals(AgentCircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.onFailure();
+        assertEquals(AgentCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void ignoredCallsDoNotCountWhileClosed() {
+        AgentCircuitBreaker breaker = new AgentCircuitBreaker(AGENT, 2, LONG_OPEN);
+
+        breaker.onFailure();
+        breaker.onIgnored();
+        assertEquals(AgentCircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.onFailure();
+        assertEquals(AgentCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void elapsedOpenPeriodAllowsASingleProbe() {
+        AgentCircuitBreaker breaker = opened(0);
+
+        // isCallPermitted ne consomme pas l'appel de test
+        assertTrue(breaker.isCallPermitted());
+        assertEquals(AgentCircuitBreaker.State.OPEN, breaker.getState());
+
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(AgentCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.isCallPermitted());
+        assertFalse(breaker.tryAcquirePermission());
+        assertEquals(0, breaker.getRemainingOpenMillis());
+    }
+
+    @Test
+    void successfulProbeClosesTheBreaker() {
+        AgentCircuitBreaker breaker = opened(0);
+        breaker.tryAcquirePermission();
+
+        breaker.onSuccess();
+
+        assertEquals(AgentCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void failedProbeReopensForANewPeriodWhateverTheThreshold() {
+        AgentCircuitBreaker breaker = new AgentCircuitBreaker(AGENT, 5, 0);
+        for (int i = 0; i < 5; i++) {
+            breaker.onFailure();
+        }
+        breaker.tryAcquirePermission();
+        assertEquals(AgentCircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        breaker.onFailure();
+
+        assertEquals(AgentCircuitBreaker.State.OPEN, breaker.getState());
+        // Un seul échec après un succès ne rouvre plus : le compteur est remis à zéro
+        breaker.tryAcquirePermission();
+        breaker.onSuccess();
+        breaker.onFailure();
+        assertEquals(AgentCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void ignoredProbeClosesTheBreaker() {
+        AgentCircuitBreaker breaker = opened(0);
+        breaker.tryAcquirePermission();
+
+        // Erreur fonctionnelle : l'agent a répondu, il est joignable
+        breaker.onIgnored();
+
+        assertEquals(AgentCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void ignoredCallWhileOpenKeepsTheBreakerOpen() {
+        AgentCircuitBreaker breaker = opened(LONG_OPEN);
+
+        breaker.onIgnored();
+
+        assertEquals(AgentCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void breakerStaysOpenUntilThePeriodElapses() throws InterruptedException {
+        AgentCircuitBreaker breaker = opened(50);
+
+        assertFalse(breaker.tryAcquirePermission());
+        Thread.sleep(80);
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(AgentCircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.ariesbackendweb.common.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AgentNodeTest {
+
+    private static AgentNode agent(int port) {
+        String url = "http://127.0.0.1:" + port;
+        return new AgentNode(url, url + "/agent-websocket", new AgentCircuitBreaker(url, 5, 10000),
+                new AgentProperties.Http());
+    }
+
+    @Test
+    void hungAgentIsAbandonedAfterTheReadTimeout() throws IOException {
+        // Agent qui accepte la connexion mais ne répond jamais
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            List<Socket> accepted = new ArrayList<>();
+            Thread acceptor = Thread.ofVirtual().start(() -> {
+                try {
+                    while (true) {
+                        accepted.add(server.accept());
+                    }
+                } catch (IOException e) {
+                    // Serveur fermé
+                }
+            });
+
+            long start = System.nanoTime();
+            ResourceAccessException e = assertThrows(ResourceAccessException.class, () ->
+                    agent(server.getLocalPort()).getRestClient(300).post()
+                            .uri("/api/test/execute")
+                            .body("{}")
+                            .retrieve()
+                            .toBodilessEntity());
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            assertTrue(elapsedMillis < 5000, elapsedMillis + " ms");
+            // La requête a pu être reçue : elle ne doit pas être considérée comme non transmise
+            assertFalse(AgentService.isConnectFailure(e), e.toString());
+            acceptor.interrupt();
+        }
+    }
+
+    @Test
+    void refusedConnectionIsAConnectFailure() throws IOException {
+        int port;
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            port = server.getLocalPort();
+        }
+
+        ResourceAccessException e = assertThrows(ResourceAccessException.class, () ->
+                agent(port).getRestClient().post()
+                        .uri("/api/test/execute")
+                        .body("{}")
+                        .retrieve()
+                        .toBodilessEntity());
+
+        assertTrue(AgentService.isConnectFailure(e), e.toString());
+    }
+
+    @Test
+    void clientsAreSharedPerReadTimeout() {
+        AgentNode agent = agent(8081);
+
+        assertSame(agent.getRestClient(5000), agent.getRestClient(5000));
+        assertNotSame(agent.getRestClient(5000), agent.getRestClient(65000));
+        assertSame(agent.getRestClient(new AgentProperties.Http().getReadTimeoutMillis()), agent.getRestClient());
+    }
+}
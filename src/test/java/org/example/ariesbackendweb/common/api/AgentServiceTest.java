@@ -0,0 +1,60 @@
+package org.example.ariesbackendweb.common.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpTimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AgentServiceTest {
+
+    private static ResourceAccessException networkError(IOException cause) {
+        return new ResourceAccessException("I/O error on POST request: " + cause.getMessage(), cause);
+    }
+
+    @Test
+    void failuresBeforeTheRequestLeftAreConnectFailures() {
+        assertTrue(AgentService.isConnectFailure(networkError(new ConnectException("Connection refused"))));
+        assertTrue(AgentService.isConnectFailure(networkError(new HttpConnectTimeoutException("connect timed out"))));
+        assertTrue(AgentService.isConnectFailure(networkError(new UnknownHostException("agent-1"))));
+        // Cause enveloppée par le client HTTP
+        assertTrue(AgentService.isConnectFailure(
+                networkError(new IOException("send failed", new ConnectException("Connection refused")))));
+    }
+
+    @Test
+    void failuresAfterTheRequestLeftAreNotConnectFailures() {
+        assertFalse(AgentService.isConnectFailure(networkError(new HttpTimeoutException("request timed out"))));
+        assertFalse(AgentService.isConnectFailure(networkError(new SocketTimeoutException("Read timed out"))));
+        assertFalse(AgentService.isConnectFailure(networkError(new SocketException("Connection reset"))));
+        assertFalse(AgentService.isConnectFailure(networkError(new IOException("HTTP/1.1 header parser received no bytes"))));
+    }
+
+    @Test
+    void onlyUndeliveredOrReadOnlyCallsAreRetryable() {
+        AgentService.AgentCommunicationException undelivered =
+                new AgentService.AgentCommunicationException("refusé", null, true, true);
+        AgentService.AgentCommunicationException readTimeout =
+                new AgentService.AgentCommunicationException("timeout", null, true, false);
+        AgentService.AgentCommunicationException badGateway =
+                new AgentService.AgentCommunicationException("502", true);
+        AgentService.AgentCommunicationException functionalError =
+                new AgentService.AgentCommunicationException("400");
+
+        assertTrue(undelivered.isRetryable(false));
+        assertTrue(readTimeout.isRetryable(true));
+        assertFalse(readTimeout.isRetryable(false));
+        assertFalse(badGateway.isRetryable(false));
+        assertTrue(badGateway.isRetryable(true));
+        assertFalse(functionalError.isRetryable(true));
+        assertTrue(new AgentUnavailableException("disjoncteurs ouverts", 1000).isRetryable(false));
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.ariesbackendweb.common.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressedTextConverterTest {
+
+    private final CompressedTextConverter converter = new CompressedTextConverter();
+
+    private static String soapBody(int items) {
+        StringBuilder body = new StringBuilder("<Envelope><Body>");
+        for (int i = 0; i < items; i++) {
+            body.append("<Item><ITNO>A").append(i).append("</ITNO><ITDS>Désignation é€ ").append(i).append("</ITDS></Item>");
+        }
+        return body.append("</Body></Envelope>").toString();
+    }
+
+    private static String decodeStream(byte[] stored) throws IOException {
+        try (InputStream in = CompressedTextConverter.openDecompressedStream(new ByteArrayInputStream(stored))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void nullIsStoredAsNull() {
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+        assertNull(converter.convertToEntityAttribute(new byte[0]));
+    }
+
+    @Test
+    void shortTextIsStoredPlainAfterFormatByte() {
+        String text = "<ok>é</ok>";
+        byte[] stored = converter.convertToDatabaseColumn(text);
+
+        assertEquals(0, stored[0]);
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), Arrays.copyOfRange(stored, 1, stored.length));
+        assertEquals(text, converter.convertToEntityAttribute(stored));
+        assertEquals("", converter.convertToEntityAttribute(converter.convertToDatabaseColumn("")));
+    }
+
+    @Test
+    void longTextIsDeflatedAndRoundTrips() {
+        String text = soapBody(2000);
+        byte[] stored = converter.convertToDatabaseColumn(text);
+
+        assertEquals(1, stored[0]);
+        assertTrue(stored.length < text.length() / 4, "taille " + stored.length);
+        assertEquals(text, converter.convertToEntityAttribute(stored));
+    }
+
+    @Test
+    void incompressibleTextRoundTrips() {
+        Random random = new Random(5);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 50_000; i++) {
+            text.append((char) (0x20 + random.nextInt(0x2000)));
+        }
+
+        assertEquals(text.toString(), converter.convertToEntityAttribute(converter.convertToDatabaseColumn(text.toString())));
+    }
+
+    @Test
+    void streamDecodingMatchesTheConverter() throws IOException {
+        for (String text : new String[]{"", "court", soapBody(1), soapBody(5000)}) {
+            assertEquals(text, decodeStream(converter.convertToDatabaseColumn(text)));
+        }
+        assertEquals("", decodeStream(new byte[0]));
+    }
+
+    @Test
+    void unknownFormatIsRejected() {
+        byte[] stored = {2, 'a', 'b'};
+
+        assertThrows(IllegalStateException.class, () -> converter.convertToEntityAttribute(stored));
+        assertThrows(IOException.class, () -> decodeStream(stored));
+    }
+
+    @Test
+    void truncatedOrCorruptedDeflateIsRejected() {
+        byte[] stored = converter.convertToDatabaseColumn(soapBody(500));
+        byte[] truncated = Arrays.copyOf(stored, stored.length / 2);
+        byte[] corrupted = stored.clone();
+        corrupted[1] = (byte) 0xFF;
+
+        assertThrows(IllegalStateException.class, () -> converter.convertToEntityAttribute(truncated));
+        assertThrows(IllegalStateException.class, () -> converter.convertToEntityAttribute(corrupted));
+        assertThrows(IOException.class, () -> decodeStream(truncated));
+    }
+}